@@ -23,7 +23,6 @@ import org.aopalliance.aop.Advice;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
@@ -78,16 +77,6 @@ public abstract class AbstractBeanFactoryPointcutAdvisor extends AbstractPointcu
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
 		this.beanFactory = beanFactory;
-		resetAdviceMonitor();
-	}
-
-	private void resetAdviceMonitor() {
-		if (this.beanFactory instanceof ConfigurableBeanFactory cbf) {
-			this.adviceMonitor = cbf.getSingletonMutex();
-		}
-		else {
-			this.adviceMonitor = new Object();
-		}
 	}
 
 	/**
@@ -118,9 +107,9 @@ public abstract class AbstractBeanFactoryPointcutAdvisor extends AbstractPointcu
 			return advice;
 		}
 		else {
-			// No singleton guarantees from the factory -> let's lock locally but
-			// reuse the factory's singleton lock, just in case a lazy dependency
-			// of our advice bean happens to trigger the singleton lock implicitly...
+			// No singleton guarantees from the factory -> let's lock locally.
+			// Not reusing the factory's singleton mutex since it must not be held
+			// while obtaining a bean that may be in creation on another thread.
 			synchronized (this.adviceMonitor) {
 				advice = this.advice;
 				if (advice == null) {
@@ -155,7 +144,7 @@ public abstract class AbstractBeanFactoryPointcutAdvisor extends AbstractPointcu
 		ois.defaultReadObject();
 
 		// Initialize transient fields.
-		resetAdviceMonitor();
+		this.adviceMonitor = new Object();
 	}
 
 }
@@ -23,9 +23,11 @@ import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
 
 import org.springframework.beans.propertyeditors.CustomNumberEditor;
 import org.springframework.beans.propertyeditors.StringTrimmerEditor;
+import org.springframework.core.SpringProperties;
 
 /**
  * Benchmark for {@link AbstractPropertyAccessor} use on beans.
@@ -80,6 +82,46 @@ public class AbstractPropertyAccessorBenchmark {
 		return state.target;
 	}
 
+	@State(Scope.Benchmark)
+	public static class BeanPropertiesState {
+
+		/**
+		 * Whether to use reflective or compiled property accessors; only applied
+		 * if set before introspection, i.e. with a fork per benchmark run.
+		 */
+		@Param({"reflective", "compiled"})
+		public String accessors;
+
+		public SimpleBean target;
+
+		public BeanWrapperImpl beanWrapper;
+
+		@Setup
+		public void setup() {
+			if (this.accessors.equals("compiled")) {
+				SpringProperties.setFlag(CachedIntrospectionResults.COMPILE_ACCESSORS_PROPERTY_NAME);
+			}
+			this.target = new SimpleBean();
+			this.target.setNested(new SimpleBean());
+			this.beanWrapper = new BeanWrapperImpl(this.target);
+		}
+	}
+
+	@Benchmark
+	public SimpleBean setBeanProperties(BeanPropertiesState state) {
+		state.beanWrapper.setPropertyValue("name", "juergen");
+		state.beanWrapper.setPropertyValue("age", 42);
+		state.beanWrapper.setPropertyValue("nested.name", "kerry");
+		return state.target;
+	}
+
+	@Benchmark
+	public void getBeanProperties(BeanPropertiesState state, Blackhole blackhole) {
+		blackhole.consume(state.beanWrapper.getPropertyValue("name"));
+		blackhole.consume(state.beanWrapper.getPropertyValue("age"));
+		blackhole.consume(state.beanWrapper.getPropertyValue("nested.name"));
+	}
+
 	@SuppressWarnings("unused")
 	private static class PrimitiveArrayBean {
 
@@ -94,4 +136,37 @@ public class AbstractPropertyAccessorBenchmark {
 		}
 	}
 
+	public static class SimpleBean {
+
+		private String name;
+
+		private int age;
+
+		private SimpleBean nested;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public SimpleBean getNested() {
+			return this.nested;
+		}
+
+		public void setNested(SimpleBean nested) {
+			this.nested = nested;
+		}
+	}
+
 }
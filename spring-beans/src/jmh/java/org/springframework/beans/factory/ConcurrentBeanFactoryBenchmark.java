@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,23 +18,27 @@ package org.springframework.beans.factory;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.infra.Blackhole;
 
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.beans.propertyeditors.CustomDateEditor;
 
 import static org.springframework.core.testfixture.io.ResourceTestUtils.qualifiedResource;
 
 /**
- * Benchmark for creating prototype beans in a concurrent fashion.
+ * Benchmark for creating prototype beans and lazy singletons in a concurrent fashion.
  * This benchmark requires to customize the number of worker threads {@code -t <int>} on the
  * CLI when running this particular benchmark to leverage concurrency.
  *
@@ -67,6 +71,52 @@ public class ConcurrentBeanFactoryBenchmark {
 		bh.consume(state.factory.getBean("bean2"));
 	}
 
+	/**
+	 * Lazy singletons with a non-trivial creation cost, each created once by
+	 * whichever thread requests it first: unrelated singletons should not
+	 * contend on a shared lock while being created on different threads.
+	 */
+	@State(Scope.Benchmark)
+	public static class LazySingletonState {
+
+		@Param("100000")
+		public int beanCount;
+
+		@Param("500")
+		public int creationTokens;
+
+		public DefaultListableBeanFactory factory;
+
+		public final AtomicInteger counter = new AtomicInteger();
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.factory = new DefaultListableBeanFactory();
+			for (int i = 0; i < this.beanCount; i++) {
+				RootBeanDefinition bd = new RootBeanDefinition(SlowBean.class);
+				bd.setLazyInit(true);
+				bd.getConstructorArgumentValues().addGenericArgumentValue(this.creationTokens);
+				this.factory.registerBeanDefinition("lazy" + i, bd);
+			}
+			this.factory.freezeConfiguration();
+			this.counter.set(0);
+		}
+	}
+
+	@Benchmark
+	public Object concurrentLazySingletonCreation(LazySingletonState state) {
+		int index = Math.floorMod(state.counter.getAndIncrement(), state.beanCount);
+		return state.factory.getBean("lazy" + index);
+	}
+
+
+	public static class SlowBean {
+
+		public SlowBean(int creationTokens) {
+			Blackhole.consumeCPU(creationTokens);
+		}
+	}
+
 
 	public static class ConcurrentBean {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,20 @@
 
 package org.springframework.beans.factory;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.RuntimeBeanReference;
@@ -113,6 +120,36 @@ public class DefaultListableBeanFactoryBenchmark {
 		return state.beanFactory.getBean(TestBean.class);
 	}
 
+	@State(Scope.Benchmark)
+	public static class RepeatedSingletonLookupState extends Shared {
+
+		@Param({"name", "alias"})
+		public String lookup;
+
+		public String name;
+
+		@Setup
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			this.beanFactory.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+			this.beanFactory.registerAlias("test", "testAlias");
+			this.beanFactory.freezeConfiguration();
+			this.name = (this.lookup.equals("alias") ? "testAlias" : "test");
+			this.beanFactory.getBean(this.name);
+		}
+	}
+
+	/**
+	 * Retrieval of an already created singleton. Run with {@code -prof gc}
+	 * to report the allocation rate in B/op next to the time in ns/op.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public TestBean repeatedSingletonLookup(RepeatedSingletonLookupState state) {
+		return state.beanFactory.getBean(state.name, TestBean.class);
+	}
+
 	@State(Scope.Benchmark)
 	public static class SingletonLookupManyBeansState extends Shared {
 
@@ -133,6 +170,54 @@ public class DefaultListableBeanFactoryBenchmark {
 		return state.beanFactory.getBean(B.class);
 	}
 
+	@State(Scope.Benchmark)
+	public static class PreInstantiationState extends Shared {
+
+		@Param({"sequential", "parallel"})
+		public String mode;
+
+		@Param("5000")
+		public int beanCount;
+
+		private ExecutorService executor;
+
+		@Setup(Level.Trial)
+		public void setupExecutor() {
+			this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		}
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			if (this.mode.equals("parallel")) {
+				this.beanFactory.setPreInstantiationExecutor(this.executor);
+			}
+			// Synthetic graph: a binary tree of references plus plain property values
+			this.beanFactory.registerBeanDefinition("bean0", new RootBeanDefinition(TestBean.class));
+			for (int i = 1; i < this.beanCount; i++) {
+				RootBeanDefinition rbd = new RootBeanDefinition(TestBean.class);
+				rbd.getPropertyValues().add("name", "bean" + i);
+				rbd.getPropertyValues().add("age", i);
+				rbd.getPropertyValues().add("spouse", new RuntimeBeanReference("bean" + (i / 2)));
+				this.beanFactory.registerBeanDefinition("bean" + i, rbd);
+			}
+			this.beanFactory.freezeConfiguration();
+		}
+
+		@TearDown(Level.Trial)
+		public void shutdownExecutor() {
+			this.executor.shutdownNow();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public DefaultListableBeanFactory preInstantiateSingletons(PreInstantiationState state) {
+		state.beanFactory.preInstantiateSingletons();
+		return state.beanFactory;
+	}
+
 	static class A {
 	}
 
@@ -17,6 +17,7 @@
 package org.springframework.beans;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import org.springframework.core.ResolvableType;
@@ -183,11 +184,16 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 			throw new InvalidPropertyException(getRootClass(), getNestedPath() + propertyName,
 					"No property '" + propertyName + "' found");
 		}
+		return convertForProperty(propertyName, null, value, typeDescriptor(pd));
+	}
+
+	private TypeDescriptor typeDescriptor(PropertyDescriptor pd) {
+		CachedIntrospectionResults cachedIntrospectionResults = getCachedIntrospectionResults();
 		TypeDescriptor td = cachedIntrospectionResults.getTypeDescriptor(pd);
 		if (td == null) {
 			td = cachedIntrospectionResults.addTypeDescriptor(pd, new TypeDescriptor(property(pd)));
 		}
-		return convertForProperty(propertyName, null, value, td);
+		return td;
 	}
 
 	private Property property(PropertyDescriptor pd) {
@@ -248,7 +254,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 
 		@Override
 		public TypeDescriptor toTypeDescriptor() {
-			return new TypeDescriptor(property(this.pd));
+			return typeDescriptor(this.pd);
 		}
 
 		@Override
@@ -260,6 +266,15 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		@Override
 		@Nullable
 		public Object getValue() throws Exception {
+			CompiledPropertyAccessor accessor = getCachedIntrospectionResults().getCompiledAccessor(this.pd);
+			if (accessor != null && accessor.isReadable()) {
+				try {
+					return accessor.getValue(getWrappedInstance());
+				}
+				catch (Throwable ex) {
+					throw new InvocationTargetException(ex);
+				}
+			}
 			Method readMethod = this.pd.getReadMethod();
 			ReflectionUtils.makeAccessible(readMethod);
 			return readMethod.invoke(getWrappedInstance(), (Object[]) null);
@@ -267,6 +282,16 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 
 		@Override
 		public void setValue(@Nullable Object value) throws Exception {
+			CompiledPropertyAccessor accessor = getCachedIntrospectionResults().getCompiledAccessor(this.pd);
+			if (accessor != null && accessor.isWritable(value)) {
+				try {
+					accessor.setValue(getWrappedInstance(), value);
+					return;
+				}
+				catch (Throwable ex) {
+					throw new InvocationTargetException(ex);
+				}
+			}
 			Method writeMethod = (this.pd instanceof GenericTypeAwarePropertyDescriptor typeAwarePd ?
 					typeAwarePd.getWriteMethodForActualAccess() : this.pd.getWriteMethod());
 			ReflectionUtils.makeAccessible(writeMethod);
@@ -35,6 +35,7 @@ import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.core.SpringProperties;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.io.support.SpringFactoriesLoader;
 import org.springframework.lang.Nullable;
@@ -77,6 +78,21 @@ import org.springframework.util.StringUtils;
  */
 public final class CachedIntrospectionResults {
 
+	/**
+	 * System property that instructs Spring to compile bean property accessors,
+	 * i.e. to generate bytecode that invokes the read and write methods of
+	 * properties directly instead of through reflection: {@code "spring.beans.compile-accessors"}.
+	 * <p>The default is "false". Consider switching this flag to "true" for
+	 * intensive data binding against the same bean classes, e.g. for web request
+	 * binding or JDBC row mapping. Only public methods on public types are compiled.
+	 * @since 6.1
+	 * @see CompiledPropertyAccessor
+	 */
+	public static final String COMPILE_ACCESSORS_PROPERTY_NAME = "spring.beans.compile-accessors";
+
+	private static final boolean shouldCompileAccessors =
+			SpringProperties.getFlag(COMPILE_ACCESSORS_PROPERTY_NAME);
+
 	private static final List<BeanInfoFactory> beanInfoFactories = SpringFactoriesLoader.loadFactories(
 			BeanInfoFactory.class, CachedIntrospectionResults.class.getClassLoader());
 
@@ -238,6 +254,10 @@ public final class CachedIntrospectionResults {
 	/** TypeDescriptor objects keyed by PropertyDescriptor. */
 	private final ConcurrentMap<PropertyDescriptor, TypeDescriptor> typeDescriptorCache;
 
+	/** Compiled accessors keyed by (identical) PropertyDescriptor, lazily initialized. */
+	@Nullable
+	private volatile Map<PropertyDescriptor, CompiledPropertyAccessor> compiledAccessors;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -420,4 +440,40 @@ public final class CachedIntrospectionResults {
 		return this.typeDescriptorCache.get(pd);
 	}
 
+	/**
+	 * Return the compiled accessor for the given property, compiling the
+	 * accessors for all properties of the bean class on first access.
+	 * @param pd a property descriptor obtained from this instance
+	 * @return the compiled accessor, or {@code null} if accessor compilation is
+	 * not enabled or not possible for the given property
+	 * @since 6.1
+	 * @see #COMPILE_ACCESSORS_PROPERTY_NAME
+	 */
+	@Nullable
+	CompiledPropertyAccessor getCompiledAccessor(PropertyDescriptor pd) {
+		if (!shouldCompileAccessors) {
+			return null;
+		}
+		return getCompiledAccessors().get(pd);
+	}
+
+	/**
+	 * Return the compiled accessors for all compilable properties, compiling
+	 * them on first access (independent of the compilation flag).
+	 * @since 6.1
+	 */
+	Map<PropertyDescriptor, CompiledPropertyAccessor> getCompiledAccessors() {
+		Map<PropertyDescriptor, CompiledPropertyAccessor> accessors = this.compiledAccessors;
+		if (accessors == null) {
+			synchronized (this) {
+				accessors = this.compiledAccessors;
+				if (accessors == null) {
+					accessors = PropertyAccessorCompiler.compile(getBeanClass(), this.propertyDescriptors.values());
+					this.compiledAccessors = accessors;
+				}
+			}
+		}
+		return accessors;
+	}
+
 }
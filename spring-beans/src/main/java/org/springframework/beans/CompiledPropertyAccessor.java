@@ -0,0 +1,89 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Base superclass for compiled bean property accessors. Each generated accessor
+ * class covers the properties of one bean class and implements {@link #getValue}
+ * and {@link #setValue} through direct invocations of the read and write methods,
+ * with one instance per property. It is not intended to be subclassed by user code.
+ *
+ * @since 6.1
+ * @see CachedIntrospectionResults#COMPILE_ACCESSORS_PROPERTY_NAME
+ */
+public abstract class CompiledPropertyAccessor {
+
+	/** The index of the property within the generated accessor class. */
+	protected final int index;
+
+	private final boolean readable;
+
+	@Nullable
+	private final Class<?> writeType;
+
+
+	/**
+	 * Create a new accessor for the property at the given index.
+	 * @param index the index of the property within the generated accessor class
+	 * @param readable whether {@link #getValue} is supported for the property
+	 * @param writeType the parameter type of the write method, or {@code null}
+	 * if {@link #setValue} is not supported for the property
+	 */
+	protected CompiledPropertyAccessor(int index, boolean readable, @Nullable Class<?> writeType) {
+		this.index = index;
+		this.readable = readable;
+		this.writeType = writeType;
+	}
+
+
+	/**
+	 * Return whether the property value can be read through this accessor.
+	 */
+	public boolean isReadable() {
+		return this.readable;
+	}
+
+	/**
+	 * Return whether the given value can be written through this accessor,
+	 * i.e. whether it matches the parameter type of the write method exactly
+	 * (that is, without widening or {@code null} for a primitive type).
+	 * @param value the value to write
+	 */
+	public boolean isWritable(@Nullable Object value) {
+		Class<?> type = this.writeType;
+		return (type != null && (value != null ? ClassUtils.isAssignableValue(type, value) : !type.isPrimitive()));
+	}
+
+	/**
+	 * Read the property value from the given target.
+	 * @param target the target bean instance
+	 * @return the property value (boxed in case of a primitive type)
+	 */
+	@Nullable
+	public abstract Object getValue(Object target);
+
+	/**
+	 * Write the property value to the given target.
+	 * @param target the target bean instance
+	 * @param value the value to write, {@link #isWritable(Object) writable} as-is
+	 */
+	public abstract void setValue(Object target, @Nullable Object value);
+
+}
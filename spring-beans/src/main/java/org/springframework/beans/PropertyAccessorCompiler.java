@@ -0,0 +1,340 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Generates {@link CompiledPropertyAccessor} classes for bean classes, invoking
+ * the read and write methods of their properties directly instead of through
+ * reflection. Only public methods on public, exported types are compiled;
+ * all other properties are left to reflective access.
+ *
+ * <p>Generated classes are defined in a child of the bean's ClassLoader,
+ * analogous to compiled SpEL expressions.
+ *
+ * @since 6.1
+ * @see CachedIntrospectionResults#getCompiledAccessor
+ */
+final class PropertyAccessorCompiler implements Opcodes {
+
+	private static final String ACCESSOR_CLASS_NAME = Type.getInternalName(CompiledPropertyAccessor.class);
+
+	private static final String CONSTRUCTOR_DESCRIPTOR = "(IZLjava/lang/Class;)V";
+
+	private static final Log logger = LogFactory.getLog(PropertyAccessorCompiler.class);
+
+	/** Child ClassLoaders for generated accessor classes, keyed by bean ClassLoader. */
+	private static final Map<ClassLoader, ChildClassLoader> classLoaders = new ConcurrentReferenceHashMap<>();
+
+	private static final AtomicInteger suffixId = new AtomicInteger();
+
+
+	private PropertyAccessorCompiler() {
+	}
+
+
+	/**
+	 * Compile accessors for the given properties of the given bean class.
+	 * @param beanClass the bean class
+	 * @param pds the property descriptors of the bean class
+	 * @return the compiled accessors keyed by (identical) property descriptor,
+	 * possibly empty if none of the properties can be compiled
+	 */
+	static Map<PropertyDescriptor, CompiledPropertyAccessor> compile(
+			Class<?> beanClass, Collection<PropertyDescriptor> pds) {
+
+		ClassLoader classLoader = determineClassLoader(beanClass);
+		if (classLoader == null) {
+			return Collections.emptyMap();
+		}
+		List<PropertyDescriptor> compilablePds = new ArrayList<>(pds.size());
+		List<Method> readMethods = new ArrayList<>(pds.size());
+		List<Method> writeMethods = new ArrayList<>(pds.size());
+		for (PropertyDescriptor pd : pds) {
+			Method readMethod = pd.getReadMethod();
+			Method writeMethod = (pd.getWriteMethod() == null ? null :
+					pd instanceof GenericTypeAwarePropertyDescriptor typeAwarePd ?
+							typeAwarePd.getWriteMethodForActualAccess() : pd.getWriteMethod());
+			readMethod = (isCompilable(readMethod, classLoader) ? readMethod : null);
+			writeMethod = (isCompilable(writeMethod, classLoader) ? writeMethod : null);
+			if (readMethod != null || writeMethod != null) {
+				compilablePds.add(pd);
+				readMethods.add(readMethod);
+				writeMethods.add(writeMethod);
+			}
+		}
+		if (compilablePds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		ChildClassLoader childClassLoader = classLoaders.computeIfAbsent(classLoader, ChildClassLoader::new);
+		String className = "org/springframework/beans/generated/PropertyAccessor" + suffixId.incrementAndGet();
+		try {
+			byte[] bytes = generateAccessorClass(className, childClassLoader, readMethods, writeMethods);
+			Class<?> accessorClass = childClassLoader.defineClass(className.replace('/', '.'), bytes);
+			Constructor<?> ctor = accessorClass.getConstructor(int.class, boolean.class, Class.class);
+			Map<PropertyDescriptor, CompiledPropertyAccessor> accessors = new IdentityHashMap<>(compilablePds.size());
+			for (int i = 0; i < compilablePds.size(); i++) {
+				Method writeMethod = writeMethods.get(i);
+				accessors.put(compilablePds.get(i), (CompiledPropertyAccessor) ctor.newInstance(
+						i, readMethods.get(i) != null, (writeMethod != null ? writeMethod.getParameterTypes()[0] : null)));
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Compiled accessors for " + accessors.size() + " properties of class [" +
+						beanClass.getName() + "]");
+			}
+			return accessors;
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to compile property accessors for class [" + beanClass.getName() + "]", ex);
+			}
+			return Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * Determine the ClassLoader to define the accessor class for the given bean
+	 * class with: the bean's ClassLoader if it sees {@link CompiledPropertyAccessor},
+	 * otherwise Spring's ClassLoader if it sees the bean class.
+	 */
+	@Nullable
+	private static ClassLoader determineClassLoader(Class<?> beanClass) {
+		ClassLoader beanClassLoader = beanClass.getClassLoader();
+		if (beanClassLoader != null && ClassUtils.isVisible(CompiledPropertyAccessor.class, beanClassLoader)) {
+			return beanClassLoader;
+		}
+		ClassLoader springClassLoader = CompiledPropertyAccessor.class.getClassLoader();
+		if (springClassLoader != null && ClassUtils.isVisible(beanClass, springClassLoader)) {
+			return springClassLoader;
+		}
+		return null;
+	}
+
+	private static boolean isCompilable(@Nullable Method method, ClassLoader classLoader) {
+		if (method == null || !Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+			return false;
+		}
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (!Modifier.isPublic(declaringClass.getModifiers()) ||
+				!declaringClass.getModule().isExported(declaringClass.getPackageName()) ||
+				!ClassUtils.isVisible(declaringClass, classLoader)) {
+			return false;
+		}
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isAccessibleType(parameterType, classLoader)) {
+				return false;
+			}
+		}
+		return isAccessibleType(method.getReturnType(), classLoader);
+	}
+
+	private static boolean isAccessibleType(Class<?> type, ClassLoader classLoader) {
+		Class<?> componentType = type;
+		while (componentType.isArray()) {
+			componentType = componentType.getComponentType();
+		}
+		return (componentType.isPrimitive() || (Modifier.isPublic(componentType.getModifiers()) &&
+				componentType.getModule().isExported(componentType.getPackageName()) &&
+				ClassUtils.isVisible(componentType, classLoader)));
+	}
+
+	private static byte[] generateAccessorClass(String className, ClassLoader classLoader,
+			List<Method> readMethods, List<Method> writeMethods) {
+
+		ClassWriter cw = new AccessorClassWriter(classLoader);
+		cw.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, ACCESSOR_CLASS_NAME, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKESPECIAL, ACCESSOR_CLASS_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// Object getValue(Object target)
+		mv = cw.visitMethod(ACC_PUBLIC, "getValue", "(Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		Label[] labels = visitIndexSwitch(mv, readMethods.size());
+		for (int i = 0; i < readMethods.size(); i++) {
+			mv.visitLabel(labels[i]);
+			Method readMethod = readMethods.get(i);
+			if (readMethod != null) {
+				mv.visitVarInsn(ALOAD, 1);
+				visitInvocation(mv, readMethod);
+				Class<?> returnType = readMethod.getReturnType();
+				if (returnType.isPrimitive()) {
+					Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(returnType);
+					mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(wrapperType), "valueOf",
+							Type.getMethodDescriptor(Type.getType(wrapperType), Type.getType(returnType)), false);
+				}
+				mv.visitInsn(ARETURN);
+			}
+			else {
+				visitUnsupported(mv);
+			}
+		}
+		mv.visitLabel(labels[labels.length - 1]);
+		visitUnsupported(mv);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// void setValue(Object target, Object value)
+		mv = cw.visitMethod(ACC_PUBLIC, "setValue", "(Ljava/lang/Object;Ljava/lang/Object;)V", null, null);
+		mv.visitCode();
+		labels = visitIndexSwitch(mv, writeMethods.size());
+		for (int i = 0; i < writeMethods.size(); i++) {
+			mv.visitLabel(labels[i]);
+			Method writeMethod = writeMethods.get(i);
+			if (writeMethod != null) {
+				Class<?> parameterType = writeMethod.getParameterTypes()[0];
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(writeMethod.getDeclaringClass()));
+				mv.visitVarInsn(ALOAD, 2);
+				if (parameterType.isPrimitive()) {
+					String wrapperName = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(parameterType));
+					mv.visitTypeInsn(CHECKCAST, wrapperName);
+					mv.visitMethodInsn(INVOKEVIRTUAL, wrapperName, parameterType.getName() + "Value",
+							Type.getMethodDescriptor(Type.getType(parameterType)), false);
+				}
+				else if (parameterType != Object.class) {
+					mv.visitTypeInsn(CHECKCAST, Type.getInternalName(parameterType));
+				}
+				visitMethodInsn(mv, writeMethod);
+				Class<?> returnType = writeMethod.getReturnType();
+				if (returnType != void.class) {
+					mv.visitInsn(returnType == long.class || returnType == double.class ? POP2 : POP);
+				}
+				mv.visitInsn(RETURN);
+			}
+			else {
+				visitUnsupported(mv);
+			}
+		}
+		mv.visitLabel(labels[labels.length - 1]);
+		visitUnsupported(mv);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Switch on the property index, returning one label per property
+	 * plus a trailing label for the default case.
+	 */
+	private static Label[] visitIndexSwitch(MethodVisitor mv, int count) {
+		Label[] labels = new Label[count + 1];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = new Label();
+		}
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, ACCESSOR_CLASS_NAME, "index", "I");
+		Label[] cases = new Label[count];
+		System.arraycopy(labels, 0, cases, 0, count);
+		mv.visitTableSwitchInsn(0, count - 1, labels[count], cases);
+		return labels;
+	}
+
+	private static void visitInvocation(MethodVisitor mv, Method method) {
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(method.getDeclaringClass()));
+		visitMethodInsn(mv, method);
+	}
+
+	private static void visitMethodInsn(MethodVisitor mv, Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		mv.visitMethodInsn(declaringClass.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL,
+				Type.getInternalName(declaringClass), method.getName(), Type.getMethodDescriptor(method),
+				declaringClass.isInterface());
+	}
+
+	private static void visitUnsupported(MethodVisitor mv) {
+		String exceptionName = Type.getInternalName(IllegalStateException.class);
+		mv.visitTypeInsn(NEW, exceptionName);
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("Operation not supported by compiled accessor");
+		mv.visitMethodInsn(INVOKESPECIAL, exceptionName, "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+	}
+
+
+	/**
+	 * Child ClassLoader for the generated accessor classes.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		ChildClassLoader(ClassLoader parent) {
+			super(NO_URLS, parent);
+		}
+
+		Class<?> defineClass(String name, byte[] bytes) {
+			return super.defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+
+	/**
+	 * ASM ClassWriter resolving common superclasses against the target ClassLoader.
+	 */
+	private static class AccessorClassWriter extends ClassWriter {
+
+		private final ClassLoader classLoader;
+
+		AccessorClassWriter(ClassLoader classLoader) {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		protected ClassLoader getClassLoader() {
+			return this.classLoader;
+		}
+	}
+
+}
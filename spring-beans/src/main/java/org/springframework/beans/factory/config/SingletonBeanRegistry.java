@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -129,7 +129,11 @@ public interface SingletonBeanRegistry {
 	 * Return the singleton mutex used by this registry (for external collaborators).
 	 * @return the mutex object (never {@code null})
 	 * @since 4.2
+	 * @deprecated as of 6.1, since the singleton mutex does not guard the creation
+	 * of singletons anymore, and must not be held while obtaining a bean from the
+	 * factory; rely on the singleton semantics of the factory or use a local lock
 	 */
+	@Deprecated(since = "6.1")
 	Object getSingletonMutex();
 
 }
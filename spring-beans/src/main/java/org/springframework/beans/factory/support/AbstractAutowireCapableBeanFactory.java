@@ -1110,7 +1110,10 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	@Nullable
 	private FactoryBean<?> getSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
-		synchronized (getSingletonMutex()) {
+		if (!acquireSingletonCreationLock(beanName, true)) {
+			return null;
+		}
+		try {
 			BeanWrapper bw = this.factoryBeanInstanceCache.get(beanName);
 			if (bw != null) {
 				return (FactoryBean<?>) bw.getWrappedInstance();
@@ -1163,6 +1166,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			}
 			return fb;
 		}
+		finally {
+			releaseSingletonCreationLock(beanName);
+		}
 	}
 
 	/**
@@ -1467,6 +1473,16 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		return super.getObjectForBeanInstance(beanInstance, name, beanName, mbd);
 	}
 
+	/**
+	 * Overridden to bypass the singleton instance cache while an instance supplier
+	 * is being invoked, since dependent beans need to be registered then.
+	 * @see #getObjectForBeanInstance
+	 */
+	@Override
+	boolean isSingletonInstanceCacheApplicable() {
+		return (this.currentlyCreatedBean.get() == null);
+	}
+
 	/**
 	 * Determine candidate constructors to use for the given bean, checking all registered
 	 * {@link SmartInstantiationAwareBeanPostProcessor SmartInstantiationAwareBeanPostProcessors}.
@@ -2195,10 +2211,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	@Override
 	protected void removeSingleton(String beanName) {
-		synchronized (getSingletonMutex()) {
-			super.removeSingleton(beanName);
-			this.factoryBeanInstanceCache.remove(beanName);
-		}
+		super.removeSingleton(beanName);
+		this.factoryBeanInstanceCache.remove(beanName);
 	}
 
 	/**
@@ -2208,10 +2222,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	@Override
 	protected void clearSingletonCache() {
-		synchronized (getSingletonMutex()) {
-			super.clearSingletonCache();
-			this.factoryBeanInstanceCache.clear();
-		}
+		super.clearSingletonCache();
+		this.factoryBeanInstanceCache.clear();
 	}
 
 	/**
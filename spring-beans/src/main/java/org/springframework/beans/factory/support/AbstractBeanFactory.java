@@ -209,6 +209,12 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 	 * Names of beans that have already been created at least once. */
 	private final Set<String> alreadyCreated = Collections.newSetFromMap(new ConcurrentHashMap<>(256));
 
+	/**
+	 * Fully initialized non-FactoryBean singleton instances, keyed by the name
+	 * they were requested with (bean name or alias), for fast repeated retrieval.
+	 */
+	private final Map<String, Object> singletonInstanceCache = new ConcurrentHashMap<>(256);
+
 	/**
 	 * 当前正在创建的bean名称
 	 *
@@ -289,6 +295,15 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 	protected <T> T doGetBean(
 			String name, @Nullable Class<T> requiredType, @Nullable Object[] args, boolean typeCheckOnly)
 			throws BeansException {
+
+		// Fast path for fully initialized singletons that have been retrieved before
+		if (args == null && isSingletonInstanceCacheApplicable()) {
+			Object cachedInstance = this.singletonInstanceCache.get(name);
+			if (cachedInstance != null) {
+				return adaptBeanInstance(name, cachedInstance, requiredType);
+			}
+		}
+
 		/**
 		 * 提取对应的beanName，很多同学可能会认为此处直接使用即可，为什么还要进行转换呢，
 		 * 原因在于当bean对象实现FactoryBean接口之后就会变成&beanName，同时如果存在别名，也需要把别名进行转换 */
@@ -313,6 +328,9 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 			}
 			// 返回对象的实例，很多同学会理解不了这句话存在的意义，其实当你实现了FactoryBean接口的对象，需要获取具体的对象的时候就需要此方法来进行获取了
 			beanInstance = getObjectForBeanInstance(sharedInstance, name, beanName, null);
+			if (beanInstance == sharedInstance) {
+				cacheSingletonInstance(name, beanName, sharedInstance);
+			}
 		}
 
 		else {
@@ -505,6 +523,43 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 		return adaptBeanInstance(name, beanInstance, requiredType);
 	}
 
+	/**
+	 * Cache the given singleton instance for fast retrieval under the given name,
+	 * provided that it is a fully initialized singleton which is not a FactoryBean.
+	 * @param name the name that the bean has been requested with
+	 * @param beanName the canonical bean name
+	 * @param instance the singleton instance
+	 * @since 6.1
+	 */
+	private void cacheSingletonInstance(String name, String beanName, Object instance) {
+		if (!(instance instanceof FactoryBean) && !(instance instanceof NullBean) &&
+				containsSingleton(beanName) && !isSingletonCurrentlyInCreation(beanName) &&
+				isSingletonInstanceCacheApplicable()) {
+			this.singletonInstanceCache.put(name, instance);
+			// Double-check against a concurrent removal of the singleton
+			if (getSingleton(beanName, false) != instance) {
+				this.singletonInstanceCache.remove(name, instance);
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the singleton instance cache may be used for the current
+	 * retrieval, i.e. whether no further bookkeeping is required for it.
+	 * @since 6.1
+	 */
+	boolean isSingletonInstanceCacheApplicable() {
+		return true;
+	}
+
+	/**
+	 * Clear the cache of fully initialized singleton instances, e.g. after a
+	 * singleton or an alias has been removed or changed.
+	 */
+	private void clearSingletonInstanceCache() {
+		this.singletonInstanceCache.clear();
+	}
+
 	@SuppressWarnings("unchecked")
 	<T> T adaptBeanInstance(String name, Object bean, @Nullable Class<?> requiredType) {
 		// Check if required type matches the type of the actual bean instance.
@@ -2207,6 +2262,51 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 		}
 	}
 
+	/**
+	 * Overridden to clear the singleton instance cache as well.
+	 */
+	@Override
+	protected void removeSingleton(String beanName) {
+		super.removeSingleton(beanName);
+		clearSingletonInstanceCache();
+	}
+
+	/**
+	 * Overridden to clear the singleton instance cache as well.
+	 */
+	@Override
+	protected void clearSingletonCache() {
+		super.clearSingletonCache();
+		clearSingletonInstanceCache();
+	}
+
+	/**
+	 * Overridden to clear the singleton instance cache as well.
+	 */
+	@Override
+	public void registerAlias(String name, String alias) {
+		super.registerAlias(name, alias);
+		clearSingletonInstanceCache();
+	}
+
+	/**
+	 * Overridden to clear the singleton instance cache as well.
+	 */
+	@Override
+	public void removeAlias(String alias) {
+		super.removeAlias(alias);
+		clearSingletonInstanceCache();
+	}
+
+	/**
+	 * Overridden to clear the singleton instance cache as well.
+	 */
+	@Override
+	public void resolveAliases(StringValueResolver valueResolver) {
+		super.resolveAliases(valueResolver);
+		clearSingletonInstanceCache();
+	}
+
 
 	//---------------------------------------------------------------------
 	// Abstract methods to be implemented by subclasses
@@ -0,0 +1,1051 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.core.AttributeAccessor;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Compact binary snapshot of bean definition registrations, allowing the
+ * outcome of expensive registry post-processing (e.g. configuration class
+ * parsing and classpath scanning) to be persisted and re-applied to a fresh
+ * {@link BeanDefinitionRegistry} on a later start.
+ *
+ * <p>A snapshot records an ordered sequence of operations: registering a bean
+ * definition (with its aliases), updating the attributes of an existing bean
+ * definition, and removing a bean definition. Bean definitions are captured
+ * declaratively: bean class names, factory method names, constructor argument
+ * and property values (including references and inner bean definitions),
+ * qualifiers, lookup method overrides and simple attribute values. Runtime
+ * state such as instance suppliers, resolved classes and reflective metadata
+ * cannot be captured and leads to an {@link IllegalArgumentException} when
+ * being added; the affected registry should simply not be snapshotted then.
+ *
+ * <p>Restored bean definitions are {@link RootBeanDefinition} or
+ * {@link GenericBeanDefinition} instances. For an {@link AnnotatedBeanDefinition},
+ * only the names of the annotated class and factory method are captured: such a
+ * definition is recreated by an {@link AnnotatedDefinitionFactory}, with its
+ * metadata being read again on restore. Annotated bean definitions of a type
+ * that the factory does not support cannot be captured.
+ *
+ * <p>Each snapshot carries a key (typically a fingerprint of the environment
+ * that produced it) plus arbitrary string metadata, both to be interpreted by
+ * the caller.
+ *
+ * @since 6.1
+ * @see #writeTo(OutputStream)
+ * @see #readFrom(InputStream)
+ * @see #applyTo(BeanDefinitionRegistry, ClassLoader)
+ */
+public final class BeanDefinitionSnapshot {
+
+	private static final int MAGIC = 0x53424453;
+
+	private static final int FORMAT_VERSION = 2;
+
+	private static final byte OP_REGISTER = 1;
+
+	private static final byte OP_ATTRIBUTES = 2;
+
+	private static final byte OP_REMOVE = 3;
+
+	private static final byte KIND_ROOT = 1;
+
+	private static final byte KIND_GENERIC = 2;
+
+	private static final byte VALUE_NULL = 0;
+
+	private static final byte VALUE_STRING = 1;
+
+	private static final byte VALUE_BOOLEAN = 2;
+
+	private static final byte VALUE_INTEGER = 3;
+
+	private static final byte VALUE_LONG = 4;
+
+	private static final byte VALUE_TYPED_STRING = 5;
+
+	private static final byte VALUE_BEAN_REFERENCE = 6;
+
+	private static final byte VALUE_BEAN_NAME_REFERENCE = 7;
+
+	private static final byte VALUE_BEAN_DEFINITION_HOLDER = 8;
+
+	private static final byte VALUE_BEAN_DEFINITION = 9;
+
+	private static final byte VALUE_LIST = 10;
+
+	private static final byte VALUE_SET = 11;
+
+	private static final byte VALUE_ARRAY = 12;
+
+	private static final byte VALUE_MAP = 13;
+
+	private static final byte VALUE_PROPERTIES = 14;
+
+
+	private final String key;
+
+	private final Map<String, String> metadata = new LinkedHashMap<>();
+
+	/** Strings in order of first occurrence, referenced by index from the content. */
+	private final List<String> strings = new ArrayList<>();
+
+	private final Map<String, Integer> stringIndex = new HashMap<>();
+
+	private final ByteArrayOutputStream content = new ByteArrayOutputStream(4096);
+
+	private int operationCount;
+
+	private AnnotatedDefinitionFactory annotatedDefinitionFactory = new DefaultAnnotatedDefinitionFactory();
+
+
+	/**
+	 * Create a new, empty snapshot.
+	 * @param key the key identifying the state that the snapshot applies to
+	 */
+	public BeanDefinitionSnapshot(String key) {
+		Assert.hasText(key, "Key must not be empty");
+		this.key = key;
+	}
+
+
+	/**
+	 * Return the key identifying the state that this snapshot applies to.
+	 */
+	public String getKey() {
+		return this.key;
+	}
+
+	/**
+	 * Store a metadata entry, to be interpreted by the caller.
+	 * @param name the name of the entry
+	 * @param value the value of the entry
+	 */
+	public void setMetadata(String name, String value) {
+		Assert.hasText(name, "Metadata name must not be empty");
+		Assert.notNull(value, "Metadata value must not be null");
+		this.metadata.put(name, value);
+	}
+
+	/**
+	 * Return all metadata entries, in insertion order.
+	 */
+	public Map<String, String> getMetadata() {
+		return Collections.unmodifiableMap(this.metadata);
+	}
+
+	/**
+	 * Set the factory for recreating {@link AnnotatedBeanDefinition} variants,
+	 * determining which of them can be captured as well.
+	 * <p>To be set to the same factory for capturing and for applying a snapshot.
+	 * The default supports {@link AnnotatedGenericBeanDefinition} only.
+	 * @param annotatedDefinitionFactory the factory to use
+	 */
+	public void setAnnotatedDefinitionFactory(AnnotatedDefinitionFactory annotatedDefinitionFactory) {
+		Assert.notNull(annotatedDefinitionFactory, "AnnotatedDefinitionFactory must not be null");
+		this.annotatedDefinitionFactory = annotatedDefinitionFactory;
+	}
+
+	/**
+	 * Return the number of recorded registry operations.
+	 */
+	public int getOperationCount() {
+		return this.operationCount;
+	}
+
+	/**
+	 * Record the registration of the given bean definition.
+	 * @param beanName the name of the bean
+	 * @param beanDefinition the bean definition to capture
+	 * @param aliases the aliases to register for the bean
+	 * @throws IllegalArgumentException if the bean definition holds state that
+	 * cannot be captured (in which case the snapshot remains unchanged)
+	 * @see #setAnnotatedDefinitionFactory
+	 */
+	public void addBeanDefinition(String beanName, BeanDefinition beanDefinition, String... aliases) {
+		record(OP_REGISTER, beanName, out -> {
+			out.writeBeanDefinition(beanDefinition);
+			out.writeStrings(aliases);
+		});
+	}
+
+	/**
+	 * Record an update of the given attributes on an existing bean definition.
+	 * @param beanName the name of the bean
+	 * @param attributes the attributes to set (a {@code null} value removes the attribute)
+	 * @throws IllegalArgumentException if an attribute value cannot be captured
+	 * (in which case the snapshot remains unchanged)
+	 */
+	public void addAttributes(String beanName, Map<String, Object> attributes) {
+		record(OP_ATTRIBUTES, beanName, out -> out.writeAttributes(attributes));
+	}
+
+	/**
+	 * Record the removal of a bean definition.
+	 * @param beanName the name of the bean
+	 */
+	public void addRemoval(String beanName) {
+		record(OP_REMOVE, beanName, out -> {});
+	}
+
+	private void record(byte operation, String beanName, EntryWriter writer) {
+		Assert.hasText(beanName, "Bean name must not be empty");
+		int stringCount = this.strings.size();
+		Encoder encoder = new Encoder();
+		try {
+			encoder.out.writeByte(operation);
+			encoder.writeString(beanName);
+			writer.write(encoder);
+			encoder.out.flush();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unexpected I/O failure in in-memory buffer", ex);
+		}
+		catch (IllegalArgumentException ex) {
+			// Roll back strings introduced by the rejected entry
+			for (int i = this.strings.size() - 1; i >= stringCount; i--) {
+				this.stringIndex.remove(this.strings.remove(i));
+			}
+			throw ex;
+		}
+		this.content.writeBytes(encoder.buffer.toByteArray());
+		this.operationCount++;
+	}
+
+	/**
+	 * Apply the recorded operations to the given registry, in recording order.
+	 * <p>Registrations replace existing bean definitions of the same name,
+	 * attribute updates are ignored for bean definitions that do not exist.
+	 * @param registry the registry to apply the operations to
+	 * @param classLoader the ClassLoader to resolve captured target types with
+	 * @throws IllegalStateException if the snapshot content is corrupt or
+	 * refers to classes that cannot be found
+	 */
+	public void applyTo(BeanDefinitionRegistry registry, @Nullable ClassLoader classLoader) {
+		applyTo(registry, classLoader, new SimpleMetadataReaderFactory(classLoader));
+	}
+
+	/**
+	 * Apply the recorded operations to the given registry, in recording order.
+	 * <p>Registrations replace existing bean definitions of the same name,
+	 * attribute updates are ignored for bean definitions that do not exist.
+	 * @param registry the registry to apply the operations to
+	 * @param classLoader the ClassLoader to resolve captured target types with
+	 * @param metadataReaderFactory the factory to read the metadata for
+	 * annotated bean definitions with
+	 * @throws IllegalStateException if the snapshot content is corrupt or
+	 * refers to classes that cannot be found
+	 */
+	public void applyTo(BeanDefinitionRegistry registry, @Nullable ClassLoader classLoader,
+			MetadataReaderFactory metadataReaderFactory) {
+
+		Decoder decoder = new Decoder(this.content.toByteArray(), classLoader, metadataReaderFactory);
+		try {
+			for (int i = 0; i < this.operationCount; i++) {
+				byte operation = decoder.in.readByte();
+				String beanName = decoder.readRequiredString();
+				switch (operation) {
+					case OP_REGISTER -> {
+						BeanDefinition beanDefinition = decoder.readBeanDefinition(beanName);
+						String[] aliases = decoder.readStrings();
+						registry.registerBeanDefinition(beanName, beanDefinition);
+						for (String alias : aliases) {
+							registry.registerAlias(beanName, alias);
+						}
+					}
+					case OP_ATTRIBUTES -> {
+						Map<String, Object> attributes = decoder.readAttributes();
+						if (registry.containsBeanDefinition(beanName)) {
+							BeanDefinition beanDefinition = registry.getBeanDefinition(beanName);
+							attributes.forEach((name, value) -> {
+								if (value != null) {
+									beanDefinition.setAttribute(name, value);
+								}
+								else {
+									beanDefinition.removeAttribute(name);
+								}
+							});
+						}
+					}
+					case OP_REMOVE -> {
+						if (registry.containsBeanDefinition(beanName)) {
+							registry.removeBeanDefinition(beanName);
+						}
+					}
+					default -> throw new IllegalStateException("Unknown snapshot operation " + operation);
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot apply bean definition snapshot: " + ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Write this snapshot to the given stream. The stream is not closed.
+	 * @param outputStream the stream to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeTo(OutputStream outputStream) throws IOException {
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeUTF(this.key);
+		out.writeInt(this.metadata.size());
+		for (Map.Entry<String, String> entry : this.metadata.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeUTF(entry.getValue());
+		}
+		out.writeInt(this.strings.size());
+		for (String string : this.strings) {
+			out.writeUTF(string);
+		}
+		out.writeInt(this.operationCount);
+		out.writeInt(this.content.size());
+		this.content.writeTo(out);
+		out.flush();
+	}
+
+	/**
+	 * Read a snapshot from the given stream, as written by {@link #writeTo}.
+	 * The stream is not closed.
+	 * @param inputStream the stream to read from
+	 * @return the snapshot
+	 * @throws IOException in case of I/O errors or if the stream does not hold
+	 * a snapshot in a supported format
+	 */
+	public static BeanDefinitionSnapshot readFrom(InputStream inputStream) throws IOException {
+		DataInputStream in = new DataInputStream(inputStream);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a bean definition snapshot");
+		}
+		int version = in.readInt();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported bean definition snapshot format version " + version);
+		}
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot(in.readUTF());
+		int metadataCount = in.readInt();
+		for (int i = 0; i < metadataCount; i++) {
+			snapshot.metadata.put(in.readUTF(), in.readUTF());
+		}
+		int stringCount = in.readInt();
+		for (int i = 0; i < stringCount; i++) {
+			String string = in.readUTF();
+			snapshot.stringIndex.put(string, snapshot.strings.size());
+			snapshot.strings.add(string);
+		}
+		snapshot.operationCount = in.readInt();
+		byte[] content = new byte[in.readInt()];
+		in.readFully(content);
+		snapshot.content.writeBytes(content);
+		return snapshot;
+	}
+
+
+	@FunctionalInterface
+	private interface EntryWriter {
+
+		void write(Encoder encoder) throws IOException;
+	}
+
+
+	/**
+	 * Writes a single entry, adding new strings to the snapshot's string table.
+	 */
+	private class Encoder {
+
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+		final DataOutputStream out = new DataOutputStream(this.buffer);
+
+		void writeString(@Nullable String string) throws IOException {
+			if (string == null) {
+				writeVarInt(0);
+				return;
+			}
+			Integer index = stringIndex.get(string);
+			if (index == null) {
+				index = strings.size();
+				strings.add(string);
+				stringIndex.put(string, index);
+			}
+			writeVarInt(index + 1);
+		}
+
+		void writeStrings(@Nullable String[] values) throws IOException {
+			if (values == null) {
+				writeVarInt(0);
+				return;
+			}
+			writeVarInt(values.length + 1);
+			for (String value : values) {
+				writeString(value);
+			}
+		}
+
+		void writeVarInt(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				this.out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			this.out.writeByte(value);
+		}
+
+		void writeBeanDefinition(BeanDefinition bd) throws IOException {
+			if (!(bd instanceof AbstractBeanDefinition abd)) {
+				throw unsupported("bean definition of type " + bd.getClass().getName());
+			}
+			if (abd.getInstanceSupplier() != null) {
+				throw unsupported("instance supplier on bean definition " + bd);
+			}
+			boolean root = (abd instanceof RootBeanDefinition);
+			this.out.writeByte(root ? KIND_ROOT : KIND_GENERIC);
+			if (abd instanceof AnnotatedBeanDefinition annotated) {
+				if (!annotatedDefinitionFactory.supports(annotated)) {
+					throw unsupported("annotated bean definition of type " + bd.getClass().getName());
+				}
+				this.out.writeBoolean(true);
+				writeString(bd.getClass().getName());
+				writeString(annotated.getMetadata().getClassName());
+				MethodMetadata factoryMethodMetadata = annotated.getFactoryMethodMetadata();
+				this.out.writeBoolean(factoryMethodMetadata != null);
+				if (factoryMethodMetadata != null) {
+					writeString(factoryMethodMetadata.getDeclaringClassName());
+					writeString(factoryMethodMetadata.getMethodName());
+					writeString(factoryMethodMetadata.getReturnTypeName());
+				}
+			}
+			else {
+				this.out.writeBoolean(false);
+			}
+			if (root) {
+				RootBeanDefinition rbd = (RootBeanDefinition) abd;
+				if (rbd.getQualifiedElement() != null) {
+					throw unsupported("qualified element on bean definition " + bd);
+				}
+				ResolvableType targetType = rbd.targetType;
+				if (targetType != null && (targetType.hasGenerics() || targetType.resolve() == null)) {
+					throw unsupported("generic target type on bean definition " + bd);
+				}
+				writeString(targetType != null ? targetType.toClass().getName() : null);
+				this.out.writeBoolean(rbd.isFactoryMethodUnique);
+				BeanDefinitionHolder decorated = rbd.getDecoratedDefinition();
+				this.out.writeBoolean(decorated != null);
+				if (decorated != null) {
+					writeBeanDefinitionHolder(decorated);
+				}
+			}
+			else {
+				writeString(abd.getParentName());
+			}
+			writeString(abd.getBeanClassName());
+			writeString(abd.getScope());
+			this.out.writeBoolean(abd.isAbstract());
+			Boolean lazyInit = abd.getLazyInit();
+			this.out.writeByte(lazyInit == null ? -1 : (lazyInit ? 1 : 0));
+			writeVarInt(abd.getAutowireMode());
+			writeVarInt(abd.getDependencyCheck());
+			writeStrings(abd.getDependsOn());
+			this.out.writeBoolean(abd.isAutowireCandidate());
+			this.out.writeBoolean(abd.isPrimary());
+			writeVarInt(abd.getQualifiers().size());
+			for (AutowireCandidateQualifier qualifier : abd.getQualifiers()) {
+				writeString(qualifier.getTypeName());
+				writeAttributes(attributesOf(qualifier));
+			}
+			this.out.writeBoolean(abd.isNonPublicAccessAllowed());
+			this.out.writeBoolean(abd.isLenientConstructorResolution());
+			writeString(abd.getFactoryBeanName());
+			writeString(abd.getFactoryMethodName());
+			writeConstructorArguments(abd.getConstructorArgumentValues());
+			writePropertyValues(abd.getPropertyValues());
+			writeMethodOverrides(abd.getMethodOverrides());
+			writeStrings(abd.getInitMethodNames());
+			this.out.writeBoolean(abd.isEnforceInitMethod());
+			writeStrings(abd.getDestroyMethodNames());
+			this.out.writeBoolean(abd.isEnforceDestroyMethod());
+			this.out.writeBoolean(abd.isSynthetic());
+			writeVarInt(abd.getRole());
+			writeString(abd.getDescription());
+			writeString(abd.getResourceDescription());
+			writeAttributes(attributesOf(abd));
+		}
+
+		void writeBeanDefinitionHolder(BeanDefinitionHolder holder) throws IOException {
+			writeString(holder.getBeanName());
+			writeStrings(holder.getAliases());
+			writeBeanDefinition(holder.getBeanDefinition());
+		}
+
+		void writeConstructorArguments(ConstructorArgumentValues args) throws IOException {
+			Map<Integer, ValueHolder> indexed = args.getIndexedArgumentValues();
+			writeVarInt(indexed.size());
+			for (Map.Entry<Integer, ValueHolder> entry : indexed.entrySet()) {
+				writeVarInt(entry.getKey());
+				writeValueHolder(entry.getValue());
+			}
+			List<ValueHolder> generic = args.getGenericArgumentValues();
+			writeVarInt(generic.size());
+			for (ValueHolder valueHolder : generic) {
+				writeValueHolder(valueHolder);
+			}
+		}
+
+		void writeValueHolder(ValueHolder valueHolder) throws IOException {
+			writeValue(valueHolder.getValue());
+			writeString(valueHolder.getType());
+			writeString(valueHolder.getName());
+		}
+
+		void writePropertyValues(MutablePropertyValues pvs) throws IOException {
+			List<PropertyValue> list = pvs.getPropertyValueList();
+			writeVarInt(list.size());
+			for (PropertyValue pv : list) {
+				writeString(pv.getName());
+				writeValue(pv.getValue());
+				this.out.writeBoolean(pv.isOptional());
+			}
+		}
+
+		void writeMethodOverrides(MethodOverrides overrides) throws IOException {
+			writeVarInt(overrides.getOverrides().size());
+			for (MethodOverride override : overrides.getOverrides()) {
+				if (!(override instanceof LookupOverride lookupOverride)) {
+					throw unsupported("method override " + override);
+				}
+				writeString(lookupOverride.getMethodName());
+				writeString(lookupOverride.getBeanName());
+			}
+		}
+
+		void writeAttributes(Map<String, Object> attributes) throws IOException {
+			writeVarInt(attributes.size());
+			for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+				writeString(entry.getKey());
+				Object value = entry.getValue();
+				if (value != null && !(value instanceof String || value instanceof Boolean ||
+						value instanceof Integer || value instanceof Long)) {
+					throw unsupported("attribute '" + entry.getKey() + "' of type " + value.getClass().getName());
+				}
+				writeValue(value);
+			}
+		}
+
+		void writeValue(@Nullable Object value) throws IOException {
+			if (value == null) {
+				this.out.writeByte(VALUE_NULL);
+			}
+			else if (value instanceof String string) {
+				this.out.writeByte(VALUE_STRING);
+				writeString(string);
+			}
+			else if (value instanceof Boolean bool) {
+				this.out.writeByte(VALUE_BOOLEAN);
+				this.out.writeBoolean(bool);
+			}
+			else if (value instanceof Integer integer) {
+				this.out.writeByte(VALUE_INTEGER);
+				this.out.writeInt(integer);
+			}
+			else if (value instanceof Long number) {
+				this.out.writeByte(VALUE_LONG);
+				this.out.writeLong(number);
+			}
+			else if (value instanceof TypedStringValue typedStringValue) {
+				this.out.writeByte(VALUE_TYPED_STRING);
+				writeString(typedStringValue.getValue());
+				writeString(typedStringValue.getTargetTypeName());
+				writeString(typedStringValue.getSpecifiedTypeName());
+				this.out.writeBoolean(typedStringValue.isDynamic());
+			}
+			else if (value instanceof RuntimeBeanReference reference) {
+				if (reference.getBeanType() != null) {
+					throw unsupported("type-based bean reference " + reference);
+				}
+				this.out.writeByte(VALUE_BEAN_REFERENCE);
+				writeString(reference.getBeanName());
+				this.out.writeBoolean(reference.isToParent());
+			}
+			else if (value instanceof RuntimeBeanNameReference reference) {
+				this.out.writeByte(VALUE_BEAN_NAME_REFERENCE);
+				writeString(reference.getBeanName());
+			}
+			else if (value instanceof BeanDefinitionHolder holder) {
+				this.out.writeByte(VALUE_BEAN_DEFINITION_HOLDER);
+				writeBeanDefinitionHolder(holder);
+			}
+			else if (value instanceof BeanDefinition bd) {
+				this.out.writeByte(VALUE_BEAN_DEFINITION);
+				writeBeanDefinition(bd);
+			}
+			else if (value instanceof ManagedArray array) {
+				this.out.writeByte(VALUE_ARRAY);
+				writeString(array.getElementTypeName());
+				this.out.writeBoolean(array.isMergeEnabled());
+				writeElements(array);
+			}
+			else if (value instanceof ManagedList<?> list) {
+				this.out.writeByte(VALUE_LIST);
+				writeString(list.getElementTypeName());
+				this.out.writeBoolean(list.isMergeEnabled());
+				writeElements(list);
+			}
+			else if (value instanceof ManagedSet<?> set) {
+				this.out.writeByte(VALUE_SET);
+				writeString(set.getElementTypeName());
+				this.out.writeBoolean(set.isMergeEnabled());
+				writeElements(set);
+			}
+			else if (value instanceof ManagedMap<?, ?> map) {
+				this.out.writeByte(VALUE_MAP);
+				writeString(map.getKeyTypeName());
+				writeString(map.getValueTypeName());
+				this.out.writeBoolean(map.isMergeEnabled());
+				writeVarInt(map.size());
+				for (Map.Entry<?, ?> entry : map.entrySet()) {
+					writeValue(entry.getKey());
+					writeValue(entry.getValue());
+				}
+			}
+			else if (value instanceof ManagedProperties properties) {
+				this.out.writeByte(VALUE_PROPERTIES);
+				this.out.writeBoolean(properties.isMergeEnabled());
+				writeVarInt(properties.size());
+				for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+					writeValue(entry.getKey());
+					writeValue(entry.getValue());
+				}
+			}
+			else {
+				throw unsupported("value of type " + value.getClass().getName());
+			}
+		}
+
+		void writeElements(Collection<?> elements) throws IOException {
+			writeVarInt(elements.size());
+			for (Object element : elements) {
+				writeValue(element);
+			}
+		}
+
+		private IllegalArgumentException unsupported(String description) {
+			return new IllegalArgumentException("Cannot capture " + description + " in bean definition snapshot");
+		}
+	}
+
+
+	/**
+	 * Reads entries sequentially, resolving strings against the snapshot's string table.
+	 */
+	private class Decoder {
+
+		final DataInputStream in;
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		Decoder(byte[] content, @Nullable ClassLoader classLoader, MetadataReaderFactory metadataReaderFactory) {
+			this.in = new DataInputStream(new ByteArrayInputStream(content));
+			this.classLoader = classLoader;
+			this.metadataReaderFactory = metadataReaderFactory;
+		}
+
+		@Nullable
+		String readString() throws IOException {
+			int index = readVarInt();
+			if (index == 0) {
+				return null;
+			}
+			if (index > strings.size()) {
+				throw new IOException("Invalid string reference " + index);
+			}
+			return strings.get(index - 1);
+		}
+
+		String readRequiredString() throws IOException {
+			String string = readString();
+			if (string == null) {
+				throw new IOException("Missing required string");
+			}
+			return string;
+		}
+
+		@Nullable
+		String[] readStrings() throws IOException {
+			int length = readVarInt();
+			if (length == 0) {
+				return null;
+			}
+			String[] values = new String[length - 1];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = readString();
+			}
+			return values;
+		}
+
+		int readVarInt() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				byte b = this.in.readByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed variable-length integer");
+		}
+
+		AbstractBeanDefinition readBeanDefinition(@Nullable String beanName) throws IOException {
+			byte kind = this.in.readByte();
+			if (kind != KIND_ROOT && kind != KIND_GENERIC) {
+				throw new IOException("Unknown bean definition kind " + kind);
+			}
+			AbstractBeanDefinition abd = null;
+			if (this.in.readBoolean()) {
+				String definitionType = readRequiredString();
+				AnnotationMetadata metadata = readAnnotationMetadata(readRequiredString());
+				MethodMetadata factoryMethodMetadata = (this.in.readBoolean() ? readFactoryMethodMetadata() : null);
+				abd = annotatedDefinitionFactory.createBeanDefinition(
+						definitionType, beanName, metadata, factoryMethodMetadata);
+				if ((kind == KIND_ROOT) != (abd instanceof RootBeanDefinition)) {
+					throw new IOException("Annotated bean definition of type " + definitionType +
+							" recreated as " + abd.getClass().getName());
+				}
+			}
+			if (kind == KIND_ROOT) {
+				RootBeanDefinition rbd = (abd != null ? (RootBeanDefinition) abd : new RootBeanDefinition());
+				String targetTypeName = readString();
+				if (targetTypeName != null) {
+					rbd.setTargetType(ClassUtils.resolveClassName(targetTypeName, this.classLoader));
+				}
+				rbd.isFactoryMethodUnique = this.in.readBoolean();
+				if (this.in.readBoolean()) {
+					rbd.setDecoratedDefinition(readBeanDefinitionHolder());
+				}
+				abd = rbd;
+			}
+			else {
+				if (abd == null) {
+					abd = new GenericBeanDefinition();
+				}
+				abd.setParentName(readString());
+			}
+			abd.setBeanClassName(readString());
+			abd.setScope(readString());
+			abd.setAbstract(this.in.readBoolean());
+			byte lazyInit = this.in.readByte();
+			if (lazyInit >= 0) {
+				abd.setLazyInit(lazyInit == 1);
+			}
+			abd.setAutowireMode(readVarInt());
+			abd.setDependencyCheck(readVarInt());
+			abd.setDependsOn(readStrings());
+			abd.setAutowireCandidate(this.in.readBoolean());
+			abd.setPrimary(this.in.readBoolean());
+			int qualifierCount = readVarInt();
+			for (int i = 0; i < qualifierCount; i++) {
+				AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(readRequiredString());
+				readAttributes().forEach(qualifier::setAttribute);
+				abd.addQualifier(qualifier);
+			}
+			abd.setNonPublicAccessAllowed(this.in.readBoolean());
+			abd.setLenientConstructorResolution(this.in.readBoolean());
+			abd.setFactoryBeanName(readString());
+			String factoryMethodName = readString();
+			if (abd instanceof RootBeanDefinition rbd && rbd.isFactoryMethodUnique && factoryMethodName != null) {
+				rbd.setUniqueFactoryMethodName(factoryMethodName);
+			}
+			else {
+				abd.setFactoryMethodName(factoryMethodName);
+			}
+			readConstructorArguments(abd.getConstructorArgumentValues());
+			readPropertyValues(abd.getPropertyValues());
+			int overrideCount = readVarInt();
+			for (int i = 0; i < overrideCount; i++) {
+				abd.getMethodOverrides().addOverride(new LookupOverride(readRequiredString(), readString()));
+			}
+			abd.setInitMethodNames(readStrings());
+			abd.setEnforceInitMethod(this.in.readBoolean());
+			abd.setDestroyMethodNames(readStrings());
+			abd.setEnforceDestroyMethod(this.in.readBoolean());
+			abd.setSynthetic(this.in.readBoolean());
+			abd.setRole(readVarInt());
+			abd.setDescription(readString());
+			abd.setResourceDescription(readString());
+			readAttributes().forEach(abd::setAttribute);
+			return abd;
+		}
+
+		BeanDefinitionHolder readBeanDefinitionHolder() throws IOException {
+			String beanName = readRequiredString();
+			String[] aliases = readStrings();
+			return new BeanDefinitionHolder(readBeanDefinition(beanName), beanName, aliases);
+		}
+
+		AnnotationMetadata readAnnotationMetadata(String className) throws IOException {
+			try {
+				return this.metadataReaderFactory.getMetadataReader(className).getAnnotationMetadata();
+			}
+			catch (IOException ex) {
+				throw new IOException("Cannot read metadata of class [" + className + "]", ex);
+			}
+		}
+
+		MethodMetadata readFactoryMethodMetadata() throws IOException {
+			String declaringClassName = readRequiredString();
+			String methodName = readRequiredString();
+			String returnTypeName = readRequiredString();
+			// Overloaded methods: resolve through the return type (as far as it is distinct)
+			MethodMetadata match = null;
+			for (MethodMetadata candidate : readAnnotationMetadata(declaringClassName).getDeclaredMethods()) {
+				if (candidate.getMethodName().equals(methodName) && (match == null ||
+						(!match.getReturnTypeName().equals(returnTypeName) &&
+								candidate.getReturnTypeName().equals(returnTypeName)))) {
+					match = candidate;
+				}
+			}
+			if (match == null) {
+				throw new IOException("Factory method '" + methodName + "' not found on class [" +
+						declaringClassName + "]");
+			}
+			return match;
+		}
+
+		void readConstructorArguments(ConstructorArgumentValues args) throws IOException {
+			int indexedCount = readVarInt();
+			for (int i = 0; i < indexedCount; i++) {
+				int index = readVarInt();
+				args.addIndexedArgumentValue(index, readValueHolder());
+			}
+			int genericCount = readVarInt();
+			for (int i = 0; i < genericCount; i++) {
+				args.addGenericArgumentValue(readValueHolder());
+			}
+		}
+
+		ValueHolder readValueHolder() throws IOException {
+			Object value = readValue();
+			return new ValueHolder(value, readString(), readString());
+		}
+
+		void readPropertyValues(MutablePropertyValues pvs) throws IOException {
+			int count = readVarInt();
+			for (int i = 0; i < count; i++) {
+				PropertyValue pv = new PropertyValue(readRequiredString(), readValue());
+				pv.setOptional(this.in.readBoolean());
+				pvs.addPropertyValue(pv);
+			}
+		}
+
+		Map<String, Object> readAttributes() throws IOException {
+			int count = readVarInt();
+			Map<String, Object> attributes = new LinkedHashMap<>(count);
+			for (int i = 0; i < count; i++) {
+				attributes.put(readRequiredString(), readValue());
+			}
+			return attributes;
+		}
+
+		@Nullable
+		Object readValue() throws IOException {
+			byte type = this.in.readByte();
+			return switch (type) {
+				case VALUE_NULL -> null;
+				case VALUE_STRING -> readString();
+				case VALUE_BOOLEAN -> this.in.readBoolean();
+				case VALUE_INTEGER -> this.in.readInt();
+				case VALUE_LONG -> this.in.readLong();
+				case VALUE_TYPED_STRING -> readTypedStringValue();
+				case VALUE_BEAN_REFERENCE -> new RuntimeBeanReference(readRequiredString(), this.in.readBoolean());
+				case VALUE_BEAN_NAME_REFERENCE -> new RuntimeBeanNameReference(readRequiredString());
+				case VALUE_BEAN_DEFINITION_HOLDER -> readBeanDefinitionHolder();
+				case VALUE_BEAN_DEFINITION -> readBeanDefinition(null);
+				case VALUE_ARRAY -> readArray();
+				case VALUE_LIST -> readList();
+				case VALUE_SET -> readSet();
+				case VALUE_MAP -> readMap();
+				case VALUE_PROPERTIES -> readProperties();
+				default -> throw new IOException("Unknown value type " + type);
+			};
+		}
+
+		TypedStringValue readTypedStringValue() throws IOException {
+			TypedStringValue value = new TypedStringValue(readString());
+			value.setTargetTypeName(readString());
+			value.setSpecifiedTypeName(readString());
+			if (this.in.readBoolean()) {
+				value.setDynamic();
+			}
+			return value;
+		}
+
+		ManagedArray readArray() throws IOException {
+			String elementTypeName = readRequiredString();
+			boolean mergeEnabled = this.in.readBoolean();
+			int size = readVarInt();
+			ManagedArray array = new ManagedArray(elementTypeName, size);
+			array.setMergeEnabled(mergeEnabled);
+			readElements(array, size);
+			return array;
+		}
+
+		ManagedList<Object> readList() throws IOException {
+			ManagedList<Object> list = new ManagedList<>();
+			String elementTypeName = readString();
+			if (elementTypeName != null) {
+				list.setElementTypeName(elementTypeName);
+			}
+			list.setMergeEnabled(this.in.readBoolean());
+			readElements(list, readVarInt());
+			return list;
+		}
+
+		ManagedSet<Object> readSet() throws IOException {
+			ManagedSet<Object> set = new ManagedSet<>();
+			set.setElementTypeName(readString());
+			set.setMergeEnabled(this.in.readBoolean());
+			readElements(set, readVarInt());
+			return set;
+		}
+
+		ManagedMap<Object, Object> readMap() throws IOException {
+			ManagedMap<Object, Object> map = new ManagedMap<>();
+			map.setKeyTypeName(readString());
+			map.setValueTypeName(readString());
+			map.setMergeEnabled(this.in.readBoolean());
+			int size = readVarInt();
+			for (int i = 0; i < size; i++) {
+				map.put(readValue(), readValue());
+			}
+			return map;
+		}
+
+		ManagedProperties readProperties() throws IOException {
+			ManagedProperties properties = new ManagedProperties();
+			properties.setMergeEnabled(this.in.readBoolean());
+			int size = readVarInt();
+			for (int i = 0; i < size; i++) {
+				properties.put(readValue(), readValue());
+			}
+			return properties;
+		}
+
+		void readElements(Collection<Object> elements, int size) throws IOException {
+			for (int i = 0; i < size; i++) {
+				elements.add(readValue());
+			}
+		}
+	}
+
+
+	/**
+	 * Strategy for recreating {@link AnnotatedBeanDefinition} variants on restore,
+	 * for the annotation metadata as read again through a {@link MetadataReaderFactory}.
+	 * @see #setAnnotatedDefinitionFactory
+	 */
+	public interface AnnotatedDefinitionFactory {
+
+		/**
+		 * Determine whether the given annotated bean definition can be recreated
+		 * by this factory, i.e. whether it may be captured in a snapshot at all.
+		 * @param beanDefinition the annotated bean definition to capture
+		 */
+		boolean supports(AnnotatedBeanDefinition beanDefinition);
+
+		/**
+		 * Create an annotated bean definition, to be populated with the captured
+		 * settings afterwards.
+		 * @param definitionType the class name of the original bean definition
+		 * @param beanName the name of the bean, or {@code null} for an inner bean
+		 * definition without a name
+		 * @param metadata the metadata of the annotated class
+		 * @param factoryMethodMetadata the metadata of the annotated factory method, if any
+		 * @return the bean definition, being a {@link RootBeanDefinition} if
+		 * the original bean definition was one
+		 */
+		AbstractBeanDefinition createBeanDefinition(String definitionType, @Nullable String beanName,
+				AnnotationMetadata metadata, @Nullable MethodMetadata factoryMethodMetadata);
+	}
+
+
+	/**
+	 * Default {@link AnnotatedDefinitionFactory}, recreating plain
+	 * {@link AnnotatedGenericBeanDefinition} instances.
+	 */
+	private static class DefaultAnnotatedDefinitionFactory implements AnnotatedDefinitionFactory {
+
+		@Override
+		public boolean supports(AnnotatedBeanDefinition beanDefinition) {
+			return (beanDefinition.getClass() == AnnotatedGenericBeanDefinition.class);
+		}
+
+		@Override
+		public AbstractBeanDefinition createBeanDefinition(String definitionType, @Nullable String beanName,
+				AnnotationMetadata metadata, @Nullable MethodMetadata factoryMethodMetadata) {
+
+			return (factoryMethodMetadata != null ? new AnnotatedGenericBeanDefinition(metadata, factoryMethodMetadata) :
+					new AnnotatedGenericBeanDefinition(metadata));
+		}
+	}
+
+
+	private static Map<String, Object> attributesOf(AttributeAccessor accessor) {
+		String[] names = accessor.attributeNames();
+		Map<String, Object> attributes = new LinkedHashMap<>(names.length);
+		for (String name : names) {
+			attributes.put(name, accessor.getAttribute(name));
+		}
+		return attributes;
+	}
+
+}
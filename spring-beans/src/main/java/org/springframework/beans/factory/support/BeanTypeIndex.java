@@ -0,0 +1,328 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Internal index of bean definition names by type, used by
+ * {@link DefaultListableBeanFactory} to narrow down the candidates for
+ * by-type lookups before performing the actual (generic-aware) type match.
+ *
+ * <p>Each registered bean is in one of three states: <i>unclassified</i>
+ * (type not determined yet), <i>classified</i> (indexed under its predicted
+ * type and the type of its instance, including all of their superclasses
+ * and interfaces) or <i>opaque</i> (type only determinable through full
+ * matching, e.g. for a {@code FactoryBean}). Unclassified and opaque beans
+ * are candidates for every type, so the index never excludes a bean that
+ * a full scan would match.
+ *
+ * <p>All bean names are kept in registration order on insert, so that the
+ * candidates for a type can be returned without sorting them on lookup.
+ *
+ * @since 6.1
+ * @see DefaultListableBeanFactory#getBeanNamesForType(org.springframework.core.ResolvableType)
+ */
+final class BeanTypeIndex {
+
+	/** Registration sequence per bean name, for keeping bean names in registration order. */
+	private final Map<String, Long> registrationOrder = new ConcurrentHashMap<>(256);
+
+	private final AtomicLong registrationSequence = new AtomicLong();
+
+	/** Indexed types per classified bean name. */
+	private final Map<String, Set<Class<?>>> typesByBeanName = new ConcurrentHashMap<>(256);
+
+	/** Classified bean names per type, including superclasses and interfaces. */
+	private final Map<Class<?>, OrderedBeanNames> beanNamesByType = new ConcurrentHashMap<>(256);
+
+	private final OrderedBeanNames unclassifiedBeanNames = new OrderedBeanNames();
+
+	private final OrderedBeanNames opaqueBeanNames = new OrderedBeanNames();
+
+	/** Token for the state that the current classification is based on. */
+	@Nullable
+	private volatile Object classificationToken;
+
+
+	/**
+	 * Register a new or overridden bean definition, to be classified on demand.
+	 */
+	void register(String beanName) {
+		this.registrationOrder.computeIfAbsent(beanName, name -> this.registrationSequence.incrementAndGet());
+		reset(beanName);
+	}
+
+	/**
+	 * Remove the given bean definition from the index.
+	 */
+	void remove(String beanName) {
+		Long sequence = this.registrationOrder.remove(beanName);
+		if (sequence != null) {
+			unindex(beanName, sequence);
+			this.unclassifiedBeanNames.remove(sequence);
+			this.opaqueBeanNames.remove(sequence);
+		}
+	}
+
+	/**
+	 * Reset the classification of the given bean definition, if registered.
+	 */
+	void reset(String beanName) {
+		Long sequence = this.registrationOrder.get(beanName);
+		if (sequence != null) {
+			unindex(beanName, sequence);
+			this.opaqueBeanNames.remove(sequence);
+			this.unclassifiedBeanNames.add(sequence, beanName);
+		}
+	}
+
+	/**
+	 * Reset the classification of all bean definitions if the given token
+	 * differs from the token that the current classification is based on.
+	 * @param token an object identifying the state that type predictions depend on
+	 */
+	void resetIfNecessary(Object token) {
+		if (this.classificationToken != token) {
+			synchronized (this) {
+				if (this.classificationToken != token) {
+					invalidate();
+					this.classificationToken = token;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reset the classification of all bean definitions.
+	 */
+	void invalidate() {
+		this.typesByBeanName.clear();
+		this.beanNamesByType.clear();
+		this.opaqueBeanNames.clear();
+		this.registrationOrder.forEach((beanName, sequence) -> this.unclassifiedBeanNames.add(sequence, beanName));
+		this.classificationToken = null;
+	}
+
+	/**
+	 * Return a snapshot of the bean names still to be classified.
+	 */
+	Collection<String> getUnclassifiedBeanNames() {
+		return this.unclassifiedBeanNames.getBeanNames();
+	}
+
+	/**
+	 * Classify the given bean under the given types.
+	 * @param beanName the name of the bean
+	 * @param types the types to index the bean under (in addition to their
+	 * superclasses and interfaces); none for a bean that never matches
+	 */
+	void classify(String beanName, Class<?>... types) {
+		Long sequence = this.registrationOrder.get(beanName);
+		if (sequence != null && this.unclassifiedBeanNames.remove(sequence)) {
+			Set<Class<?>> indexedTypes = ConcurrentHashMap.newKeySet(types.length * 8);
+			this.typesByBeanName.put(beanName, indexedTypes);
+			for (Class<?> type : types) {
+				addType(beanName, sequence, indexedTypes, type);
+			}
+		}
+	}
+
+	/**
+	 * Mark the given bean as opaque: to be considered for every type.
+	 * <p>Also applicable to an already classified bean, e.g. when its
+	 * instance turns out to be a {@code FactoryBean}.
+	 */
+	void classifyAsOpaque(String beanName) {
+		Long sequence = this.registrationOrder.get(beanName);
+		if (sequence != null) {
+			this.opaqueBeanNames.add(sequence, beanName);
+			this.unclassifiedBeanNames.remove(sequence);
+			unindex(beanName, sequence);
+		}
+	}
+
+	/**
+	 * Add the type of a bean instance to an already classified bean,
+	 * e.g. for a proxy that exposes further interfaces.
+	 */
+	void addInstanceType(String beanName, Class<?> instanceType) {
+		Long sequence = this.registrationOrder.get(beanName);
+		Set<Class<?>> indexedTypes = this.typesByBeanName.get(beanName);
+		if (sequence != null && indexedTypes != null && !indexedTypes.contains(instanceType)) {
+			addType(beanName, sequence, indexedTypes, instanceType);
+		}
+	}
+
+	/**
+	 * Determine the candidate bean names for the given type, in registration order:
+	 * all beans indexed under the given type plus all unclassified and opaque beans.
+	 * <p>Once all beans are classified and none is opaque, this returns the
+	 * (unmodifiable) list maintained for the given type as-is.
+	 */
+	List<String> getCandidateNames(Class<?> type) {
+		OrderedBeanNames indexed = this.beanNamesByType.get(type);
+		Snapshot indexedNames = (indexed != null ? indexed.getSnapshot() : Snapshot.EMPTY);
+		Snapshot unclassifiedNames = this.unclassifiedBeanNames.getSnapshot();
+		Snapshot opaqueNames = this.opaqueBeanNames.getSnapshot();
+		if (unclassifiedNames.isEmpty() && opaqueNames.isEmpty()) {
+			return indexedNames.beanNames();
+		}
+		// Merge the candidates by registration sequence, each of them being in order already
+		List<String> result = new ArrayList<>(
+				indexedNames.size() + unclassifiedNames.size() + opaqueNames.size());
+		int indexedPos = 0;
+		int unclassifiedPos = 0;
+		int opaquePos = 0;
+		long lastSequence = 0;
+		while (true) {
+			long indexedSequence = indexedNames.getSequence(indexedPos);
+			long unclassifiedSequence = unclassifiedNames.getSequence(unclassifiedPos);
+			long opaqueSequence = opaqueNames.getSequence(opaquePos);
+			long sequence = Math.min(indexedSequence, Math.min(unclassifiedSequence, opaqueSequence));
+			if (sequence == Long.MAX_VALUE) {
+				break;
+			}
+			String beanName;
+			if (sequence == indexedSequence) {
+				beanName = indexedNames.beanNames().get(indexedPos++);
+			}
+			else if (sequence == unclassifiedSequence) {
+				beanName = unclassifiedNames.beanNames().get(unclassifiedPos++);
+			}
+			else {
+				beanName = opaqueNames.beanNames().get(opaquePos++);
+			}
+			// Skip a bean that got reclassified in the meantime, showing up twice
+			if (sequence != lastSequence) {
+				result.add(beanName);
+				lastSequence = sequence;
+			}
+		}
+		return result;
+	}
+
+	private void addType(String beanName, Long sequence, Set<Class<?>> indexedTypes, Class<?> type) {
+		for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			if (indexedTypes.add(current)) {
+				this.beanNamesByType.computeIfAbsent(current, key -> new OrderedBeanNames()).add(sequence, beanName);
+			}
+		}
+		for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+			if (indexedTypes.add(ifc)) {
+				this.beanNamesByType.computeIfAbsent(ifc, key -> new OrderedBeanNames()).add(sequence, beanName);
+			}
+		}
+	}
+
+	private void unindex(String beanName, Long sequence) {
+		Set<Class<?>> indexedTypes = this.typesByBeanName.remove(beanName);
+		if (indexedTypes != null) {
+			for (Class<?> type : indexedTypes) {
+				OrderedBeanNames beanNames = this.beanNamesByType.get(type);
+				if (beanNames != null) {
+					beanNames.remove(sequence);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Bean names in registration order, exposing an immutable snapshot
+	 * that is only rebuilt after a modification.
+	 */
+	private static final class OrderedBeanNames {
+
+		/** Bean names by registration sequence. */
+		private final NavigableMap<Long, String> beanNames = new TreeMap<>();
+
+		@Nullable
+		private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+		synchronized void add(Long sequence, String beanName) {
+			if (!beanName.equals(this.beanNames.put(sequence, beanName))) {
+				this.snapshot = null;
+			}
+		}
+
+		synchronized boolean remove(Long sequence) {
+			if (this.beanNames.remove(sequence) != null) {
+				this.snapshot = null;
+				return true;
+			}
+			return false;
+		}
+
+		synchronized void clear() {
+			this.beanNames.clear();
+			this.snapshot = Snapshot.EMPTY;
+		}
+
+		List<String> getBeanNames() {
+			return getSnapshot().beanNames();
+		}
+
+		Snapshot getSnapshot() {
+			Snapshot snapshot = this.snapshot;
+			if (snapshot == null) {
+				synchronized (this) {
+					snapshot = this.snapshot;
+					if (snapshot == null) {
+						snapshot = new Snapshot(List.copyOf(this.beanNames.keySet()), List.copyOf(this.beanNames.values()));
+						this.snapshot = snapshot;
+					}
+				}
+			}
+			return snapshot;
+		}
+	}
+
+
+	/**
+	 * Immutable bean names in registration order, along with their registration sequences.
+	 */
+	private record Snapshot(List<Long> sequences, List<String> beanNames) {
+
+		static final Snapshot EMPTY = new Snapshot(Collections.emptyList(), Collections.emptyList());
+
+		boolean isEmpty() {
+			return this.beanNames.isEmpty();
+		}
+
+		int size() {
+			return this.beanNames.size();
+		}
+
+		long getSequence(int index) {
+			return (index < this.sequences.size() ? this.sequences.get(index) : Long.MAX_VALUE);
+		}
+	}
+
+}
@@ -25,6 +25,8 @@ import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -38,6 +40,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -55,6 +58,7 @@ import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.BeanNotOfRequiredTypeException;
 import org.springframework.beans.factory.CannotLoadBeanClassException;
+import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InjectionPoint;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.NoUniqueBeanDefinitionException;
@@ -69,6 +73,7 @@ import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.NamedBeanHolder;
+import org.springframework.core.MethodParameter;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.MergedAnnotation;
@@ -174,6 +179,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** List of bean definition names, in registration order.专门存储bean的名字 */
 	private volatile List<String> beanDefinitionNames = new ArrayList<>(256);
 
+	/** Index of bean definition names by predicted type, narrowing down by-type lookups. */
+	private final BeanTypeIndex beanTypeIndex = new BeanTypeIndex();
+
 	/** List of names of manually registered singletons, in registration order. */
 	private volatile Set<String> manualSingletonNames = new LinkedHashSet<>(16);
 
@@ -184,6 +192,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether bean definition metadata may be cached for all beans. */
 	private volatile boolean configurationFrozen;
 
+	/** Executor for the parallel pre-instantiation of singletons, if any. */
+	@Nullable
+	private Executor preInstantiationExecutor;
+
+	/** Maximum number of singletons to pre-instantiate concurrently. */
+	private int preInstantiationParallelism = Runtime.getRuntime().availableProcessors();
+
 
 	/**
 	 * Create a new DefaultListableBeanFactory.
@@ -307,6 +322,56 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.autowireCandidateResolver;
 	}
 
+	/**
+	 * Specify an {@link Executor} for pre-instantiating singletons in parallel.
+	 * <p>Default is none, instantiating all non-lazy singletons one by one on the
+	 * thread calling {@link #preInstantiateSingletons()}. If an executor is set,
+	 * a dependency graph is derived from the merged bean definitions as well as
+	 * from the beans matching the parameter types of the constructors and factory
+	 * methods to autowire, and singletons are dispatched as soon as these known
+	 * dependencies have been created. Any other dependencies, e.g. for
+	 * annotation-driven field and method injection, are resolved on the thread that
+	 * creates the bean: the creation of each singleton is guarded by a lock per bean
+	 * name, so that a thread requesting a singleton in creation on another thread
+	 * waits for it. Beans in a cycle of known dependencies are instantiated on the
+	 * calling thread.
+	 * <p>The resulting singleton registration order and therefore the destruction
+	 * order is deterministic, corresponding to sequential pre-instantiation.
+	 * @since 6.1
+	 * @see #setPreInstantiationParallelism
+	 */
+	public void setPreInstantiationExecutor(@Nullable Executor preInstantiationExecutor) {
+		this.preInstantiationExecutor = preInstantiationExecutor;
+	}
+
+	/**
+	 * Return the {@link Executor} for pre-instantiating singletons in parallel, if any.
+	 * @since 6.1
+	 */
+	@Nullable
+	public Executor getPreInstantiationExecutor() {
+		return this.preInstantiationExecutor;
+	}
+
+	/**
+	 * Set the maximum number of singletons to pre-instantiate concurrently
+	 * on the {@link #setPreInstantiationExecutor pre-instantiation executor}.
+	 * <p>Default is the number of available processors.
+	 * @since 6.1
+	 */
+	public void setPreInstantiationParallelism(int preInstantiationParallelism) {
+		Assert.isTrue(preInstantiationParallelism > 0, "Pre-instantiation parallelism must be greater than 0");
+		this.preInstantiationParallelism = preInstantiationParallelism;
+	}
+
+	/**
+	 * Return the maximum number of singletons to pre-instantiate concurrently.
+	 * @since 6.1
+	 */
+	public int getPreInstantiationParallelism() {
+		return this.preInstantiationParallelism;
+	}
+
 
 	@Override
 	public void copyConfigurationFrom(ConfigurableBeanFactory otherFactory) {
@@ -315,6 +380,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
+			this.preInstantiationExecutor = otherListableFactory.preInstantiationExecutor;
+			this.preInstantiationParallelism = otherListableFactory.preInstantiationParallelism;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware
 			setAutowireCandidateResolver(otherListableFactory.getAutowireCandidateResolver().cloneIfNecessary());
 			// Make resolvable dependencies (e.g. ResourceLoader) available here as well
@@ -547,8 +614,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
 		List<String> result = new ArrayList<>();
 
-		// Check all bean definitions.
-		for (String beanName : this.beanDefinitionNames) {
+		// Check all bean definitions, or the indexed candidates for the given type.
+		for (String beanName : getBeanNamesToCheckForType(type)) {
 			// Only consider bean as eligible if the bean name is not defined as alias for some other bean.
 			if (!isAlias(beanName)) {
 				try {
@@ -635,6 +702,84 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return (dbd != null ? mbd.isSingleton() : isSingleton(beanName));
 	}
 
+	/**
+	 * Determine the bean definition names to check for a match against the given type:
+	 * all beans indexed under the raw type plus all beans that could not be indexed,
+	 * in registration order. Falls back to all bean definition names for an
+	 * unresolvable type, for {@code Object} and when a temporary ClassLoader is
+	 * active (since type prediction must not load classes with the regular
+	 * ClassLoader then).
+	 * @param type the type to match
+	 * @return the candidate bean names, to be matched individually
+	 * @see #isTypeMatch(String, ResolvableType, boolean)
+	 */
+	private Collection<String> getBeanNamesToCheckForType(ResolvableType type) {
+		Class<?> rawType = type.resolve();
+		if (rawType == null || rawType == Object.class || getTempClassLoader() != null) {
+			return this.beanDefinitionNames;
+		}
+		BeanTypeIndex index = this.beanTypeIndex;
+		index.resetIfNecessary(getBeanPostProcessorCache());
+		for (String beanName : index.getUnclassifiedBeanNames()) {
+			try {
+				classifyBeanType(beanName);
+			}
+			catch (RuntimeException ex) {
+				// Leave the bean unclassified: to be checked in full for every type,
+				// with the regular exception handling for the actual type match.
+				logger.trace(LogMessage.format("Could not index type of bean '%s'", beanName), ex);
+			}
+		}
+		return index.getCandidateNames(rawType);
+	}
+
+	/**
+	 * Index the type of the given bean, as far as it can be determined
+	 * without initializing any beans (just like a non-eager type match).
+	 * Beans without a reliably predictable type remain unclassified.
+	 * @param beanName the name of the bean to classify
+	 */
+	private void classifyBeanType(String beanName) {
+		if (isAlias(beanName) || isSingletonCurrentlyInCreation(beanName)) {
+			return;
+		}
+		RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+		if (mbd.isAbstract()) {
+			// Never matches any type.
+			this.beanTypeIndex.classify(beanName);
+			return;
+		}
+		if (mbd.getDecoratedDefinition() != null ||
+				!(mbd.hasBeanClass() || !mbd.isLazyInit() || isAllowEagerClassLoading()) ||
+				requiresEagerInitForType(mbd.getFactoryBeanName())) {
+			return;
+		}
+		if (isFactoryBean(beanName, mbd)) {
+			// Object type only determinable through the FactoryBean itself.
+			this.beanTypeIndex.classifyAsOpaque(beanName);
+			return;
+		}
+		Class<?> predictedType = predictBeanType(beanName, mbd);
+		if (predictedType == null) {
+			return;
+		}
+		this.beanTypeIndex.classify(beanName, predictedType);
+		// Include the type of an existing instance (e.g. a proxy) as well.
+		Object beanInstance = getSingleton(beanName, false);
+		if (beanInstance != null) {
+			indexInstanceType(beanName, beanInstance);
+		}
+	}
+
+	private void indexInstanceType(String beanName, Object beanInstance) {
+		if (beanInstance instanceof FactoryBean) {
+			this.beanTypeIndex.classifyAsOpaque(beanName);
+		}
+		else if (!(beanInstance instanceof NullBean)) {
+			this.beanTypeIndex.addInstanceType(beanName, beanInstance.getClass());
+		}
+	}
+
 	/**
 	 * Check whether the specified bean would need to be eagerly initialized
 	 * in order to determine its type.
@@ -907,12 +1052,14 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	protected void clearMergedBeanDefinition(String beanName) {
 		super.clearMergedBeanDefinition(beanName);
 		this.mergedBeanDefinitionHolders.remove(beanName);
+		this.beanTypeIndex.reset(beanName);
 	}
 
 	@Override
 	public void clearMetadataCache() {
 		super.clearMetadataCache();
 		this.mergedBeanDefinitionHolders.clear();
+		this.beanTypeIndex.invalidate();
 		clearByTypeCache();
 	}
 
@@ -965,28 +1112,34 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
 		// Trigger initialization of all non-lazy singleton beans...
-		// 触发所有非延迟加载单例bean的初始化，遍历集合的对象
-		for (String beanName : beanNames) {
-			// 合并父类BeanDefinition，转为统一的RootBeanDefinition类型，方便后续的判断
- 			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			// 条件判断：非抽象，单例，非懒加载
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				// 判断是否实现了FactoryBean接口（注意了，不是BeanFactory）：
-				//     当一个bean实现了FactoryBean时需要重写扩展点方法
-				//     （重写getObject()方法返回new Dog()，获取Dog Bean使用getBean(factoryBeanName)，但是也可以通过$factoryBeanName获取FactoryBean，mybatis的动态代理就是这个实现方式）
-				if (isFactoryBean(beanName)) {
-					System.out.println(beanName + "实现了FactoryBean");
-					// 根据&+beanName来获取具体的对象
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					// 判断这个FactoryBean是否希望立即初始化
-					// 如果希望急切的初始化，则通过beanName获取bean实例
-					if (bean instanceof SmartFactoryBean<?> smartFactoryBean && smartFactoryBean.isEagerInit()) {
-						getBean(beanName);
+		Executor executor = this.preInstantiationExecutor;
+		if (executor != null) {
+			preInstantiateSingletonsInParallel(beanNames, executor);
+		}
+		else {
+			// 触发所有非延迟加载单例bean的初始化，遍历集合的对象
+			for (String beanName : beanNames) {
+				// 合并父类BeanDefinition，转为统一的RootBeanDefinition类型，方便后续的判断
+				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+				// 条件判断：非抽象，单例，非懒加载
+				if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+					// 判断是否实现了FactoryBean接口（注意了，不是BeanFactory）：
+					//     当一个bean实现了FactoryBean时需要重写扩展点方法
+					//     （重写getObject()方法返回new Dog()，获取Dog Bean使用getBean(factoryBeanName)，但是也可以通过$factoryBeanName获取FactoryBean，mybatis的动态代理就是这个实现方式）
+					if (isFactoryBean(beanName)) {
+						System.out.println(beanName + "实现了FactoryBean");
+						// 根据&+beanName来获取具体的对象
+						Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+						// 判断这个FactoryBean是否希望立即初始化
+						// 如果希望急切的初始化，则通过beanName获取bean实例
+						if (bean instanceof SmartFactoryBean<?> smartFactoryBean && smartFactoryBean.isEagerInit()) {
+							getBean(beanName);
+						}
+					}
+					else {
+						// 如果beanName对应的bean不是FactoryBean，只是普通的bean，通过beanName获取bean实例
+						getBean(beanName); // 调用getBean
 					}
-				}
-				else {
-					// 如果beanName对应的bean不是FactoryBean，只是普通的bean，通过beanName获取bean实例
-					getBean(beanName); // 调用getBean
 				}
 			}
 		}
@@ -1007,6 +1160,102 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+	private void preInstantiateSingleton(String beanName) {
+		if (isFactoryBean(beanName)) {
+			Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+			if (bean instanceof SmartFactoryBean<?> smartFactoryBean && smartFactoryBean.isEagerInit()) {
+				getBean(beanName);
+			}
+		}
+		else {
+			getBean(beanName);
+		}
+	}
+
+	private void preInstantiateSingletonsInParallel(List<String> beanNames, Executor executor) {
+		ParallelSingletonInstantiation instantiation = new ParallelSingletonInstantiation(
+				executor, this.preInstantiationParallelism, this::preInstantiateSingleton,
+				beanName -> Arrays.asList(getDependenciesForBean(beanName)));
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+				instantiation.addBean(beanName, determinePreInstantiationDependencies(beanName, bd));
+			}
+		}
+		List<String> creationOrder = instantiation.run();
+		// Registration order (and therefore destruction order) as for sequential pre-instantiation
+		reorderSingletons(creationOrder);
+	}
+
+	/**
+	 * Determine the names of the beans that the given singleton is known to
+	 * depend on before creating it: the dependencies declared in its bean
+	 * definition plus the beans matching the parameter types of the constructors
+	 * or the factory method to autowire, if any.
+	 * @param beanName the name of the singleton
+	 * @param bd the merged bean definition
+	 * @return the canonical names of the known dependencies
+	 */
+	private Set<String> determinePreInstantiationDependencies(String beanName, RootBeanDefinition bd) {
+		Set<String> dependencies = new LinkedHashSet<>();
+		for (String dependency : ParallelSingletonInstantiation.determineDependencies(bd)) {
+			dependencies.add(transformedBeanName(dependency));
+		}
+		if (bd.getInstanceSupplier() == null) {
+			try {
+				Method factoryMethod = bd.getResolvedFactoryMethod();
+				Executable[] executables = null;
+				if (factoryMethod != null) {
+					executables = new Executable[] {factoryMethod};
+				}
+				else if (bd.getFactoryMethodName() == null) {
+					Constructor<?>[] ctors = determineConstructorsFromBeanPostProcessors(
+							resolveBeanClass(bd, beanName), beanName);
+					executables = (ctors != null ? ctors : bd.getPreferredConstructors());
+				}
+				if (executables != null) {
+					for (Executable executable : executables) {
+						for (int i = 0; i < executable.getParameterCount(); i++) {
+							addCandidateNames(MethodParameter.forExecutable(executable, i), dependencies);
+						}
+					}
+				}
+			}
+			catch (BeansException ex) {
+				// To be reported when actually creating the bean
+				logger.trace(LogMessage.format("Failed to determine constructors of bean '%s'", beanName), ex);
+			}
+		}
+		return dependencies;
+	}
+
+	private void addCandidateNames(MethodParameter parameter, Set<String> result) {
+		ResolvableType type = ResolvableType.forMethodParameter(parameter);
+		Class<?> rawClass = type.resolve();
+		if (rawClass == null || ObjectFactory.class.isAssignableFrom(rawClass)) {
+			// Lazy lookup: not required for creating the bean
+			return;
+		}
+		if (type.isArray()) {
+			type = type.getComponentType();
+		}
+		else if (Collection.class.isAssignableFrom(rawClass)) {
+			type = type.asCollection().getGeneric();
+		}
+		else if (rawClass == Optional.class) {
+			type = type.getGeneric();
+		}
+		else if (Map.class.isAssignableFrom(rawClass)) {
+			type = type.asMap().getGeneric(1);
+		}
+		Class<?> candidateClass = type.resolve();
+		if (candidateClass != null && candidateClass != Object.class) {
+			for (String candidateName : getBeanNamesForType(type, true, false)) {
+				result.add(transformedBeanName(candidateName));
+			}
+		}
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
@@ -1118,6 +1367,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			}
 			this.frozenBeanDefinitionNames = null;
 		}
+		this.beanTypeIndex.register(beanName);
 
 		if (existingDefinition != null || containsSingleton(beanName)) {
 			// 重置所有beanName对应的缓存
@@ -1153,6 +1403,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.beanDefinitionNames.remove(beanName);
 		}
 		this.frozenBeanDefinitionNames = null;
+		this.beanTypeIndex.remove(beanName);
 
 		resetBeanDefinition(beanName);
 	}
@@ -1221,6 +1472,29 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		clearByTypeCache();
 	}
 
+	@Override
+	protected Object createBean(String beanName, RootBeanDefinition mbd, @Nullable Object[] args)
+			throws BeanCreationException {
+
+		Object beanInstance = super.createBean(beanName, mbd, args);
+		// Non-singleton instances may expose types beyond the predicted type as well.
+		indexInstanceType(beanName, beanInstance);
+		return beanInstance;
+	}
+
+	@Override
+	protected void addSingleton(String beanName, Object singletonObject) {
+		super.addSingleton(beanName, singletonObject);
+		indexInstanceType(beanName, singletonObject);
+	}
+
+	@Override
+	protected void beforeSingletonCreation(String beanName) {
+		super.beforeSingletonCreation(beanName);
+		// Early references may expose a different type until the singleton is registered.
+		this.beanTypeIndex.reset(beanName);
+	}
+
 	@Override
 	public void destroySingletons() {
 		super.destroySingletons();
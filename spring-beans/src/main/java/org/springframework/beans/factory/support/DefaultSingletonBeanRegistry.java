@@ -16,15 +16,20 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCreationNotAllowedException;
@@ -32,6 +37,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -62,6 +68,13 @@ import org.springframework.util.StringUtils;
  * the {@link org.springframework.beans.factory.config.ConfigurableBeanFactory}
  * interface extends the {@link SingletonBeanRegistry} interface.
  *
+ * <p>The creation of each singleton is guarded by a dedicated lock per bean name,
+ * so that unrelated singletons may be created concurrently. If threads would
+ * end up waiting for each other's singletons (mutually dependent singletons
+ * requested from different threads at the same time), the waiting thread
+ * resolves the singleton like a circular reference within a single thread,
+ * i.e. through its early reference, instead of blocking.
+ *
  * <p>Note that this class assumes neither a bean definition concept
  * nor a specific creation process for bean instances, in contrast to
  * {@link AbstractBeanFactory} and {@link DefaultListableBeanFactory}
@@ -95,7 +108,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 *
 	 * Cache of singleton factories: bean name to ObjectFactory. */
 	/** 三级缓存，用于缓存Bean工厂(代理对象) */
-	private final Map<String, ObjectFactory<?>> singletonFactories = new HashMap<>(16);
+	private final Map<String, ObjectFactory<?>> singletonFactories = new ConcurrentHashMap<>(16);
 
 	/**
 	 * 二级缓存
@@ -126,18 +139,30 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Set<String> inCreationCheckExclusions =
 			Collections.newSetFromMap(new ConcurrentHashMap<>(16));
 
+	/**
+	 * 每个单例bean各自的创建锁，互不相关的单例可以在不同线程中并发创建
+	 *
+	 * Creation locks per singleton: bean name to lock. */
+	private final Map<String, SingletonCreationLock> singletonCreationLocks = new ConcurrentHashMap<>(256);
+
+	/** Guards waiting for creation locks, for a consistent check of threads waiting for each other. */
+	private final ReentrantLock creationLockMonitor = new ReentrantLock();
+
+	/** Creation locks that threads are currently waiting for: thread to lock. */
+	private final Map<Thread, AwaitedCreationLock> awaitedCreationLocks = new HashMap<>(16);
+
 	/**
 	 * 抑制的异常列表，可用于关联相关原因
 	 *
-	 * Collection of suppressed Exceptions, available for associating related causes. */
-	@Nullable
-	private Set<Exception> suppressedExceptions;
+	 * Collection of suppressed Exceptions per thread, available for associating related causes. */
+	private final ThreadLocal<Set<Exception>> suppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions of singleton creation");
 
 	/**
 	 * 指示我们当前是否在destroySingletons中的标志
 	 *
 	 * Flag that indicates whether we're currently within destroySingletons. */
-	private boolean singletonsCurrentlyInDestruction = false;
+	private volatile boolean singletonsCurrentlyInDestruction = false;
 
 	/**
 	 * 一次性Bean实例：bean名称 - DisposableBean实例。
@@ -268,36 +293,61 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		Object singletonObject = this.singletonObjects.get(beanName);
 		// 如果单例对象缓存中没有，并且该beanName对应的单例bean正在创建中
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
-			//从早期单例对象缓存中获取单例对象（之所称成为早期单例对象，是因为earlySingletonObjects里
-			// 的对象的都是通过提前曝光的ObjectFactory创建出来的，还未进行属性填充等操作）
-			singletonObject = this.earlySingletonObjects.get(beanName);
-			// 如果在早期单例对象缓存中也没有，并且允许创建早期单例对象引用，则加锁开始创建对象
-			if (singletonObject == null && allowEarlyReference) {
-				// 如果一二级都为空，则锁定全局变量【一级缓存】并进行处理
-				synchronized (this.singletonObjects) {
-					// Consistent creation of early reference within full singleton lock
-					singletonObject = this.singletonObjects.get(beanName);
-					if (singletonObject == null) {
-						singletonObject = this.earlySingletonObjects.get(beanName);
-						if (singletonObject == null) {
-							// 当某些方法需要提前初始化的时候则会调用addSingletonFactory方法将对应的ObjectFactory初始化策略存储在singletonFactories
-							ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
-							if (singletonFactory != null) {
-								// 如果存在单例对象工厂，则通过工厂创建一个单例对象
-								singletonObject = singletonFactory.getObject();
-								// 记录在缓存中，二级缓存和三级缓存的对象不能同时存在
-								this.earlySingletonObjects.put(beanName, singletonObject);
-								// 从三级缓存中移除
-								this.singletonFactories.remove(beanName);
-							}
-						}
-					}
+			// 早期引用只暴露给正在创建该bean的线程，其他线程需要等待创建完成
+			if (!allowEarlyReference || isEarlyReferenceAccessible(beanName)) {
+				//从早期单例对象缓存中获取单例对象（之所称成为早期单例对象，是因为earlySingletonObjects里
+				// 的对象的都是通过提前曝光的ObjectFactory创建出来的，还未进行属性填充等操作）
+				singletonObject = this.earlySingletonObjects.get(beanName);
+				// 如果在早期单例对象缓存中也没有，并且允许创建早期单例对象引用，则开始创建对象
+				if (singletonObject == null && allowEarlyReference) {
+					singletonObject = getEarlySingletonReference(beanName);
 				}
 			}
 		}
 		return singletonObject;
 	}
 
+	/**
+	 * Determine whether an early reference to the given singleton may be
+	 * exposed to the current thread: only to the thread that creates it,
+	 * unless it is being created without a creation lock.
+	 */
+	private boolean isEarlyReferenceAccessible(String beanName) {
+		SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+		return (creationLock == null || !creationLock.isLocked() || creationLock.isHeldByCurrentThread());
+	}
+
+	/**
+	 * Obtain an early reference to the given singleton from its registered
+	 * singleton factory, if any, exposing it in the early singleton cache.
+	 */
+	@Nullable
+	private Object getEarlySingletonReference(String beanName) {
+		// 当某些方法需要提前初始化的时候则会调用addSingletonFactory方法将对应的ObjectFactory初始化策略存储在singletonFactories
+		ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+		if (singletonFactory == null) {
+			return this.earlySingletonObjects.get(beanName);
+		}
+		// Consistent creation of early reference, without holding the full singleton lock
+		synchronized (singletonFactory) {
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				singletonObject = this.earlySingletonObjects.get(beanName);
+				if (singletonObject == null && this.singletonFactories.get(beanName) == singletonFactory) {
+					// 如果存在单例对象工厂，则通过工厂创建一个单例对象
+					singletonObject = singletonFactory.getObject();
+					synchronized (this.singletonObjects) {
+						// 记录在缓存中，二级缓存和三级缓存的对象不能同时存在
+						this.earlySingletonObjects.put(beanName, singletonObject);
+						// 从三级缓存中移除
+						this.singletonFactories.remove(beanName);
+					}
+				}
+			}
+			return singletonObject;
+		}
+	}
+
 	/**
 	 * 返回以给定名称注册的(原始)单例对象，如果尚未注册，则创建并注册一个对象
 	 *
@@ -311,9 +361,25 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		// 如果beanName为null，抛出异常
 		Assert.notNull(beanName, "Bean name must not be null");
-		// 使用单例对象的高速缓存Map作为锁，保证线程同步
-		synchronized (this.singletonObjects) {
-			Object singletonObject = this.singletonObjects.get(beanName); // 一级缓存中获取
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		// 使用该beanName对应的创建锁，保证同一个bean只被创建一次，而不同的bean可以并发创建
+		if (!acquireSingletonCreationLock(beanName, true)) {
+			// Mutually dependent singletons in creation by different threads:
+			// resolve like a circular reference within a single thread.
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				singletonObject = getEarlySingletonReference(beanName);
+			}
+			if (singletonObject == null) {
+				throw new BeanCurrentlyInCreationException(beanName);
+			}
+			return singletonObject;
+		}
+		try {
+			singletonObject = this.singletonObjects.get(beanName); // 一级缓存中获取
 			if (singletonObject == null) {
 				if (this.singletonsCurrentlyInDestruction) { // 判断这个工厂的bean是否正在销毁，是的话直接抛出异常
 					throw new BeanCreationNotAllowedException(beanName,
@@ -326,9 +392,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				// 判断这个bean是否是被排除的，并且标注创建中标识也叫循环依赖标识，如果标注不了List.add不行的话直接抛出异常
 				beforeSingletonCreation(beanName);
 				boolean newSingleton = false;// 表示bean还没有开始创建，根据这个字段可以区分bean创建的当前阶段
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
+				boolean recordSuppressedExceptions = (this.suppressedExceptions.get() == null);
 				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
+					this.suppressedExceptions.set(new LinkedHashSet<>());
 				}
 				try {
 					// 执行函数方法createBean()，创建单例对象
@@ -349,7 +415,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				catch (BeanCreationException ex) {
 					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
+						for (Exception suppressedException : this.suppressedExceptions.get()) {
 							ex.addRelatedCause(suppressedException);
 						}
 					}
@@ -357,7 +423,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				finally {
 					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
+						this.suppressedExceptions.remove();
 					}
 					afterSingletonCreation(beanName);
 				}
@@ -371,6 +437,199 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			// 返回该单例对象
 			return singletonObject;
 		}
+		finally {
+			releaseSingletonCreationLock(beanName);
+		}
+	}
+
+	/**
+	 * Acquire the creation lock for the given singleton, blocking while another
+	 * thread creates the same singleton.
+	 * <p>If waiting would result in a deadlock, i.e. if the thread that holds the
+	 * lock (transitively) waits for a creation lock held by the current thread,
+	 * one of the threads involved has to proceed like for a circular reference
+	 * within a single thread. The current thread does so if early references
+	 * are allowed and an early reference to the given singleton is available.
+	 * Otherwise another thread in the cycle is signalled to proceed with an
+	 * early reference, if possible, e.g. if the singleton requested by the
+	 * current thread depends on the other singleton through constructor injection
+	 * while the other singleton uses field or setter injection.
+	 * <p>The check for such a cycle happens whenever a thread starts waiting
+	 * for a creation lock, so that the thread that closes a cycle resolves it.
+	 * @param beanName the name of the singleton
+	 * @param allowEarlyReference whether the caller is able to proceed without
+	 * the lock, resolving an early reference to the singleton
+	 * @return {@code true} if the lock has been acquired, to be released through
+	 * {@link #releaseSingletonCreationLock}; {@code false} if the caller is
+	 * supposed to proceed without the lock (only if early references are allowed)
+	 * @throws BeanCurrentlyInCreationException if early references are not
+	 * allowed and waiting would deadlock without any other thread in the cycle
+	 * being able to proceed
+	 * @since 6.1
+	 */
+	protected boolean acquireSingletonCreationLock(String beanName, boolean allowEarlyReference) {
+		Thread currentThread = Thread.currentThread();
+		while (true) {
+			SingletonCreationLock creationLock = this.singletonCreationLocks.computeIfAbsent(beanName,
+					name -> new SingletonCreationLock(name, this.creationLockMonitor.newCondition()));
+			if (creationLock.tryLock(currentThread)) {
+				return true;
+			}
+			Boolean acquired = awaitSingletonCreationLock(creationLock, currentThread, allowEarlyReference);
+			if (acquired != null) {
+				return acquired;
+			}
+			// Lock discarded in the meantime: retry with the current lock for the singleton
+		}
+	}
+
+	/**
+	 * Wait for the given creation lock, checking for a cycle of threads
+	 * waiting for each other before blocking.
+	 * @return whether the lock has been acquired (see
+	 * {@link #acquireSingletonCreationLock}), or {@code null} if the lock
+	 * has been discarded and needs to be obtained again
+	 */
+	@Nullable
+	private Boolean awaitSingletonCreationLock(
+			SingletonCreationLock creationLock, Thread currentThread, boolean allowEarlyReference) {
+
+		String beanName = creationLock.getBeanName();
+		AwaitedCreationLock awaited = new AwaitedCreationLock(creationLock, allowEarlyReference);
+		this.creationLockMonitor.lock();
+		try {
+			this.awaitedCreationLocks.put(currentThread, awaited);
+			creationLock.waiters++;
+			while (true) {
+				if (creationLock.tryLock(currentThread)) {
+					return true;
+				}
+				if (creationLock.isDiscarded()) {
+					return null;
+				}
+				if (awaited.proceedWithEarlyReference) {
+					// Signalled by a thread that closed a cycle with the current thread
+					return false;
+				}
+				List<AwaitedCreationLock> cycle = determineDeadlockCycle(creationLock, currentThread);
+				if (cycle != null) {
+					if (allowEarlyReference && hasEarlySingletonReference(beanName)) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Not waiting for singleton bean '" + beanName + "' in creation by thread [" +
+									creationLock.getOwnerThread() + "] since that thread waits for the current thread");
+						}
+						return false;
+					}
+					AwaitedCreationLock proceeding = findAwaitedLockToProceed(cycle);
+					if (proceeding != null) {
+						proceeding.proceedWithEarlyReference = true;
+						proceeding.lock().released.signalAll();
+					}
+					else if (allowEarlyReference) {
+						return false;
+					}
+					else {
+						throw new BeanCurrentlyInCreationException(beanName,
+								"Requested bean is currently in creation by thread [" + creationLock.getOwnerThread() +
+								"] which waits for the current thread: Is there an unresolvable circular reference?");
+					}
+				}
+				creationLock.released.await();
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanCreationException(beanName, "Interrupted while waiting for singleton creation", ex);
+		}
+		finally {
+			creationLock.waiters--;
+			this.awaitedCreationLocks.remove(currentThread);
+			this.creationLockMonitor.unlock();
+		}
+	}
+
+	/**
+	 * Release the creation lock for the given singleton.
+	 * <p>Once no other thread waits for it anymore, the creation lock is
+	 * discarded, to be recreated on demand for a subsequent creation attempt.
+	 * @param beanName the name of the singleton
+	 * @since 6.1
+	 * @see #acquireSingletonCreationLock
+	 */
+	protected void releaseSingletonCreationLock(String beanName) {
+		SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+		Assert.state(creationLock != null && creationLock.isHeldByCurrentThread(),
+				() -> "Creation lock for singleton '" + beanName + "' not held by current thread");
+		if (creationLock.unlock()) {
+			this.creationLockMonitor.lock();
+			try {
+				creationLock.released.signalAll();
+				discardSingletonCreationLock(creationLock);
+			}
+			finally {
+				this.creationLockMonitor.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Discard the given creation lock if it is neither held nor awaited.
+	 * <p>To be called while holding the {@link #creationLockMonitor}.
+	 */
+	private boolean discardSingletonCreationLock(SingletonCreationLock creationLock) {
+		if (creationLock.discard()) {
+			this.singletonCreationLocks.remove(creationLock.getBeanName(), creationLock);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Determine the locks awaited by the other threads in a cycle of threads
+	 * waiting for each other, if waiting for the given lock would close one.
+	 * <p>To be called while holding the {@link #creationLockMonitor}.
+	 * @return the locks awaited by the other threads in the cycle, or
+	 * {@code null} if waiting for the given lock does not deadlock
+	 */
+	@Nullable
+	private List<AwaitedCreationLock> determineDeadlockCycle(SingletonCreationLock creationLock, Thread currentThread) {
+		List<AwaitedCreationLock> cycle = new ArrayList<>();
+		Set<Thread> visited = new HashSet<>();
+		SingletonCreationLock awaitedLock = creationLock;
+		while (true) {
+			Thread owner = awaitedLock.getOwnerThread();
+			if (owner == null) {
+				return null;
+			}
+			if (owner == currentThread) {
+				return cycle;
+			}
+			if (!visited.add(owner)) {
+				// Cycle among other threads: not ours to resolve
+				return null;
+			}
+			AwaitedCreationLock awaited = this.awaitedCreationLocks.get(owner);
+			if (awaited == null) {
+				return null;
+			}
+			cycle.add(awaited);
+			awaitedLock = awaited.lock();
+		}
+	}
+
+	@Nullable
+	private AwaitedCreationLock findAwaitedLockToProceed(List<AwaitedCreationLock> cycle) {
+		for (AwaitedCreationLock awaited : cycle) {
+			if (awaited.allowEarlyReference() && hasEarlySingletonReference(awaited.lock().getBeanName())) {
+				return awaited;
+			}
+		}
+		return null;
+	}
+
+	private boolean hasEarlySingletonReference(String beanName) {
+		return (this.singletonObjects.containsKey(beanName) || this.earlySingletonObjects.containsKey(beanName) ||
+				this.singletonFactories.containsKey(beanName));
 	}
 
 	/**
@@ -383,10 +642,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see BeanCreationException#getRelatedCauses()
 	 */
 	protected void onSuppressedException(Exception ex) {
-		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null && this.suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
-				this.suppressedExceptions.add(ex);
-			}
+		Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+		if (suppressedExceptions != null && suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
+			suppressedExceptions.add(ex);
 		}
 	}
 
@@ -394,7 +652,6 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * Remove the bean with the given name from the singleton cache of this factory,
 	 * to be able to clean up eager registration of a singleton if creation failed.
 	 * @param beanName the name of the bean
-	 * @see #getSingletonMutex()
 	 */
 	protected void removeSingleton(String beanName) {
 		synchronized (this.singletonObjects) {
@@ -403,6 +660,52 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.earlySingletonObjects.remove(beanName);
 			this.registeredSingletons.remove(beanName);
 		}
+		SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+		if (creationLock != null) {
+			this.creationLockMonitor.lock();
+			try {
+				discardSingletonCreationLock(creationLock);
+			}
+			finally {
+				this.creationLockMonitor.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Re-arrange the registration order of the given singletons, e.g. after they
+	 * have been created concurrently.
+	 * <p>The given beans take the positions that they currently occupy among
+	 * all registered singletons, in the specified order, whereas all other
+	 * singletons keep their position. This applies to the disposable beans
+	 * as well, and therefore to the destruction order.
+	 * @param beanNames the bean names in their intended registration order
+	 * @since 6.1
+	 */
+	protected void reorderSingletons(List<String> beanNames) {
+		synchronized (this.singletonObjects) {
+			List<String> singletonNames = reorder(this.registeredSingletons, beanNames);
+			this.registeredSingletons.clear();
+			this.registeredSingletons.addAll(singletonNames);
+		}
+		synchronized (this.disposableBeans) {
+			Map<String, Object> disposableBeans = new LinkedHashMap<>(this.disposableBeans);
+			List<String> disposableBeanNames = reorder(disposableBeans.keySet(), beanNames);
+			this.disposableBeans.clear();
+			for (String beanName : disposableBeanNames) {
+				this.disposableBeans.put(beanName, disposableBeans.get(beanName));
+			}
+		}
+	}
+
+	private static List<String> reorder(Set<String> current, List<String> beanNames) {
+		Set<String> reordered = new HashSet<>(beanNames);
+		Iterator<String> replacements = beanNames.stream().filter(current::contains).iterator();
+		List<String> result = new ArrayList<>(current.size());
+		for (String beanName : current) {
+			result.add(reordered.contains(beanName) ? replacements.next() : beanName);
+		}
+		return result;
 	}
 
 	@Override
@@ -648,6 +951,13 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.registeredSingletons.clear();
 			this.singletonsCurrentlyInDestruction = false;
 		}
+		this.creationLockMonitor.lock();
+		try {
+			this.singletonCreationLocks.values().forEach(this::discardSingletonCreationLock);
+		}
+		finally {
+			this.creationLockMonitor.unlock();
+		}
 	}
 
 	/**
@@ -733,13 +1043,138 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/**
 	 * Exposes the singleton mutex to subclasses and external collaborators.
 	 * <p>Subclasses should synchronize on the given Object if they perform
-	 * any sort of extended singleton creation phase. In particular, subclasses
-	 * should <i>not</i> have their own mutexes involved in singleton creation,
-	 * to avoid the potential for deadlocks in lazy-init situations.
+	 * any sort of extended singleton cache updates.
+	 * @deprecated as of 6.1, since the mutex only guards the singleton caches:
+	 * it is not held during the creation of singletons anymore, which is guarded
+	 * per bean name instead (see {@link #acquireSingletonCreationLock}). Since
+	 * creation acquires the mutex for cache updates, it must <i>not</i> be held
+	 * while calling back into the factory, e.g. for lazily obtaining a bean: this
+	 * would risk a deadlock with a thread creating that bean. Collaborators should
+	 * rely on the singleton semantics of the factory or use a local lock instead.
 	 */
+	@Deprecated(since = "6.1")
 	@Override
 	public final Object getSingletonMutex() {
 		return this.singletonObjects;
 	}
 
+
+	/**
+	 * Reentrant lock for the creation of a specific singleton,
+	 * exposing its current owner for deadlock detection.
+	 * <p>Waiting for the lock is implemented by the registry, using the
+	 * {@link #creationLockMonitor} and the {@code released} condition.
+	 */
+	private static final class SingletonCreationLock {
+
+		/** Marker for a discarded lock, which cannot be acquired anymore. */
+		private static final Object DISCARDED = new Object();
+
+		private final String beanName;
+
+		/** Signalled when the lock is released. */
+		final Condition released;
+
+		/** The owning thread, {@code null} if not held, or {@link #DISCARDED}. */
+		private final AtomicReference<Object> owner = new AtomicReference<>();
+
+		/** Number of holds by the owning thread, only accessed by that thread. */
+		private int holdCount;
+
+		/** Number of threads waiting for the lock, guarded by the creation lock monitor. */
+		int waiters;
+
+		SingletonCreationLock(String beanName, Condition released) {
+			this.beanName = beanName;
+			this.released = released;
+		}
+
+		String getBeanName() {
+			return this.beanName;
+		}
+
+		boolean tryLock(Thread currentThread) {
+			Object owner = this.owner.get();
+			if (owner == currentThread) {
+				this.holdCount++;
+				return true;
+			}
+			if (owner == null && this.owner.compareAndSet(null, currentThread)) {
+				this.holdCount = 1;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Release one hold of the lock by the current thread.
+		 * @return {@code true} if the lock is not held anymore
+		 */
+		boolean unlock() {
+			if (--this.holdCount > 0) {
+				return false;
+			}
+			this.owner.set(null);
+			return true;
+		}
+
+		/**
+		 * Discard the lock if it is neither held nor awaited.
+		 * <p>To be called while holding the creation lock monitor.
+		 */
+		boolean discard() {
+			return (this.waiters == 0 && this.owner.compareAndSet(null, DISCARDED));
+		}
+
+		boolean isDiscarded() {
+			return (this.owner.get() == DISCARDED);
+		}
+
+		boolean isLocked() {
+			return (this.owner.get() instanceof Thread);
+		}
+
+		boolean isHeldByCurrentThread() {
+			return (this.owner.get() == Thread.currentThread());
+		}
+
+		@Nullable
+		Thread getOwnerThread() {
+			return (this.owner.get() instanceof Thread thread ? thread : null);
+		}
+
+		@Override
+		public String toString() {
+			return "Creation lock for singleton '" + this.beanName + "'";
+		}
+	}
+
+
+	/**
+	 * A creation lock that a thread waits for, along with whether that thread
+	 * is able to proceed with an early reference in case of a deadlock.
+	 */
+	private static final class AwaitedCreationLock {
+
+		private final SingletonCreationLock lock;
+
+		private final boolean allowEarlyReference;
+
+		/** Set when another thread in a cycle decided that this thread proceeds. */
+		boolean proceedWithEarlyReference;
+
+		AwaitedCreationLock(SingletonCreationLock lock, boolean allowEarlyReference) {
+			this.lock = lock;
+			this.allowEarlyReference = allowEarlyReference;
+		}
+
+		SingletonCreationLock lock() {
+			return this.lock;
+		}
+
+		boolean allowEarlyReference() {
+			return this.allowEarlyReference;
+		}
+	}
+
 }
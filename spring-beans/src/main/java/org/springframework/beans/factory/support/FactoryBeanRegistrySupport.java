@@ -87,8 +87,10 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 	protected Object getObjectFromFactoryBean(FactoryBean<?> factory, String beanName, boolean shouldPostProcess) {
 		// 如果factory管理的对象是单例且beanName已经在该BeanFactory的单例对象的高速缓存Map集合DefaultListableBeanFactory.singletonObjects中
 		if (factory.isSingleton() && containsSingleton(beanName)) {
-			// 获取单例互斥体(一般使用singletonObjects)进行加锁,来保证线程安全
-			synchronized (getSingletonMutex()) {
+			// 获取该beanName对应的单例创建锁,来保证线程安全,以免FactoryBean.getObject()被并发调用多次
+			// (FactoryBean对象没有早期引用,因此线程间死锁时等待其他线程解决,否则抛出异常)
+			acquireSingletonCreationLock(beanName, false);
+			try {
 				// 获取beanName的Bean对象
 				Object object = this.factoryBeanObjectCache.get(beanName);
 				// 如果object为null
@@ -143,6 +145,9 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 				// 返回factory管理的对象实例(该对象已经过工厂的后处理)
 				return object;
 			}
+			finally {
+				releaseSingletonCreationLock(beanName);
+			}
 		}
 		else {
 			// 获取factory管理的对象实例
@@ -230,10 +235,8 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 	 */
 	@Override
 	protected void removeSingleton(String beanName) {
-		synchronized (getSingletonMutex()) {
-			super.removeSingleton(beanName);
-			this.factoryBeanObjectCache.remove(beanName);
-		}
+		super.removeSingleton(beanName);
+		this.factoryBeanObjectCache.remove(beanName);
 	}
 
 	/**
@@ -241,10 +244,8 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 	 */
 	@Override
 	protected void clearSingletonCache() {
-		synchronized (getSingletonMutex()) {
-			super.clearSingletonCache();
-			this.factoryBeanObjectCache.clear();
-		}
+		super.clearSingletonCache();
+		this.factoryBeanObjectCache.clear();
 	}
 
 }
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.lang.Nullable;
+
+/**
+ * Internal helper for the parallel pre-instantiation of singletons in a
+ * {@link DefaultListableBeanFactory}.
+ *
+ * <p>Beans are registered along with the names of the beans that they are known
+ * to depend on, e.g. as declared in their merged bean definitions. A bean is
+ * dispatched to the executor as soon as all of its known dependencies have been
+ * created. Any further dependencies (e.g. with annotation-driven injection) are
+ * resolved on the thread that creates the bean, waiting for the per-bean creation
+ * lock of a singleton currently in creation on another thread. Beans in a cycle
+ * of known dependencies are instantiated on the calling thread instead.
+ *
+ * @since 6.1
+ * @see DefaultListableBeanFactory#setPreInstantiationExecutor
+ */
+final class ParallelSingletonInstantiation {
+
+	private final Executor executor;
+
+	private final int parallelism;
+
+	private final Consumer<String> instantiator;
+
+	private final Function<String, ? extends Collection<String>> resolvedDependencies;
+
+	/** Bean name to names of known dependencies, in registration order. */
+	private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+	/** Names of beans to be instantiated on the calling thread, in registration order. */
+	private final Set<String> sequentialBeans = new LinkedHashSet<>();
+
+	/** Bean name to names of parallel beans waiting for it. */
+	private final Map<String, List<String>> dependentBeans = new HashMap<>();
+
+	/** Bean name to number of dependencies not created yet. */
+	private final Map<String, Integer> pendingDependencies = new HashMap<>();
+
+	private final Deque<String> readyBeans = new ArrayDeque<>();
+
+	private final Object monitor = new Object();
+
+	private int remainingBeans;
+
+	private int beansInProgress;
+
+	@Nullable
+	private Throwable failure;
+
+
+	ParallelSingletonInstantiation(Executor executor, int parallelism, Consumer<String> instantiator,
+			Function<String, ? extends Collection<String>> resolvedDependencies) {
+
+		this.executor = executor;
+		this.parallelism = parallelism;
+		this.instantiator = instantiator;
+		this.resolvedDependencies = resolvedDependencies;
+	}
+
+
+	/**
+	 * Register a singleton with the given known dependencies.
+	 * @param beanName the name of the singleton
+	 * @param dependencies the names of the beans that the singleton is known
+	 * to depend on
+	 */
+	void addBean(String beanName, Set<String> dependencies) {
+		this.dependencies.put(beanName, dependencies);
+	}
+
+	/**
+	 * Instantiate all registered singletons, blocking until all of them have
+	 * been created or until the first failure has been propagated.
+	 * @return the names of all registered singletons in a deterministic order
+	 * which corresponds to a sequential instantiation: in registration order,
+	 * with known and resolved dependencies preceding the beans that depend on them
+	 */
+	List<String> run() {
+		List<String> parallelBeans = prepareGraph();
+		synchronized (this.monitor) {
+			this.remainingBeans = parallelBeans.size();
+			for (String beanName : parallelBeans) {
+				if (this.pendingDependencies.get(beanName) == 0) {
+					this.readyBeans.add(beanName);
+				}
+			}
+		}
+
+		int workers = Math.min(this.parallelism, parallelBeans.size());
+		for (int i = 0; i < workers; i++) {
+			try {
+				this.executor.execute(this::processReadyBeans);
+			}
+			catch (RejectedExecutionException ex) {
+				// Remaining work is going to be picked up by the calling thread
+				break;
+			}
+		}
+
+		for (String beanName : this.sequentialBeans) {
+			synchronized (this.monitor) {
+				if (this.failure != null) {
+					break;
+				}
+			}
+			try {
+				this.instantiator.accept(beanName);
+			}
+			catch (Throwable ex) {
+				synchronized (this.monitor) {
+					if (this.failure == null) {
+						this.failure = ex;
+					}
+					this.monitor.notifyAll();
+				}
+				break;
+			}
+		}
+
+		// Help out with the remaining parallel beans, then wait for beans in progress
+		processReadyBeans();
+		synchronized (this.monitor) {
+			while (this.beansInProgress > 0) {
+				awaitChange();
+			}
+			if (this.failure != null) {
+				rethrow(this.failure);
+			}
+		}
+		return determineOrder();
+	}
+
+	/**
+	 * Build the dependency graph among the registered beans, moving beans
+	 * that are part of a dependency cycle to the sequential beans.
+	 * @return the names of the beans to instantiate in parallel
+	 */
+	private List<String> prepareGraph() {
+		for (Map.Entry<String, Set<String>> entry : this.dependencies.entrySet()) {
+			String beanName = entry.getKey();
+			int pending = 0;
+			for (String dependency : entry.getValue()) {
+				if (!dependency.equals(beanName) && this.dependencies.containsKey(dependency)) {
+					this.dependentBeans.computeIfAbsent(dependency, k -> new ArrayList<>()).add(beanName);
+					pending++;
+				}
+			}
+			this.pendingDependencies.put(beanName, pending);
+		}
+
+		// Detect cycles: every bean not reachable through a topological sort
+		Map<String, Integer> counts = new HashMap<>(this.pendingDependencies);
+		Deque<String> queue = new ArrayDeque<>();
+		counts.forEach((beanName, count) -> {
+			if (count == 0) {
+				queue.add(beanName);
+			}
+		});
+		Set<String> sorted = new HashSet<>();
+		while (!queue.isEmpty()) {
+			String beanName = queue.poll();
+			sorted.add(beanName);
+			for (String dependent : this.dependentBeans.getOrDefault(beanName, Collections.emptyList())) {
+				if (counts.merge(dependent, -1, Integer::sum) == 0) {
+					queue.add(dependent);
+				}
+			}
+		}
+
+		List<String> parallelBeans = new ArrayList<>(sorted.size());
+		for (String beanName : this.dependencies.keySet()) {
+			if (sorted.contains(beanName)) {
+				parallelBeans.add(beanName);
+			}
+			else {
+				this.sequentialBeans.add(beanName);
+				this.pendingDependencies.remove(beanName);
+			}
+		}
+		// Cyclic beans do not hold back their dependencies anymore
+		this.dependentBeans.values().forEach(dependents -> dependents.removeIf(this.sequentialBeans::contains));
+		return parallelBeans;
+	}
+
+	private void processReadyBeans() {
+		while (true) {
+			String beanName;
+			synchronized (this.monitor) {
+				while (this.readyBeans.isEmpty() && this.remainingBeans > 0 && this.failure == null) {
+					awaitChange();
+				}
+				if (this.remainingBeans == 0 || this.failure != null) {
+					return;
+				}
+				beanName = this.readyBeans.poll();
+				this.beansInProgress++;
+			}
+			Throwable beanFailure = null;
+			try {
+				this.instantiator.accept(beanName);
+			}
+			catch (Throwable ex) {
+				beanFailure = ex;
+			}
+			synchronized (this.monitor) {
+				this.beansInProgress--;
+				this.remainingBeans--;
+				if (beanFailure != null) {
+					if (this.failure == null) {
+						this.failure = beanFailure;
+					}
+				}
+				else {
+					for (String dependent : this.dependentBeans.getOrDefault(beanName, Collections.emptyList())) {
+						if (this.pendingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+							this.readyBeans.add(dependent);
+						}
+					}
+				}
+				this.monitor.notifyAll();
+			}
+		}
+	}
+
+	private void awaitChange() {
+		try {
+			this.monitor.wait();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			IllegalStateException interrupted = new IllegalStateException(
+					"Interrupted while waiting for parallel singleton pre-instantiation", ex);
+			if (this.failure == null) {
+				this.failure = interrupted;
+			}
+			this.monitor.notifyAll();
+			throw interrupted;
+		}
+	}
+
+	private List<String> determineOrder() {
+		List<String> order = new ArrayList<>(this.dependencies.size());
+		Set<String> visited = new HashSet<>();
+		for (String beanName : this.dependencies.keySet()) {
+			visit(beanName, visited, order);
+		}
+		return order;
+	}
+
+	private void visit(String beanName, Set<String> visited, List<String> order) {
+		if (!visited.add(beanName)) {
+			return;
+		}
+		for (String dependency : this.dependencies.getOrDefault(beanName, Collections.emptySet())) {
+			if (this.dependencies.containsKey(dependency)) {
+				visit(dependency, visited, order);
+			}
+		}
+		for (String dependency : this.resolvedDependencies.apply(beanName)) {
+			if (this.dependencies.containsKey(dependency)) {
+				visit(dependency, visited, order);
+			}
+		}
+		order.add(beanName);
+	}
+
+	private static void rethrow(Throwable ex) {
+		if (ex instanceof RuntimeException runtimeException) {
+			throw runtimeException;
+		}
+		if (ex instanceof Error error) {
+			throw error;
+		}
+		throw new IllegalStateException("Parallel singleton pre-instantiation failed", ex);
+	}
+
+
+	/**
+	 * Determine the names of the beans that the given bean definition explicitly
+	 * depends on: its {@code depends-on} declaration, its factory bean as well as
+	 * all bean references by name in its property values and constructor arguments
+	 * (including inner bean definitions and managed collections).
+	 * <p>Dependencies that cannot be determined from the bean definition, e.g.
+	 * in case of autowiring, an instance supplier or an expression, are not
+	 * included: they get resolved when the bean is created.
+	 * @param bd the merged bean definition
+	 * @return the (non-canonical) names of the dependencies
+	 */
+	static Set<String> determineDependencies(RootBeanDefinition bd) {
+		Set<String> result = new LinkedHashSet<>();
+		collectDependencies(bd, result);
+		return result;
+	}
+
+	private static void collectDependencies(BeanDefinition bd, Set<String> result) {
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			Collections.addAll(result, dependsOn);
+		}
+		if (bd.getFactoryBeanName() != null) {
+			result.add(bd.getFactoryBeanName());
+		}
+		if (bd.hasPropertyValues()) {
+			for (PropertyValue pv : bd.getPropertyValues().getPropertyValueList()) {
+				collectDependencies(pv.getValue(), result);
+			}
+		}
+		if (bd.hasConstructorArgumentValues()) {
+			ConstructorArgumentValues cas = bd.getConstructorArgumentValues();
+			for (ConstructorArgumentValues.ValueHolder valueHolder : cas.getIndexedArgumentValues().values()) {
+				collectDependencies(valueHolder.getValue(), result);
+			}
+			for (ConstructorArgumentValues.ValueHolder valueHolder : cas.getGenericArgumentValues()) {
+				collectDependencies(valueHolder.getValue(), result);
+			}
+		}
+	}
+
+	private static void collectDependencies(@Nullable Object value, Set<String> result) {
+		if (value instanceof RuntimeBeanReference ref) {
+			if (ref.getBeanType() == null) {
+				result.add(ref.getBeanName());
+			}
+		}
+		else if (value instanceof BeanDefinitionHolder bdHolder) {
+			collectDependencies(bdHolder.getBeanDefinition(), result);
+		}
+		else if (value instanceof BeanDefinition bd) {
+			collectDependencies(bd, result);
+		}
+		else if (value instanceof Object[] array) {
+			for (Object element : array) {
+				collectDependencies(element, result);
+			}
+		}
+		else if (value instanceof Collection<?> collection) {
+			for (Object element : collection) {
+				collectDependencies(element, result);
+			}
+		}
+		else if (value instanceof Map<?, ?> map) {
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				collectDependencies(entry.getKey(), result);
+				collectDependencies(entry.getValue(), result);
+			}
+		}
+	}
+
+}
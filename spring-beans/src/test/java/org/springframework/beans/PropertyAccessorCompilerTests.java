@@ -0,0 +1,124 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.PropertyDescriptor;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link PropertyAccessorCompiler} and {@link CompiledPropertyAccessor}.
+ */
+class PropertyAccessorCompilerTests {
+
+	@Test
+	void readAndWriteObjectProperty() {
+		CompiledPropertyAccessor accessor = compiledAccessor(TestBean.class, "name");
+		TestBean target = new TestBean();
+		assertThat(accessor.isReadable()).isTrue();
+		assertThat(accessor.isWritable("juergen")).isTrue();
+		assertThat(accessor.isWritable(null)).isTrue();
+		assertThat(accessor.isWritable(42)).isFalse();
+		accessor.setValue(target, "juergen");
+		assertThat(target.getName()).isEqualTo("juergen");
+		assertThat(accessor.getValue(target)).isEqualTo("juergen");
+	}
+
+	@Test
+	void readAndWritePrimitiveProperty() {
+		CompiledPropertyAccessor accessor = compiledAccessor(TestBean.class, "age");
+		TestBean target = new TestBean();
+		assertThat(accessor.isWritable(42)).isTrue();
+		assertThat(accessor.isWritable(null)).isFalse();
+		assertThat(accessor.isWritable(42L)).isFalse();
+		accessor.setValue(target, 42);
+		assertThat(target.getAge()).isEqualTo(42);
+		assertThat(accessor.getValue(target)).isEqualTo(42);
+	}
+
+	@Test
+	void readAndWriteInterfaceTypedProperty() {
+		CompiledPropertyAccessor accessor = compiledAccessor(TestBean.class, "spouse");
+		TestBean target = new TestBean();
+		TestBean spouse = new TestBean("kerry");
+		accessor.setValue(target, spouse);
+		assertThat(target.getSpouse()).isSameAs(spouse);
+		assertThat(accessor.getValue(target)).isSameAs(spouse);
+	}
+
+	@Test
+	void exceptionFromWriteMethodIsPropagated() {
+		CompiledPropertyAccessor accessor = compiledAccessor(TestBean.class, "touchy");
+		assertThatExceptionOfType(Exception.class).isThrownBy(() -> accessor.setValue(new TestBean(), "a.b"))
+				.withMessage("Can't contain a .");
+	}
+
+	@Test
+	void readOnlyProperty() {
+		CompiledPropertyAccessor accessor = compiledAccessor(ReadOnlyBean.class, "value");
+		assertThat(accessor.isReadable()).isTrue();
+		assertThat(accessor.isWritable("value")).isFalse();
+		assertThat(accessor.getValue(new ReadOnlyBean())).isEqualTo("value");
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+				accessor.setValue(new ReadOnlyBean(), "other"));
+	}
+
+	@Test
+	void nonPublicDeclaringClassIsNotCompiled() {
+		CachedIntrospectionResults results = CachedIntrospectionResults.forClass(NonPublicBean.class);
+		assertThat(results.getCompiledAccessors()).doesNotContainKey(results.getPropertyDescriptor("value"));
+	}
+
+	private static CompiledPropertyAccessor compiledAccessor(Class<?> beanClass, String propertyName) {
+		CachedIntrospectionResults results = CachedIntrospectionResults.forClass(beanClass);
+		PropertyDescriptor pd = results.getPropertyDescriptor(propertyName);
+		assertThat(pd).isNotNull();
+		Map<PropertyDescriptor, CompiledPropertyAccessor> accessors = results.getCompiledAccessors();
+		assertThat(accessors).containsKey(pd);
+		return accessors.get(pd);
+	}
+
+
+	public static class ReadOnlyBean {
+
+		public String getValue() {
+			return "value";
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	private static class NonPublicBean {
+
+		private String value;
+
+		public String getValue() {
+			return this.value;
+		}
+
+		public void setValue(String value) {
+			this.value = value;
+		}
+	}
+
+}
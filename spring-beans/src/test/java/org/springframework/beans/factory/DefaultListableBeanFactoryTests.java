@@ -35,6 +35,10 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -48,6 +52,8 @@ import org.springframework.beans.NotWritablePropertyException;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.AutowiredPropertyMarker;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -986,6 +992,122 @@ class DefaultListableBeanFactoryTests {
 		lbf.removeBeanDefinition(name);
 	}
 
+	@Test
+	void parallelPreInstantiation() {
+		DefaultListableBeanFactory sequentialFactory = new DefaultListableBeanFactory();
+		registerReferencingTestBeans(lbf, 200);
+		registerReferencingTestBeans(sequentialFactory, 200);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setPreInstantiationExecutor(executor);
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		sequentialFactory.preInstantiateSingletons();
+
+		for (int i = 1; i < 200; i++) {
+			TestBean tb = (TestBean) lbf.getSingleton("tb" + i);
+			assertThat(tb).isNotNull();
+			assertThat(tb.getSpouse()).isSameAs(lbf.getSingleton("tb" + (i / 2)));
+		}
+		assertThat(lbf.getSingletonNames()).containsExactly(sequentialFactory.getSingletonNames());
+	}
+
+	@Test
+	void parallelPreInstantiationWithCircularReference() {
+		RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+		bd1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+		lbf.registerBeanDefinition("tb1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+		bd2.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+		lbf.registerBeanDefinition("tb2", bd2);
+		lbf.setPreInstantiationExecutor(Runnable::run);
+		lbf.preInstantiateSingletons();
+
+		TestBean tb1 = lbf.getBean("tb1", TestBean.class);
+		TestBean tb2 = lbf.getBean("tb2", TestBean.class);
+		assertThat(tb1.getSpouse()).isSameAs(tb2);
+		assertThat(tb2.getSpouse()).isSameAs(tb1);
+	}
+
+	@Test
+	void parallelPreInstantiationWithFailure() {
+		registerReferencingTestBeans(lbf, 20);
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setInitMethodName("doesNotExist");
+		lbf.registerBeanDefinition("failing", bd);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setPreInstantiationExecutor(executor);
+			assertThatExceptionOfType(BeanCreationException.class)
+					.isThrownBy(lbf::preInstantiateSingletons)
+					.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("failing"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void parallelPreInstantiationWithAnnotationDrivenInjection() {
+		AutowiredAnnotationBeanPostProcessor bpp = new AutowiredAnnotationBeanPostProcessor();
+		bpp.setBeanFactory(lbf);
+		lbf.addBeanPostProcessor(bpp);
+		lbf.registerSingleton("barrier", new CyclicBarrier(2));
+		lbf.registerBeanDefinition("recipient", new RootBeanDefinition(BarrierAwaitingBeanRecipient.class));
+		lbf.registerBeanDefinition("awaiting1", new RootBeanDefinition(BarrierAwaitingBean.class));
+		lbf.registerBeanDefinition("awaiting2", new RootBeanDefinition(BarrierAwaitingBean.class));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setPreInstantiationExecutor(executor);
+			lbf.setPreInstantiationParallelism(4);
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		// Each awaiting bean can only be created while the other one is created concurrently
+		BarrierAwaitingBeanRecipient recipient = lbf.getBean(BarrierAwaitingBeanRecipient.class);
+		assertThat(recipient.beans).containsExactly(lbf.getBean("awaiting1"), lbf.getBean("awaiting2"));
+		assertThat(lbf.getSingletonNames()).containsExactly("barrier", "awaiting1", "awaiting2", "recipient");
+	}
+
+	@Test
+	void parallelPreInstantiationWithAutowiredConstructor() {
+		AutowiredAnnotationBeanPostProcessor bpp = new AutowiredAnnotationBeanPostProcessor();
+		bpp.setBeanFactory(lbf);
+		lbf.addBeanPostProcessor(bpp);
+		List<String> instantiated = new ArrayList<>();
+		lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+				instantiated.add(beanName);
+				return null;
+			}
+		});
+		lbf.registerBeanDefinition("recipient", new RootBeanDefinition(TestBeanRecipient.class));
+		lbf.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+		lbf.setPreInstantiationExecutor(Runnable::run);
+		lbf.preInstantiateSingletons();
+
+		// Constructor dependency known upfront: dispatched before the bean that depends on it
+		assertThat(instantiated).containsExactly("testBean", "recipient");
+		assertThat(lbf.getBean(TestBeanRecipient.class).testBean).isSameAs(lbf.getBean("testBean"));
+		assertThat(lbf.getSingletonNames()).containsExactly("testBean", "recipient");
+	}
+
+	private static void registerReferencingTestBeans(DefaultListableBeanFactory factory, int count) {
+		factory.registerBeanDefinition("tb0", new RootBeanDefinition(TestBean.class));
+		for (int i = 1; i < count; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.getPropertyValues().add("spouse", new RuntimeBeanReference("tb" + (i / 2)));
+			factory.registerBeanDefinition("tb" + i, bd);
+		}
+	}
+
 	@Test
 	void beanReferenceWithNewSyntax() {
 		Properties p = new Properties();
@@ -1980,6 +2102,102 @@ class DefaultListableBeanFactoryTests {
 		assertBeanNamesForType(FactoryBean.class, false, false);
 	}
 
+	@Test
+	void getBeanNamesForTypeInRegistrationOrder() {
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("b", new RootBeanDefinition(DerivedTestBean.class));
+		lbf.registerBeanDefinition("c", new RootBeanDefinition(NestedTestBean.class));
+		lbf.registerBeanDefinition("d", new RootBeanDefinition(TestBean.class));
+		assertBeanNamesForType(ITestBean.class, true, false, "a", "b", "d");
+
+		lbf.removeBeanDefinition("b");
+		assertBeanNamesForType(ITestBean.class, true, false, "a", "d");
+		lbf.registerBeanDefinition("b", new RootBeanDefinition(DerivedTestBean.class));
+		assertBeanNamesForType(ITestBean.class, true, false, "a", "d", "b");
+		assertBeanNamesForType(DerivedTestBean.class, true, false, "b");
+		assertBeanNamesForType(NestedTestBean.class, true, false, "c");
+	}
+
+	@Test
+	void getBeanNamesForTypeAfterBeanDefinitionOverride() {
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("b", new RootBeanDefinition(TestBean.class));
+		assertBeanNamesForType(ITestBean.class, true, false, "a", "b");
+
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(NestedTestBean.class));
+		assertBeanNamesForType(ITestBean.class, true, false, "b");
+		assertBeanNamesForType(NestedTestBean.class, true, false, "a");
+
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(DerivedTestBean.class));
+		assertBeanNamesForType(ITestBean.class, true, false, "a", "b");
+	}
+
+	@Test
+	void getBeanNamesForTypeWithInstanceTypeBeyondPredictedType() {
+		RootBeanDefinition bd = new RootBeanDefinition();
+		bd.setTargetType(Object.class);
+		bd.setInstanceSupplier(TestBean::new);
+		lbf.registerBeanDefinition("a", bd);
+		assertBeanNamesForType(ITestBean.class, true, false);
+
+		lbf.getBean("a");
+		assertBeanNamesForType(ITestBean.class, true, false, "a");
+		assertBeanNamesForType(TestBean.class, false, false, "a");
+	}
+
+	@Test
+	void getBeanNamesForTypeAfterRegisteringSingletonForBeanDefinition() {
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(Object.class));
+		assertBeanNamesForType(ITestBean.class, true, false);
+
+		lbf.registerSingleton("a", new TestBean());
+		assertBeanNamesForType(ITestBean.class, true, false, "a");
+	}
+
+	@Test
+	void getBeanRepeatedlyAfterDestroySingleton() {
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		TestBean bean = lbf.getBean("test", TestBean.class);
+		assertThat(lbf.getBean("test")).isSameAs(bean);
+
+		lbf.destroySingleton("test");
+		TestBean newBean = lbf.getBean("test", TestBean.class);
+		assertThat(newBean).isNotSameAs(bean);
+		assertThat(lbf.getBean("test")).isSameAs(newBean);
+	}
+
+	@Test
+	void getBeanRepeatedlyByAliasAfterAliasChange() {
+		lbf.registerBeanDefinition("a", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("b", new RootBeanDefinition(TestBean.class));
+		lbf.registerAlias("a", "alias");
+		assertThat(lbf.getBean("alias")).isSameAs(lbf.getBean("a"));
+		assertThat(lbf.getBean("alias")).isSameAs(lbf.getBean("a"));
+
+		lbf.removeAlias("alias");
+		assertThatExceptionOfType(NoSuchBeanDefinitionException.class).isThrownBy(() -> lbf.getBean("alias"));
+		lbf.registerAlias("b", "alias");
+		assertThat(lbf.getBean("alias")).isSameAs(lbf.getBean("b"));
+	}
+
+	@Test
+	void getBeanRepeatedlyAfterBeanDefinitionOverride() {
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		assertThat(lbf.getBean("test")).isInstanceOf(TestBean.class);
+		assertThat(lbf.getBean("test")).isInstanceOf(TestBean.class);
+
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(NestedTestBean.class));
+		assertThat(lbf.getBean("test")).isInstanceOf(NestedTestBean.class);
+	}
+
+	@Test
+	void getBeanRepeatedlyWithRequiredTypeMismatch() {
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		lbf.getBean("test");
+		assertThatExceptionOfType(BeanNotOfRequiredTypeException.class).isThrownBy(() ->
+				lbf.getBean("test", NestedTestBean.class));
+	}
+
 	/**
 	 * Verifies that a dependency on a {@link FactoryBean} can <strong>not</strong>
 	 * be autowired <em>by name</em>, as &amp; is an illegal character in
@@ -3290,6 +3508,21 @@ class DefaultListableBeanFactoryTests {
 	}
 
 
+	static class BarrierAwaitingBean {
+
+		BarrierAwaitingBean(CyclicBarrier barrier) throws Exception {
+			barrier.await(10, TimeUnit.SECONDS);
+		}
+	}
+
+
+	static class BarrierAwaitingBeanRecipient {
+
+		@Autowired
+		List<BarrierAwaitingBean> beans;
+	}
+
+
 	enum NonPublicEnum {
 
 		VALUE_1, VALUE_2;
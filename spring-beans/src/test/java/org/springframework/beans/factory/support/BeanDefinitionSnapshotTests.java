@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link BeanDefinitionSnapshot}.
+ */
+class BeanDefinitionSnapshotTests {
+
+	@Test
+	void roundTripWithRootBeanDefinition() throws IOException {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		bd.setLazyInit(true);
+		bd.setPrimary(true);
+		bd.setDependsOn("other");
+		bd.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+		bd.setDescription("my bean");
+		bd.setInitMethodName("init");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "Juergen");
+		bd.getPropertyValues().add("age", new TypedStringValue("42"));
+		bd.getPropertyValues().add("spouse", new RuntimeBeanReference("other"));
+		ManagedList<Object> friends = new ManagedList<>();
+		friends.add(new RuntimeBeanReference("other"));
+		friends.add(new RootBeanDefinition(TestBean.class));
+		bd.getPropertyValues().add("friends", friends);
+		bd.setAttribute("myAttribute", "myValue");
+
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot("key");
+		snapshot.setMetadata("origin", "test");
+		snapshot.addBeanDefinition("test", bd, "alias");
+		BeanDefinitionSnapshot restored = copy(snapshot);
+		assertThat(restored.getKey()).isEqualTo("key");
+		assertThat(restored.getMetadata()).containsExactly(Map.entry("origin", "test"));
+		assertThat(restored.getOperationCount()).isEqualTo(1);
+
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		restored.applyTo(bf, getClass().getClassLoader());
+		assertThat(bf.getAliases("test")).containsExactly("alias");
+		BeanDefinition restoredBd = bf.getBeanDefinition("test");
+		assertThat(restoredBd).isInstanceOf(RootBeanDefinition.class);
+		assertThat(restoredBd).isEqualTo(bd);
+		assertThat(restoredBd.getAttribute("myAttribute")).isEqualTo("myValue");
+	}
+
+	@Test
+	void roundTripWithGenericBeanDefinitionAndChildDefinition() throws IOException {
+		GenericBeanDefinition parent = new GenericBeanDefinition();
+		parent.setBeanClassName(TestBean.class.getName());
+		parent.setAbstract(true);
+		parent.getPropertyValues().add("name", "parent");
+		GenericBeanDefinition child = new GenericBeanDefinition();
+		child.setParentName("parent");
+		child.getPropertyValues().add("age", "3");
+
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot("key");
+		snapshot.addBeanDefinition("parent", parent);
+		snapshot.addBeanDefinition("child", child);
+
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		copy(snapshot).applyTo(bf, getClass().getClassLoader());
+		assertThat(bf.getBeanDefinition("parent")).isEqualTo(parent);
+		assertThat(bf.getBeanDefinition("child")).isEqualTo(child);
+		TestBean bean = bf.getBean("child", TestBean.class);
+		assertThat(bean.getName()).isEqualTo("parent");
+		assertThat(bean.getAge()).isEqualTo(3);
+	}
+
+	@Test
+	void roundTripWithAnnotatedBeanDefinition() throws IOException {
+		AnnotationMetadata metadata = AnnotationMetadata.introspect(TestBeanFactory.class);
+		MethodMetadata factoryMethodMetadata = metadata.getDeclaredMethods().stream()
+				.filter(method -> method.getMethodName().equals("createTestBean")).findFirst().orElseThrow();
+		AnnotatedGenericBeanDefinition bd = new AnnotatedGenericBeanDefinition(metadata, factoryMethodMetadata);
+		bd.setFactoryMethodName("createTestBean");
+		bd.setPrimary(true);
+
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot("key");
+		snapshot.addBeanDefinition("test", bd);
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		copy(snapshot).applyTo(bf, getClass().getClassLoader());
+
+		BeanDefinition restoredBd = bf.getBeanDefinition("test");
+		assertThat(restoredBd).isInstanceOf(AnnotatedGenericBeanDefinition.class);
+		assertThat(restoredBd).isEqualTo(bd);
+		AnnotatedBeanDefinition annotatedBd = (AnnotatedBeanDefinition) restoredBd;
+		assertThat(annotatedBd.getMetadata().getClassName()).isEqualTo(TestBeanFactory.class.getName());
+		assertThat(annotatedBd.getFactoryMethodMetadata()).isNotNull();
+		assertThat(annotatedBd.getFactoryMethodMetadata().getMethodName()).isEqualTo("createTestBean");
+		assertThat(annotatedBd.getFactoryMethodMetadata().getReturnTypeName()).isEqualTo(TestBean.class.getName());
+		assertThat(bf.getBean("test")).isInstanceOf(TestBean.class);
+	}
+
+	@Test
+	void addBeanDefinitionWithUnsupportedAnnotatedBeanDefinition() {
+		AnnotatedGenericBeanDefinition bd = new AnnotatedGenericBeanDefinition(TestBean.class) {};
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot("key");
+		assertThatIllegalArgumentException().isThrownBy(() -> snapshot.addBeanDefinition("test", bd));
+		assertThat(snapshot.getOperationCount()).isZero();
+	}
+
+	@Test
+	void attributeUpdatesAndRemovals() throws IOException {
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setAttribute("obsolete", Boolean.TRUE);
+		bf.registerBeanDefinition("test", bd);
+		bf.registerBeanDefinition("removed", new RootBeanDefinition(TestBean.class));
+
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot("key");
+		snapshot.addAttributes("test", Map.of("count", 5));
+		snapshot.addAttributes("test", Collections.singletonMap("obsolete", null));
+		snapshot.addAttributes("unknown", Map.of("count", 1));
+		snapshot.addRemoval("removed");
+		copy(snapshot).applyTo(bf, getClass().getClassLoader());
+
+		assertThat(bf.containsBeanDefinition("removed")).isFalse();
+		assertThat(bf.containsBeanDefinition("unknown")).isFalse();
+		assertThat(bd.getAttribute("count")).isEqualTo(5);
+		assertThat(bd.hasAttribute("obsolete")).isFalse();
+	}
+
+	@Test
+	void addBeanDefinitionWithInstanceSupplier() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class, TestBean::new);
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot("key");
+		assertThatIllegalArgumentException().isThrownBy(() -> snapshot.addBeanDefinition("test", bd));
+		assertThat(snapshot.getOperationCount()).isZero();
+	}
+
+	@Test
+	void addBeanDefinitionWithUnsupportedValue() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().add("spouse", new TestBean());
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot("key");
+		assertThatIllegalArgumentException().isThrownBy(() -> snapshot.addBeanDefinition("test", bd));
+		assertThat(snapshot.getOperationCount()).isZero();
+	}
+
+	@Test
+	void readFromInvalidContent() {
+		assertThatIOException().isThrownBy(() ->
+				BeanDefinitionSnapshot.readFrom(new ByteArrayInputStream(new byte[] {1, 2, 3, 4})));
+	}
+
+
+	private static BeanDefinitionSnapshot copy(BeanDefinitionSnapshot snapshot) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		snapshot.writeTo(out);
+		return BeanDefinitionSnapshot.readFrom(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+
+	public static class TestBeanFactory {
+
+		public static TestBean createTestBean() {
+			return new TestBean();
+		}
+
+		public static String createTestBean(String name) {
+			return name;
+		}
+	}
+
+}
@@ -16,12 +16,23 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.testfixture.beans.DerivedTestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * @author Juergen Hoeller
@@ -94,4 +105,157 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(beanRegistry.isDependent("c", "c")).isTrue();
 	}
 
+	@Test
+	public void testConcurrentCreationOfUnrelatedSingletons() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CountDownLatch aInCreation = new CountDownLatch(1);
+		CountDownLatch bInCreation = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// "a" can only complete while "b" is being created on another thread
+			Future<Object> a = executor.submit(() -> beanRegistry.getSingleton("a", () -> {
+				aInCreation.countDown();
+				try {
+					return new TestBean("a", bInCreation.await(5, TimeUnit.SECONDS) ? 1 : 0);
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}));
+			assertThat(aInCreation.await(5, TimeUnit.SECONDS)).isTrue();
+			TestBean b = (TestBean) beanRegistry.getSingleton("b", () -> {
+				bInCreation.countDown();
+				return new TestBean("b");
+			});
+			assertThat(b.getName()).isEqualTo("b");
+			assertThat(((TestBean) a.get(10, TimeUnit.SECONDS)).getAge()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentCreationOfSameSingleton() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		AtomicInteger creationCount = new AtomicInteger();
+		CyclicBarrier barrier = new CyclicBarrier(4);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<?>[] futures = new Future<?>[4];
+			for (int i = 0; i < futures.length; i++) {
+				futures[i] = executor.submit(() -> {
+					barrier.await();
+					return beanRegistry.getSingleton("tb", () -> {
+						creationCount.incrementAndGet();
+						return new TestBean();
+					});
+				});
+			}
+			Object tb = futures[0].get(5, TimeUnit.SECONDS);
+			for (Future<?> future : futures) {
+				assertThat(future.get(5, TimeUnit.SECONDS)).isSameAs(tb);
+			}
+			assertThat(creationCount).hasValue(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testMutuallyDependentSingletonsFromDifferentThreads() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> a = executor.submit(() ->
+					beanRegistry.getSingleton("a", () -> createMutuallyDependentBean(beanRegistry, "a", "b", barrier)));
+			Future<Object> b = executor.submit(() ->
+					beanRegistry.getSingleton("b", () -> createMutuallyDependentBean(beanRegistry, "b", "a", barrier)));
+			TestBean tbA = (TestBean) a.get(5, TimeUnit.SECONDS);
+			TestBean tbB = (TestBean) b.get(5, TimeUnit.SECONDS);
+			assertThat(tbA.getSpouse()).isSameAs(tbB);
+			assertThat(tbB.getSpouse()).isSameAs(tbA);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testMutuallyDependentSingletonsWithConstructorInjectionFromDifferentThreads() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			// "a" exposes an early reference, whereas "b" needs "a" before it can be instantiated
+			Future<Object> a = executor.submit(() ->
+					beanRegistry.getSingleton("a", () -> createMutuallyDependentBean(beanRegistry, "a", "b", barrier)));
+			Future<Object> b = executor.submit(() -> beanRegistry.getSingleton("b", () -> {
+				awaitBarrier(barrier);
+				TestBean tbB = new TestBean("b");
+				tbB.setSpouse((TestBean) beanRegistry.getSingleton("a", () -> {
+					throw new IllegalStateException("Should resolve early reference instead");
+				}));
+				return tbB;
+			}));
+			TestBean tbA = (TestBean) a.get(5, TimeUnit.SECONDS);
+			TestBean tbB = (TestBean) b.get(5, TimeUnit.SECONDS);
+			assertThat(tbA.getSpouse()).isSameAs(tbB);
+			assertThat(tbB.getSpouse()).isSameAs(tbA);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testUnresolvableCircularReferenceFromDifferentThreads() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			// Neither "a" nor "b" exposes an early reference
+			Future<Object> a = executor.submit(() -> beanRegistry.getSingleton("a", () -> {
+				awaitBarrier(barrier);
+				return new TestBean("a", beanRegistry.getSingleton("b", TestBean::new) != null ? 1 : 0);
+			}));
+			Future<Object> b = executor.submit(() -> beanRegistry.getSingleton("b", () -> {
+				awaitBarrier(barrier);
+				return new TestBean("b", beanRegistry.getSingleton("a", TestBean::new) != null ? 1 : 0);
+			}));
+			assertThatExceptionOfType(ExecutionException.class)
+					.isThrownBy(() -> {
+						a.get(5, TimeUnit.SECONDS);
+						b.get(5, TimeUnit.SECONDS);
+					})
+					.withCauseInstanceOf(BeanCurrentlyInCreationException.class);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static TestBean createMutuallyDependentBean(
+			DefaultSingletonBeanRegistry beanRegistry, String name, String otherName, CyclicBarrier barrier) {
+
+		TestBean tb = new TestBean(name);
+		beanRegistry.addSingletonFactory(name, () -> tb);
+		awaitBarrier(barrier);
+		tb.setSpouse((TestBean) beanRegistry.getSingleton(otherName, () -> {
+			throw new IllegalStateException("Should resolve early reference instead");
+		}));
+		return tb;
+	}
+
+	private static void awaitBarrier(CyclicBarrier barrier) {
+		try {
+			barrier.await(5, TimeUnit.SECONDS);
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
 }
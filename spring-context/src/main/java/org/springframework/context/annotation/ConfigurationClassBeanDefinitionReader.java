@@ -383,7 +383,7 @@ class ConfigurationClassBeanDefinitionReader {
 	 * definition was created externally.
 	 */
 	@SuppressWarnings("serial")
-	private static class ConfigurationClassBeanDefinition extends RootBeanDefinition implements AnnotatedBeanDefinition {
+	static class ConfigurationClassBeanDefinition extends RootBeanDefinition implements AnnotatedBeanDefinition {
 
 		private final AnnotationMetadata annotationMetadata;
 
@@ -401,6 +401,18 @@ class ConfigurationClassBeanDefinitionReader {
 			setLenientConstructorResolution(false);
 		}
 
+		/**
+		 * Create a bean definition for the given configuration class metadata,
+		 * e.g. for restoring it from a bean definition snapshot.
+		 */
+		ConfigurationClassBeanDefinition(
+				AnnotationMetadata configClassMetadata, MethodMetadata beanMethodMetadata, String derivedBeanName) {
+
+			this.annotationMetadata = configClassMetadata;
+			this.factoryMethodMetadata = beanMethodMetadata;
+			this.derivedBeanName = derivedBeanName;
+		}
+
 		public ConfigurationClassBeanDefinition(RootBeanDefinition original,
 				ConfigurationClass configClass, MethodMetadata beanMethodMetadata, String derivedBeanName) {
 			super(original);
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -71,6 +72,7 @@ import org.springframework.beans.factory.parsing.SourceExtractor;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionSnapshot;
 import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.support.RegisteredBean;
@@ -81,6 +83,7 @@ import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.StandardEnvironment;
@@ -104,6 +107,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
 /**
  *  * 此类是一个后置处理器的类，主要功能是参与BeanFactory的建造，主要功能如下
@@ -149,6 +153,15 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	public static final AnnotationBeanNameGenerator IMPORT_BEAN_NAME_GENERATOR =
 			FullyQualifiedAnnotationBeanNameGenerator.INSTANCE;
 
+	/**
+	 * System property that specifies the default location of a bean definition
+	 * snapshot file: {@value}.
+	 * <p>Can also be configured through the {@link SpringProperties} mechanism.
+	 * @since 6.1
+	 * @see #setBeanDefinitionSnapshotFile
+	 */
+	public static final String BEAN_DEFINITION_SNAPSHOT_PROPERTY_NAME = "spring.context.bean-definition-snapshot";
+
 	private static final String IMPORT_REGISTRY_BEAN_NAME =
 			ConfigurationClassPostProcessor.class.getName() + ".importRegistry";
 
@@ -194,6 +207,9 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	@Nullable
 	private List<PropertySourceDescriptor> propertySourceDescriptors;
 
+	@Nullable
+	private Path beanDefinitionSnapshotFile = getDefaultBeanDefinitionSnapshotFile();
+
 
 	@Override
 	public int getOrder() {
@@ -252,6 +268,36 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		this.importBeanNameGenerator = beanNameGenerator;
 	}
 
+	/**
+	 * Set the file to persist the bean definitions resulting from configuration
+	 * class processing in, for fast warm restarts.
+	 * <p>On startup, if the file holds a snapshot that was taken with the same
+	 * classpath entries (by size and timestamp, plus the class files of the
+	 * captured definitions in classpath directories), the same active and
+	 * default profiles and the same initially registered bean definitions,
+	 * the snapshot gets restored instead
+	 * of parsing the configuration classes (including classpath scanning and
+	 * {@link Bean @Bean} method introspection). Otherwise, configuration classes
+	 * are processed as usual and a new snapshot gets written to the file, unless
+	 * the resulting bean definitions hold state that cannot be persisted, e.g.
+	 * instance suppliers registered by an {@link ImportBeanDefinitionRegistrar}.
+	 * <p>This is a JVM-mode alternative to ahead-of-time processing. Note that
+	 * it is only suitable if all {@link Conditional @Conditional} declarations
+	 * on configuration classes depend on classpath and profiles only, and if
+	 * configuration class processing has no side effects other than bean
+	 * definition registrations, {@link PropertySource @PropertySource} handling
+	 * and {@link ImportAware} metadata.
+	 * <p>Default is the location specified through the
+	 * {@value #BEAN_DEFINITION_SNAPSHOT_PROPERTY_NAME} property, if any.
+	 * @param beanDefinitionSnapshotFile the snapshot file, or {@code null} to
+	 * always process configuration classes
+	 * @since 6.1
+	 * @see BeanDefinitionSnapshot
+	 */
+	public void setBeanDefinitionSnapshotFile(@Nullable Path beanDefinitionSnapshotFile) {
+		this.beanDefinitionSnapshotFile = beanDefinitionSnapshotFile;
+	}
+
 	@Override
 	public void setEnvironment(Environment environment) {
 		Assert.notNull(environment, "Environment must not be null");
@@ -298,7 +344,12 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		// 将马上要进行处理的registry对象的id值放到已经处理的集合对象中
 		this.registriesPostProcessed.add(registryId);
 		// 处理配置类的bean定义信息
-		processConfigBeanDefinitions(registry);
+		if (this.beanDefinitionSnapshotFile != null) {
+			processConfigBeanDefinitions(registry, this.beanDefinitionSnapshotFile);
+		}
+		else {
+			processConfigBeanDefinitions(registry);
+		}
 	}
 
 	/**
@@ -358,6 +409,12 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		return null;
 	}
 
+	@Nullable
+	private static Path getDefaultBeanDefinitionSnapshotFile() {
+		String location = SpringProperties.getProperty(BEAN_DEFINITION_SNAPSHOT_PROPERTY_NAME);
+		return (StringUtils.hasText(location) ? Path.of(location) : null);
+	}
+
 	@Nullable
 	private Resource resolvePropertySourceLocation(String location) {
 		try {
@@ -370,6 +427,41 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+	/**
+	 * Restore the bean definitions from the given snapshot file if applicable,
+	 * otherwise process the configuration classes and store a new snapshot.
+	 * @see #setBeanDefinitionSnapshotFile
+	 */
+	private void processConfigBeanDefinitions(BeanDefinitionRegistry registry, Path snapshotFile) {
+		if (this.environment == null) {
+			this.environment = new StandardEnvironment();
+		}
+		ConfigurationClassSnapshotSupport snapshots = new ConfigurationClassSnapshotSupport(
+				this.environment, this.resourceLoader, this.beanClassLoader, this.metadataReaderFactory);
+		String key = snapshots.computeKey(registry);
+		if (key == null) {
+			processConfigBeanDefinitions(registry);
+			return;
+		}
+
+		BeanDefinitionSnapshot snapshot = snapshots.load(snapshotFile, key);
+		if (snapshot != null) {
+			StartupStep restoreConfig = this.applicationStartup.start("spring.context.config-classes.restore");
+			this.propertySourceDescriptors = snapshots.restore(snapshot, registry, IMPORT_REGISTRY_BEAN_NAME);
+			restoreConfig.tag("operationCount", () -> String.valueOf(snapshot.getOperationCount())).end();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Restored configuration class bean definitions from snapshot [" + snapshotFile + "]");
+			}
+			return;
+		}
+
+		ConfigurationClassSnapshotSupport.RegistryState previousState = snapshots.captureState(registry);
+		processConfigBeanDefinitions(registry);
+		ImportRegistry importRegistry = (registry instanceof SingletonBeanRegistry sbr &&
+				sbr.getSingleton(IMPORT_REGISTRY_BEAN_NAME) instanceof ImportRegistry ir ? ir : null);
+		snapshots.store(snapshotFile, key, registry, previousState, importRegistry, this.propertySourceDescriptors);
+	}
+
 	/**
 	 * 重点：**
 	 * 	 * 构建和验证一个类是否被@Configuration修饰，并做相关的解析工作
@@ -0,0 +1,584 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionSnapshot;
+import org.springframework.beans.factory.support.SimpleBeanDefinitionRegistry;
+import org.springframework.context.annotation.ConfigurationClassBeanDefinitionReader.ConfigurationClassBeanDefinition;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.PropertySourceDescriptor;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.core.io.support.PropertySourceProcessor;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Delegate for {@link ConfigurationClassPostProcessor}, persisting the outcome
+ * of configuration class processing as a {@link BeanDefinitionSnapshot} and
+ * restoring it on a later start with an identical classpath and profile setup.
+ *
+ * <p>Next to the bean definition changes, a snapshot records the import
+ * relationships for {@link ImportAware} beans and the descriptors of
+ * {@link PropertySource @PropertySource} declarations, both of which are
+ * re-applied on restore. Scanned components and {@link Bean @Bean} method
+ * definitions are recreated with the annotation metadata of their classes.
+ *
+ * <p>A snapshot is keyed on the classpath entries by their size and timestamp,
+ * not by their content. For classpath directories, a manifest of the class
+ * files that the captured bean definitions are based on (and of their package
+ * directories) is checked in addition. A class file added to a package that
+ * none of the captured classes resides in is not detected in a directory.
+ *
+ * @since 6.1
+ * @see ConfigurationClassPostProcessor#setBeanDefinitionSnapshotFile
+ */
+final class ConfigurationClassSnapshotSupport {
+
+	private static final String IMPORT_PREFIX = "import:";
+
+	private static final String PROPERTY_SOURCE_PREFIX = "propertySource.";
+
+	private static final String MANIFEST_PREFIX = "manifest:";
+
+	private static final Log logger = LogFactory.getLog(ConfigurationClassSnapshotSupport.class);
+
+
+	private final Environment environment;
+
+	private final ResourceLoader resourceLoader;
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final MetadataReaderFactory metadataReaderFactory;
+
+	private final BeanDefinitionSnapshot.AnnotatedDefinitionFactory annotatedDefinitionFactory =
+			new ConfigurationClassDefinitionFactory();
+
+
+	ConfigurationClassSnapshotSupport(Environment environment, ResourceLoader resourceLoader,
+			@Nullable ClassLoader classLoader, MetadataReaderFactory metadataReaderFactory) {
+
+		this.environment = environment;
+		this.resourceLoader = resourceLoader;
+		this.classLoader = classLoader;
+		this.metadataReaderFactory = metadataReaderFactory;
+	}
+
+
+	/**
+	 * Compute the key for a snapshot of the given registry: a fingerprint of
+	 * the classpath entries (by size and timestamp, without traversing
+	 * directories), the active and default profiles and the bean definitions
+	 * registered before configuration class processing.
+	 * @return the key, or {@code null} if the classpath could not be inspected
+	 */
+	@Nullable
+	String computeKey(BeanDefinitionRegistry registry) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			update(digest, "profiles", StringUtils.arrayToCommaDelimitedString(this.environment.getActiveProfiles()),
+					StringUtils.arrayToCommaDelimitedString(this.environment.getDefaultProfiles()));
+			for (String beanName : registry.getBeanDefinitionNames()) {
+				update(digest, "bean", beanName, registry.getBeanDefinition(beanName).getBeanClassName());
+			}
+			for (Path entry : getClasspathEntries()) {
+				updateWithClasspathEntry(digest, entry);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		}
+		catch (NoSuchAlgorithmException ex) {
+			logger.debug("Could not compute classpath fingerprint for bean definition snapshot", ex);
+			return null;
+		}
+	}
+
+	private Set<Path> getClasspathEntries() {
+		Set<Path> entries = new LinkedHashSet<>();
+		for (String entry : StringUtils.tokenizeToStringArray(
+				System.getProperty("java.class.path", ""), File.pathSeparator)) {
+			entries.add(Path.of(entry).toAbsolutePath());
+		}
+		for (ClassLoader cl = this.classLoader; cl != null; cl = cl.getParent()) {
+			if (cl instanceof URLClassLoader urlClassLoader) {
+				for (URL url : urlClassLoader.getURLs()) {
+					if ("file".equals(url.getProtocol())) {
+						try {
+							entries.add(Path.of(url.toURI()).toAbsolutePath());
+						}
+						catch (Exception ex) {
+							// Not a resolvable file location -> identified by its URL only.
+							entries.add(Path.of(url.toString()));
+						}
+					}
+				}
+			}
+		}
+		return entries;
+	}
+
+	private static void updateWithClasspathEntry(MessageDigest digest, Path entry) {
+		if (Files.isDirectory(entry)) {
+			// Content covered by the manifest of the snapshot
+			update(digest, "dir", describe(entry, entry));
+		}
+		else if (Files.isRegularFile(entry)) {
+			update(digest, "file", describe(entry, entry));
+		}
+		else {
+			update(digest, "missing", entry.toString());
+		}
+	}
+
+	private static String describe(Path name, Path file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			return name + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+		}
+		catch (IOException ex) {
+			return name + ":unreadable";
+		}
+	}
+
+	private static void update(MessageDigest digest, @Nullable String... values) {
+		for (String value : values) {
+			if (value != null) {
+				digest.update(value.getBytes(StandardCharsets.UTF_8));
+			}
+			digest.update((byte) 0);
+		}
+	}
+
+	/**
+	 * Load the snapshot from the given file if it exists and matches the given key.
+	 * @return the snapshot, or {@code null} if none applicable
+	 */
+	@Nullable
+	BeanDefinitionSnapshot load(Path file, String key) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		BeanDefinitionSnapshot snapshot;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+			snapshot = BeanDefinitionSnapshot.readFrom(in);
+		}
+		catch (IOException ex) {
+			logger.info("Ignoring unreadable bean definition snapshot [" + file + "]: " + ex.getMessage());
+			return null;
+		}
+		if (!key.equals(snapshot.getKey()) || !isManifestUpToDate(snapshot.getMetadata())) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring outdated bean definition snapshot [" + file + "]");
+			}
+			return null;
+		}
+		snapshot.setAnnotatedDefinitionFactory(this.annotatedDefinitionFactory);
+		try {
+			// Validate the entire content before touching the actual registry
+			snapshot.applyTo(new SimpleBeanDefinitionRegistry(), this.classLoader, this.metadataReaderFactory);
+		}
+		catch (RuntimeException ex) {
+			logger.info("Ignoring invalid bean definition snapshot [" + file + "]: " + ex.getMessage());
+			return null;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Apply the given snapshot to the given registry, including the recorded
+	 * property sources and import relationships.
+	 * @param snapshot the snapshot to restore
+	 * @param registry the registry to apply the snapshot to
+	 * @param importRegistryBeanName the name to register the import registry under
+	 * @return the restored property source descriptors
+	 */
+	List<PropertySourceDescriptor> restore(
+			BeanDefinitionSnapshot snapshot, BeanDefinitionRegistry registry, String importRegistryBeanName) {
+
+		snapshot.applyTo(registry, this.classLoader, this.metadataReaderFactory);
+
+		Map<String, String> importingClasses = new ConcurrentHashMap<>();
+		snapshot.getMetadata().forEach((name, value) -> {
+			if (name.startsWith(IMPORT_PREFIX)) {
+				importingClasses.put(name.substring(IMPORT_PREFIX.length()), value);
+			}
+		});
+		if (registry instanceof SingletonBeanRegistry sbr && !sbr.containsSingleton(importRegistryBeanName)) {
+			sbr.registerSingleton(importRegistryBeanName,
+					new SnapshotImportRegistry(importingClasses, this.metadataReaderFactory));
+		}
+
+		List<PropertySourceDescriptor> descriptors = readPropertySourceDescriptors(snapshot.getMetadata());
+		if (!descriptors.isEmpty() && this.environment instanceof ConfigurableEnvironment ce) {
+			PropertySourceProcessor processor = new PropertySourceProcessor(ce, this.resourceLoader);
+			for (PropertySourceDescriptor descriptor : descriptors) {
+				try {
+					processor.processPropertySource(descriptor);
+				}
+				catch (IOException ex) {
+					throw new BeanDefinitionStoreException(
+							"Failed to restore property source " + descriptor.locations(), ex);
+				}
+			}
+		}
+		return descriptors;
+	}
+
+	/**
+	 * Capture the current state of the given registry, for later comparison
+	 * through {@link #store}.
+	 */
+	RegistryState captureState(BeanDefinitionRegistry registry) {
+		return new RegistryState(registry);
+	}
+
+	/**
+	 * Store a snapshot of all changes to the given registry since the given state,
+	 * unless the changes include state that cannot be captured.
+	 * @param file the file to write to
+	 * @param key the key for the snapshot
+	 * @param registry the post-processed registry
+	 * @param previousState the state before configuration class processing
+	 * @param importRegistry the import registry resulting from processing, if any
+	 * @param descriptors the property source descriptors resulting from processing
+	 */
+	void store(Path file, String key, BeanDefinitionRegistry registry, RegistryState previousState,
+			@Nullable ImportRegistry importRegistry, @Nullable List<PropertySourceDescriptor> descriptors) {
+
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot(key);
+		snapshot.setAnnotatedDefinitionFactory(this.annotatedDefinitionFactory);
+		Set<String> classNames = new LinkedHashSet<>();
+		try {
+			for (String beanName : previousState.beanDefinitions.keySet()) {
+				if (!registry.containsBeanDefinition(beanName)) {
+					snapshot.addRemoval(beanName);
+				}
+			}
+			for (String beanName : registry.getBeanDefinitionNames()) {
+				BeanDefinition bd = registry.getBeanDefinition(beanName);
+				if (previousState.beanDefinitions.get(beanName) != bd) {
+					snapshot.addBeanDefinition(beanName, bd, registry.getAliases(beanName));
+				}
+				else {
+					Map<String, Object> changedAttributes = previousState.getChangedAttributes(beanName, bd);
+					if (!changedAttributes.isEmpty()) {
+						snapshot.addAttributes(beanName, changedAttributes);
+					}
+				}
+				String className = bd.getBeanClassName();
+				AnnotationMetadata importingClass =
+						(importRegistry != null && className != null ? importRegistry.getImportingClassFor(className) : null);
+				if (importingClass != null) {
+					snapshot.setMetadata(IMPORT_PREFIX + className, importingClass.getClassName());
+					classNames.add(importingClass.getClassName());
+				}
+				if (className != null) {
+					classNames.add(className);
+				}
+				if (bd instanceof AnnotatedBeanDefinition abd) {
+					classNames.add(abd.getMetadata().getClassName());
+					MethodMetadata factoryMethodMetadata = abd.getFactoryMethodMetadata();
+					if (factoryMethodMetadata != null) {
+						classNames.add(factoryMethodMetadata.getDeclaringClassName());
+					}
+				}
+			}
+		}
+		catch (IllegalArgumentException ex) {
+			logger.info("Not writing bean definition snapshot [" + file + "]: " + ex.getMessage());
+			return;
+		}
+		if (descriptors != null) {
+			writePropertySourceDescriptors(descriptors, snapshot);
+		}
+		writeManifest(classNames, snapshot);
+
+		try {
+			Path directory = file.toAbsolutePath().getParent();
+			if (directory != null) {
+				Files.createDirectories(directory);
+			}
+			Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+			try {
+				try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+					snapshot.writeTo(out);
+				}
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally {
+				Files.deleteIfExists(tempFile);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Stored bean definition snapshot [" + file + "] with " +
+						snapshot.getOperationCount() + " registry operations");
+			}
+		}
+		catch (IOException ex) {
+			logger.warn("Failed to write bean definition snapshot [" + file + "]", ex);
+		}
+	}
+
+	/**
+	 * Record the class files of the given classes that reside in a classpath
+	 * directory, along with their package directories, by size and timestamp.
+	 */
+	private void writeManifest(Set<String> classNames, BeanDefinitionSnapshot snapshot) {
+		ClassLoader classLoader = (this.classLoader != null ? this.classLoader : ClassUtils.getDefaultClassLoader());
+		if (classLoader == null) {
+			return;
+		}
+		for (String className : classNames) {
+			String resourcePath = ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX;
+			URL url = classLoader.getResource(resourcePath);
+			if (url != null && "file".equals(url.getProtocol())) {
+				try {
+					Path file = Path.of(url.toURI());
+					snapshot.setMetadata(MANIFEST_PREFIX + file, describe(file, file));
+					Path directory = file.getParent();
+					if (directory != null) {
+						snapshot.setMetadata(MANIFEST_PREFIX + directory, describe(directory, directory));
+					}
+				}
+				catch (URISyntaxException | IllegalArgumentException ex) {
+					// Not a resolvable file location -> not part of the manifest.
+				}
+			}
+		}
+	}
+
+	private static boolean isManifestUpToDate(Map<String, String> metadata) {
+		for (Map.Entry<String, String> entry : metadata.entrySet()) {
+			if (entry.getKey().startsWith(MANIFEST_PREFIX)) {
+				Path file = Path.of(entry.getKey().substring(MANIFEST_PREFIX.length()));
+				if (!describe(file, file).equals(entry.getValue())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static void writePropertySourceDescriptors(
+			List<PropertySourceDescriptor> descriptors, BeanDefinitionSnapshot snapshot) {
+
+		for (int i = 0; i < descriptors.size(); i++) {
+			PropertySourceDescriptor descriptor = descriptors.get(i);
+			String prefix = PROPERTY_SOURCE_PREFIX + i + ".";
+			snapshot.setMetadata(prefix + "locations",
+					StringUtils.collectionToDelimitedString(descriptor.locations(), "\n"));
+			snapshot.setMetadata(prefix + "ignoreResourceNotFound",
+					String.valueOf(descriptor.ignoreResourceNotFound()));
+			if (descriptor.name() != null) {
+				snapshot.setMetadata(prefix + "name", descriptor.name());
+			}
+			if (descriptor.propertySourceFactory() != null) {
+				snapshot.setMetadata(prefix + "factory", descriptor.propertySourceFactory().getName());
+			}
+			if (descriptor.encoding() != null) {
+				snapshot.setMetadata(prefix + "encoding", descriptor.encoding());
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<PropertySourceDescriptor> readPropertySourceDescriptors(Map<String, String> metadata) {
+		List<PropertySourceDescriptor> descriptors = new ArrayList<>();
+		for (int i = 0; ; i++) {
+			String prefix = PROPERTY_SOURCE_PREFIX + i + ".";
+			String locations = metadata.get(prefix + "locations");
+			if (locations == null) {
+				return descriptors;
+			}
+			String factory = metadata.get(prefix + "factory");
+			descriptors.add(new PropertySourceDescriptor(
+					Arrays.asList(StringUtils.delimitedListToStringArray(locations, "\n")),
+					Boolean.parseBoolean(metadata.get(prefix + "ignoreResourceNotFound")),
+					metadata.get(prefix + "name"),
+					(factory != null ? (Class<? extends PropertySourceFactory>)
+							ClassUtils.resolveClassName(factory, this.classLoader) : null),
+					metadata.get(prefix + "encoding")));
+		}
+	}
+
+
+	/**
+	 * State of a registry before configuration class processing: the bean
+	 * definition instances and a copy of their attributes.
+	 */
+	static final class RegistryState {
+
+		private final Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>();
+
+		private final Map<String, Map<String, Object>> attributes = new LinkedHashMap<>();
+
+		RegistryState(BeanDefinitionRegistry registry) {
+			for (String beanName : registry.getBeanDefinitionNames()) {
+				BeanDefinition bd = registry.getBeanDefinition(beanName);
+				this.beanDefinitions.put(beanName, bd);
+				this.attributes.put(beanName, getAttributes(bd));
+			}
+		}
+
+		Map<String, Object> getChangedAttributes(String beanName, BeanDefinition bd) {
+			Map<String, Object> previous = this.attributes.getOrDefault(beanName, Map.of());
+			Map<String, Object> current = getAttributes(bd);
+			Map<String, Object> changed = new LinkedHashMap<>();
+			current.forEach((name, value) -> {
+				if (!ObjectUtils.nullSafeEquals(previous.get(name), value)) {
+					changed.put(name, value);
+				}
+			});
+			previous.keySet().forEach(name -> {
+				if (!current.containsKey(name)) {
+					changed.put(name, null);
+				}
+			});
+			return changed;
+		}
+
+		private static Map<String, Object> getAttributes(BeanDefinition bd) {
+			String[] names = bd.attributeNames();
+			Map<String, Object> attributes = new LinkedHashMap<>(names.length);
+			for (String name : names) {
+				attributes.put(name, bd.getAttribute(name));
+			}
+			return attributes;
+		}
+	}
+
+
+	/**
+	 * {@link BeanDefinitionSnapshot.AnnotatedDefinitionFactory} for the bean
+	 * definitions resulting from configuration class processing: scanned
+	 * components, {@link Bean @Bean} methods and registered component classes.
+	 */
+	private class ConfigurationClassDefinitionFactory implements BeanDefinitionSnapshot.AnnotatedDefinitionFactory {
+
+		@Override
+		public boolean supports(AnnotatedBeanDefinition beanDefinition) {
+			Class<?> definitionType = beanDefinition.getClass();
+			return (definitionType == ScannedGenericBeanDefinition.class ||
+					definitionType == ConfigurationClassBeanDefinition.class ||
+					definitionType == AnnotatedGenericBeanDefinition.class);
+		}
+
+		@Override
+		public AbstractBeanDefinition createBeanDefinition(String definitionType, @Nullable String beanName,
+				AnnotationMetadata metadata, @Nullable MethodMetadata factoryMethodMetadata) {
+
+			if (ScannedGenericBeanDefinition.class.getName().equals(definitionType)) {
+				try {
+					return new ScannedGenericBeanDefinition(
+							metadataReaderFactory.getMetadataReader(metadata.getClassName()));
+				}
+				catch (IOException ex) {
+					throw new IllegalStateException(
+							String.format("Failed to read metadata for '%s'", metadata.getClassName()), ex);
+				}
+			}
+			if (ConfigurationClassBeanDefinition.class.getName().equals(definitionType)) {
+				Assert.state(beanName != null && factoryMethodMetadata != null,
+						"Bean name and factory method required for @Bean method definition");
+				return new ConfigurationClassBeanDefinition(metadata, factoryMethodMetadata, beanName);
+			}
+			return (factoryMethodMetadata != null ? new AnnotatedGenericBeanDefinition(metadata, factoryMethodMetadata) :
+					new AnnotatedGenericBeanDefinition(metadata));
+		}
+	}
+
+
+	/**
+	 * {@link ImportRegistry} based on recorded importing class names,
+	 * reading the importing class metadata on demand.
+	 */
+	private static class SnapshotImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> importingClasses;
+
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		SnapshotImportRegistry(Map<String, String> importingClasses, MetadataReaderFactory metadataReaderFactory) {
+			this.importingClasses = importingClasses;
+			this.metadataReaderFactory = metadataReaderFactory;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClass = this.importingClasses.get(importedClass);
+			if (importingClass == null) {
+				return null;
+			}
+			try {
+				return this.metadataReaderFactory.getMetadataReader(importingClass).getAnnotationMetadata();
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(String.format("Failed to read metadata for '%s'", importingClass), ex);
+			}
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			this.importingClasses.values().removeIf(importingClass::equals);
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionSnapshot;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the bean definition snapshot support in {@link ConfigurationClassPostProcessor}.
+ */
+class ConfigurationClassPostProcessorSnapshotTests {
+
+	private static final AtomicInteger registrarInvocations = new AtomicInteger();
+
+	@TempDir
+	Path tempDir;
+
+
+	@BeforeEach
+	void resetRegistrarInvocations() {
+		registrarInvocations.set(0);
+	}
+
+
+	@Test
+	void firstRefreshWritesSnapshot() throws IOException {
+		Path snapshotFile = this.tempDir.resolve("snapshot.bin");
+		try (GenericApplicationContext context = refresh(snapshotFile)) {
+			assertContext(context);
+		}
+		assertThat(registrarInvocations).hasValue(1);
+		assertThat(snapshotFile).exists();
+		assertThat(Files.size(snapshotFile)).isPositive();
+	}
+
+	@Test
+	void secondRefreshRestoresSnapshot() {
+		Path snapshotFile = this.tempDir.resolve("snapshot.bin");
+		String[] beanNames;
+		try (GenericApplicationContext context = refresh(snapshotFile)) {
+			beanNames = context.getBeanDefinitionNames();
+		}
+		try (GenericApplicationContext context = refresh(snapshotFile)) {
+			assertContext(context);
+			assertThat(context.getBeanDefinitionNames()).containsExactly(beanNames);
+		}
+		assertThat(registrarInvocations).hasValue(1);
+	}
+
+	@Test
+	void secondRefreshRestoresAnnotationMetadata() {
+		Path snapshotFile = this.tempDir.resolve("snapshot.bin");
+		refresh(snapshotFile).close();
+		try (GenericApplicationContext context = refresh(snapshotFile)) {
+			assertThat(context.getBeanDefinition("foo")).isInstanceOf(AnnotatedBeanDefinition.class);
+			AnnotatedBeanDefinition bd = (AnnotatedBeanDefinition) context.getBeanDefinition("foo");
+			assertThat(bd.getMetadata().getClassName()).isEqualTo(SnapshotConfig.class.getName());
+			assertThat(bd.getFactoryMethodMetadata()).isNotNull();
+			assertThat(bd.getFactoryMethodMetadata().getMethodName()).isEqualTo("foo");
+			assertThat(bd.getFactoryMethodMetadata().isAnnotated(Bean.class.getName())).isTrue();
+		}
+		assertThat(registrarInvocations).hasValue(1);
+	}
+
+	@Test
+	void refreshWithOutdatedManifestIgnoresSnapshot() throws IOException {
+		Path snapshotFile = this.tempDir.resolve("snapshot.bin");
+		refresh(snapshotFile).close();
+		BeanDefinitionSnapshot snapshot;
+		try (InputStream in = Files.newInputStream(snapshotFile)) {
+			snapshot = BeanDefinitionSnapshot.readFrom(in);
+		}
+		String classFile = snapshot.getMetadata().keySet().stream()
+				.filter(name -> name.endsWith(SnapshotConfig.class.getSimpleName() + ".class"))
+				.findFirst().orElseThrow();
+		snapshot.setMetadata(classFile, "modified");
+		try (OutputStream out = Files.newOutputStream(snapshotFile)) {
+			snapshot.writeTo(out);
+		}
+		try (GenericApplicationContext context = refresh(snapshotFile)) {
+			assertContext(context);
+		}
+		assertThat(registrarInvocations).hasValue(2);
+	}
+
+	@Test
+	void refreshWithDifferentSetupIgnoresSnapshot() {
+		Path snapshotFile = this.tempDir.resolve("snapshot.bin");
+		refresh(snapshotFile).close();
+		try (GenericApplicationContext context = refresh(snapshotFile, "other")) {
+			assertContext(context);
+		}
+		assertThat(registrarInvocations).hasValue(2);
+	}
+
+	@Test
+	void refreshWithCorruptSnapshotFallsBackToProcessing() throws IOException {
+		Path snapshotFile = this.tempDir.resolve("snapshot.bin");
+		Files.write(snapshotFile, new byte[] {1, 2, 3});
+		try (GenericApplicationContext context = refresh(snapshotFile)) {
+			assertContext(context);
+		}
+		assertThat(registrarInvocations).hasValue(1);
+		assertThat(Files.size(snapshotFile)).isGreaterThan(3);
+	}
+
+	private GenericApplicationContext refresh(Path snapshotFile, String... activeProfiles) {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.getEnvironment().setActiveProfiles(activeProfiles);
+		ConfigurationClassPostProcessor pp = new ConfigurationClassPostProcessor();
+		pp.setEnvironment(context.getEnvironment());
+		pp.setResourceLoader(context);
+		pp.setBeanDefinitionSnapshotFile(snapshotFile);
+		context.addBeanFactoryPostProcessor(pp);
+		context.registerBeanDefinition("config", new RootBeanDefinition(SnapshotConfig.class));
+		context.refresh();
+		return context;
+	}
+
+	private void assertContext(GenericApplicationContext context) {
+		assertThat(ClassUtils.isCglibProxy(context.getBean(SnapshotConfig.class))).isTrue();
+		assertThat(context.getBean(Bar.class).foo).isSameAs(context.getBean("foo"));
+		assertThat(context.getBean("registered")).isInstanceOf(Foo.class);
+		assertThat(context.getBean(ImportAwareConfig.class).importingClassName)
+				.isEqualTo(SnapshotConfig.class.getName());
+		assertThat(context.getEnvironment().getProperty("from.p1")).isEqualTo("p1Value");
+	}
+
+
+	@Configuration
+	@Import({SnapshotRegistrar.class, ImportAwareConfig.class})
+	@PropertySource("classpath:org/springframework/context/annotation/p1.properties")
+	static class SnapshotConfig {
+
+		@Bean
+		Foo foo() {
+			return new Foo();
+		}
+
+		@Bean
+		Bar bar() {
+			return new Bar(foo());
+		}
+	}
+
+
+	@Configuration
+	static class ImportAwareConfig implements ImportAware {
+
+		String importingClassName;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importingClassName = importMetadata.getClassName();
+		}
+	}
+
+
+	static class SnapshotRegistrar implements ImportBeanDefinitionRegistrar {
+
+		@Override
+		public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+			registrarInvocations.incrementAndGet();
+			registry.registerBeanDefinition("registered", new RootBeanDefinition(Foo.class));
+		}
+	}
+
+
+	static class Foo {
+	}
+
+
+	static class Bar {
+
+		final Foo foo;
+
+		Bar(Foo foo) {
+			this.foo = foo;
+		}
+	}
+
+}
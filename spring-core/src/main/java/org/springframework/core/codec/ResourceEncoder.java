@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,14 @@
 
 package org.springframework.core.codec;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
@@ -34,6 +37,11 @@ import org.springframework.util.StreamUtils;
 /**
  * Encoder for {@link Resource Resources}.
  *
+ * <p>The content of a {@link ByteArrayResource} is written as a single
+ * {@link DataBuffer} {@linkplain DataBufferFactory#wrap(ByteBuffer) wrapping}
+ * a read-only view of the byte array, rather than being copied into buffers
+ * of the configured size.
+ *
  * @author Arjen Poutsma
  * @since 5.0
  */
@@ -72,6 +80,10 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 			String logPrefix = Hints.getLogPrefix(hints);
 			logger.debug(logPrefix + "Writing [" + resource + "]");
 		}
+		if (resource instanceof ByteArrayResource byteArrayResource) {
+			return Mono.fromSupplier(() -> bufferFactory.wrap(
+					ByteBuffer.wrap(byteArrayResource.getByteArray()).asReadOnlyBuffer())).flux();
+		}
 		return DataBufferUtils.read(resource, bufferFactory, this.bufferSize);
 	}
 
@@ -0,0 +1,571 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Read-only {@link DataBuffer} that presents the readable bytes of a sequence
+ * of component buffers as a single buffer, without copying them.
+ *
+ * <p>Reads, {@link #indexOf searches}, and {@link #readableByteBuffers()} are
+ * delegated to the components, the latter exposing one or more byte buffers
+ * per component, e.g. for a gathering write. Writes are not supported; use
+ * {@link DataBufferFactory#join(List)} for a contiguous, writable buffer.
+ *
+ * <p>The component buffers must not be modified while in use by a composite.
+ * They are released when the composite is {@linkplain #release() released},
+ * regardless of whether they are pooled themselves.
+ *
+ * @since 6.1
+ * @see DataBufferUtils#compose(org.reactivestreams.Publisher, int)
+ */
+public class CompositeDataBuffer implements PooledDataBuffer {
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private DataBuffer[] components;
+
+	/** Index of the first readable byte of each component, within the component. */
+	private int[] componentStarts;
+
+	/** Index of the first byte of each component, within this buffer. */
+	private int[] componentOffsets;
+
+	private int capacity;
+
+	private int readPosition;
+
+	private int writePosition;
+
+	private final AtomicInteger refCount = new AtomicInteger(1);
+
+
+	/**
+	 * Create a composite of the readable bytes of the given buffers.
+	 * @param dataBufferFactory the factory to expose through {@link #factory()}
+	 * @param components the component buffers, released along with the composite
+	 */
+	public CompositeDataBuffer(DataBufferFactory dataBufferFactory, List<? extends DataBuffer> components) {
+		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
+		Assert.notNull(components, "Components must not be null");
+		this.dataBufferFactory = dataBufferFactory;
+		this.components = components.toArray(new DataBuffer[0]);
+		this.componentStarts = new int[this.components.length];
+		this.componentOffsets = new int[this.components.length];
+		int offset = 0;
+		for (int i = 0; i < this.components.length; i++) {
+			this.componentStarts[i] = this.components[i].readPosition();
+			this.componentOffsets[i] = offset;
+			offset += this.components[i].readableByteCount();
+		}
+		this.capacity = offset;
+		this.writePosition = offset;
+	}
+
+
+	/**
+	 * Return the number of component buffers.
+	 */
+	public int getComponentCount() {
+		return this.components.length;
+	}
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int i = componentIndex(fromIndex); i < this.components.length; i++) {
+			int offset = this.componentOffsets[i];
+			if (offset >= this.writePosition) {
+				break;
+			}
+			int from = Math.max(fromIndex - offset, 0) + this.componentStarts[i];
+			int index = this.components[i].indexOf(predicate, from);
+			if (index != -1) {
+				index = index - this.componentStarts[i] + offset;
+				return (index < this.writePosition ? index : -1);
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		fromIndex = Math.min(fromIndex, this.writePosition - 1);
+		if (fromIndex < 0) {
+			return -1;
+		}
+		for (int i = componentIndex(fromIndex); i >= 0; i--) {
+			int offset = this.componentOffsets[i];
+			int from = Math.min(fromIndex - offset, componentLength(i) - 1) + this.componentStarts[i];
+			int index = this.components[i].lastIndexOf(predicate, from);
+			if (index >= this.componentStarts[i]) {
+				return index - this.componentStarts[i] + offset;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public int writableByteCount() {
+		return this.capacity - this.writePosition;
+	}
+
+	@Override
+	public int capacity() {
+		return this.capacity;
+	}
+
+	@Override
+	@Deprecated
+	public DataBuffer capacity(int capacity) {
+		throw unsupported();
+	}
+
+	@Override
+	public DataBuffer ensureWritable(int capacity) {
+		if (capacity > writableByteCount()) {
+			throw unsupported();
+		}
+		return this;
+	}
+
+	@Override
+	public int readPosition() {
+		return this.readPosition;
+	}
+
+	@Override
+	public CompositeDataBuffer readPosition(int readPosition) {
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.writePosition;
+	}
+
+	@Override
+	public CompositeDataBuffer writePosition(int writePosition) {
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= this.capacity, "'writePosition' %d must be <= %d",
+				writePosition, this.capacity);
+		this.writePosition = writePosition;
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d", index, this.writePosition - 1);
+		int i = componentIndex(index);
+		return this.components[i].getByte(index - this.componentOffsets[i] + this.componentStarts[i]);
+	}
+
+	@Override
+	public byte read() {
+		assertIndex(this.readPosition <= this.writePosition - 1, "readPosition %d must be <= %d",
+				this.readPosition, this.writePosition - 1);
+		byte b = getByte(this.readPosition);
+		this.readPosition++;
+		return b;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "Byte array must not be null");
+		return read(destination, 0, destination.length);
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "Byte array must not be null");
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+		toByteBuffer(this.readPosition, ByteBuffer.wrap(destination), offset, length);
+		this.readPosition += length;
+		return this;
+	}
+
+	@Override
+	public DataBuffer write(byte b) {
+		throw unsupported();
+	}
+
+	@Override
+	public DataBuffer write(byte[] source) {
+		throw unsupported();
+	}
+
+	@Override
+	public DataBuffer write(byte[] source, int offset, int length) {
+		throw unsupported();
+	}
+
+	@Override
+	public DataBuffer write(DataBuffer... buffers) {
+		throw unsupported();
+	}
+
+	@Override
+	public DataBuffer write(ByteBuffer... buffers) {
+		throw unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public DataBuffer slice(int index, int length) {
+		throw unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public DataBuffer retainedSlice(int index, int length) {
+		throw unsupported();
+	}
+
+	@Override
+	public CompositeDataBuffer split(int index) {
+		checkIndex(index);
+		List<DataBuffer> head = new ArrayList<>();
+		List<DataBuffer> tail = new ArrayList<>();
+		for (int i = 0; i < this.components.length; i++) {
+			int offset = this.componentOffsets[i];
+			int length = componentLength(i);
+			if (offset + length <= index) {
+				head.add(this.components[i]);
+			}
+			else if (offset >= index) {
+				tail.add(this.components[i]);
+			}
+			else {
+				head.add(this.components[i].split(this.componentStarts[i] + index - offset));
+				tail.add(this.components[i]);
+			}
+		}
+		CompositeDataBuffer result = new CompositeDataBuffer(this.dataBufferFactory, head);
+		result.writePosition = Math.min(this.writePosition, index);
+		result.readPosition = Math.min(this.readPosition, index);
+
+		CompositeDataBuffer remainder = new CompositeDataBuffer(this.dataBufferFactory, tail);
+		this.components = remainder.components;
+		this.componentStarts = remainder.componentStarts;
+		this.componentOffsets = remainder.componentOffsets;
+		this.capacity = remainder.capacity;
+		this.writePosition = Math.max(this.writePosition, index) - index;
+		this.readPosition = Math.max(this.readPosition, index) - index;
+
+		return result;
+	}
+
+	@Override
+	@Deprecated
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(this.readPosition, readableByteCount());
+	}
+
+	@Override
+	@Deprecated
+	public ByteBuffer asByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		int i = componentIndex(index);
+		int localIndex = index - this.componentOffsets[i];
+		if (localIndex + length > componentLength(i)) {
+			throw new UnsupportedOperationException("Range spans several components of a CompositeDataBuffer");
+		}
+		return this.components[i].asByteBuffer(this.componentStarts[i] + localIndex, length);
+	}
+
+	@Override
+	@Deprecated
+	public ByteBuffer toByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		ByteBuffer copy = ByteBuffer.allocate(length);
+		toByteBuffer(index, copy, 0, length);
+		return copy;
+	}
+
+	@Override
+	public void toByteBuffer(int srcPos, ByteBuffer dest, int destPos, int length) {
+		checkIndex(srcPos, length);
+		Assert.notNull(dest, "Dest must not be null");
+		int i = (length > 0 ? componentIndex(srcPos) : this.components.length);
+		for (; length > 0; i++) {
+			int localIndex = srcPos - this.componentOffsets[i];
+			int count = Math.min(length, componentLength(i) - localIndex);
+			this.components[i].toByteBuffer(this.componentStarts[i] + localIndex, dest, destPos, count);
+			srcPos += count;
+			destPos += count;
+			length -= count;
+		}
+	}
+
+	@Override
+	public DataBuffer.ByteBufferIterator readableByteBuffers() {
+		return new CompositeByteBufferIterator();
+	}
+
+	@Override
+	public DataBuffer.ByteBufferIterator writableByteBuffers() {
+		return new CompositeByteBufferIterator(0);
+	}
+
+	@Override
+	public String toString(int index, int length, Charset charset) {
+		checkIndex(index, length);
+		Assert.notNull(charset, "Charset must not be null");
+		if (length > 0) {
+			int i = componentIndex(index);
+			int localIndex = index - this.componentOffsets[i];
+			if (localIndex + length <= componentLength(i)) {
+				return this.components[i].toString(this.componentStarts[i] + localIndex, length, charset);
+			}
+		}
+		byte[] bytes = new byte[length];
+		toByteBuffer(index, ByteBuffer.wrap(bytes), 0, length);
+		return new String(bytes, charset);
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return (this.refCount.get() > 0);
+	}
+
+	@Override
+	public CompositeDataBuffer retain() {
+		while (true) {
+			int count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("CompositeDataBuffer has already been released");
+			}
+			if (this.refCount.compareAndSet(count, count + 1)) {
+				return this;
+			}
+		}
+	}
+
+	@Override
+	public CompositeDataBuffer touch(Object hint) {
+		for (DataBuffer component : this.components) {
+			DataBufferUtils.touch(component, hint);
+		}
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		while (true) {
+			int count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("CompositeDataBuffer has already been released");
+			}
+			if (this.refCount.compareAndSet(count, count - 1)) {
+				if (count == 1) {
+					for (DataBuffer component : this.components) {
+						DataBufferUtils.release(component);
+					}
+					return true;
+				}
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				this.readPosition, this.writePosition, this.capacity, this.components.length);
+	}
+
+
+	/**
+	 * Return the index of the component containing the byte at the given index,
+	 * or of the last component if the given index is at the end of this buffer.
+	 */
+	private int componentIndex(int index) {
+		int low = 0;
+		int high = this.components.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (this.componentOffsets[mid] <= index) {
+				low = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		// Skip empty components
+		while (low < this.components.length - 1 && index >= this.componentOffsets[low] + componentLength(low)) {
+			low++;
+		}
+		return low;
+	}
+
+	private int componentLength(int i) {
+		int end = (i + 1 < this.components.length ? this.componentOffsets[i + 1] : this.capacity);
+		return end - this.componentOffsets[i];
+	}
+
+	private void checkIndex(int index, int length) {
+		checkIndex(index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index + length <= this.capacity, "index %d and length %d must be <= %d",
+				index, length, this.capacity);
+	}
+
+	private void checkIndex(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.capacity, "index %d must be <= %d", index, this.capacity);
+	}
+
+	private static void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+	private static UnsupportedOperationException unsupported() {
+		return new UnsupportedOperationException("CompositeDataBuffer is read-only");
+	}
+
+
+	/**
+	 * Iterator over the readable byte buffers of the components, restricted to
+	 * the readable bytes of the composite.
+	 */
+	private final class CompositeByteBufferIterator implements DataBuffer.ByteBufferIterator {
+
+		private int componentIndex;
+
+		/** Index within the composite of the next byte to return. */
+		private int position;
+
+		private final int end;
+
+		@Nullable
+		private DataBuffer.ByteBufferIterator current;
+
+		/** Index within the composite of the first byte of the current component iterator. */
+		private int currentPosition;
+
+		@Nullable
+		private ByteBuffer next;
+
+		CompositeByteBufferIterator() {
+			this.position = readPosition;
+			this.end = writePosition;
+			this.componentIndex = (this.position < this.end ? componentIndex(this.position) : components.length);
+		}
+
+		CompositeByteBufferIterator(int length) {
+			this.position = 0;
+			this.end = length;
+			this.componentIndex = components.length;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (this.next == null) {
+				this.next = advance();
+			}
+			return (this.next != null);
+		}
+
+		@Override
+		public ByteBuffer next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			ByteBuffer result = this.next;
+			this.next = null;
+			return result;
+		}
+
+		@Nullable
+		private ByteBuffer advance() {
+			while (this.position < this.end) {
+				if (this.current != null && this.current.hasNext()) {
+					ByteBuffer byteBuffer = this.current.next();
+					int start = this.currentPosition;
+					this.currentPosition += byteBuffer.remaining();
+					if (this.currentPosition <= this.position) {
+						continue;
+					}
+					ByteBuffer result = byteBuffer.duplicate();
+					result.position(result.position() + (this.position - start));
+					result.limit(result.limit() - Math.max(0, this.currentPosition - this.end));
+					this.position = Math.min(this.currentPosition, this.end);
+					return result.slice();
+				}
+				closeCurrent();
+				if (this.componentIndex >= components.length) {
+					break;
+				}
+				this.current = components[this.componentIndex].readableByteBuffers();
+				this.currentPosition = componentOffsets[this.componentIndex];
+				this.componentIndex++;
+			}
+			return null;
+		}
+
+		private void closeCurrent() {
+			if (this.current != null) {
+				this.current.close();
+				this.current = null;
+			}
+		}
+
+		@Override
+		public void close() {
+			closeCurrent();
+		}
+	}
+
+}
@@ -25,12 +25,15 @@ import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -268,6 +271,10 @@ public abstract class DataBufferUtils {
 	 * {@linkplain #release(DataBuffer) release} the data buffers in the source.
 	 * If releasing is required, then subscribe to the returned {@code Flux}
 	 * with a {@link #releaseConsumer()}.
+	 * <p>All {@linkplain DataBuffer#readableByteBuffers() readable byte buffers}
+	 * of each data buffer are written; if the channel is a
+	 * {@link GatheringByteChannel}, multiple byte buffers, e.g. those of a
+	 * {@link CompositeDataBuffer}, are written with gathering writes.
 	 * <p>Note that the writing process does not start until the returned
 	 * {@code Flux} is subscribed to.
 	 * @param source the stream of data buffers to be written
@@ -603,6 +610,36 @@ public abstract class DataBufferUtils {
 				.doOnDiscard(DataBuffer.class, DataBufferUtils::release);
 	}
 
+	/**
+	 * Variant of {@link #join(Publisher, int)} that composes the given buffers
+	 * without copying them: a single buffer is returned as is, while multiple
+	 * buffers are exposed through a read-only {@link CompositeDataBuffer}. This
+	 * is meant for content that is only read sequentially, e.g. through
+	 * {@link DataBuffer#asInputStream()}, or written with a gathering write.
+	 * <p>As with {@code join}, the given buffers do <strong>not</strong> have
+	 * to be released: they are released along with the returned buffer.
+	 * @param buffers the data buffers that are to be composed
+	 * @param maxByteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @return a buffer with the aggregated content, possibly a composite
+	 * @throws DataBufferLimitException if maxByteCount is exceeded
+	 * @since 6.1
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static Mono<DataBuffer> compose(Publisher<? extends DataBuffer> buffers, int maxByteCount) {
+		Assert.notNull(buffers, "'buffers' must not be null");
+
+		if (buffers instanceof Mono mono) {
+			return mono;
+		}
+
+		return Flux.from(buffers)
+				.collect(() -> new LimitedDataBufferList(maxByteCount), LimitedDataBufferList::add)
+				.filter(list -> !list.isEmpty())
+				.map(list -> (list.size() == 1 ? list.get(0) :
+						(DataBuffer) new CompositeDataBuffer(list.get(0).factory(), list)))
+				.doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+	}
+
 	/**
 	 * Return a {@link Matcher} for the given delimiter.
 	 * The matcher can be used to find the delimiters in a stream of data buffers.
@@ -1067,9 +1104,16 @@ public abstract class DataBufferUtils {
 		protected void hookOnNext(DataBuffer dataBuffer) {
 			try {
 				try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
-					ByteBuffer byteBuffer = iterator.next();
-					while (byteBuffer.hasRemaining()) {
-						this.channel.write(byteBuffer);
+					if (this.channel instanceof GatheringByteChannel gatheringChannel) {
+						writeGathering(gatheringChannel, iterator);
+					}
+					else {
+						while (iterator.hasNext()) {
+							ByteBuffer byteBuffer = iterator.next();
+							while (byteBuffer.hasRemaining()) {
+								this.channel.write(byteBuffer);
+							}
+						}
 					}
 				}
 				this.sink.next(dataBuffer);
@@ -1081,6 +1125,41 @@ public abstract class DataBufferUtils {
 			}
 		}
 
+		/**
+		 * Write all byte buffers of a data buffer, e.g. the components of a
+		 * {@link CompositeDataBuffer}, with as few gathering writes as possible.
+		 */
+		private static void writeGathering(GatheringByteChannel channel, DataBuffer.ByteBufferIterator iterator)
+				throws IOException {
+
+			if (!iterator.hasNext()) {
+				return;
+			}
+			ByteBuffer first = iterator.next();
+			if (!iterator.hasNext()) {
+				while (first.hasRemaining()) {
+					channel.write(first);
+				}
+				return;
+			}
+			List<ByteBuffer> byteBuffers = new ArrayList<>();
+			byteBuffers.add(first);
+			long remaining = first.remaining();
+			while (iterator.hasNext()) {
+				ByteBuffer byteBuffer = iterator.next();
+				byteBuffers.add(byteBuffer);
+				remaining += byteBuffer.remaining();
+			}
+			ByteBuffer[] array = byteBuffers.toArray(new ByteBuffer[0]);
+			int offset = 0;
+			while (remaining > 0) {
+				remaining -= channel.write(array, offset, array.length - offset);
+				while (offset < array.length && !array[offset].hasRemaining()) {
+					offset++;
+				}
+			}
+		}
+
 		@Override
 		protected void hookOnError(Throwable throwable) {
 			this.sink.error(throwable);
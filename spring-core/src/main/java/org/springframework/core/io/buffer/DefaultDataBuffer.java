@@ -58,7 +58,7 @@ public class DefaultDataBuffer implements DataBuffer {
 	private int writePosition;
 
 
-	private DefaultDataBuffer(DefaultDataBufferFactory dataBufferFactory, ByteBuffer byteBuffer) {
+	DefaultDataBuffer(DefaultDataBufferFactory dataBufferFactory, ByteBuffer byteBuffer) {
 		Assert.notNull(dataBufferFactory, "DefaultDataBufferFactory must not be null");
 		Assert.notNull(byteBuffer, "ByteBuffer must not be null");
 		this.dataBufferFactory = dataBufferFactory;
@@ -361,7 +361,7 @@ public class DefaultDataBuffer implements DataBuffer {
 			.limit(index)
 			.slice();
 
-		DefaultDataBuffer result = new DefaultDataBuffer(this.dataBufferFactory, split);
+		DefaultDataBuffer result = createSplitBuffer(split);
 		result.writePosition = Math.min(this.writePosition, index);
 		result.readPosition = Math.min(this.readPosition, index);
 
@@ -376,6 +376,15 @@ public class DefaultDataBuffer implements DataBuffer {
 		return result;
 	}
 
+	/**
+	 * Create the buffer for the portion split off from this buffer, sharing
+	 * the given part of its memory.
+	 * @since 6.1
+	 */
+	DefaultDataBuffer createSplitBuffer(ByteBuffer byteBuffer) {
+		return new DefaultDataBuffer(this.dataBufferFactory, byteBuffer);
+	}
+
 	@Override
 	@Deprecated
 	public ByteBuffer asByteBuffer() {
@@ -417,14 +426,14 @@ public class DefaultDataBuffer implements DataBuffer {
 	@Override
 	public DataBuffer.ByteBufferIterator readableByteBuffers() {
 		ByteBuffer readOnly = this.byteBuffer.asReadOnlyBuffer();
-		readOnly.clear().position(this.readPosition).limit(this.writePosition - this.readPosition);
+		readOnly.clear().position(this.readPosition).limit(this.writePosition);
 		return new ByteBufferIterator(readOnly);
 	}
 
 	@Override
 	public DataBuffer.ByteBufferIterator writableByteBuffers() {
 		ByteBuffer duplicate = this.byteBuffer.duplicate();
-		duplicate.clear().position(this.writePosition).limit(this.capacity - this.writePosition);
+		duplicate.clear().position(this.writePosition).limit(this.capacity);
 		return new ByteBufferIterator(duplicate);
 	}
 
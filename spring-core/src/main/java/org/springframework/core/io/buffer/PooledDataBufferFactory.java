@@ -0,0 +1,592 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Extension of {@link DefaultDataBufferFactory} that allocates buffers from a
+ * pool of heap or direct {@link ByteBuffer ByteBuffers}, rather than allocating
+ * a new {@code ByteBuffer} for every buffer. This reduces garbage on runtimes
+ * without a pooled allocator of their own, e.g. Servlet containers, and can be
+ * used with any server adapter.
+ *
+ * <p>Pooled memory is organized in power-of-two size classes, from 64 bytes up
+ * to the {@linkplain #getMaxPooledCapacity() max pooled capacity}. Each thread
+ * keeps a small cache of buffers, backed by a pool that is shared by all
+ * threads and bounded per size class. A thread cache holds at most 128K per
+ * factory, and is returned to the shared pool once the thread has not
+ * allocated or released buffers for the
+ * {@linkplain #setThreadCacheIdleTimeout thread cache idle timeout}. As
+ * thread caches are held per factory, an application should share a single
+ * factory rather than create several. Larger buffers are allocated outside
+ * the pool, as are buffers that grow beyond their initial capacity.
+ *
+ * <p>Allocated buffers are {@link PooledDataBuffer PooledDataBuffers}, and must
+ * be {@linkplain DataBufferUtils#release(DataBuffer) released} to return their
+ * memory to the pool; a buffer split off from another one shares its memory,
+ * and must be released as well. Optionally, buffers that are garbage collected
+ * without having been released can be {@linkplain #setLeakDetection detected},
+ * and are reported along with the last hint they were
+ * {@linkplain DataBufferUtils#touch(DataBuffer, Object) touched} with.
+ *
+ * <p>Buffers {@linkplain #wrap(ByteBuffer) wrapping} existing memory are not
+ * pooled.
+ *
+ * @since 6.1
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The default max capacity of pooled buffers: 64K.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	/**
+	 * The default max number of buffers per size class in the shared pool.
+	 */
+	public static final int DEFAULT_MAX_POOLED_BUFFERS = 256;
+
+	/**
+	 * The default time after which an unused thread cache is returned to the
+	 * shared pool: 30 seconds.
+	 */
+	public static final Duration DEFAULT_THREAD_CACHE_IDLE_TIMEOUT = Duration.ofSeconds(30);
+
+	private static final int MIN_POOLED_CAPACITY = 64;
+
+	private static final int MIN_POOLED_CAPACITY_SHIFT = Integer.numberOfTrailingZeros(MIN_POOLED_CAPACITY);
+
+	private static final int THREAD_LOCAL_CACHE_SIZE = 16;
+
+	private static final int THREAD_LOCAL_CACHE_MAX_BYTES = 128 * 1024;
+
+	private static final Log logger = LogFactory.getLog(PooledDataBufferFactory.class);
+
+
+	private final int maxPooledCapacity;
+
+	private final int maxPooledBuffers;
+
+	private final SizeClass[] sizeClasses;
+
+	private final ThreadLocal<ThreadCache> threadCache;
+
+	private final Queue<WeakReference<ThreadCache>> threadCaches = new ConcurrentLinkedQueue<>();
+
+	private volatile long threadCacheIdleTimeout = DEFAULT_THREAD_CACHE_IDLE_TIMEOUT.toNanos();
+
+	private final AtomicLong nextTrimTime = new AtomicLong(System.nanoTime() + this.threadCacheIdleTimeout);
+
+	private volatile boolean leakDetection;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder unpooledCount = new LongAdder();
+
+	private final LongAdder activeCount = new LongAdder();
+
+	private final LongAdder leakCount = new LongAdder();
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings,
+	 * allocating heap buffers.
+	 */
+	public PooledDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers are to be allocated.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_MAX_POOLED_CAPACITY, DEFAULT_MAX_POOLED_BUFFERS);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers are to be allocated, and how much memory is to be pooled.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param maxPooledCapacity the max capacity of pooled buffers, which must
+	 * be a power of two of at least 64
+	 * @param maxPooledBuffers the max number of buffers per size class in the
+	 * pool shared by all threads, or 0 to only cache buffers per thread
+	 */
+	public PooledDataBufferFactory(boolean preferDirect, int maxPooledCapacity, int maxPooledBuffers) {
+		super(preferDirect);
+		Assert.isTrue(maxPooledCapacity >= MIN_POOLED_CAPACITY && Integer.bitCount(maxPooledCapacity) == 1,
+				"'maxPooledCapacity' must be a power of two of at least " + MIN_POOLED_CAPACITY);
+		Assert.isTrue(maxPooledBuffers >= 0, "'maxPooledBuffers' must not be negative");
+		this.maxPooledCapacity = maxPooledCapacity;
+		this.maxPooledBuffers = maxPooledBuffers;
+		int sizeClassCount = Integer.numberOfTrailingZeros(maxPooledCapacity) - MIN_POOLED_CAPACITY_SHIFT + 1;
+		this.sizeClasses = new SizeClass[sizeClassCount];
+		for (int i = 0; i < sizeClassCount; i++) {
+			this.sizeClasses[i] = new SizeClass();
+		}
+		this.threadCache = ThreadLocal.withInitial(() -> {
+			ThreadCache cache = new ThreadCache(sizeClassCount);
+			this.threadCaches.add(new WeakReference<>(cache));
+			return cache;
+		});
+	}
+
+
+	/**
+	 * Return the max capacity of pooled buffers.
+	 */
+	public int getMaxPooledCapacity() {
+		return this.maxPooledCapacity;
+	}
+
+	/**
+	 * Return the max number of buffers per size class in the shared pool.
+	 */
+	public int getMaxPooledBuffers() {
+		return this.maxPooledBuffers;
+	}
+
+	/**
+	 * Set the time after which the buffers cached by a thread that has not
+	 * allocated or released any buffers are returned to the shared pool,
+	 * where other threads can use them. Idle thread caches are trimmed when
+	 * an allocation cannot be served from the cache of the allocating thread,
+	 * at most once per timeout, so a thread cache is returned after having
+	 * been unused for between one and two timeouts.
+	 * <p>By default this is set to {@link #DEFAULT_THREAD_CACHE_IDLE_TIMEOUT}.
+	 */
+	public void setThreadCacheIdleTimeout(Duration threadCacheIdleTimeout) {
+		Assert.isTrue(!threadCacheIdleTimeout.isNegative(), "'threadCacheIdleTimeout' must not be negative");
+		this.threadCacheIdleTimeout = threadCacheIdleTimeout.toNanos();
+		this.nextTrimTime.set(System.nanoTime() + this.threadCacheIdleTimeout);
+	}
+
+	/**
+	 * Return the time after which an unused thread cache is returned to the
+	 * shared pool.
+	 */
+	public Duration getThreadCacheIdleTimeout() {
+		return Duration.ofNanos(this.threadCacheIdleTimeout);
+	}
+
+	/**
+	 * Whether to detect buffers that are garbage collected without having been
+	 * released, logging a warning with the last hint that such a buffer was
+	 * {@linkplain PooledDataBuffer#touch(Object) touched} with.
+	 * <p>Detection applies to buffers allocated after it has been enabled, and
+	 * adds some overhead to each allocation; it is meant for development and
+	 * testing rather than for production use.
+	 * <p>By default this is set to {@code false}.
+	 * @see #getLeakCount()
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return whether leak detection is enabled.
+	 */
+	public boolean isLeakDetection() {
+		return this.leakDetection;
+	}
+
+	/**
+	 * Return the number of allocations served from the pool.
+	 */
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of allocations of a pooled size class for which no
+	 * pooled buffer was available, and new memory was allocated.
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of allocations that exceeded the max pooled capacity,
+	 * and were therefore not served from the pool.
+	 */
+	public long getUnpooledCount() {
+		return this.unpooledCount.sum();
+	}
+
+	/**
+	 * Return the number of allocated buffers that have not been released yet.
+	 */
+	public long getActiveCount() {
+		return this.activeCount.sum();
+	}
+
+	/**
+	 * Return the number of buffers that were detected to be garbage collected
+	 * without having been released.
+	 * @see #setLeakDetection(boolean)
+	 */
+	public long getLeakCount() {
+		return this.leakCount.sum();
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must not be negative");
+		int sizeClass = sizeClass(initialCapacity);
+		ByteBuffer byteBuffer;
+		if (sizeClass < 0) {
+			this.unpooledCount.increment();
+			byteBuffer = allocate(initialCapacity);
+		}
+		else {
+			byteBuffer = this.threadCache.get().poll(sizeClass);
+			if (byteBuffer == null) {
+				trimIdleThreadCachesIfNecessary();
+				byteBuffer = this.sizeClasses[sizeClass].poll();
+			}
+			if (byteBuffer != null) {
+				this.hitCount.increment();
+			}
+			else {
+				this.missCount.increment();
+				byteBuffer = allocate(MIN_POOLED_CAPACITY << sizeClass);
+			}
+		}
+		this.activeCount.increment();
+		Chunk chunk = new Chunk(this, byteBuffer, sizeClass);
+		ByteBuffer memory = byteBuffer.duplicate().clear().limit(initialCapacity);
+		return new PooledDefaultDataBuffer(this, memory, chunk);
+	}
+
+	private int sizeClass(int capacity) {
+		if (capacity > this.maxPooledCapacity) {
+			return -1;
+		}
+		else if (capacity <= MIN_POOLED_CAPACITY) {
+			return 0;
+		}
+		return (Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1)) - MIN_POOLED_CAPACITY_SHIFT;
+	}
+
+	private ByteBuffer allocate(int capacity) {
+		return (isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+	}
+
+	private void recycle(Chunk chunk) {
+		this.activeCount.decrement();
+		if (chunk.sizeClass >= 0 && !this.threadCache.get().offer(chunk.sizeClass, chunk.byteBuffer)) {
+			this.sizeClasses[chunk.sizeClass].offer(chunk.byteBuffer, this.maxPooledBuffers);
+		}
+	}
+
+	private void trimIdleThreadCachesIfNecessary() {
+		long now = System.nanoTime();
+		long nextTrimTime = this.nextTrimTime.get();
+		if (now - nextTrimTime < 0 ||
+				!this.nextTrimTime.compareAndSet(nextTrimTime, now + this.threadCacheIdleTimeout)) {
+			return;
+		}
+		for (Iterator<WeakReference<ThreadCache>> it = this.threadCaches.iterator(); it.hasNext();) {
+			ThreadCache cache = it.next().get();
+			if (cache == null) {
+				it.remove();
+			}
+			else {
+				cache.trimIfIdle(this.sizeClasses, this.maxPooledBuffers);
+			}
+		}
+	}
+
+	private void reportLeak(@Nullable Object hint) {
+		this.leakCount.increment();
+		this.activeCount.decrement();
+		if (logger.isWarnEnabled()) {
+			logger.warn("PooledDataBuffer was garbage collected without having been released" +
+					(hint != null ? ", last touched with hint: " + hint : "") +
+					". Use DataBufferUtils#touch to associate hints with buffers.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (preferDirect=" + isDirect() +
+				", maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	/**
+	 * Pool of buffers of one size class, shared by all threads.
+	 */
+	private static final class SizeClass {
+
+		private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+		private final AtomicInteger size = new AtomicInteger();
+
+		@Nullable
+		ByteBuffer poll() {
+			ByteBuffer byteBuffer = this.buffers.poll();
+			if (byteBuffer != null) {
+				this.size.decrementAndGet();
+			}
+			return byteBuffer;
+		}
+
+		void offer(ByteBuffer byteBuffer, int maxSize) {
+			if (this.size.incrementAndGet() <= maxSize) {
+				this.buffers.offer(byteBuffer);
+			}
+			else {
+				this.size.decrementAndGet();
+			}
+		}
+	}
+
+
+	/**
+	 * Per-thread cache of buffers, bounded by the number of buffers per size
+	 * class and by the total number of bytes held. Accessed by its thread,
+	 * and by the thread that trims idle caches, hence the (uncontended) locking.
+	 */
+	private static final class ThreadCache {
+
+		private final ByteBuffer[][] buffers;
+
+		private final int[] sizes;
+
+		private int cachedBytes;
+
+		/** Whether the cache was used since the last trim. */
+		private boolean used;
+
+		ThreadCache(int sizeClassCount) {
+			this.buffers = new ByteBuffer[sizeClassCount][THREAD_LOCAL_CACHE_SIZE];
+			this.sizes = new int[sizeClassCount];
+		}
+
+		@Nullable
+		synchronized ByteBuffer poll(int sizeClass) {
+			this.used = true;
+			int size = this.sizes[sizeClass];
+			if (size == 0) {
+				return null;
+			}
+			this.sizes[sizeClass] = --size;
+			ByteBuffer byteBuffer = this.buffers[sizeClass][size];
+			this.buffers[sizeClass][size] = null;
+			this.cachedBytes -= byteBuffer.capacity();
+			return byteBuffer;
+		}
+
+		synchronized boolean offer(int sizeClass, ByteBuffer byteBuffer) {
+			this.used = true;
+			int size = this.sizes[sizeClass];
+			if (size == THREAD_LOCAL_CACHE_SIZE ||
+					this.cachedBytes + byteBuffer.capacity() > THREAD_LOCAL_CACHE_MAX_BYTES) {
+				return false;
+			}
+			this.buffers[sizeClass][size] = byteBuffer;
+			this.sizes[sizeClass] = size + 1;
+			this.cachedBytes += byteBuffer.capacity();
+			return true;
+		}
+
+		synchronized void trimIfIdle(SizeClass[] sizeClasses, int maxPooledBuffers) {
+			if (this.used) {
+				this.used = false;
+				return;
+			}
+			for (int sizeClass = 0; sizeClass < this.sizes.length; sizeClass++) {
+				for (int i = 0; i < this.sizes[sizeClass]; i++) {
+					sizeClasses[sizeClass].offer(this.buffers[sizeClass][i], maxPooledBuffers);
+					this.buffers[sizeClass][i] = null;
+				}
+				this.sizes[sizeClass] = 0;
+			}
+			this.cachedBytes = 0;
+		}
+	}
+
+
+	/**
+	 * Pooled memory shared by a buffer and the buffers split off from it,
+	 * with their reference count.
+	 */
+	private static final class Chunk {
+
+		private final PooledDataBufferFactory factory;
+
+		private final ByteBuffer byteBuffer;
+
+		private final int sizeClass;
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		/** Number of reachable buffers, if leak detection is enabled. */
+		@Nullable
+		private final AtomicInteger bufferCount;
+
+		@Nullable
+		private volatile Object hint;
+
+		Chunk(PooledDataBufferFactory factory, ByteBuffer byteBuffer, int sizeClass) {
+			this.factory = factory;
+			this.byteBuffer = byteBuffer;
+			this.sizeClass = sizeClass;
+			this.bufferCount = (factory.leakDetection ? new AtomicInteger() : null);
+		}
+
+		boolean isAllocated() {
+			return (this.refCount.get() > 0);
+		}
+
+		void retain() {
+			while (true) {
+				int count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("Buffer has already been released");
+				}
+				if (this.refCount.compareAndSet(count, count + 1)) {
+					return;
+				}
+			}
+		}
+
+		boolean release() {
+			while (true) {
+				int count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("Buffer has already been released");
+				}
+				if (this.refCount.compareAndSet(count, count - 1)) {
+					if (count == 1) {
+						this.factory.recycle(this);
+						return true;
+					}
+					return false;
+				}
+			}
+		}
+
+		void touch(Object hint) {
+			this.hint = hint;
+		}
+
+		void track(Object buffer) {
+			if (this.bufferCount != null) {
+				this.bufferCount.incrementAndGet();
+				LeakDetector.cleaner.register(buffer, this::bufferCollected);
+			}
+		}
+
+		private void bufferCollected() {
+			Assert.state(this.bufferCount != null, "No buffer count");
+			if (this.bufferCount.decrementAndGet() == 0 && this.refCount.getAndSet(0) > 0) {
+				this.factory.reportLeak(this.hint);
+			}
+		}
+	}
+
+
+	/**
+	 * Holder for the {@link Cleaner} used for leak detection, created lazily.
+	 */
+	private static final class LeakDetector {
+
+		static final Cleaner cleaner = Cleaner.create();
+	}
+
+
+	/**
+	 * {@link DefaultDataBuffer} backed by a {@link Chunk} of pooled memory.
+	 */
+	private static final class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final Chunk chunk;
+
+		PooledDefaultDataBuffer(DefaultDataBufferFactory dataBufferFactory, ByteBuffer byteBuffer, Chunk chunk) {
+			super(dataBufferFactory, byteBuffer);
+			this.chunk = chunk;
+			chunk.track(this);
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.chunk.isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.chunk.retain();
+			return this;
+		}
+
+		@Override
+		public PooledDataBuffer touch(Object hint) {
+			this.chunk.touch(hint);
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.chunk.release();
+		}
+
+		@Override
+		DefaultDataBuffer createSplitBuffer(ByteBuffer byteBuffer) {
+			this.chunk.retain();
+			return new PooledDefaultDataBuffer(factory(), byteBuffer, this.chunk);
+		}
+
+		@Override
+		@Deprecated
+		public DataBuffer retainedSlice(int index, int length) {
+			ByteBuffer slice = asByteBuffer(index, length);
+			this.chunk.retain();
+			return new PooledDefaultDataBuffer(factory(), slice, this.chunk).writePosition(length);
+		}
+
+		@Override
+		public String toString() {
+			return "Pooled" + super.toString();
+		}
+	}
+
+}
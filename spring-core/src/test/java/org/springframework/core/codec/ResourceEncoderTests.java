@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,14 @@
 
 package org.springframework.core.codec;
 
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
@@ -28,6 +31,7 @@ import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.testfixture.codec.AbstractEncoderTests;
 import org.springframework.lang.Nullable;
 import org.springframework.util.MimeType;
@@ -35,6 +39,7 @@ import org.springframework.util.MimeTypeUtils;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * @author Arjen Poutsma
@@ -74,6 +79,38 @@ class ResourceEncoderTests extends AbstractEncoderTests<ResourceEncoder> {
 				.verifyComplete());
 	}
 
+	@Test
+	void encodeByteArrayResourceAsSingleBuffer() {
+		byte[] content = new byte[ResourceEncoder.DEFAULT_BUFFER_SIZE * 3];
+		Arrays.fill(content, (byte) 'a');
+		Flux<Resource> input = Flux.just(new ByteArrayResource(content));
+
+		testEncodeAll(input, Resource.class, step -> step
+				.consumeNextWith(expectBytes(content))
+				.verifyComplete());
+	}
+
+	@Test
+	void encodeByteArrayResourceAsReadOnlyBuffer() {
+		byte[] content = "bar".getBytes(UTF_8);
+		Flux<DataBuffer> result = this.encoder.encode(Mono.just(new ByteArrayResource(content)),
+				this.bufferFactory, ResolvableType.forClass(Resource.class), null, null);
+
+		StepVerifier.create(result)
+				.consumeNextWith(buffer -> {
+					try {
+						buffer.writePosition(0);
+						assertThatExceptionOfType(ReadOnlyBufferException.class)
+								.isThrownBy(() -> buffer.write((byte) 'x'));
+						assertThat(content).isEqualTo("bar".getBytes(UTF_8));
+					}
+					finally {
+						DataBufferUtils.release(buffer);
+					}
+				})
+				.verifyComplete();
+	}
+
 	@Override
 	protected void testEncodeError(Publisher<?> input, ResolvableType outputType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
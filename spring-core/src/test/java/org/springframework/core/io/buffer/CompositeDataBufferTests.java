@@ -0,0 +1,178 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link CompositeDataBuffer}.
+ */
+class CompositeDataBufferTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void readAcrossComponents() throws Exception {
+		CompositeDataBuffer buffer = composite("foo", "", "bar", "baz");
+		assertThat(buffer.getComponentCount()).isEqualTo(4);
+		assertThat(buffer.readableByteCount()).isEqualTo(9);
+		assertThat(buffer.getByte(3)).isEqualTo((byte) 'b');
+
+		byte[] bytes = new byte[5];
+		buffer.read(bytes);
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("fooba");
+		assertThat(buffer.read()).isEqualTo((byte) 'r');
+		assertThat(buffer.readPosition()).isEqualTo(6);
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("baz");
+
+		buffer.readPosition(0);
+		try (InputStream inputStream = buffer.asInputStream()) {
+			assertThat(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("foobarbaz");
+		}
+		release(buffer);
+	}
+
+	@Test
+	void componentsWithReadBytes() {
+		DataBuffer foo = stringBuffer("xxfoo");
+		foo.readPosition(2);
+		DataBuffer bar = stringBuffer("bar");
+		CompositeDataBuffer buffer = new CompositeDataBuffer(this.bufferFactory, List.of(foo, bar));
+
+		assertThat(buffer.readableByteCount()).isEqualTo(6);
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+		assertThat(buffer.toString(2, 2, StandardCharsets.UTF_8)).isEqualTo("ob");
+		release(buffer);
+	}
+
+	@Test
+	void indexOf() {
+		CompositeDataBuffer buffer = composite("ab", "cd", "ab");
+		assertThat(buffer.indexOf(b -> b == 'c', 0)).isEqualTo(2);
+		assertThat(buffer.indexOf(b -> b == 'a', 1)).isEqualTo(4);
+		assertThat(buffer.indexOf(b -> b == 'z', 0)).isEqualTo(-1);
+
+		assertThat(buffer.lastIndexOf(b -> b == 'a', 5)).isEqualTo(4);
+		assertThat(buffer.lastIndexOf(b -> b == 'a', 3)).isEqualTo(0);
+		assertThat(buffer.lastIndexOf(b -> b == 'z', 5)).isEqualTo(-1);
+		release(buffer);
+	}
+
+	@Test
+	void readableByteBuffers() {
+		CompositeDataBuffer buffer = composite("foo", "bar", "baz");
+		buffer.readPosition(4);
+
+		List<String> result = new ArrayList<>();
+		try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+			while (iterator.hasNext()) {
+				ByteBuffer byteBuffer = iterator.next();
+				result.add(StandardCharsets.UTF_8.decode(byteBuffer).toString());
+			}
+		}
+		assertThat(result).containsExactly("ar", "baz");
+		assertThat(buffer.readPosition()).isEqualTo(4);
+		release(buffer);
+	}
+
+	@Test
+	void toByteBuffer() {
+		CompositeDataBuffer buffer = composite("foo", "bar", "baz");
+
+		ByteBuffer byteBuffer = ByteBuffer.allocate(5);
+		buffer.toByteBuffer(2, byteBuffer, 0, 5);
+		assertThat(StandardCharsets.UTF_8.decode(byteBuffer).toString()).isEqualTo("obarb");
+		release(buffer);
+	}
+
+	@Test
+	void split() {
+		CompositeDataBuffer buffer = composite("foo", "bar", "baz");
+		buffer.readPosition(1);
+
+		CompositeDataBuffer head = buffer.split(4);
+		assertThat(head.toString(StandardCharsets.UTF_8)).isEqualTo("oob");
+		assertThat(head.getComponentCount()).isEqualTo(2);
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("arbaz");
+		assertThat(buffer.getComponentCount()).isEqualTo(2);
+		assertThat(buffer.readPosition()).isEqualTo(0);
+
+		release(head, buffer);
+	}
+
+	@Test
+	void releaseComponents() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		assertThat(this.bufferFactory.getActiveCount()).isEqualTo(2);
+
+		buffer.retain();
+		assertThat(buffer.release()).isFalse();
+		assertThat(this.bufferFactory.getActiveCount()).isEqualTo(2);
+
+		assertThat(buffer.release()).isTrue();
+		assertThat(buffer.isAllocated()).isFalse();
+		assertThat(this.bufferFactory.getActiveCount()).isEqualTo(0);
+		assertThatIllegalStateException().isThrownBy(buffer::release);
+	}
+
+	@Test
+	void readOnly() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		assertThat(buffer.writableByteCount()).isEqualTo(0);
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> buffer.write((byte) 'a'));
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> buffer.capacity(10));
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> buffer.retainedSlice(0, 1));
+		try (DataBuffer.ByteBufferIterator iterator = buffer.writableByteBuffers()) {
+			assertThat(iterator.hasNext()).isFalse();
+		}
+		release(buffer);
+	}
+
+
+	private CompositeDataBuffer composite(String... values) {
+		List<DataBuffer> components = new ArrayList<>();
+		for (String value : values) {
+			components.add(stringBuffer(value));
+		}
+		return new CompositeDataBuffer(this.bufferFactory, components);
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(Math.max(bytes.length, 1));
+		buffer.write(bytes);
+		return buffer;
+	}
+
+	private static void release(DataBuffer... buffers) {
+		for (DataBuffer buffer : buffers) {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+}
@@ -330,6 +330,27 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 		channel.close();
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void writeCompositeToGatheringByteChannel(DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		DataBuffer foobar = new CompositeDataBuffer(bufferFactory, List.of(stringBuffer("foo"), stringBuffer("bar")));
+		DataBuffer bazqux = new CompositeDataBuffer(bufferFactory, List.of(stringBuffer("baz"), stringBuffer("qux")));
+		Flux<DataBuffer> flux = Flux.just(foobar, bazqux);
+
+		FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+
+		Flux<DataBuffer> writeResult = DataBufferUtils.write(flux, channel);
+		StepVerifier.create(writeResult)
+				.consumeNextWith(stringConsumer("foobar"))
+				.consumeNextWith(stringConsumer("bazqux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+		channel.close();
+
+		assertThat(String.join("", Files.readAllLines(tempFile))).isEqualTo("foobarbazqux");
+	}
+
 	@ParameterizedDataBufferAllocatingTest
 	void writeWritableByteChannelErrorInFlux(DataBufferFactory bufferFactory) throws Exception {
 		super.bufferFactory = bufferFactory;
@@ -879,6 +900,70 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 				.verify();
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void compose(DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		DataBuffer foo = stringBuffer("foo");
+		DataBuffer bar = stringBuffer("bar");
+		DataBuffer baz = stringBuffer("baz");
+		Flux<DataBuffer> flux = Flux.just(foo, bar, baz);
+		Mono<DataBuffer> result = DataBufferUtils.compose(flux, -1);
+
+		StepVerifier.create(result)
+				.consumeNextWith(buf -> {
+					assertThat(buf).isInstanceOf(CompositeDataBuffer.class);
+					assertThat(buf.toString(StandardCharsets.UTF_8)).isEqualTo("foobarbaz");
+					release(buf);
+				})
+				.verifyComplete();
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void composeSingleBuffer(DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		DataBuffer foo = stringBuffer("foo");
+		Mono<DataBuffer> result = DataBufferUtils.compose(Flux.just(foo), -1);
+
+		StepVerifier.create(result)
+				.consumeNextWith(buf -> {
+					assertThat(buf).isSameAs(foo);
+					release(buf);
+				})
+				.verifyComplete();
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void composeWithLimit(DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		DataBuffer foo = stringBuffer("foo");
+		DataBuffer bar = stringBuffer("bar");
+		DataBuffer baz = stringBuffer("baz");
+		Flux<DataBuffer> flux = Flux.just(foo, bar, baz);
+		Mono<DataBuffer> result = DataBufferUtils.compose(flux, 8);
+
+		StepVerifier.create(result)
+				.verifyError(DataBufferLimitException.class);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void composeCanceled(DataBufferFactory bufferFactory) {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> source = Flux.concat(
+				deferStringBuffer("foo"),
+				deferStringBuffer("bar"),
+				deferStringBuffer("baz")
+		);
+		Mono<DataBuffer> result = DataBufferUtils.compose(source, -1);
+
+		StepVerifier.create(result)
+				.thenCancel()
+				.verify();
+	}
+
 	@ParameterizedDataBufferAllocatingTest
 	void matcher(DataBufferFactory bufferFactory) {
 		super.bufferFactory = bufferFactory;
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link PooledDataBufferFactory}.
+ */
+class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(false, 1024, 4);
+
+
+	@Test
+	void allocateFromPool() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		assertThat(buffer).isInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.capacity()).isEqualTo(100);
+		assertThat(this.bufferFactory.getMissCount()).isEqualTo(1);
+		assertThat(this.bufferFactory.getActiveCount()).isEqualTo(1);
+
+		buffer.write(new byte[] {'a', 'b'});
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(this.bufferFactory.getActiveCount()).isEqualTo(0);
+
+		// Same size class
+		buffer = this.bufferFactory.allocateBuffer(128);
+		assertThat(buffer.capacity()).isEqualTo(128);
+		assertThat(buffer.readableByteCount()).isEqualTo(0);
+		assertThat(this.bufferFactory.getHitCount()).isEqualTo(1);
+
+		// Other size class
+		DataBuffer other = this.bufferFactory.allocateBuffer(129);
+		assertThat(this.bufferFactory.getMissCount()).isEqualTo(2);
+
+		release(buffer, other);
+	}
+
+	@Test
+	void allocateLargerThanMaxPooledCapacity() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(1025);
+		assertThat(buffer).isInstanceOf(PooledDataBuffer.class);
+		assertThat(this.bufferFactory.getUnpooledCount()).isEqualTo(1);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+
+		DataBufferUtils.release(this.bufferFactory.allocateBuffer(1025));
+		assertThat(this.bufferFactory.getUnpooledCount()).isEqualTo(2);
+		assertThat(this.bufferFactory.getHitCount()).isEqualTo(0);
+	}
+
+	@Test
+	void allocateFromSharedPool() throws Exception {
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			buffers.add(this.bufferFactory.allocateBuffer(64));
+		}
+		Thread thread = new Thread(() -> buffers.forEach(DataBufferUtils::release));
+		thread.start();
+		thread.join();
+
+		for (int i = 0; i < 4; i++) {
+			buffers.set(i, this.bufferFactory.allocateBuffer(64));
+		}
+		assertThat(this.bufferFactory.getHitCount()).isEqualTo(4);
+		this.bufferFactory.allocateBuffer(64);
+		assertThat(this.bufferFactory.getHitCount()).isEqualTo(4);
+		assertThat(this.bufferFactory.getMissCount()).isEqualTo(21);
+	}
+
+	@Test
+	void splitSharesPooledMemory() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(3);
+		buffer.write(new byte[] {'a', 'b', 'c'});
+
+		DataBuffer split = buffer.split(1);
+		assertThat(split).isInstanceOf(PooledDataBuffer.class);
+		assertThat(split.toString(StandardCharsets.UTF_8)).isEqualTo("a");
+
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(((PooledDataBuffer) split).isAllocated()).isTrue();
+		assertThat(DataBufferUtils.release(split)).isTrue();
+		assertThat(this.bufferFactory.getActiveCount()).isEqualTo(0);
+	}
+
+	@Test
+	void growBeyondInitialCapacity() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write(new byte[200]);
+		assertThat(buffer.readableByteCount()).isEqualTo(200);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+
+		DataBufferUtils.release(this.bufferFactory.allocateBuffer(64));
+		assertThat(this.bufferFactory.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void wrapIsNotPooled() {
+		DataBuffer buffer = this.bufferFactory.wrap(new byte[] {'a'});
+		assertThat(buffer).isNotInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.factory()).isSameAs(this.bufferFactory);
+		assertThat(this.bufferFactory.getActiveCount()).isEqualTo(0);
+	}
+
+	@Test
+	void threadCacheIsBoundedByBytes() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(false, 64 * 1024, 0);
+		DataBuffer[] buffers = new DataBuffer[4];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = bufferFactory.allocateBuffer(64 * 1024);
+		}
+		release(buffers);
+
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = bufferFactory.allocateBuffer(64 * 1024);
+		}
+		assertThat(bufferFactory.getHitCount()).isEqualTo(2);
+		release(buffers);
+	}
+
+	@Test
+	void trimIdleThreadCache() throws Exception {
+		this.bufferFactory.setThreadCacheIdleTimeout(Duration.ofMillis(1));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			executor.submit(() -> DataBufferUtils.release(this.bufferFactory.allocateBuffer(64))).get();
+
+			// First trim marks the cache of the other thread as unused, second trim returns it
+			Thread.sleep(10);
+			DataBufferUtils.release(this.bufferFactory.allocateBuffer(1024));
+			Thread.sleep(10);
+			DataBufferUtils.release(this.bufferFactory.allocateBuffer(64));
+
+			assertThat(this.bufferFactory.getHitCount()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void leakDetectionWithReleasedBuffers() {
+		this.bufferFactory.setLeakDetection(true);
+		DataBuffer buffer = DataBufferUtils.touch(this.bufferFactory.allocateBuffer(10), "hint");
+		buffer.write(new byte[] {'a', 'b'});
+		DataBuffer split = buffer.split(1);
+		release(buffer, split);
+
+		assertThat(this.bufferFactory.getLeakCount()).isEqualTo(0);
+		assertThat(this.bufferFactory.getActiveCount()).isEqualTo(0);
+	}
+
+	@Test
+	void leakDetectionWithUnreleasedBuffer() throws Exception {
+		this.bufferFactory.setLeakDetection(true);
+		allocateWithoutRelease("leaked");
+
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (this.bufferFactory.getLeakCount() == 0 && System.nanoTime() < deadline) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertThat(this.bufferFactory.getLeakCount()).isEqualTo(1);
+		assertThat(this.bufferFactory.getActiveCount()).isEqualTo(0);
+	}
+
+	@Test
+	void invalidMaxPooledCapacity() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new PooledDataBufferFactory(false, 1000, 4));
+		assertThatIllegalArgumentException().isThrownBy(() -> new PooledDataBufferFactory(false, 32, 4));
+	}
+
+
+	private void allocateWithoutRelease(String hint) {
+		DataBuffer buffer = DataBufferUtils.touch(this.bufferFactory.allocateBuffer(10), hint);
+		buffer.write(new byte[] {'a', 'b'});
+	}
+
+	private static void release(DataBuffer... buffers) {
+		for (DataBuffer buffer : buffers) {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+}
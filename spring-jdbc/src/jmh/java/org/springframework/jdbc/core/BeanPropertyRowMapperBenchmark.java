@@ -0,0 +1,188 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Benchmark for {@link BeanPropertyRowMapper} and {@link DataClassRowMapper}
+ * with and without compiled mapping, against an embedded database.
+ *
+ * @see BeanPropertyRowMapper#setCompiledMapping
+ */
+@BenchmarkMode(Mode.Throughput)
+public class BeanPropertyRowMapperBenchmark {
+
+	private static final String QUERY =
+			"select id, first_name, last_name, age, active, balance, created from person";
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"HSQL", "H2"})
+		public EmbeddedDatabaseType databaseType;
+
+		@Param({"standard", "compiled"})
+		public String mapping;
+
+		@Param({"10000"})
+		public int rowCount;
+
+		public EmbeddedDatabase database;
+
+		public JdbcTemplate jdbcTemplate;
+
+		public BeanPropertyRowMapper<Person> beanMapper;
+
+		public DataClassRowMapper<PersonRecord> recordMapper;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.database = new EmbeddedDatabaseBuilder().setType(this.databaseType).generateUniqueName(true).build();
+			this.jdbcTemplate = new JdbcTemplate(this.database);
+			this.jdbcTemplate.execute("create table person (id bigint primary key, first_name varchar(50), " +
+					"last_name varchar(50), age integer, active boolean, balance decimal(12,2), created timestamp)");
+			List<Object[]> rows = new ArrayList<>(this.rowCount);
+			for (int i = 0; i < this.rowCount; i++) {
+				rows.add(new Object[] {i, "first" + i, "last" + i, i % 100, i % 2 == 0,
+						BigDecimal.valueOf(i, 2), new Timestamp(i * 1000L)});
+			}
+			this.jdbcTemplate.batchUpdate("insert into person values (?, ?, ?, ?, ?, ?, ?)", rows);
+
+			boolean compiled = "compiled".equals(this.mapping);
+			this.beanMapper = new BeanPropertyRowMapper<>(Person.class);
+			this.beanMapper.setCompiledMapping(compiled);
+			this.recordMapper = new DataClassRowMapper<>(PersonRecord.class);
+			this.recordMapper.setCompiledMapping(compiled);
+		}
+
+		@TearDown(Level.Trial)
+		public void shutdown() {
+			this.database.shutdown();
+		}
+	}
+
+
+	@Benchmark
+	public List<Person> beanPropertyRowMapper(BenchmarkState state) {
+		return state.jdbcTemplate.query(QUERY, state.beanMapper);
+	}
+
+	@Benchmark
+	public List<PersonRecord> dataClassRowMapper(BenchmarkState state) {
+		return state.jdbcTemplate.query(QUERY, state.recordMapper);
+	}
+
+
+	public static class Person {
+
+		private long id;
+
+		private String firstName;
+
+		private String lastName;
+
+		private Integer age;
+
+		private boolean active;
+
+		private BigDecimal balance;
+
+		private Date created;
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getFirstName() {
+			return this.firstName;
+		}
+
+		public void setFirstName(String firstName) {
+			this.firstName = firstName;
+		}
+
+		public String getLastName() {
+			return this.lastName;
+		}
+
+		public void setLastName(String lastName) {
+			this.lastName = lastName;
+		}
+
+		public Integer getAge() {
+			return this.age;
+		}
+
+		public void setAge(Integer age) {
+			this.age = age;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+
+		public BigDecimal getBalance() {
+			return this.balance;
+		}
+
+		public void setBalance(BigDecimal balance) {
+			this.balance = balance;
+		}
+
+		public Date getCreated() {
+			return this.created;
+		}
+
+		public void setCreated(Date created) {
+			this.created = created;
+		}
+	}
+
+
+	public record PersonRecord(long id, String firstName, String lastName, Integer age, boolean active,
+			BigDecimal balance, Date created) {
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc;
+
+import java.util.List;
+
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Exception thrown when one or more partitions of a partitioned batch update
+ * failed. The remaining partitions have been executed successfully; the
+ * failures indicate the range of batch arguments that each failed partition
+ * was responsible for, allowing for a retry of the affected ranges.
+ *
+ * @since 6.1
+ * @see org.springframework.jdbc.core.JdbcTemplate#batchUpdate(String, java.util.Collection, int, org.springframework.jdbc.core.ParameterizedPreparedStatementSetter, int, java.util.concurrent.Executor, org.springframework.jdbc.core.PartitionCommitMode, org.springframework.jdbc.core.BatchUpdateCountCallback)
+ */
+@SuppressWarnings("serial")
+public class PartitionedBatchUpdateException extends DataAccessException {
+
+	private final List<PartitionFailure> failures;
+
+
+	/**
+	 * Constructor for PartitionedBatchUpdateException.
+	 * @param sql the SQL we were trying to execute
+	 * @param failures the failed partitions (at least one)
+	 */
+	public PartitionedBatchUpdateException(String sql, List<PartitionFailure> failures) {
+		super("Batch update '" + sql + "' failed for " + failures.size() + " partition(s): " + failures,
+				failures.get(0).cause());
+		this.failures = List.copyOf(failures);
+		for (int i = 1; i < failures.size(); i++) {
+			addSuppressed(failures.get(i).cause());
+		}
+	}
+
+
+	/**
+	 * Return the failed partitions, in partition order.
+	 */
+	public List<PartitionFailure> getFailures() {
+		return this.failures;
+	}
+
+
+	/**
+	 * The failure of a single partition.
+	 * @param partition the index of the partition
+	 * @param fromIndex the index of the first batch argument in the partition (inclusive)
+	 * @param toIndex the index of the last batch argument in the partition (exclusive)
+	 * @param cause the exception that the partition failed with
+	 */
+	public record PartitionFailure(int partition, int fromIndex, int toIndex, Throwable cause) {
+
+		@Override
+		public String toString() {
+			return "partition " + this.partition + " [" + this.fromIndex + ".." + this.toIndex + "): " + this.cause;
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+/**
+ * Callback interface used by {@link JdbcTemplate} for receiving the update
+ * counts of a partitioned batch update, one sub-batch at a time, instead of
+ * retaining the update counts for the entire batch.
+ *
+ * <p>Partitions are executed concurrently: Implementations need to be
+ * thread-safe when used with a multi-threaded executor.
+ *
+ * @since 6.1
+ * @see JdbcTemplate#batchUpdate(String, java.util.Collection, int, ParameterizedPreparedStatementSetter, int, java.util.concurrent.Executor, PartitionCommitMode, BatchUpdateCountCallback)
+ */
+@FunctionalInterface
+public interface BatchUpdateCountCallback {
+
+	/**
+	 * Receive the update counts for a sub-batch that has been executed.
+	 * @param partition the index of the partition that executed the sub-batch
+	 * @param updateCounts the update counts as returned by the JDBC driver
+	 * (possibly {@link java.sql.Statement#SUCCESS_NO_INFO}), one per statement
+	 * in the sub-batch
+	 */
+	void batchExecuted(int partition, int[] updateCounts);
+
+}
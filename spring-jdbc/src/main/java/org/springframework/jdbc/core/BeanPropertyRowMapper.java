@@ -17,11 +17,18 @@
 package org.springframework.jdbc.core;
 
 import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +42,7 @@ import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.NotWritablePropertyException;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.KotlinDetector;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.dao.DataRetrievalFailureException;
@@ -43,6 +51,7 @@ import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -79,7 +88,8 @@ import org.springframework.util.StringUtils;
  *
  * <p>Please note that this class is designed to provide convenience rather than
  * high performance. For best performance, consider using a custom {@code RowMapper}
- * implementation.
+ * implementation, or switch on {@linkplain #setCompiledMapping compiled mapping}
+ * for large result sets with common column types.
  *
  * @author Thomas Risberg
  * @author Juergen Hoeller
@@ -90,6 +100,10 @@ import org.springframework.util.StringUtils;
  */
 public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 
+	/** Maximum number of column layouts to keep compiled mappers for. */
+	private static final int COMPILED_MAPPING_CACHE_LIMIT = 16;
+
+
 	/** Logger available to subclasses. */
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -119,6 +133,26 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	@Nullable
 	private Set<String> mappedPropertyNames;
 
+	/** Whether to map rows through generated {@link CompiledRowMapper} classes. */
+	private boolean compiledMapping = false;
+
+	/** Whether this mapper does not customize any extraction or conversion step. */
+	@Nullable
+	private volatile Boolean compilationSupported;
+
+	/** Compiled mappers per column layout, from least to most recently used. */
+	private final Map<ColumnLayout, CompiledMapping> compiledMappingCache =
+			new LinkedHashMap<>(COMPILED_MAPPING_CACHE_LIMIT, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<ColumnLayout, CompiledMapping> eldest) {
+					return size() > COMPILED_MAPPING_CACHE_LIMIT;
+				}
+			};
+
+	/** The compiled mapper for the most recently mapped ResultSet. */
+	@Nullable
+	private volatile ResultSetMapping lastResultSetMapping;
+
 
 	/**
 	 * Create a new {@code BeanPropertyRowMapper} for bean-style configuration.
@@ -179,6 +213,7 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	 */
 	public void setCheckFullyPopulated(boolean checkFullyPopulated) {
 		this.checkFullyPopulated = checkFullyPopulated;
+		resetCompiledMappings();
 	}
 
 	/**
@@ -205,6 +240,7 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	 */
 	public void setPrimitivesDefaultedForNullValue(boolean primitivesDefaultedForNullValue) {
 		this.primitivesDefaultedForNullValue = primitivesDefaultedForNullValue;
+		resetCompiledMappings();
 	}
 
 	/**
@@ -225,6 +261,7 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	 */
 	public void setConversionService(@Nullable ConversionService conversionService) {
 		this.conversionService = conversionService;
+		resetCompiledMappings();
 	}
 
 	/**
@@ -237,6 +274,37 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return this.conversionService;
 	}
 
+	/**
+	 * Set whether to map rows through a generated mapper class that is specific
+	 * to the mapped class and the column layout of the {@code ResultSet}, as
+	 * determined from the meta-data of the first row: reading each column through
+	 * its typed {@code ResultSet} getter and invoking the constructor and setter
+	 * methods directly, without a {@link BeanWrapper} per row.
+	 * <p>Default is {@code false}. If set to {@code true}, compiled mapping applies
+	 * to public mapped classes with public constructors and setter methods for
+	 * the types with a dedicated {@code ResultSet} getter (e.g. String, primitives
+	 * and their wrappers, BigDecimal, {@code java.util.Date} and the JDBC date
+	 * types), as long as this mapper uses the default {@link ConversionService}
+	 * (or none) and its {@code getColumnValue}, {@code initBeanWrapper} and
+	 * {@code constructMappedInstance} methods are not overridden. Any other
+	 * layout is mapped as usual. Note that exceptions thrown by constructors and
+	 * setter methods propagate as-is in compiled mode.
+	 * @since 6.1
+	 * @see CompiledRowMapper
+	 */
+	public void setCompiledMapping(boolean compiledMapping) {
+		this.compiledMapping = compiledMapping;
+	}
+
+	/**
+	 * Return whether rows are mapped through generated mapper classes.
+	 * @since 6.1
+	 * @see #setCompiledMapping
+	 */
+	public boolean isCompiledMapping() {
+		return this.compiledMapping;
+	}
+
 
 	/**
 	 * Initialize the mapping meta-data for the given class.
@@ -317,7 +385,15 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	 * @see java.sql.ResultSetMetaData
 	 */
 	@Override
+	@SuppressWarnings("unchecked")
 	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		if (this.compiledMapping) {
+			CompiledRowMapper compiledRowMapper = getCompiledRowMapper(rs);
+			if (compiledRowMapper != null) {
+				return (T) compiledRowMapper.mapRow(rs);
+			}
+		}
+
 		BeanWrapperImpl bw = new BeanWrapperImpl();
 		initBeanWrapper(bw);
 
@@ -375,6 +451,154 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return mappedObject;
 	}
 
+	/**
+	 * Return the compiled mapper for the column layout of the given ResultSet,
+	 * compiling it on the first row of a ResultSet with a new column layout.
+	 */
+	@Nullable
+	private CompiledRowMapper getCompiledRowMapper(ResultSet rs) throws SQLException {
+		ResultSetMapping lastMapping = this.lastResultSetMapping;
+		if (lastMapping != null && lastMapping.resultSet().get() == rs) {
+			return lastMapping.mapping().rowMapper();
+		}
+		ColumnLayout layout = new ColumnLayout(rs.getMetaData());
+		CompiledMapping mapping;
+		synchronized (this.compiledMappingCache) {
+			mapping = this.compiledMappingCache.get(layout);
+		}
+		if (mapping == null) {
+			mapping = new CompiledMapping(compileRowMapper(rs));
+			synchronized (this.compiledMappingCache) {
+				this.compiledMappingCache.put(layout, mapping);
+			}
+		}
+		this.lastResultSetMapping = new ResultSetMapping(new WeakReference<>(rs), mapping);
+		return mapping.rowMapper();
+	}
+
+	@Nullable
+	private CompiledRowMapper compileRowMapper(ResultSet rs) throws SQLException {
+		Class<T> mappedClass = this.mappedClass;
+		if (mappedClass == null || this.mappedProperties == null || KotlinDetector.isKotlinType(mappedClass) ||
+				(this.conversionService != null && this.conversionService != DefaultConversionService.getSharedInstance()) ||
+				!isCompilationSupported()) {
+			return null;
+		}
+		Constructor<T> constructor = getMappedConstructor();
+		if (constructor == null) {
+			return null;
+		}
+
+		String[] constructorParameterNames = getMappedConstructorParameterNames();
+		List<Integer> constructorColumns = new ArrayList<>();
+		if (constructorParameterNames != null) {
+			for (String name : constructorParameterNames) {
+				int index;
+				try {
+					index = rs.findColumn(lowerCaseName(name));
+				}
+				catch (SQLException ex) {
+					try {
+						index = rs.findColumn(underscoreName(name));
+					}
+					catch (SQLException ex2) {
+						// Let regular mapping report the missing column
+						return null;
+					}
+				}
+				constructorColumns.add(index);
+			}
+		}
+
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int columnCount = rsmd.getColumnCount();
+		List<RowMapperCompiler.PropertyMapping> properties = new ArrayList<>(columnCount);
+		Set<String> populatedProperties = new HashSet<>();
+		for (int index = 1; index <= columnCount; index++) {
+			String column = JdbcUtils.lookupColumnName(rsmd, index);
+			PropertyDescriptor pd = this.mappedProperties.get(lowerCaseName(StringUtils.delete(column, " ")));
+			if (pd != null) {
+				Method writeMethod = pd.getWriteMethod();
+				if (writeMethod == null) {
+					return null;
+				}
+				properties.add(new RowMapperCompiler.PropertyMapping(index, pd.getName(), pd.getPropertyType(), writeMethod));
+				populatedProperties.add(pd.getName());
+			}
+		}
+		if (isCheckFullyPopulated() && !populatedProperties.equals(this.mappedPropertyNames)) {
+			return null;
+		}
+
+		CompiledRowMapper compiledRowMapper = RowMapperCompiler.compile(constructor, constructorParameterNames,
+				constructorColumns, properties, this.primitivesDefaultedForNullValue);
+		if (logger.isDebugEnabled()) {
+			if (compiledRowMapper != null) {
+				for (RowMapperCompiler.PropertyMapping property : properties) {
+					logger.debug("Mapping column " + property.column() + " to property '" + property.name() +
+							"' of type '" + ClassUtils.getQualifiedName(property.type()) + "' (compiled)");
+				}
+			}
+			else {
+				logger.debug("Compiled mapping not applicable to " + mappedClass + " for given ResultSet");
+			}
+		}
+		return compiledRowMapper;
+	}
+
+	/**
+	 * Discard compiled mappers after a configuration change.
+	 */
+	private void resetCompiledMappings() {
+		synchronized (this.compiledMappingCache) {
+			this.compiledMappingCache.clear();
+		}
+		this.lastResultSetMapping = null;
+	}
+
+	/**
+	 * Determine whether compiled mapping is possible for this mapper, i.e. whether
+	 * none of the extraction and construction methods has been overridden.
+	 */
+	private boolean isCompilationSupported() {
+		Boolean supported = this.compilationSupported;
+		if (supported == null) {
+			Class<?> mapperClass = getClass();
+			supported = (isDeclaredByRowMapper(mapperClass, "getColumnValue",
+							ResultSet.class, int.class, PropertyDescriptor.class) &&
+					isDeclaredByRowMapper(mapperClass, "getColumnValue", ResultSet.class, int.class, Class.class) &&
+					isDeclaredByRowMapper(mapperClass, "initBeanWrapper", BeanWrapper.class) &&
+					isDeclaredByRowMapper(mapperClass, "constructMappedInstance", ResultSet.class, TypeConverter.class));
+			this.compilationSupported = supported;
+		}
+		return supported;
+	}
+
+	private static boolean isDeclaredByRowMapper(Class<?> mapperClass, String methodName, Class<?>... paramTypes) {
+		Method method = ReflectionUtils.findMethod(mapperClass, methodName, paramTypes);
+		return (method != null && (method.getDeclaringClass() == BeanPropertyRowMapper.class ||
+				method.getDeclaringClass() == DataClassRowMapper.class));
+	}
+
+	/**
+	 * Return the constructor to instantiate the mapped class with in compiled mode,
+	 * or {@code null} if none is accessible.
+	 * <p>The default implementation returns the public no-arg constructor.
+	 */
+	@Nullable
+	Constructor<T> getMappedConstructor() {
+		return (this.mappedClass != null ? ClassUtils.getConstructorIfAvailable(this.mappedClass) : null);
+	}
+
+	/**
+	 * Return the parameter names of the {@linkplain #getMappedConstructor() mapped
+	 * constructor}, to be resolved against column names, or {@code null} if none.
+	 */
+	@Nullable
+	String[] getMappedConstructorParameterNames() {
+		return null;
+	}
+
 	/**
 	 * Construct an instance of the mapped class for the current row.
 	 * @param rs the ResultSet to map (pre-initialized for the current row)
@@ -466,4 +690,53 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return rowMapper;
 	}
 
+
+	/**
+	 * Holder for the compiled mapper for a column layout, if applicable.
+	 */
+	private record CompiledMapping(@Nullable CompiledRowMapper rowMapper) {
+	}
+
+
+	/**
+	 * Holder for the compiled mapping for a specific ResultSet.
+	 */
+	private record ResultSetMapping(WeakReference<ResultSet> resultSet, CompiledMapping mapping) {
+	}
+
+
+	/**
+	 * Cache key for the column labels and types of a ResultSet.
+	 */
+	private static final class ColumnLayout {
+
+		private final String[] labels;
+
+		private final int[] types;
+
+		private final int hashCode;
+
+		ColumnLayout(ResultSetMetaData rsmd) throws SQLException {
+			int columnCount = rsmd.getColumnCount();
+			this.labels = new String[columnCount];
+			this.types = new int[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				this.labels[i] = JdbcUtils.lookupColumnName(rsmd, i + 1);
+				this.types[i] = rsmd.getColumnType(i + 1);
+			}
+			this.hashCode = 31 * Arrays.hashCode(this.labels) + Arrays.hashCode(this.types);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof ColumnLayout that &&
+					Arrays.equals(this.labels, that.labels) && Arrays.equals(this.types, that.types)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
 }
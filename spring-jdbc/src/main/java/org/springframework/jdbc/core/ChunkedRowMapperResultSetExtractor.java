@@ -0,0 +1,100 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * Adapter implementation of the ResultSetExtractor interface that delegates
+ * to a RowMapper for each row, passing the mapped objects to a
+ * {@link RowChunkHandler} in chunks of a fixed size. In contrast to
+ * {@link RowMapperResultSetExtractor}, memory consumption is bounded by the
+ * chunk size rather than by the number of rows, since a single pre-sized
+ * List is reused for all chunks.
+ *
+ * <p>A usage example with JdbcTemplate:
+ *
+ * <pre class="code">JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);  // reusable object
+ * RowMapper&lt;User&gt; rowMapper = new UserRowMapper();  // reusable object
+ *
+ * long count = jdbcTemplate.query(
+ *     "select * from user",
+ *     new ChunkedRowMapperResultSetExtractor&lt;&gt;(rowMapper, 1000, users -&gt; export(users)));</pre>
+ *
+ * <p>Consider {@link JdbcTemplate#queryForChunks} for additionally applying
+ * the chunk size as fetch size and a forward-only cursor.
+ *
+ * @since 6.1
+ * @param <T> the result element type
+ * @see RowChunkHandler
+ * @see JdbcTemplate#queryForChunks(String, RowMapper, int, RowChunkHandler, Object...)
+ */
+public class ChunkedRowMapperResultSetExtractor<T> implements ResultSetExtractor<Long> {
+
+	private final RowMapper<T> rowMapper;
+
+	private final int chunkSize;
+
+	private final RowChunkHandler<T> chunkHandler;
+
+
+	/**
+	 * Create a new ChunkedRowMapperResultSetExtractor.
+	 * @param rowMapper the RowMapper which creates an object for each row
+	 * @param chunkSize the number of mapped objects per chunk
+	 * @param chunkHandler the callback to process each chunk with
+	 */
+	public ChunkedRowMapperResultSetExtractor(RowMapper<T> rowMapper, int chunkSize, RowChunkHandler<T> chunkHandler) {
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		Assert.notNull(chunkHandler, "RowChunkHandler must not be null");
+		this.rowMapper = rowMapper;
+		this.chunkSize = chunkSize;
+		this.chunkHandler = chunkHandler;
+	}
+
+
+	/**
+	 * Map all rows and pass them to the {@link RowChunkHandler} chunk by chunk.
+	 * @return the total number of rows processed
+	 */
+	@Override
+	public Long extractData(ResultSet rs) throws SQLException {
+		List<T> chunk = new ArrayList<>(this.chunkSize);
+		long rowCount = 0;
+		int rowNum = 0;
+		while (rs.next()) {
+			chunk.add(this.rowMapper.mapRow(rs, rowNum++));
+			rowCount++;
+			if (chunk.size() == this.chunkSize) {
+				this.chunkHandler.processChunk(chunk);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			this.chunkHandler.processChunk(chunk);
+			chunk.clear();
+		}
+		return rowCount;
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.PropertyChangeEvent;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.beans.TypeMismatchException;
+
+/**
+ * Base superclass for row mappers generated by {@link BeanPropertyRowMapper}
+ * in {@linkplain BeanPropertyRowMapper#setCompiledMapping compiled mode}.
+ * Each generated class maps one column layout to one target class, reading
+ * typed column values and invoking the constructor and setter methods of the
+ * target class directly. It is not intended to be subclassed by user code.
+ *
+ * @since 6.1
+ */
+public abstract class CompiledRowMapper {
+
+	private final String[] propertyNames;
+
+	private final Class<?>[] propertyTypes;
+
+	private final boolean primitivesDefaultedForNullValue;
+
+
+	/**
+	 * Create a new compiled row mapper.
+	 * @param propertyNames the names of the mapped constructor parameters,
+	 * followed by the names of the mapped properties in column order
+	 * @param propertyTypes the corresponding constructor parameter and property types
+	 * @param primitivesDefaultedForNullValue whether {@code NULL} database values
+	 * should be ignored for primitive properties
+	 */
+	protected CompiledRowMapper(String[] propertyNames, Class<?>[] propertyTypes,
+			boolean primitivesDefaultedForNullValue) {
+
+		this.propertyNames = propertyNames;
+		this.propertyTypes = propertyTypes;
+		this.primitivesDefaultedForNullValue = primitivesDefaultedForNullValue;
+	}
+
+
+	/**
+	 * Map the current row of the given {@code ResultSet} to a new instance
+	 * of the target class.
+	 * @param rs the ResultSet to map (pre-initialized for the current row)
+	 * @return the mapped object
+	 * @throws SQLException if an SQLException is encountered while getting column values
+	 */
+	public abstract Object mapRow(ResultSet rs) throws SQLException;
+
+	/**
+	 * Handle a {@code NULL} database value for a primitive property, either
+	 * ignoring it or throwing a {@link TypeMismatchException}.
+	 * @param mappedObject the object being mapped
+	 * @param propertyIndex the index of the property (following any constructor parameters)
+	 */
+	protected void handleNullValue(Object mappedObject, int propertyIndex) {
+		if (!this.primitivesDefaultedForNullValue) {
+			throw new TypeMismatchException(
+					new PropertyChangeEvent(mappedObject, this.propertyNames[propertyIndex], null, null),
+					this.propertyTypes[propertyIndex]);
+		}
+	}
+
+	/**
+	 * Handle a {@code NULL} database value for a primitive constructor parameter,
+	 * throwing a {@link TypeMismatchException} as for a regular conversion attempt.
+	 * @param parameterIndex the index of the constructor parameter
+	 */
+	protected void handleNullArgument(int parameterIndex) {
+		throw new TypeMismatchException(
+				new PropertyChangeEvent(this, this.propertyNames[parameterIndex], null, null),
+				this.propertyTypes[parameterIndex]);
+	}
+
+}
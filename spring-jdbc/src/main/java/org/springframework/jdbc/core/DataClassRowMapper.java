@@ -17,6 +17,7 @@
 package org.springframework.jdbc.core;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
@@ -135,6 +136,19 @@ public class DataClassRowMapper<T> extends BeanPropertyRowMapper<T> {
 		return BeanUtils.instantiateClass(this.mappedConstructor, args);
 	}
 
+	@Override
+	@Nullable
+	Constructor<T> getMappedConstructor() {
+		return (this.mappedConstructor != null && Modifier.isPublic(this.mappedConstructor.getModifiers()) ?
+				this.mappedConstructor : null);
+	}
+
+	@Override
+	@Nullable
+	String[] getMappedConstructorParameterNames() {
+		return this.constructorParameterNames;
+	}
+
 
 	/**
 	 * Static factory method to create a new {@code DataClassRowMapper}.
@@ -592,6 +592,51 @@ public interface JdbcOperations {
 	<T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, @Nullable Object... args)
 			throws DataAccessException;
 
+	/**
+	 * Query using a prepared statement, mapping each row to a result object
+	 * via a RowMapper and passing the mapped objects to a RowChunkHandler
+	 * in chunks of the given size, reusing the same List for every chunk.
+	 * <p>Unless a fetch size has been configured on this template, the chunk
+	 * size is applied as fetch size hint to the PreparedStatement.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param rowMapper a callback that will map one object per row
+	 * @param chunkSize the number of mapped objects per chunk
+	 * @param rch a callback that will process each chunk of mapped objects
+	 * @return the total number of rows processed
+	 * @throws DataAccessException if there is any problem
+	 * @since 6.1
+	 * @see ChunkedRowMapperResultSetExtractor
+	 */
+	<T> long queryForChunks(PreparedStatementCreator psc, RowMapper<T> rowMapper, int chunkSize,
+			RowChunkHandler<T> rch) throws DataAccessException;
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, mapping each row to a result object
+	 * via a RowMapper and passing the mapped objects to a RowChunkHandler
+	 * in chunks of the given size, reusing the same List for every chunk.
+	 * <p>The statement is created with a forward-only, read-only cursor.
+	 * Unless a fetch size has been configured on this template, the chunk
+	 * size is applied as fetch size hint as well, allowing the driver to
+	 * stream large results in constant memory. Note that some drivers
+	 * impose further conditions for streaming results, e.g. a transaction
+	 * (that is, auto-commit switched off) on PostgreSQL.
+	 * @param sql the SQL query to execute
+	 * @param rowMapper a callback that will map one object per row
+	 * @param chunkSize the number of mapped objects per chunk
+	 * @param rch a callback that will process each chunk of mapped objects
+	 * @param args arguments to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type);
+	 * may also contain {@link SqlParameterValue} objects which indicate not
+	 * only the argument value but also the SQL type and optionally the scale
+	 * @return the total number of rows processed
+	 * @throws DataAccessException if the query fails
+	 * @since 6.1
+	 * @see ChunkedRowMapperResultSetExtractor
+	 */
+	<T> long queryForChunks(String sql, RowMapper<T> rowMapper, int chunkSize, RowChunkHandler<T> rch,
+			@Nullable Object... args) throws DataAccessException;
+
 	/**
 	 * Query given SQL to create a prepared statement from SQL and a list
 	 * of arguments to bind to the query, mapping a single result row to a
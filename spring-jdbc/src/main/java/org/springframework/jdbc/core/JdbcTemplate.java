@@ -35,6 +35,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -44,7 +48,10 @@ import javax.sql.DataSource;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.jdbc.InvalidResultSetAccessException;
+import org.springframework.jdbc.PartitionedBatchUpdateException;
+import org.springframework.jdbc.PartitionedBatchUpdateException.PartitionFailure;
 import org.springframework.jdbc.SQLWarningException;
 import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.datasource.ConnectionProxy;
@@ -863,6 +870,62 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return queryForStream(new SimplePreparedStatementCreator(sql), newArgPreparedStatementSetter(args), rowMapper);
 	}
 
+	/**
+	 * Query using a prepared statement, allowing for a PreparedStatementCreator
+	 * and a PreparedStatementSetter, and passing the mapped objects to the given
+	 * RowChunkHandler in chunks of the given size.
+	 * <p>Unless a {@linkplain #setFetchSize fetch size} has been configured,
+	 * the chunk size is applied as fetch size hint to the PreparedStatement.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param pss a callback that knows how to set values on the prepared statement.
+	 * If this is {@code null}, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper a callback that will map one object per row
+	 * @param chunkSize the number of mapped objects per chunk
+	 * @param rch a callback that will process each chunk of mapped objects
+	 * @return the total number of rows processed
+	 * @throws DataAccessException if the query fails
+	 * @since 6.1
+	 */
+	public <T> long queryForChunks(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+			RowMapper<T> rowMapper, int chunkSize, RowChunkHandler<T> rch) throws DataAccessException {
+
+		ResultSetExtractor<Long> rse = new ChunkedRowMapperResultSetExtractor<>(rowMapper, chunkSize, rch);
+		return result(execute(psc, ps -> {
+			ResultSet rs = null;
+			try {
+				if (getFetchSize() == -1) {
+					ps.setFetchSize(chunkSize);
+				}
+				if (pss != null) {
+					pss.setValues(ps);
+				}
+				rs = ps.executeQuery();
+				return rse.extractData(rs);
+			}
+			finally {
+				JdbcUtils.closeResultSet(rs);
+				if (pss instanceof ParameterDisposer parameterDisposer) {
+					parameterDisposer.cleanupParameters();
+				}
+			}
+		}, true));
+	}
+
+	@Override
+	public <T> long queryForChunks(PreparedStatementCreator psc, RowMapper<T> rowMapper, int chunkSize,
+			RowChunkHandler<T> rch) throws DataAccessException {
+
+		return queryForChunks(psc, null, rowMapper, chunkSize, rch);
+	}
+
+	@Override
+	public <T> long queryForChunks(String sql, RowMapper<T> rowMapper, int chunkSize, RowChunkHandler<T> rch,
+			@Nullable Object... args) throws DataAccessException {
+
+		return queryForChunks(new ForwardOnlyPreparedStatementCreator(sql), newArgPreparedStatementSetter(args),
+				rowMapper, chunkSize, rch);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, Object[] args, int[] argTypes, RowMapper<T> rowMapper)
@@ -1163,6 +1226,173 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result;
 	}
 
+	/**
+	 * Execute multiple batches using the supplied SQL statement with the collection
+	 * of supplied arguments, splitting the arguments into the given number of
+	 * partitions that are executed in parallel, each on a separate Connection
+	 * obtained from the DataSource.
+	 * <p>Each partition covers a contiguous range of the batch arguments and
+	 * executes its sub-batches of the given batch size sequentially. Update
+	 * counts are passed to the given callback per sub-batch rather than retained.
+	 * <p>Since partitions run on their own Connections, they do not participate
+	 * in any transaction of the calling thread. Depending on the given commit mode,
+	 * each partition either executes in a local transaction of its own or in
+	 * auto-commit mode, with the auto-commit setting of each Connection being
+	 * adapted accordingly and reset afterwards.
+	 * <p>All partitions are executed to completion even if some of them fail,
+	 * in which case a {@link PartitionedBatchUpdateException} indicates the
+	 * failed partitions along with their ranges of batch arguments.
+	 * @param sql the SQL statement to execute
+	 * @param batchArgs the List of Object arrays containing the batch of arguments for the query
+	 * @param batchSize batch size
+	 * @param pss the ParameterizedPreparedStatementSetter to use; needs to be
+	 * thread-safe when used with a multi-threaded executor
+	 * @param partitions the number of partitions to split the batch arguments into
+	 * @param executor the executor to run the partitions on (for example, a
+	 * {@link org.springframework.core.task.TaskExecutor} with a corresponding
+	 * number of threads)
+	 * @param commitMode how to commit the statements executed by each partition
+	 * @param callback the callback to pass the update counts of each sub-batch to
+	 * @throws PartitionedBatchUpdateException if any of the partitions failed
+	 * @throws DataAccessException if there is any other problem issuing the update
+	 * @since 6.1
+	 * @see #batchUpdate(String, Collection, int, ParameterizedPreparedStatementSetter)
+	 */
+	public <T> void batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+			ParameterizedPreparedStatementSetter<T> pss, int partitions, Executor executor,
+			PartitionCommitMode commitMode, BatchUpdateCountCallback callback) throws DataAccessException {
+
+		Assert.notNull(sql, "SQL must not be null");
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		Assert.isTrue(partitions > 0, "Number of partitions must be greater than 0");
+		Assert.notNull(executor, "Executor must not be null");
+		Assert.notNull(commitMode, "PartitionCommitMode must not be null");
+		Assert.notNull(callback, "BatchUpdateCountCallback must not be null");
+
+		List<T> args = (batchArgs instanceof List<T> list ? list : new ArrayList<>(batchArgs));
+		int partitionCount = Math.min(partitions, args.size());
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL batch update [" + sql + "] with a batch size of " + batchSize +
+					" in " + partitionCount + " partitions");
+		}
+
+		try {
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[partitionCount];
+			for (int i = 0; i < partitionCount; i++) {
+				int partition = i;
+				List<T> partitionArgs = args.subList(partitionStart(args.size(), partitionCount, i),
+						partitionStart(args.size(), partitionCount, i + 1));
+				try {
+					futures[i] = CompletableFuture.runAsync(() -> executeBatchPartition(
+							sql, partitionArgs, batchSize, pss, partition, commitMode, callback), executor);
+				}
+				catch (RejectedExecutionException ex) {
+					futures[i] = CompletableFuture.failedFuture(ex);
+				}
+			}
+
+			List<PartitionFailure> failures = new ArrayList<>();
+			for (int i = 0; i < partitionCount; i++) {
+				try {
+					futures[i].join();
+				}
+				catch (CompletionException ex) {
+					failures.add(new PartitionFailure(i, partitionStart(args.size(), partitionCount, i),
+							partitionStart(args.size(), partitionCount, i + 1), ex.getCause()));
+				}
+			}
+			if (!failures.isEmpty()) {
+				throw new PartitionedBatchUpdateException(sql, failures);
+			}
+		}
+		finally {
+			if (pss instanceof ParameterDisposer parameterDisposer) {
+				parameterDisposer.cleanupParameters();
+			}
+		}
+	}
+
+	private static int partitionStart(int size, int partitions, int partition) {
+		return (int) ((long) size * partition / partitions);
+	}
+
+	/**
+	 * Execute the sub-batches of a single partition on a Connection of its own.
+	 */
+	private <T> void executeBatchPartition(String sql, List<T> batchArgs, int batchSize,
+			ParameterizedPreparedStatementSetter<T> pss, int partition, PartitionCommitMode commitMode,
+			BatchUpdateCountCallback callback) {
+
+		Connection con;
+		try {
+			con = obtainDataSource().getConnection();
+		}
+		catch (SQLException ex) {
+			throw new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection", ex);
+		}
+		boolean transactional = (commitMode == PartitionCommitMode.TRANSACTION_PER_PARTITION);
+		PreparedStatement ps = null;
+		boolean resetAutoCommit = false;
+		try {
+			if (con.getAutoCommit() == transactional) {
+				con.setAutoCommit(!transactional);
+				resetAutoCommit = true;
+			}
+			ps = con.prepareStatement(sql);
+			applyStatementSettings(ps);
+			boolean batchSupported = JdbcUtils.supportsBatchUpdates(con);
+			int n = 0;
+			for (T obj : batchArgs) {
+				pss.setValues(ps, obj);
+				n++;
+				if (batchSupported) {
+					ps.addBatch();
+					if (n % batchSize == 0 || n == batchArgs.size()) {
+						callback.batchExecuted(partition, ps.executeBatch());
+					}
+				}
+				else {
+					callback.batchExecuted(partition, new int[] {ps.executeUpdate()});
+				}
+			}
+			handleWarnings(ps);
+			if (transactional) {
+				con.commit();
+			}
+		}
+		catch (SQLException ex) {
+			rollbackPartition(con, transactional);
+			throw translateException("PreparedStatementCallback", sql, ex);
+		}
+		catch (RuntimeException | Error ex) {
+			rollbackPartition(con, transactional);
+			throw ex;
+		}
+		finally {
+			JdbcUtils.closeStatement(ps);
+			if (resetAutoCommit) {
+				try {
+					con.setAutoCommit(transactional);
+				}
+				catch (SQLException ex) {
+					logger.debug("Could not reset auto-commit after partitioned batch update", ex);
+				}
+			}
+			JdbcUtils.closeConnection(con);
+		}
+	}
+
+	private void rollbackPartition(Connection con, boolean transactional) {
+		if (transactional) {
+			try {
+				con.rollback();
+			}
+			catch (SQLException ex) {
+				logger.debug("Could not roll back partitioned batch update", ex);
+			}
+		}
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with callable statements
@@ -1644,6 +1874,31 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	}
 
 
+	/**
+	 * Adapter for PreparedStatementCreator, creating a forward-only, read-only
+	 * PreparedStatement for a plain SQL statement.
+	 */
+	private static class ForwardOnlyPreparedStatementCreator implements PreparedStatementCreator, SqlProvider {
+
+		private final String sql;
+
+		public ForwardOnlyPreparedStatementCreator(String sql) {
+			Assert.notNull(sql, "SQL must not be null");
+			this.sql = sql;
+		}
+
+		@Override
+		public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+			return con.prepareStatement(this.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		}
+
+		@Override
+		public String getSql() {
+			return this.sql;
+		}
+	}
+
+
 	/**
 	 * Simple adapter for CallableStatementCreator, allowing to use a plain SQL statement.
 	 */
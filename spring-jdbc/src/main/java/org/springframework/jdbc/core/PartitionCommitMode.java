@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+/**
+ * Commit behavior for the partitions of a partitioned batch update, each of
+ * which runs on a Connection of its own (outside of any transaction of the
+ * calling thread).
+ *
+ * @since 6.1
+ * @see JdbcTemplate#batchUpdate(String, java.util.Collection, int, ParameterizedPreparedStatementSetter, int, java.util.concurrent.Executor, PartitionCommitMode, BatchUpdateCountCallback)
+ */
+public enum PartitionCommitMode {
+
+	/**
+	 * Execute each partition in a local transaction of its own, committed once
+	 * all of its sub-batches have been executed and rolled back on failure.
+	 */
+	TRANSACTION_PER_PARTITION,
+
+	/**
+	 * Execute each statement in auto-commit mode, enabling auto-commit on
+	 * Connections that are obtained without it. The statements executed before
+	 * a failure remain committed.
+	 */
+	AUTO_COMMIT
+
+}
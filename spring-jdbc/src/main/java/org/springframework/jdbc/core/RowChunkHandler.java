@@ -0,0 +1,50 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * An interface used by {@link JdbcTemplate} for processing the mapped rows
+ * of a {@link java.sql.ResultSet} in chunks of a fixed size, as an alternative
+ * to materializing the entire result in memory.
+ * {@link java.sql.SQLException SQLExceptions} will be caught and handled
+ * by the calling JdbcTemplate.
+ *
+ * <p>The given List is reused for subsequent chunks: Implementations must
+ * not hold on to the List itself but rather copy its elements if needed
+ * beyond the scope of the callback.
+ *
+ * @since 6.1
+ * @param <T> the mapped row type
+ * @see JdbcTemplate#queryForChunks(String, RowMapper, int, RowChunkHandler, Object...)
+ * @see ChunkedRowMapperResultSetExtractor
+ */
+@FunctionalInterface
+public interface RowChunkHandler<T> {
+
+	/**
+	 * Process the given chunk of mapped rows. Every chunk but the last one
+	 * contains the full chunk size; the last one contains the remaining rows.
+	 * @param rows the mapped rows of the current chunk (never empty)
+	 * @throws SQLException if an SQLException is encountered while processing
+	 * the rows (that is, there's no need to catch SQLException)
+	 */
+	void processChunk(List<T> rows) throws SQLException;
+
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates {@link CompiledRowMapper} classes for a given target class and
+ * column layout, reading each mapped column through the typed {@link ResultSet}
+ * getter that {@link org.springframework.jdbc.support.JdbcUtils#getResultSetValue(ResultSet, int, Class)}
+ * would use and invoking the constructor and setter methods directly.
+ *
+ * <p>Only public constructors and setter methods on public, exported types are
+ * compiled, and only for the property types with a dedicated {@code ResultSet}
+ * getter; for any other layout, {@link #compile} returns {@code null}.
+ * Generated classes are shared per layout and defined in a child of the target
+ * class's ClassLoader, analogous to compiled SpEL expressions.
+ *
+ * @since 6.1
+ * @see BeanPropertyRowMapper#setCompiledMapping
+ */
+final class RowMapperCompiler implements Opcodes {
+
+	private static final String MAPPER_CLASS_NAME = Type.getInternalName(CompiledRowMapper.class);
+
+	private static final String CONSTRUCTOR_DESCRIPTOR = "([Ljava/lang/String;[Ljava/lang/Class;Z)V";
+
+	private static final String RESULT_SET_NAME = Type.getInternalName(ResultSet.class);
+
+	private static final Log logger = LogFactory.getLog(RowMapperCompiler.class);
+
+	/** ResultSet getters for the supported target types, as in JdbcUtils. */
+	private static final Map<Class<?>, Method> resultSetGetters = new HashMap<>(32);
+
+	/** Child ClassLoaders for generated mapper classes, keyed by target ClassLoader. */
+	private static final Map<ClassLoader, ChildClassLoader> classLoaders = new ConcurrentReferenceHashMap<>();
+
+	/** Generated mapper constructors, keyed by layout. */
+	private static final Map<Layout, Constructor<?>> mapperConstructors = new ConcurrentReferenceHashMap<>();
+
+	private static final AtomicInteger suffixId = new AtomicInteger();
+
+	static {
+		registerGetter("getString", String.class);
+		registerGetter("getBoolean", boolean.class, Boolean.class);
+		registerGetter("getByte", byte.class, Byte.class);
+		registerGetter("getShort", short.class, Short.class);
+		registerGetter("getInt", int.class, Integer.class);
+		registerGetter("getLong", long.class, Long.class);
+		registerGetter("getFloat", float.class, Float.class);
+		registerGetter("getDouble", double.class, Double.class);
+		registerGetter("getBigDecimal", BigDecimal.class);
+		registerGetter("getDate", java.sql.Date.class);
+		registerGetter("getTime", java.sql.Time.class);
+		registerGetter("getTimestamp", java.sql.Timestamp.class, java.util.Date.class);
+		registerGetter("getBytes", byte[].class);
+		registerGetter("getBlob", Blob.class);
+		registerGetter("getClob", Clob.class);
+	}
+
+	private static void registerGetter(String methodName, Class<?>... types) {
+		Method getter = ReflectionUtils.findMethod(ResultSet.class, methodName, int.class);
+		for (Class<?> type : types) {
+			resultSetGetters.put(type, getter);
+		}
+	}
+
+
+	private RowMapperCompiler() {
+	}
+
+
+	/**
+	 * Return whether values of the given type can be read by a compiled mapper.
+	 * @param type the constructor parameter or property type
+	 */
+	static boolean isSupportedType(Class<?> type) {
+		return resultSetGetters.containsKey(type);
+	}
+
+	/**
+	 * Compile a mapper for the given constructor and column layout.
+	 * @param constructor the constructor to instantiate the target class with
+	 * @param constructorParameterNames the constructor parameter names, or {@code null}
+	 * if the constructor does not declare any parameters
+	 * @param constructorColumns the column index for each constructor parameter
+	 * @param properties the setter-based mappings, in column order
+	 * @param primitivesDefaultedForNullValue whether {@code NULL} database values
+	 * should be ignored for primitive properties
+	 * @return the compiled mapper, or {@code null} if the layout cannot be compiled
+	 */
+	@Nullable
+	static CompiledRowMapper compile(Constructor<?> constructor, @Nullable String[] constructorParameterNames,
+			List<Integer> constructorColumns, List<PropertyMapping> properties,
+			boolean primitivesDefaultedForNullValue) {
+
+		Class<?> mappedClass = constructor.getDeclaringClass();
+		ClassLoader classLoader = determineClassLoader(mappedClass);
+		if (classLoader == null || !isCompilable(constructor, classLoader)) {
+			return null;
+		}
+		for (PropertyMapping property : properties) {
+			if (!isSupportedType(property.type()) || !isCompilable(property.writeMethod(), classLoader)) {
+				return null;
+			}
+			Class<?> parameterType = property.writeMethod().getParameterTypes()[0];
+			if (parameterType.isPrimitive() ? parameterType != property.type() :
+					!parameterType.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(property.type()))) {
+				return null;
+			}
+		}
+		Class<?>[] constructorParameterTypes = constructor.getParameterTypes();
+		for (Class<?> parameterType : constructorParameterTypes) {
+			if (!isSupportedType(parameterType)) {
+				return null;
+			}
+		}
+
+		int constructorParameterCount = constructorParameterTypes.length;
+		String[] names = new String[constructorParameterCount + properties.size()];
+		Class<?>[] types = new Class<?>[names.length];
+		for (int i = 0; i < constructorParameterCount; i++) {
+			names[i] = (constructorParameterNames != null ? constructorParameterNames[i] : "arg" + i);
+			types[i] = constructorParameterTypes[i];
+		}
+		for (int i = 0; i < properties.size(); i++) {
+			names[constructorParameterCount + i] = properties.get(i).name();
+			types[constructorParameterCount + i] = properties.get(i).type();
+		}
+
+		try {
+			Layout layout = new Layout(constructor, constructorColumns, properties);
+			Constructor<?> mapperConstructor = mapperConstructors.computeIfAbsent(layout,
+					key -> generateMapperClass(key, classLoader));
+			return (CompiledRowMapper) mapperConstructor.newInstance(names, types, primitivesDefaultedForNullValue);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to compile row mapper for class [" + mappedClass.getName() + "]", ex);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Determine the ClassLoader to define the mapper class for the given target
+	 * class with: the target's ClassLoader if it sees {@link CompiledRowMapper},
+	 * otherwise Spring's ClassLoader if it sees the target class.
+	 */
+	@Nullable
+	private static ClassLoader determineClassLoader(Class<?> mappedClass) {
+		ClassLoader mappedClassLoader = mappedClass.getClassLoader();
+		if (mappedClassLoader != null && ClassUtils.isVisible(CompiledRowMapper.class, mappedClassLoader)) {
+			return mappedClassLoader;
+		}
+		ClassLoader springClassLoader = CompiledRowMapper.class.getClassLoader();
+		if (springClassLoader != null && ClassUtils.isVisible(mappedClass, springClassLoader)) {
+			return springClassLoader;
+		}
+		return null;
+	}
+
+	private static boolean isCompilable(Executable executable, ClassLoader classLoader) {
+		if (!Modifier.isPublic(executable.getModifiers()) || Modifier.isStatic(executable.getModifiers())) {
+			return false;
+		}
+		Class<?> declaringClass = executable.getDeclaringClass();
+		if (executable instanceof Constructor<?> && Modifier.isAbstract(declaringClass.getModifiers())) {
+			return false;
+		}
+		return (isAccessibleType(declaringClass, classLoader) &&
+				(!(executable instanceof Method method) || isAccessibleType(method.getReturnType(), classLoader)));
+	}
+
+	private static boolean isAccessibleType(Class<?> type, ClassLoader classLoader) {
+		Class<?> componentType = type;
+		while (componentType.isArray()) {
+			componentType = componentType.getComponentType();
+		}
+		return (componentType.isPrimitive() || (Modifier.isPublic(componentType.getModifiers()) &&
+				componentType.getModule().isExported(componentType.getPackageName()) &&
+				ClassUtils.isVisible(componentType, classLoader)));
+	}
+
+	private static Constructor<?> generateMapperClass(Layout layout, ClassLoader classLoader) {
+		ChildClassLoader childClassLoader = classLoaders.computeIfAbsent(classLoader, ChildClassLoader::new);
+		String className = "org/springframework/jdbc/core/generated/CompiledRowMapper" + suffixId.incrementAndGet();
+		byte[] bytes = generateMapperClass(className, childClassLoader, layout);
+		Class<?> mapperClass = childClassLoader.defineClass(className.replace('/', '.'), bytes);
+		try {
+			return mapperClass.getConstructor(String[].class, Class[].class, boolean.class);
+		}
+		catch (NoSuchMethodException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static byte[] generateMapperClass(String className, ClassLoader classLoader, Layout layout) {
+		ClassWriter cw = new MapperClassWriter(classLoader);
+		cw.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, MAPPER_CLASS_NAME, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitVarInsn(ILOAD, 3);
+		mv.visitMethodInsn(INVOKESPECIAL, MAPPER_CLASS_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// Object mapRow(ResultSet rs)
+		mv = cw.visitMethod(ACC_PUBLIC, "mapRow", "(Ljava/sql/ResultSet;)Ljava/lang/Object;",
+				null, new String[] {"java/sql/SQLException"});
+		mv.visitCode();
+
+		// Read constructor arguments into local variables, starting after 'this' and 'rs'
+		Constructor<?> constructor = layout.constructor();
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		int[] argumentSlots = new int[parameterTypes.length];
+		int nextSlot = 2;
+		for (int i = 0; i < parameterTypes.length; i++) {
+			Class<?> parameterType = parameterTypes[i];
+			argumentSlots[i] = nextSlot;
+			visitColumnValue(mv, parameterType, layout.constructorColumns().get(i));
+			if (parameterType.isPrimitive()) {
+				mv.visitVarInsn(Type.getType(parameterType).getOpcode(ISTORE), nextSlot);
+				Label notNull = new Label();
+				visitWasNull(mv, notNull);
+				mv.visitVarInsn(ALOAD, 0);
+				visitInt(mv, i);
+				mv.visitMethodInsn(INVOKEVIRTUAL, MAPPER_CLASS_NAME, "handleNullArgument", "(I)V", false);
+				mv.visitLabel(notNull);
+			}
+			else {
+				mv.visitVarInsn(ASTORE, nextSlot);
+			}
+			nextSlot += Type.getType(parameterType).getSize();
+		}
+
+		// Instantiate the target class
+		String mappedClassName = Type.getInternalName(constructor.getDeclaringClass());
+		int targetSlot = nextSlot++;
+		mv.visitTypeInsn(NEW, mappedClassName);
+		mv.visitInsn(DUP);
+		for (int i = 0; i < parameterTypes.length; i++) {
+			mv.visitVarInsn(Type.getType(parameterTypes[i]).getOpcode(ILOAD), argumentSlots[i]);
+		}
+		mv.visitMethodInsn(INVOKESPECIAL, mappedClassName, "<init>", Type.getConstructorDescriptor(constructor), false);
+		mv.visitVarInsn(ASTORE, targetSlot);
+
+		// Invoke the setter methods, in column order
+		int tempSlot = nextSlot;
+		for (int i = 0; i < layout.properties().size(); i++) {
+			PropertyMapping property = layout.properties().get(i);
+			Class<?> type = property.type();
+			if (type.isPrimitive()) {
+				visitColumnValue(mv, type, property.column());
+				mv.visitVarInsn(Type.getType(type).getOpcode(ISTORE), tempSlot);
+				Label notNull = new Label();
+				Label next = new Label();
+				visitWasNull(mv, notNull);
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitVarInsn(ALOAD, targetSlot);
+				visitInt(mv, parameterTypes.length + i);
+				mv.visitMethodInsn(INVOKEVIRTUAL, MAPPER_CLASS_NAME, "handleNullValue", "(Ljava/lang/Object;I)V", false);
+				mv.visitJumpInsn(GOTO, next);
+				mv.visitLabel(notNull);
+				mv.visitVarInsn(ALOAD, targetSlot);
+				mv.visitVarInsn(Type.getType(type).getOpcode(ILOAD), tempSlot);
+				visitSetter(mv, property.writeMethod());
+				mv.visitLabel(next);
+			}
+			else {
+				mv.visitVarInsn(ALOAD, targetSlot);
+				visitColumnValue(mv, type, property.column());
+				visitSetter(mv, property.writeMethod());
+			}
+		}
+
+		mv.visitVarInsn(ALOAD, targetSlot);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Push the value of the given column onto the stack: as a primitive for a
+	 * primitive type (leaving the {@code wasNull} check to the caller), otherwise
+	 * as a reference which is {@code null} for a {@code NULL} database value.
+	 */
+	private static void visitColumnValue(MethodVisitor mv, Class<?> type, int column) {
+		Method getter = resultSetGetters.get(type);
+		mv.visitVarInsn(ALOAD, 1);
+		visitInt(mv, column);
+		mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_NAME, getter.getName(), Type.getMethodDescriptor(getter), true);
+		Class<?> getterType = getter.getReturnType();
+		if (getterType.isPrimitive() && !type.isPrimitive()) {
+			mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(type), "valueOf",
+					Type.getMethodDescriptor(Type.getType(type), Type.getType(getterType)), false);
+			Label notNull = new Label();
+			visitWasNull(mv, notNull);
+			mv.visitInsn(POP);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitLabel(notNull);
+		}
+	}
+
+	/**
+	 * Jump to the given label unless the last column read was {@code NULL}.
+	 */
+	private static void visitWasNull(MethodVisitor mv, Label notNull) {
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_NAME, "wasNull", "()Z", true);
+		mv.visitJumpInsn(IFEQ, notNull);
+	}
+
+	private static void visitSetter(MethodVisitor mv, Method writeMethod) {
+		Class<?> declaringClass = writeMethod.getDeclaringClass();
+		mv.visitMethodInsn(declaringClass.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL,
+				Type.getInternalName(declaringClass), writeMethod.getName(), Type.getMethodDescriptor(writeMethod),
+				declaringClass.isInterface());
+		Class<?> returnType = writeMethod.getReturnType();
+		if (returnType != void.class) {
+			mv.visitInsn(returnType == long.class || returnType == double.class ? POP2 : POP);
+		}
+	}
+
+	private static void visitInt(MethodVisitor mv, int value) {
+		if (value <= Short.MAX_VALUE) {
+			mv.visitIntInsn(value <= Byte.MAX_VALUE ? BIPUSH : SIPUSH, value);
+		}
+		else {
+			mv.visitLdcInsn(value);
+		}
+	}
+
+
+	/**
+	 * A setter-based mapping of a column to a bean property.
+	 * @param column the column index
+	 * @param name the property name
+	 * @param type the property type
+	 * @param writeMethod the setter method for the property
+	 */
+	record PropertyMapping(int column, String name, Class<?> type, Method writeMethod) {
+	}
+
+
+	/**
+	 * The layout that a generated mapper class is specific to.
+	 */
+	private record Layout(Constructor<?> constructor, List<Integer> constructorColumns,
+			List<PropertyMapping> properties) {
+	}
+
+
+	/**
+	 * Child ClassLoader for the generated mapper classes.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		ChildClassLoader(ClassLoader parent) {
+			super(NO_URLS, parent);
+		}
+
+		Class<?> defineClass(String name, byte[] bytes) {
+			return super.defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+
+	/**
+	 * ASM ClassWriter resolving common superclasses against the target ClassLoader.
+	 */
+	private static class MapperClassWriter extends ClassWriter {
+
+		private final ClassLoader classLoader;
+
+		MapperClassWriter(ClassLoader classLoader) {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		protected ClassLoader getClassLoader() {
+			return this.classLoader;
+		}
+	}
+
+}
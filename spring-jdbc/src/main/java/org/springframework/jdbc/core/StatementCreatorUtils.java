@@ -249,37 +249,8 @@ public abstract class StatementCreatorUtils {
 			throws SQLException {
 
 		if (sqlType == SqlTypeValue.TYPE_UNKNOWN || (sqlType == Types.OTHER && typeName == null)) {
-			boolean useSetObject = false;
-			Integer sqlTypeToUse = null;
-			if (!shouldIgnoreGetParameterType) {
-				try {
-					sqlTypeToUse = ps.getParameterMetaData().getParameterType(paramIndex);
-				}
-				catch (SQLException ex) {
-					if (logger.isDebugEnabled()) {
-						logger.debug("JDBC getParameterType call failed - using fallback method instead: " + ex);
-					}
-				}
-			}
+			Integer sqlTypeToUse = determineNullParameterType(ps, paramIndex);
 			if (sqlTypeToUse == null) {
-				// Proceed with database-specific checks
-				sqlTypeToUse = Types.NULL;
-				DatabaseMetaData dbmd = ps.getConnection().getMetaData();
-				String jdbcDriverName = dbmd.getDriverName();
-				String databaseProductName = dbmd.getDatabaseProductName();
-				if (databaseProductName.startsWith("Informix") ||
-						(jdbcDriverName.startsWith("Microsoft") && jdbcDriverName.contains("SQL Server"))) {
-						// "Microsoft SQL Server JDBC Driver 3.0" versus "Microsoft JDBC Driver 4.0 for SQL Server"
-					useSetObject = true;
-				}
-				else if (databaseProductName.startsWith("DB2") ||
-						jdbcDriverName.startsWith("jConnect") ||
-						jdbcDriverName.startsWith("SQLServer") ||
-						jdbcDriverName.startsWith("Apache Derby")) {
-					sqlTypeToUse = Types.VARCHAR;
-				}
-			}
-			if (useSetObject) {
 				ps.setObject(paramIndex, null);
 			}
 			else {
@@ -294,6 +265,54 @@ public abstract class StatementCreatorUtils {
 		}
 	}
 
+	/**
+	 * Determine the SQL type to use for setting a {@code null} value of unknown
+	 * type for the specified parameter, respecting database-specific peculiarities.
+	 * <p>This performs the same {@link PreparedStatement#getParameterMetaData()}
+	 * lookup and driver-specific fallback checks as {@link #setParameterValue}
+	 * for an untyped {@code null} value, allowing callers to reuse the result
+	 * for subsequent executions of the same statement.
+	 * @param ps the prepared statement or callable statement
+	 * @param paramIndex index of the parameter we are setting
+	 * @return the SQL type to pass to {@link PreparedStatement#setNull(int, int)},
+	 * or {@code null} if the driver requires {@code setObject(paramIndex, null)}
+	 * @throws SQLException if thrown by PreparedStatement methods
+	 * @since 6.1
+	 */
+	@Nullable
+	public static Integer determineNullParameterType(PreparedStatement ps, int paramIndex) throws SQLException {
+		Integer sqlTypeToUse = null;
+		if (!shouldIgnoreGetParameterType) {
+			try {
+				sqlTypeToUse = ps.getParameterMetaData().getParameterType(paramIndex);
+			}
+			catch (SQLException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("JDBC getParameterType call failed - using fallback method instead: " + ex);
+				}
+			}
+		}
+		if (sqlTypeToUse == null) {
+			// Proceed with database-specific checks
+			sqlTypeToUse = Types.NULL;
+			DatabaseMetaData dbmd = ps.getConnection().getMetaData();
+			String jdbcDriverName = dbmd.getDriverName();
+			String databaseProductName = dbmd.getDatabaseProductName();
+			if (databaseProductName.startsWith("Informix") ||
+					(jdbcDriverName.startsWith("Microsoft") && jdbcDriverName.contains("SQL Server"))) {
+					// "Microsoft SQL Server JDBC Driver 3.0" versus "Microsoft JDBC Driver 4.0 for SQL Server"
+				return null;
+			}
+			else if (databaseProductName.startsWith("DB2") ||
+					jdbcDriverName.startsWith("jConnect") ||
+					jdbcDriverName.startsWith("SQLServer") ||
+					jdbcDriverName.startsWith("Apache Derby")) {
+				sqlTypeToUse = Types.VARCHAR;
+			}
+		}
+		return sqlTypeToUse;
+	}
+
 	private static void setValue(PreparedStatement ps, int paramIndex, int sqlType,
 			@Nullable String typeName, @Nullable Integer scale, Object inValue) throws SQLException {
 
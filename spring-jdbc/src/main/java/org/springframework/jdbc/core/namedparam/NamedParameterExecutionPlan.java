@@ -0,0 +1,279 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.namedparam;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Cached execution plan for a named parameter SQL statement, as used by
+ * {@link NamedParameterJdbcTemplate} when {@linkplain
+ * NamedParameterJdbcTemplate#setCacheExecutionPlans execution plan caching}
+ * is enabled.
+ *
+ * <p>A plan is specific to the SQL statement and the shape of the parameter
+ * source, i.e. the declared SQL type and type name of each named parameter.
+ * It holds the substituted JDBC SQL, the declared parameters in placeholder
+ * order, and the SQL types resolved for {@code null} values of unknown type,
+ * so that repeated executions only need to bind the actual values.
+ *
+ * <p>Plans only apply to statements with named parameters and without
+ * collection values to expand into multiple placeholders.
+ *
+ * @since 6.1
+ * @see NamedParameterJdbcTemplate#setCacheExecutionPlans
+ */
+final class NamedParameterExecutionPlan {
+
+	private static final int UNRESOLVED = SqlTypeValue.TYPE_UNKNOWN;
+
+	private static final int SET_OBJECT = Integer.MIN_VALUE + 1;
+
+
+	private final ParsedSql parsedSql;
+
+	private final String sql;
+
+	private final SqlParameter[] declaredParameters;
+
+	// Benign race: concurrent resolution of the same index yields the same type
+	private final int[] resolvedNullTypes;
+
+
+	private NamedParameterExecutionPlan(Key key) {
+		this.parsedSql = key.parsedSql;
+		this.sql = NamedParameterUtils.substituteNamedParameters(key.parsedSql, null);
+		List<String> paramNames = key.parsedSql.getParameterNames();
+		this.declaredParameters = new SqlParameter[paramNames.size()];
+		for (int i = 0; i < this.declaredParameters.length; i++) {
+			this.declaredParameters[i] = new SqlParameter(paramNames.get(i), key.sqlTypes[i], key.typeNames[i]);
+		}
+		this.resolvedNullTypes = new int[this.declaredParameters.length];
+		Arrays.fill(this.resolvedNullTypes, UNRESOLVED);
+	}
+
+
+	/**
+	 * Return the JDBC SQL statement with named parameters substituted by placeholders.
+	 */
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Extract the parameter values from the given source, in placeholder order.
+	 * @param paramSource the source for named parameters
+	 * @return the array of values, or {@code null} if the source contains a
+	 * collection value that needs to be expanded into multiple placeholders
+	 * @throws InvalidDataAccessApiUsageException if no value is supplied for a parameter
+	 */
+	@Nullable
+	public Object[] buildValueArray(SqlParameterSource paramSource) {
+		List<String> paramNames = this.parsedSql.getParameterNames();
+		Object[] values = new Object[paramNames.size()];
+		for (int i = 0; i < values.length; i++) {
+			String paramName = paramNames.get(i);
+			Object value;
+			try {
+				value = paramSource.getValue(paramName);
+			}
+			catch (IllegalArgumentException ex) {
+				throw new InvalidDataAccessApiUsageException(
+						"No value supplied for the SQL parameter '" + paramName + "': " + ex.getMessage());
+			}
+			Object valueToCheck = (value instanceof SqlParameterValue sqlParameterValue ?
+					sqlParameterValue.getValue() : value);
+			if (valueToCheck instanceof Iterable<?>) {
+				return null;
+			}
+			values[i] = value;
+		}
+		return values;
+	}
+
+	/**
+	 * Create a {@link PreparedStatementCreator} for the given parameter values.
+	 * @param values the values as returned from {@link #buildValueArray}
+	 */
+	public PreparedStatementCreator newPreparedStatementCreator(Object[] values) {
+		return new PlanPreparedStatementCreator(values);
+	}
+
+	/**
+	 * Bind the given parameter values to the given statement, e.g. as part of a batch.
+	 * @param ps the PreparedStatement to set parameters on
+	 * @param values the values as returned from {@link #buildValueArray}
+	 * @throws SQLException if thrown by PreparedStatement methods
+	 */
+	public void setValues(PreparedStatement ps, Object[] values) throws SQLException {
+		for (int i = 0; i < values.length; i++) {
+			Object in = values[i];
+			SqlParameter declaredParameter = this.declaredParameters[i];
+			// SqlParameterValue overrides declared parameter meta-data,
+			// consistent with PreparedStatementCreatorFactory.
+			if (in instanceof SqlParameterValue sqlParameterValue) {
+				in = sqlParameterValue.getValue();
+				declaredParameter = sqlParameterValue;
+			}
+			if (in == null && declaredParameter.getSqlType() == SqlTypeValue.TYPE_UNKNOWN) {
+				setNull(ps, i);
+			}
+			else {
+				StatementCreatorUtils.setParameterValue(ps, i + 1, declaredParameter, in);
+			}
+		}
+	}
+
+	private void setNull(PreparedStatement ps, int index) throws SQLException {
+		int sqlType = this.resolvedNullTypes[index];
+		if (sqlType == UNRESOLVED) {
+			Integer resolvedType = StatementCreatorUtils.determineNullParameterType(ps, index + 1);
+			sqlType = (resolvedType != null ? resolvedType : SET_OBJECT);
+			this.resolvedNullTypes[index] = sqlType;
+		}
+		if (sqlType == SET_OBJECT) {
+			ps.setObject(index + 1, null);
+		}
+		else {
+			ps.setNull(index + 1, sqlType);
+		}
+	}
+
+
+	/**
+	 * Determine the cache key for the given parsed SQL statement and parameter source.
+	 * @param parsedSql the parsed SQL statement
+	 * @param paramSource the source for named parameters
+	 * @return the key, or {@code null} if the statement is not suitable for a cached plan
+	 */
+	@Nullable
+	static Key key(ParsedSql parsedSql, SqlParameterSource paramSource) {
+		if (parsedSql.getUnnamedParameterCount() > 0) {
+			return null;
+		}
+		List<String> paramNames = parsedSql.getParameterNames();
+		int[] sqlTypes = new int[paramNames.size()];
+		String[] typeNames = new String[paramNames.size()];
+		for (int i = 0; i < sqlTypes.length; i++) {
+			String paramName = paramNames.get(i);
+			sqlTypes[i] = paramSource.getSqlType(paramName);
+			typeNames[i] = paramSource.getTypeName(paramName);
+		}
+		return new Key(parsedSql, sqlTypes, typeNames);
+	}
+
+	/**
+	 * Create a plan for the given key, to be used as cache generator function.
+	 */
+	static NamedParameterExecutionPlan create(Key key) {
+		return new NamedParameterExecutionPlan(key);
+	}
+
+
+	/**
+	 * Cache key for an execution plan: the SQL statement plus the shape
+	 * of the parameter source.
+	 */
+	static final class Key {
+
+		private final ParsedSql parsedSql;
+
+		private final int[] sqlTypes;
+
+		private final String[] typeNames;
+
+		private final int hashCode;
+
+		Key(ParsedSql parsedSql, int[] sqlTypes, String[] typeNames) {
+			this.parsedSql = parsedSql;
+			this.sqlTypes = sqlTypes;
+			this.typeNames = typeNames;
+			this.hashCode = (parsedSql.getOriginalSql().hashCode() * 31 + Arrays.hashCode(sqlTypes)) * 31 +
+					Arrays.hashCode(typeNames);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof Key that &&
+					this.parsedSql.getOriginalSql().equals(that.parsedSql.getOriginalSql()) &&
+					Arrays.equals(this.sqlTypes, that.sqlTypes) &&
+					ObjectUtils.nullSafeEquals(this.typeNames, that.typeNames)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * PreparedStatementCreator implementation binding values according to the plan.
+	 */
+	private class PlanPreparedStatementCreator
+			implements PreparedStatementCreator, PreparedStatementSetter, SqlProvider, ParameterDisposer {
+
+		private final Object[] values;
+
+		PlanPreparedStatementCreator(Object[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+			PreparedStatement ps = con.prepareStatement(sql);
+			setValues(ps);
+			return ps;
+		}
+
+		@Override
+		public void setValues(PreparedStatement ps) throws SQLException {
+			NamedParameterExecutionPlan.this.setValues(ps, this.values);
+		}
+
+		@Override
+		public String getSql() {
+			return sql;
+		}
+
+		@Override
+		public void cleanupParameters() {
+			StatementCreatorUtils.cleanupParameters(this.values);
+		}
+
+		@Override
+		public String toString() {
+			return "PreparedStatementCreator: sql=[" + sql + "]; parameters=" + Arrays.toString(this.values);
+		}
+	}
+
+}
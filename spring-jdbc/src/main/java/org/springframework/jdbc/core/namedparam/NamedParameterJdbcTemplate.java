@@ -80,6 +80,10 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	private volatile ConcurrentLruCache<String, ParsedSql> parsedSqlCache =
 			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, NamedParameterUtils::parseSqlStatement);
 
+	/** Cache of SQL statement and parameter shape to execution plan, if enabled. */
+	@Nullable
+	private volatile ConcurrentLruCache<NamedParameterExecutionPlan.Key, NamedParameterExecutionPlan> executionPlanCache;
+
 
 	/**
 	 * Create a new NamedParameterJdbcTemplate for the given {@link DataSource}.
@@ -129,6 +133,9 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.parsedSqlCache = new ConcurrentLruCache<>(cacheLimit, NamedParameterUtils::parseSqlStatement);
+		if (this.executionPlanCache != null) {
+			this.executionPlanCache = new ConcurrentLruCache<>(cacheLimit, NamedParameterExecutionPlan::create);
+		}
 	}
 
 	/**
@@ -138,6 +145,35 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return this.parsedSqlCache.capacity();
 	}
 
+	/**
+	 * Specify whether to cache full execution plans for named parameter statements,
+	 * in addition to their parsed representation. Default is "false".
+	 * <p>An execution plan is cached per SQL statement and parameter source shape,
+	 * i.e. the SQL type and type name of each parameter, and holds the substituted
+	 * SQL, the declared parameters, and the SQL types resolved through
+	 * {@link java.sql.ParameterMetaData} for {@code null} values of unknown type.
+	 * Repeated executions then only bind the actual values, avoiding repeated
+	 * parameter metadata lookups which may involve a database round trip.
+	 * <p>Plans share the {@linkplain #setCacheLimit cache limit} and are not used
+	 * for statements with collection values to expand, with traditional {@code ?}
+	 * placeholders, or with a customized {@link PreparedStatementCreatorFactory}.
+	 * Note that cached plans bypass {@link #getPreparedStatementCreatorFactory}.
+	 * @since 6.1
+	 * @see org.springframework.jdbc.core.StatementCreatorUtils#determineNullParameterType
+	 */
+	public void setCacheExecutionPlans(boolean cacheExecutionPlans) {
+		this.executionPlanCache = (cacheExecutionPlans ?
+				new ConcurrentLruCache<>(getCacheLimit(), NamedParameterExecutionPlan::create) : null);
+	}
+
+	/**
+	 * Return whether to cache full execution plans for named parameter statements.
+	 * @since 6.1
+	 */
+	public boolean isCacheExecutionPlans() {
+		return (this.executionPlanCache != null);
+	}
+
 
 	@Override
 	@Nullable
@@ -368,8 +404,24 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		}
 
 		ParsedSql parsedSql = getParsedSql(sql);
-		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, batchArgs[0]);
+		NamedParameterExecutionPlan plan = getExecutionPlan(parsedSql, batchArgs[0]);
+		Object[][] batchValues = (plan != null ? buildBatchValues(plan, batchArgs) : null);
+		if (plan != null && batchValues != null) {
+			return getJdbcOperations().batchUpdate(
+					plan.getSql(),
+					new BatchPreparedStatementSetter() {
+						@Override
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							plan.setValues(ps, batchValues[i]);
+						}
+						@Override
+						public int getBatchSize() {
+							return batchValues.length;
+						}
+					});
+		}
 
+		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, batchArgs[0]);
 		return getJdbcOperations().batchUpdate(
 				pscf.getSql(),
 				new BatchPreparedStatementSetter() {
@@ -386,6 +438,25 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	}
 
 
+	/**
+	 * Extract the parameter values for all rows of a batch according to the given plan.
+	 * @return the values per row, or {@code null} if any row contains a collection
+	 * value to expand into multiple placeholders, which the plan does not cover
+	 */
+	@Nullable
+	private static Object[][] buildBatchValues(NamedParameterExecutionPlan plan, SqlParameterSource[] batchArgs) {
+		Object[][] batchValues = new Object[batchArgs.length][];
+		for (int i = 0; i < batchArgs.length; i++) {
+			Object[] values = plan.buildValueArray(batchArgs[i]);
+			if (values == null) {
+				return null;
+			}
+			batchValues[i] = values;
+		}
+		return batchValues;
+	}
+
+
 	/**
 	 * Build a {@link PreparedStatementCreator} based on the given SQL and named parameters.
 	 * <p>Note: Directly called from all {@code query} variants. Delegates to the common
@@ -418,6 +489,15 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 			@Nullable Consumer<PreparedStatementCreatorFactory> customizer) {
 
 		ParsedSql parsedSql = getParsedSql(sql);
+		if (customizer == null) {
+			NamedParameterExecutionPlan plan = getExecutionPlan(parsedSql, paramSource);
+			if (plan != null) {
+				Object[] values = plan.buildValueArray(paramSource);
+				if (values != null) {
+					return plan.newPreparedStatementCreator(values);
+				}
+			}
+		}
 		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, paramSource);
 		if (customizer != null) {
 			customizer.accept(pscf);
@@ -436,6 +516,25 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return this.parsedSqlCache.get(sql);
 	}
 
+	/**
+	 * Obtain the cached execution plan for the given statement and parameter source shape.
+	 * @param parsedSql parsed representation of the given SQL statement
+	 * @param paramSource container of arguments to bind
+	 * @return the execution plan, or {@code null} if plan caching is disabled
+	 * or not applicable to the given statement
+	 * @see #setCacheExecutionPlans
+	 */
+	@Nullable
+	private NamedParameterExecutionPlan getExecutionPlan(ParsedSql parsedSql, SqlParameterSource paramSource) {
+		ConcurrentLruCache<NamedParameterExecutionPlan.Key, NamedParameterExecutionPlan> planCache =
+				this.executionPlanCache;
+		if (planCache == null || planCache.capacity() == 0) {
+			return null;
+		}
+		NamedParameterExecutionPlan.Key key = NamedParameterExecutionPlan.key(parsedSql, paramSource);
+		return (key != null ? planCache.get(key) : null);
+	}
+
 	/**
 	 * Build a {@link PreparedStatementCreatorFactory} based on the given SQL and named parameters.
 	 * @param parsedSql parsed representation of the given SQL statement
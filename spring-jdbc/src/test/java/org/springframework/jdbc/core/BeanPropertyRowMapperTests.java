@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import org.springframework.beans.MethodInvocationException;
 import org.springframework.beans.TypeMismatchException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.core.test.ConcretePerson;
@@ -165,6 +166,82 @@ class BeanPropertyRowMapperTests extends AbstractRowMapperTests {
 		mock.verifyClosed();
 	}
 
+	@Test
+	void staticQueryWithCompiledMapping() throws Exception {
+		Mock mock = new Mock();
+		BeanPropertyRowMapper<Person> mapper = new BeanPropertyRowMapper<>(Person.class);
+		mapper.setCompiledMapping(true);
+		Person person = mock.getJdbcTemplate().queryForObject(
+				"select name, age, birth_date, balance from people", mapper);
+		verifyPerson(person);
+		mock.verifyClosed();
+	}
+
+	@Test
+	void compiledMappingWithInheritance() throws Exception {
+		Mock mock = new Mock();
+		BeanPropertyRowMapper<ConcretePerson> mapper = new BeanPropertyRowMapper<>(ConcretePerson.class, true);
+		mapper.setCompiledMapping(true);
+		ConcretePerson person = mock.getJdbcTemplate().queryForObject(
+				"select name, age, birth_date, balance from people", mapper);
+		verifyPerson(person);
+		mock.verifyClosed();
+	}
+
+	@Test
+	void compiledMappingWithUnpopulatedFieldsNotAccepted() throws Exception {
+		BeanPropertyRowMapper<ExtendedPerson> mapper = new BeanPropertyRowMapper<>(ExtendedPerson.class, true);
+		mapper.setCompiledMapping(true);
+		Mock mock = new Mock();
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class)
+			.isThrownBy(() -> mock.getJdbcTemplate().query("select name, age, birth_date, balance from people", mapper));
+	}
+
+	@Test
+	void compiledMappingNullValue() throws Exception {
+		BeanPropertyRowMapper<Person> mapper = new BeanPropertyRowMapper<>(Person.class);
+		mapper.setCompiledMapping(true);
+		Mock mock = new Mock(MockType.TWO);
+		assertThatExceptionOfType(TypeMismatchException.class)
+			.isThrownBy(() -> mock.getJdbcTemplate().query(SELECT_NULL_AS_AGE, mapper));
+	}
+
+	@Test
+	void compiledMappingNullValueWithPrimitivesDefaultedForNullValue() throws Exception {
+		BeanPropertyRowMapper<Person> mapper = new BeanPropertyRowMapper<>(Person.class);
+		mapper.setPrimitivesDefaultedForNullValue(true);
+		mapper.setCompiledMapping(true);
+		Mock mock = new Mock(MockType.TWO);
+		Person person = mock.getJdbcTemplate().queryForObject(SELECT_NULL_AS_AGE, mapper);
+		assertThat(person).extracting(Person::getAge).isEqualTo(42L);
+		mock.verifyClosed();
+	}
+
+	@Test
+	void compiledMappingFallsBackForUnsupportedPropertyType() throws Exception {
+		Mock mock = new Mock(MockType.THREE);
+		BeanPropertyRowMapper<SpacePerson> mapper = new BeanPropertyRowMapper<>(SpacePerson.class);
+		mapper.setCompiledMapping(true);
+		SpacePerson person = mock.getJdbcTemplate().queryForObject(
+				"select last_name as \"Last Name\", age, birth_date, balance from people", mapper);
+		verifyPerson(person);
+		mock.verifyClosed();
+	}
+
+	@Test
+	void compiledMappingInvokesSetterDirectly() throws Exception {
+		BeanPropertyRowMapper<FailingPerson> mapper = new BeanPropertyRowMapper<>(FailingPerson.class);
+		Mock mock = new Mock();
+		assertThatExceptionOfType(MethodInvocationException.class)
+			.isThrownBy(() -> mock.getJdbcTemplate().query("select name from people", mapper));
+
+		mapper.setCompiledMapping(true);
+		Mock compiledMock = new Mock();
+		assertThatExceptionOfType(IllegalStateException.class)
+			.isThrownBy(() -> compiledMock.getJdbcTemplate().query("select name from people", mapper))
+			.withMessage("Bubba");
+	}
+
 	@ParameterizedTest
 	@CsvSource({
 		"age, age",
@@ -179,4 +256,12 @@ class BeanPropertyRowMapperTests extends AbstractRowMapperTests {
 		assertThat(mapper.underscoreName(input)).isEqualTo(expected);
 	}
 
+
+	public static class FailingPerson {
+
+		public void setName(String name) {
+			throw new IllegalStateException(name);
+		}
+	}
+
 }
@@ -17,15 +17,21 @@
 package org.springframework.jdbc.core;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
 import java.util.Date;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.TypeMismatchException;
 import org.springframework.jdbc.core.test.ConstructorPerson;
 import org.springframework.jdbc.core.test.ConstructorPersonWithGenerics;
 import org.springframework.jdbc.core.test.ConstructorPersonWithSetters;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link DataClassRowMapper}.
@@ -86,6 +92,61 @@ class DataClassRowMapperTests extends AbstractRowMapperTests {
 		mock.verifyClosed();
 	}
 
+	@Test
+	void staticQueryWithDataClassAndCompiledMapping() throws Exception {
+		Mock mock = new Mock();
+		DataClassRowMapper<ConstructorPerson> mapper = new DataClassRowMapper<>(ConstructorPerson.class);
+		mapper.setCompiledMapping(true);
+		ConstructorPerson person = mock.getJdbcTemplate().queryForObject(
+				"select name, age, birth_date, balance from people", mapper);
+		verifyPerson(person);
+
+		mock.verifyClosed();
+	}
+
+	@Test
+	void staticQueryWithDataClassAndSettersAndCompiledMapping() throws Exception {
+		Mock mock = new Mock(MockType.FOUR);
+		DataClassRowMapper<ConstructorPersonWithSetters> mapper =
+				new DataClassRowMapper<>(ConstructorPersonWithSetters.class);
+		mapper.setCompiledMapping(true);
+		ConstructorPersonWithSetters person = mock.getJdbcTemplate().queryForObject(
+				"select name, age, birthdate, balance from people", mapper);
+		assertThat(person.name()).isEqualTo("BUBBA");
+		assertThat(person.age()).isEqualTo(22L);
+		assertThat(person.birthDate()).usingComparator(Date::compareTo).isEqualTo(new Date(1221222L));
+		assertThat(person.balance()).isEqualTo(new BigDecimal("1234.56"));
+
+		mock.verifyClosed();
+	}
+
+	@Test
+	void compiledMappingReusedForSameColumnLayout() throws Exception {
+		DataClassRowMapper<ConstructorPerson> mapper = new DataClassRowMapper<>(ConstructorPerson.class);
+		mapper.setCompiledMapping(true);
+		ResultSet rs1 = new Mock().getResultSet();
+		ResultSet rs2 = new Mock().getResultSet();
+
+		// Alternating rows of different ResultSets, e.g. for concurrent queries
+		verifyPerson(mapper.mapRow(rs1, 0));
+		verifyPerson(mapper.mapRow(rs2, 0));
+		verifyPerson(mapper.mapRow(rs1, 1));
+		verifyPerson(mapper.mapRow(rs2, 1));
+
+		verify(rs1).findColumn("name");
+		verify(rs2, never()).findColumn(anyString());
+	}
+
+	@Test
+	void compiledMappingNullValueForPrimitiveConstructorParameter() throws Exception {
+		Mock mock = new Mock(MockType.TWO);
+		DataClassRowMapper<ConstructorPerson> mapper = new DataClassRowMapper<>(ConstructorPerson.class);
+		mapper.setPrimitivesDefaultedForNullValue(true);
+		mapper.setCompiledMapping(true);
+		assertThatExceptionOfType(TypeMismatchException.class).isThrownBy(() ->
+				mock.getJdbcTemplate().query("select name, age, birth_date, balance from people", mapper));
+	}
+
 	protected void verifyPerson(RecordPerson person) {
 		assertThat(person.name()).isEqualTo("Bubba");
 		assertThat(person.age()).isEqualTo(22L);
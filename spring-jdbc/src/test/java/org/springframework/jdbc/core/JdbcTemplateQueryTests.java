@@ -23,8 +23,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -40,6 +44,7 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -371,6 +376,60 @@ public class JdbcTemplateQueryTests {
 		verify(this.preparedStatement).close();
 	}
 
+	@Test
+	public void testQueryForChunksWithArgsAndRowMapper() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < ?";
+		given(this.connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+				.willReturn(this.preparedStatement);
+		given(this.resultSet.next()).willReturn(true, true, true, true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(1, 2, 3, 4, 5);
+		List<List<Integer>> chunks = new ArrayList<>();
+		Set<List<Integer>> chunkLists = Collections.newSetFromMap(new IdentityHashMap<>());
+		long count = this.template.queryForChunks(sql, (rs, rowNum) -> rs.getInt(1), 2, rows -> {
+			chunks.add(new ArrayList<>(rows));
+			chunkLists.add(rows);
+		}, 6);
+		assertThat(count).isEqualTo(5);
+		assertThat(chunks).containsExactly(List.of(1, 2), List.of(3, 4), List.of(5));
+		assertThat(chunkLists).hasSize(1);
+		verify(this.preparedStatement).setFetchSize(2);
+		verify(this.preparedStatement).setObject(1, 6);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForChunksWithEmptyResult() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		given(this.connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+				.willReturn(this.preparedStatement);
+		given(this.resultSet.next()).willReturn(false);
+		long count = this.template.queryForChunks(sql, (rs, rowNum) -> rs.getInt(1), 10, rows -> {
+			throw new IllegalStateException("No chunk expected");
+		});
+		assertThat(count).isZero();
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+	}
+
+	@Test
+	public void testQueryForChunksWithConfiguredFetchSize() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(22);
+		this.template.setFetchSize(500);
+		List<Integer> values = new ArrayList<>();
+		long count = this.template.queryForChunks(con -> con.prepareStatement(sql),
+				(rs, rowNum) -> rs.getInt(1), 10, values::addAll);
+		assertThat(count).isEqualTo(1);
+		assertThat(values).containsExactly(22);
+		verify(this.preparedStatement).setFetchSize(500);
+		verify(this.preparedStatement, never()).setFetchSize(10);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+	}
+
 	@Test
 	public void testQueryForObjectWithArgsAndInteger() throws Exception {
 		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
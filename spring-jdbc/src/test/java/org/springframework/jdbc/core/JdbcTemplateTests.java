@@ -37,11 +37,14 @@ import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.PartitionedBatchUpdateException;
 import org.springframework.jdbc.SQLWarningException;
 import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.core.support.AbstractInterruptibleBatchPreparedStatementSetter;
@@ -59,6 +62,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -769,6 +773,93 @@ public class JdbcTemplateTests {
 		verify(this.connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testPartitionedBatchUpdateWithCollectionOfObjects() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		final List<Integer> ids = Arrays.asList(100, 200, 300, 400, 500);
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1}, new int[] {1, 1}, new int[] {1});
+		given(this.connection.getAutoCommit()).willReturn(true);
+		mockDatabaseMetaData(true);
+
+		ParameterizedPreparedStatementSetter<Integer> setter = (ps, argument) -> ps.setInt(1, argument);
+		JdbcTemplate template = new JdbcTemplate(this.dataSource, false);
+		List<String> updateCounts = Collections.synchronizedList(new ArrayList<>());
+
+		template.batchUpdate(sql, ids, 2, setter, 2, new SyncTaskExecutor(),
+				PartitionCommitMode.TRANSACTION_PER_PARTITION,
+				(partition, counts) -> updateCounts.add(partition + ":" + counts.length));
+		assertThat(updateCounts).containsExactly("0:2", "1:2", "1:1");
+
+		verify(this.preparedStatement, times(5)).addBatch();
+		verify(this.preparedStatement, times(3)).executeBatch();
+		verify(this.preparedStatement, times(2)).close();
+		verify(this.connection, times(2)).setAutoCommit(false);
+		verify(this.connection, times(2)).commit();
+		verify(this.connection, never()).rollback();
+		verify(this.connection, times(2)).setAutoCommit(true);
+		verify(this.connection, times(2)).close();
+	}
+
+	@Test
+	public void testPartitionedBatchUpdateWithAutoCommitOnConnectionWithoutAutoCommit() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		final List<Integer> ids = Arrays.asList(100, 200, 300);
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1}, new int[] {1});
+		given(this.connection.getAutoCommit()).willReturn(false);
+		mockDatabaseMetaData(true);
+
+		ParameterizedPreparedStatementSetter<Integer> setter = (ps, argument) -> ps.setInt(1, argument);
+		JdbcTemplate template = new JdbcTemplate(this.dataSource, false);
+		List<String> updateCounts = Collections.synchronizedList(new ArrayList<>());
+
+		template.batchUpdate(sql, ids, 2, setter, 1, new SyncTaskExecutor(), PartitionCommitMode.AUTO_COMMIT,
+				(partition, counts) -> updateCounts.add(partition + ":" + counts.length));
+		assertThat(updateCounts).containsExactly("0:2", "0:1");
+
+		InOrder inOrder = inOrder(this.connection, this.preparedStatement);
+		inOrder.verify(this.connection).setAutoCommit(true);
+		inOrder.verify(this.preparedStatement, times(2)).executeBatch();
+		inOrder.verify(this.connection).setAutoCommit(false);
+		inOrder.verify(this.connection).close();
+		verify(this.connection, never()).commit();
+		verify(this.connection, never()).rollback();
+	}
+
+	@Test
+	public void testPartitionedBatchUpdateWithFailedPartition() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		final List<Integer> ids = Arrays.asList(100, 200, 300, 400, 500);
+		BatchUpdateException batchUpdateException = new BatchUpdateException(new int[] {Statement.EXECUTE_FAILED});
+		given(this.preparedStatement.executeBatch())
+				.willReturn(new int[] {1, 1})
+				.willThrow(batchUpdateException);
+		given(this.connection.getAutoCommit()).willReturn(true);
+		mockDatabaseMetaData(true);
+
+		ParameterizedPreparedStatementSetter<Integer> setter = (ps, argument) -> ps.setInt(1, argument);
+		JdbcTemplate template = new JdbcTemplate(this.dataSource, false);
+		List<Integer> partitions = Collections.synchronizedList(new ArrayList<>());
+
+		assertThatExceptionOfType(PartitionedBatchUpdateException.class).isThrownBy(() ->
+				template.batchUpdate(sql, ids, 2, setter, 2, new SyncTaskExecutor(),
+						PartitionCommitMode.TRANSACTION_PER_PARTITION, (partition, counts) -> partitions.add(partition)))
+			.satisfies(ex -> {
+				assertThat(ex.getFailures()).hasSize(1);
+				PartitionedBatchUpdateException.PartitionFailure failure = ex.getFailures().get(0);
+				assertThat(failure.partition()).isEqualTo(1);
+				assertThat(failure.fromIndex()).isEqualTo(2);
+				assertThat(failure.toIndex()).isEqualTo(5);
+				assertThat(failure.cause()).isInstanceOf(DataAccessException.class)
+						.hasRootCause(batchUpdateException);
+			});
+		assertThat(partitions).containsExactly(0);
+
+		verify(this.connection).commit();
+		verify(this.connection).rollback();
+		verify(this.preparedStatement, times(2)).close();
+		verify(this.connection, times(2)).close();
+	}
+
 	@Test
 	public void testCouldNotGetConnectionForOperationOrExceptionTranslator() throws SQLException {
 		SQLException sqlException = new SQLException("foo", "07xxx");
@@ -18,6 +18,7 @@ package org.springframework.jdbc.core.namedparam;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -513,6 +514,100 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testExecuteWithCachedExecutionPlan() throws SQLException {
+		ParameterMetaData parameterMetaData = mock();
+		given(preparedStatement.getParameterMetaData()).willReturn(parameterMetaData);
+		given(parameterMetaData.getParameterType(1)).willReturn(Types.INTEGER);
+		given(preparedStatement.executeUpdate()).willReturn(1);
+		namedParameterTemplate.setCacheExecutionPlans(true);
+		assertThat(namedParameterTemplate.isCacheExecutionPlans()).isTrue();
+
+		params.put("perfId", null);
+		params.put("priceId", 1);
+		assertThat(namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params)).isEqualTo(1);
+		params.put("priceId", 2);
+		assertThat(namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params)).isEqualTo(1);
+
+		verify(connection, times(2)).prepareStatement(UPDATE_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement, times(1)).getParameterMetaData();
+		verify(preparedStatement, times(2)).setNull(1, Types.INTEGER);
+		verify(preparedStatement).setObject(2, 1);
+		verify(preparedStatement).setObject(2, 2);
+		verify(preparedStatement, times(2)).close();
+		verify(connection, times(2)).close();
+	}
+
+	@Test
+	public void testExecuteWithCachedExecutionPlanAndTypedParameters() throws SQLException {
+		given(preparedStatement.executeUpdate()).willReturn(1);
+		namedParameterTemplate.setCacheExecutionPlans(true);
+
+		MapSqlParameterSource paramSource = new MapSqlParameterSource("perfId", 1)
+				.addValue("priceId", new SqlParameterValue(Types.INTEGER, 1));
+		paramSource.registerSqlType("perfId", Types.DECIMAL);
+		assertThat(namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, paramSource)).isEqualTo(1);
+
+		verify(connection).prepareStatement(UPDATE_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement).setObject(1, 1, Types.DECIMAL);
+		verify(preparedStatement).setObject(2, 1, Types.INTEGER);
+		verify(preparedStatement).close();
+		verify(connection).close();
+	}
+
+	@Test
+	public void testQueryWithCachedExecutionPlanAndInClause() throws SQLException {
+		given(resultSet.next()).willReturn(true, false);
+		given(resultSet.getInt("id")).willReturn(1);
+		given(resultSet.getString("forename")).willReturn("rod");
+		namedParameterTemplate.setCacheExecutionPlans(true);
+
+		params.put("ids", Arrays.asList(1, 2));
+		List<Customer> customers = namedParameterTemplate.query(
+				"select id, forename from custmr where id in (:ids)", params, (rs, rownum) -> {
+					Customer cust = new Customer();
+					cust.setId(rs.getInt(COLUMN_NAMES[0]));
+					cust.setForename(rs.getString(COLUMN_NAMES[1]));
+					return cust;
+				});
+
+		assertThat(customers).hasSize(1);
+		verify(connection).prepareStatement("select id, forename from custmr where id in (?, ?)");
+		verify(preparedStatement).setObject(1, 1);
+		verify(preparedStatement).setObject(2, 2);
+		verify(resultSet).close();
+		verify(preparedStatement).close();
+		verify(connection).close();
+	}
+
+	@Test
+	public void testBatchUpdateWithCachedExecutionPlan() throws Exception {
+		SqlParameterSource[] ids = new SqlParameterSource[3];
+		ids[0] = new MapSqlParameterSource("id", 100);
+		ids[1] = new MapSqlParameterSource("id", null);
+		ids[2] = new MapSqlParameterSource("id", null);
+		final int[] rowsAffected = new int[] {1, 2, 3};
+
+		ParameterMetaData parameterMetaData = mock();
+		given(preparedStatement.getParameterMetaData()).willReturn(parameterMetaData);
+		given(parameterMetaData.getParameterType(1)).willReturn(Types.BIGINT);
+		given(preparedStatement.executeBatch()).willReturn(rowsAffected);
+		given(connection.getMetaData()).willReturn(databaseMetaData);
+		namedParameterTemplate = new NamedParameterJdbcTemplate(new JdbcTemplate(dataSource, false));
+		namedParameterTemplate.setCacheExecutionPlans(true);
+
+		int[] actualRowsAffected = namedParameterTemplate.batchUpdate(
+				"UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = :id", ids);
+		assertThat(actualRowsAffected).isEqualTo(rowsAffected);
+		verify(connection).prepareStatement("UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?");
+		verify(preparedStatement).setObject(1, 100);
+		verify(preparedStatement, times(1)).getParameterMetaData();
+		verify(preparedStatement, times(2)).setNull(1, Types.BIGINT);
+		verify(preparedStatement, times(3)).addBatch();
+		verify(preparedStatement, atLeastOnce()).close();
+		verify(connection, atLeastOnce()).close();
+	}
+
 	@Test
 	public void testBatchUpdateWithInClause() throws Exception {
 		@SuppressWarnings("unchecked")
@@ -553,6 +648,36 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testBatchUpdateWithCachedExecutionPlanAndInClause() throws Exception {
+		SqlParameterSource[] parameters = new SqlParameterSource[2];
+		parameters[0] = new MapSqlParameterSource("ids", Arrays.asList(1, 2)).addValue("status", 0);
+		parameters[1] = new MapSqlParameterSource("ids", Arrays.asList(3, 4)).addValue("status", 1);
+
+		final int[] rowsAffected = new int[] {1, 2};
+		given(preparedStatement.executeBatch()).willReturn(rowsAffected);
+		given(connection.getMetaData()).willReturn(databaseMetaData);
+		namedParameterTemplate = new NamedParameterJdbcTemplate(new JdbcTemplate(dataSource, false));
+		namedParameterTemplate.setCacheExecutionPlans(true);
+
+		int[] actualRowsAffected = namedParameterTemplate.batchUpdate(
+				"update sometable set status = :status where id in (:ids)", parameters);
+
+		assertThat(actualRowsAffected).isEqualTo(rowsAffected);
+		verify(connection).prepareStatement("update sometable set status = ? where id in (?, ?)");
+		InOrder inOrder = inOrder(preparedStatement);
+		inOrder.verify(preparedStatement).setObject(1, 0);
+		inOrder.verify(preparedStatement).setObject(2, 1);
+		inOrder.verify(preparedStatement).setObject(3, 2);
+		inOrder.verify(preparedStatement).addBatch();
+		inOrder.verify(preparedStatement).setObject(1, 1);
+		inOrder.verify(preparedStatement).setObject(2, 3);
+		inOrder.verify(preparedStatement).setObject(3, 4);
+		inOrder.verify(preparedStatement).addBatch();
+		inOrder.verify(preparedStatement, atLeastOnce()).close();
+		verify(connection, atLeastOnce()).close();
+	}
+
 	@Test
 	public void testBatchUpdateWithSqlParameterSourcePlusTypeInfo() throws Exception {
 		SqlParameterSource[] ids = new SqlParameterSource[3];
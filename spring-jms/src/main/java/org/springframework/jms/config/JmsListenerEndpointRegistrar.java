@@ -22,7 +22,6 @@ import java.util.List;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
 import org.springframework.messaging.handler.annotation.support.MessageHandlerMethodFactory;
@@ -57,7 +56,11 @@ public class JmsListenerEndpointRegistrar implements BeanFactoryAware, Initializ
 
 	private boolean startImmediately;
 
-	private Object mutex = this.endpointDescriptors;
+	/**
+	 * Local lock, not the factory's singleton mutex: container factories
+	 * may be obtained from the factory while holding it.
+	 */
+	private final Object mutex = this.endpointDescriptors;
 
 
 	/**
@@ -124,9 +127,6 @@ public class JmsListenerEndpointRegistrar implements BeanFactoryAware, Initializ
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
 		this.beanFactory = beanFactory;
-		if (beanFactory instanceof ConfigurableBeanFactory cbf) {
-			this.mutex = cbf.getSingletonMutex();
-		}
 	}
 
 
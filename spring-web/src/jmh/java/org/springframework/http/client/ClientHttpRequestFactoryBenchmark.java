@@ -0,0 +1,124 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Benchmarks for {@link RestTemplate} exchanges with a local in-process HTTP
+ * server, comparing {@link SimpleClientHttpRequestFactory} with
+ * {@link JdkClientHttpRequestFactory}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(8)
+public class ClientHttpRequestFactoryBenchmark {
+
+	@Benchmark
+	public byte[] get(BenchmarkState state) {
+		return state.restTemplate.getForObject(state.uri, byte[].class);
+	}
+
+	@Benchmark
+	public byte[] post(BenchmarkState state) {
+		return state.restTemplate.postForObject(state.uri, state.payload, byte[].class);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"simple", "simple-streaming", "jdk"})
+		String factory;
+
+		@Param({"128", "65536"})
+		int payloadSize;
+
+		HttpServer server;
+
+		ExecutorService serverExecutor;
+
+		URI uri;
+
+		byte[] payload;
+
+		RestTemplate restTemplate;
+
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			this.payload = new byte[this.payloadSize];
+			this.serverExecutor = Executors.newCachedThreadPool();
+			this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			this.server.setExecutor(this.serverExecutor);
+			this.server.createContext("/echo", exchange -> {
+				// Echo the request body, or the payload for requests without a body
+				byte[] body;
+				try (InputStream inputStream = exchange.getRequestBody()) {
+					body = inputStream.readAllBytes();
+				}
+				body = (body.length > 0 ? body : this.payload);
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream outputStream = exchange.getResponseBody()) {
+					outputStream.write(body);
+				}
+			});
+			this.server.start();
+			this.uri = URI.create("http://localhost:" + this.server.getAddress().getPort() + "/echo");
+			this.restTemplate = new RestTemplate(createRequestFactory());
+		}
+
+		private ClientHttpRequestFactory createRequestFactory() {
+			return switch (this.factory) {
+				case "simple" -> new SimpleClientHttpRequestFactory();
+				case "simple-streaming" -> {
+					SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+					requestFactory.setBufferRequestBody(false);
+					yield requestFactory;
+				}
+				case "jdk" -> new JdkClientHttpRequestFactory();
+				default -> throw new IllegalArgumentException("Unknown factory: " + this.factory);
+			};
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.server.stop(0);
+			this.serverExecutor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmarks for decoding a large JSON array of {@link Project} elements
+ * to a {@code Flux} using Jackson, with and without byte-level array splitting.
+ *
+ * @see AbstractJackson2Decoder#setByteLevelArraySplitting
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonDecoderBenchmark {
+
+	@Benchmark
+	public void decodeArray(DecodeArrayState state, Blackhole blackhole) {
+		state.decode().doOnNext(blackhole::consume).then().block();
+	}
+
+
+	@State(Scope.Benchmark)
+	@SuppressWarnings({"NotNullFieldNotInitialized", "ConstantConditions"})
+	public static class DecodeArrayState {
+
+		private static final ResolvableType ELEMENT_TYPE = ResolvableType.forClass(Project.class);
+
+
+		@Param({"1048576"})
+		int totalSize;
+
+		@Param({"8192"})
+		int chunkSize;
+
+		@Param({"0", "20"})
+		int projectCount;
+
+		@Param({"false", "true"})
+		boolean splitting;
+
+		List<byte[]> chunks;
+
+		DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		Jackson2JsonDecoder decoder;
+
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			ObjectMapper objectMapper = new Jackson2ObjectMapperBuilder().build();
+			this.decoder = new Jackson2JsonDecoder(objectMapper);
+			this.decoder.setMaxInMemorySize(-1);
+			this.decoder.setByteLevelArraySplitting(this.splitting);
+
+			int elementSize = objectMapper.writeValueAsBytes(new Project("spring", this.projectCount)).length;
+			List<Project> projects = new ArrayList<>();
+			for (int i = 0; i < Math.max(1, this.totalSize / (elementSize + 1)); i++) {
+				projects.add(new Project("spring", this.projectCount));
+			}
+			byte[] bytes = objectMapper.writeValueAsBytes(projects);
+
+			this.chunks = new ArrayList<>();
+			for (int offset = 0; offset < bytes.length; offset += this.chunkSize) {
+				this.chunks.add(Arrays.copyOfRange(bytes, offset, Math.min(offset + this.chunkSize, bytes.length)));
+			}
+		}
+
+		public Flux<Object> decode() {
+			// Wrap the chunks for each invocation, as decoding consumes the buffers
+			Flux<DataBuffer> input = Flux.fromIterable(this.chunks).map(this.bufferFactory::wrap);
+			return this.decoder.decode(input, ELEMENT_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap());
+		}
+	}
+
+}
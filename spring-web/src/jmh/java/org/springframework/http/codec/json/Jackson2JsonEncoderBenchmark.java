@@ -35,6 +35,7 @@ import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectReaderWriterCache;
 
 /**
  * Benchmarks for encoding POJOs to JSON using Jackson.
@@ -56,6 +57,9 @@ public class Jackson2JsonEncoderBenchmark {
 		@Param({"0", "50", "500"})
 		int projectCount;
 
+		@Param({"false", "true"})
+		boolean cacheWriters;
+
 		Jackson2JsonEncoder jsonEncoder;
 
 		DataBufferFactory bufferFactory;
@@ -70,6 +74,9 @@ public class Jackson2JsonEncoderBenchmark {
 			ObjectMapper objectMapper = mapperBuilder.build();
 			this.bufferFactory = new DefaultDataBufferFactory();
 			this.jsonEncoder = new Jackson2JsonEncoder(objectMapper);
+			if (this.cacheWriters) {
+				this.jsonEncoder.setObjectReaderWriterCache(new Jackson2ObjectReaderWriterCache());
+			}
 			this.resolvableType = ResolvableType.forClass(Project.class);
 			this.project = new Project("spring", this.projectCount);
 		}
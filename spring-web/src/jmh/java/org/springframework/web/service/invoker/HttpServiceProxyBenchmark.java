@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.service.invoker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+/**
+ * Benchmarks for the invocation overhead of an HTTP service proxy created with
+ * {@link HttpServiceProxyFactory}, i.e. building the {@link HttpRequestValues}
+ * from the method and its arguments, with a client adapter that does nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class HttpServiceProxyBenchmark {
+
+	@Benchmark
+	public void proxyWithoutArguments(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.service.getResource());
+		bh.consume(data.clientAdapter.requestValues);
+	}
+
+	@Benchmark
+	public void proxyWithArguments(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.service.getResource("42", "name", "trace"));
+		bh.consume(data.clientAdapter.requestValues);
+	}
+
+	@Benchmark
+	public void requestValuesBuilder(BenchmarkData data, Blackhole bh) {
+		// Baseline: the same request values built by hand
+		HttpRequestValues.Builder builder = HttpRequestValues.builder()
+				.setHttpMethod(HttpMethod.GET)
+				.setUriTemplate("/resources/{id}")
+				.addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.setUriVariable("id", "42")
+				.addRequestParameter("sort", "name")
+				.addHeader("X-Trace", "trace");
+		bh.consume(data.clientAdapter.requestToBody(builder.build(), data.bodyType));
+		bh.consume(data.clientAdapter.requestValues);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public final ParameterizedTypeReference<String> bodyType = new ParameterizedTypeReference<>() {};
+
+		public NoOpHttpClientAdapter clientAdapter;
+
+		public ResourceService service;
+
+		@Setup(Level.Trial)
+		public void createProxy() {
+			this.clientAdapter = new NoOpHttpClientAdapter();
+			this.service = HttpServiceProxyFactory.builder(this.clientAdapter).build()
+					.createClient(ResourceService.class);
+		}
+	}
+
+
+	@HttpExchange(url = "/resources", accept = MediaType.APPLICATION_JSON_VALUE)
+	public interface ResourceService {
+
+		@GetExchange
+		Mono<String> getResource();
+
+		@GetExchange("/{id}")
+		Mono<String> getResource(
+				@PathVariable String id, @RequestParam String sort, @RequestHeader("X-Trace") String trace);
+	}
+
+
+	/**
+	 * {@link HttpClientAdapter} that only keeps the last request values.
+	 */
+	public static class NoOpHttpClientAdapter implements HttpClientAdapter {
+
+		public HttpRequestValues requestValues;
+
+		@Override
+		public Mono<Void> requestToVoid(HttpRequestValues requestValues) {
+			this.requestValues = requestValues;
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<HttpHeaders> requestToHeaders(HttpRequestValues requestValues) {
+			this.requestValues = requestValues;
+			return Mono.empty();
+		}
+
+		@Override
+		public <T> Mono<T> requestToBody(HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+			this.requestValues = requestValues;
+			return Mono.empty();
+		}
+
+		@Override
+		public <T> Flux<T> requestToBodyFlux(HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+			this.requestValues = requestValues;
+			return Flux.empty();
+		}
+
+		@Override
+		public Mono<ResponseEntity<Void>> requestToBodilessEntity(HttpRequestValues requestValues) {
+			this.requestValues = requestValues;
+			return Mono.empty();
+		}
+
+		@Override
+		public <T> Mono<ResponseEntity<T>> requestToEntity(
+				HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+
+			this.requestValues = requestValues;
+			return Mono.empty();
+		}
+
+		@Override
+		public <T> Mono<ResponseEntity<Flux<T>>> requestToEntityFlux(
+				HttpRequestValues requestValues, ParameterizedTypeReference<T> bodyType) {
+
+			this.requestValues = requestValues;
+			return Mono.empty();
+		}
+	}
+
+}
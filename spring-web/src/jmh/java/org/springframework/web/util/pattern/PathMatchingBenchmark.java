@@ -92,6 +92,55 @@ public class PathMatchingBenchmark {
 		}
 	}
 
+	@State(Scope.Benchmark)
+	public static class ManyRoutesPatternParser extends PatternParserData {
+
+		@Setup(Level.Trial)
+		public void registerPatterns() {
+			parseRoutes(RouteGenerator.manyRoutes(5000));
+		}
+	}
+
+	@Benchmark
+	public void matchAndSortManyRoutesWithPathPatternParser(ManyRoutesPatternParser data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			List<PathPattern> matches = new ArrayList<>();
+			for (PathPattern pattern : data.patterns) {
+				if (pattern.matches(path)) {
+					matches.add(pattern);
+				}
+			}
+			Collections.sort(matches);
+			bh.consume(matches);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class ManyRoutesPatternIndex extends PatternParserData {
+
+		PathPatternIndex<PathPattern> index = new PathPatternIndex<>();
+
+		@Setup(Level.Trial)
+		public void registerPatterns() {
+			parseRoutes(RouteGenerator.manyRoutes(5000));
+			this.patterns.forEach(pattern -> this.index.add(pattern, Collections.singleton(pattern)));
+		}
+	}
+
+	@Benchmark
+	public void matchAndSortManyRoutesWithPathPatternIndex(ManyRoutesPatternIndex data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			List<PathPattern> matches = new ArrayList<>();
+			for (PathPattern pattern : data.index.getCandidates(path)) {
+				if (pattern.matches(path)) {
+					matches.add(pattern);
+				}
+			}
+			Collections.sort(matches);
+			bh.consume(matches);
+		}
+	}
+
 	@State(Scope.Benchmark)
 	public static class AllRoutesAntPathMatcher extends AntPathMatcherData {
 
@@ -196,6 +245,11 @@ public class PathMatchingBenchmark {
 			}
 		}
 
+		public Route(String pattern, List<String> matchingPaths) {
+			this.pattern = pattern;
+			this.matchingPaths = matchingPaths;
+		}
+
 		public String pattern() {
 			return this.pattern;
 		}
@@ -264,6 +318,31 @@ public class PathMatchingBenchmark {
 			);
 		}
 
+		/**
+		 * Generate a large REST API with the given number of routes, spread over
+		 * resources with collection, item, sub-resource and action endpoints.
+		 * Matching paths are only generated for a sample of the routes.
+		 */
+		static List<Route> manyRoutes(int count) {
+			List<Route> routes = new ArrayList<>(count);
+			String[] templates = {"/api/v%d/resource%d", "/api/v%d/resource%d/{id}",
+					"/api/v%d/resource%d/{id}/items/{itemId}", "/api/v%d/resource%d/{id}/actions/*",
+					"/api/v%d/resource%d/search/{*query}"};
+			for (int i = 0; routes.size() < count; i++) {
+				String template = templates[i % templates.length];
+				String pattern = String.format(template, i % 3 + 1, i / templates.length);
+				if (i % 47 == 0) {
+					String path = pattern.replace("{id}", "42").replace("{itemId}", "7")
+							.replace("*", "start").replace("{*query}", "name/spring");
+					routes.add(new Route(pattern, path));
+				}
+				else {
+					routes.add(new Route(pattern, Collections.emptyList()));
+				}
+			}
+			return routes;
+		}
+
 		static List<Route> allRoutes() {
 			List<Route> routes = new ArrayList<>();
 			routes.addAll(staticRoutes());
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.util.FastByteArrayOutputStream;
+
+/**
+ * {@link ClientHttpRequest} implementation based on the Java {@link HttpClient}.
+ *
+ * <p>A body written to {@link #getBody()} is buffered, while a body set through
+ * {@link #setBody(Body)} is streamed: it is written by the calling thread while
+ * the {@code HttpClient} sends the request, and handed to the client in chunks
+ * as it requests them. A streamed body is therefore not repeatable, e.g. for
+ * redirects that preserve the body.
+ *
+ * <p>Created via the {@link JdkClientHttpRequestFactory}.
+ *
+ * @since 6.1
+ */
+final class JdkClientHttpRequest extends AbstractClientHttpRequest implements StreamingHttpOutputMessage {
+
+	/** Headers that the {@code HttpClient} sets itself, and rejects if set explicitly. */
+	private static final Set<String> DISALLOWED_HEADERS = disallowedHeaders();
+
+	private static final int CHUNK_SIZE = 16 * 1024;
+
+
+	private final HttpClient httpClient;
+
+	private final URI uri;
+
+	private final HttpMethod method;
+
+	@Nullable
+	private final Duration timeout;
+
+	@Nullable
+	private FastByteArrayOutputStream bufferedOutput;
+
+	@Nullable
+	private Body body;
+
+
+	JdkClientHttpRequest(HttpClient httpClient, URI uri, HttpMethod method, @Nullable Duration timeout) {
+		this.httpClient = httpClient;
+		this.uri = uri;
+		this.method = method;
+		this.timeout = timeout;
+	}
+
+
+	@Override
+	public HttpMethod getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public URI getURI() {
+		return this.uri;
+	}
+
+	@Override
+	public void setBody(Body body) {
+		assertNotExecuted();
+		this.body = body;
+	}
+
+	@Override
+	protected OutputStream getBodyInternal(HttpHeaders headers) {
+		if (this.bufferedOutput == null) {
+			this.bufferedOutput = new FastByteArrayOutputStream(1024);
+		}
+		return this.bufferedOutput;
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(this.uri);
+		if (this.timeout != null) {
+			builder.timeout(this.timeout);
+		}
+		headers.forEach((name, values) -> {
+			if (!DISALLOWED_HEADERS.contains(name)) {
+				for (String value : values) {
+					builder.header(name, value);
+				}
+			}
+		});
+
+		if (this.body != null) {
+			return executeStreaming(builder, headers.getContentLength(), this.body);
+		}
+
+		HttpRequest.BodyPublisher bodyPublisher = (this.bufferedOutput != null ?
+				HttpRequest.BodyPublishers.ofByteArray(this.bufferedOutput.toByteArrayUnsafe()) :
+				HttpRequest.BodyPublishers.noBody());
+		HttpRequest request = builder.method(this.method.name(), bodyPublisher).build();
+		try {
+			return new JdkClientHttpResponse(this.httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream()));
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Request was interrupted: " + ex.getMessage(), ex);
+		}
+	}
+
+	private ClientHttpResponse executeStreaming(HttpRequest.Builder builder, long contentLength, Body body)
+			throws IOException {
+
+		OutputStreamPublisher outputStream = new OutputStreamPublisher();
+		HttpRequest.BodyPublisher bodyPublisher = (contentLength >= 0 ?
+				HttpRequest.BodyPublishers.fromPublisher(outputStream, contentLength) :
+				HttpRequest.BodyPublishers.fromPublisher(outputStream));
+		HttpRequest request = builder.method(this.method.name(), bodyPublisher).build();
+
+		CompletableFuture<HttpResponse<InputStream>> responseFuture =
+				this.httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+		// Unblock the writer if the exchange ends before the body is fully sent
+		responseFuture.whenComplete((response, ex) -> outputStream.cancel());
+
+		try {
+			body.writeTo(outputStream);
+		}
+		catch (IOException | RuntimeException ex) {
+			if (!outputStream.isCancelled() && !responseFuture.isDone()) {
+				// Abort the exchange rather than sending a truncated body
+				outputStream.fail(ex);
+				responseFuture.cancel(true);
+				throw ex;
+			}
+			// Otherwise the exchange ended early: report its outcome instead
+		}
+		closeQuietly(outputStream);
+		return new JdkClientHttpResponse(awaitResponse(responseFuture));
+	}
+
+	private static HttpResponse<InputStream> awaitResponse(CompletableFuture<HttpResponse<InputStream>> future)
+			throws IOException {
+
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ex) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IOException("Request was interrupted: " + ex.getMessage(), ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof CompletionException && cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			if (cause instanceof IOException ioException) {
+				throw ioException;
+			}
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IOException(cause != null ? cause.getMessage() : ex.getMessage(), cause);
+		}
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		}
+		catch (IOException ex) {
+			// ignore
+		}
+	}
+
+	private static Set<String> disallowedHeaders() {
+		TreeSet<String> headers = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		headers.addAll(Set.of("connection", "content-length", "expect", "host", "upgrade"));
+		return headers;
+	}
+
+
+	/**
+	 * Bridge from the {@link OutputStream} that the body is written to, to the
+	 * {@link Flow.Publisher} that the {@code HttpClient} subscribes to. Written
+	 * bytes are published in chunks by the writing thread, blocking while the
+	 * subscriber has no demand, so that the bridge does not depend on the
+	 * threads that the client runs on.
+	 */
+	private static final class OutputStreamPublisher extends OutputStream
+			implements Flow.Publisher<ByteBuffer>, Flow.Subscription {
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private final Condition changed = this.lock.newCondition();
+
+		@Nullable
+		private Flow.Subscriber<? super ByteBuffer> subscriber;
+
+		private boolean subscribed;
+
+		private long demand;
+
+		private boolean cancelled;
+
+		@Nullable
+		private Throwable failure;
+
+		private byte[] buffer = new byte[CHUNK_SIZE];
+
+		private int count;
+
+		private boolean closed;
+
+		@Override
+		public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+			boolean alreadySubscribed;
+			this.lock.lock();
+			try {
+				alreadySubscribed = this.subscribed;
+				this.subscribed = true;
+			}
+			finally {
+				this.lock.unlock();
+			}
+			if (alreadySubscribed) {
+				subscriber.onSubscribe(new Flow.Subscription() {
+					@Override
+					public void request(long n) {
+					}
+					@Override
+					public void cancel() {
+					}
+				});
+				subscriber.onError(new IllegalStateException("Streamed request body is not repeatable"));
+				return;
+			}
+			subscriber.onSubscribe(this);
+			Throwable failure;
+			this.lock.lock();
+			try {
+				// Publish to the subscriber only once onSubscribe has returned
+				this.subscriber = subscriber;
+				failure = this.failure;
+				this.changed.signalAll();
+			}
+			finally {
+				this.lock.unlock();
+			}
+			if (failure != null) {
+				subscriber.onError(failure);
+			}
+		}
+
+		@Override
+		public void request(long n) {
+			this.lock.lock();
+			try {
+				if (n <= 0) {
+					this.cancelled = true;
+				}
+				else {
+					this.demand = (this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n);
+				}
+				this.changed.signalAll();
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			this.lock.lock();
+			try {
+				this.cancelled = true;
+				this.changed.signalAll();
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		boolean isCancelled() {
+			this.lock.lock();
+			try {
+				return this.cancelled;
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (this.count == this.buffer.length) {
+				publish();
+			}
+			this.buffer[this.count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (this.count == this.buffer.length) {
+					publish();
+				}
+				int length = Math.min(len, this.buffer.length - this.count);
+				System.arraycopy(b, off, this.buffer, this.count, length);
+				this.count += length;
+				off += length;
+				len -= length;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (this.count > 0) {
+				publish();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (this.closed) {
+				return;
+			}
+			flush();
+			this.closed = true;
+			awaitSubscriber(false).onComplete();
+		}
+
+		/**
+		 * Fail the body, signalling the given failure to the subscriber rather
+		 * than the end of the body.
+		 */
+		void fail(Throwable failure) {
+			Flow.Subscriber<? super ByteBuffer> subscriber;
+			this.lock.lock();
+			try {
+				this.failure = failure;
+				subscriber = (this.cancelled ? null : this.subscriber);
+			}
+			finally {
+				this.lock.unlock();
+			}
+			this.closed = true;
+			if (subscriber != null) {
+				subscriber.onError(failure);
+			}
+		}
+
+		private void publish() throws IOException {
+			Flow.Subscriber<? super ByteBuffer> subscriber = awaitSubscriber(true);
+			ByteBuffer chunk = ByteBuffer.wrap(this.buffer, 0, this.count);
+			this.buffer = new byte[CHUNK_SIZE];
+			this.count = 0;
+			subscriber.onNext(chunk);
+		}
+
+		private Flow.Subscriber<? super ByteBuffer> awaitSubscriber(boolean demandRequired) throws IOException {
+			this.lock.lock();
+			try {
+				while (!this.cancelled && (this.subscriber == null || (demandRequired && this.demand == 0))) {
+					this.changed.await();
+				}
+				if (this.cancelled || this.subscriber == null) {
+					throw new IOException("Request body was cancelled by the HttpClient");
+				}
+				if (demandRequired) {
+					this.demand--;
+				}
+				return this.subscriber;
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while writing request body");
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestFactory} implementation based on the Java
+ * {@link HttpClient}, available since Java 11.
+ *
+ * <p>Unlike {@link SimpleClientHttpRequestFactory}, connections are pooled
+ * and reused by the {@code HttpClient}, and requests to the same server are
+ * multiplexed over a single connection when HTTP/2 is negotiated, without
+ * any third-party dependency. Request bodies set through
+ * {@link org.springframework.http.StreamingHttpOutputMessage#setBody} are
+ * streamed, and response bodies are never buffered.
+ *
+ * <p>By default, the {@code HttpClient} is created by this factory on first
+ * use, based on the {@linkplain #setConnectTimeout(Duration) connect timeout},
+ * {@linkplain #setExecutor(Executor) executor} and
+ * {@linkplain #setVersion(HttpClient.Version) version} configured here.
+ * Alternatively, a pre-configured {@code HttpClient} may be provided.
+ *
+ * @since 6.1
+ * @see java.net.http.HttpClient
+ * @see SimpleClientHttpRequestFactory
+ */
+public class JdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+	@Nullable
+	private volatile HttpClient httpClient;
+
+	private final boolean externalHttpClient;
+
+	@Nullable
+	private Duration connectTimeout;
+
+	@Nullable
+	private Executor executor;
+
+	private HttpClient.Version version = HttpClient.Version.HTTP_2;
+
+	@Nullable
+	private Duration readTimeout;
+
+
+	/**
+	 * Create a new instance, with an {@link HttpClient} created on first use.
+	 */
+	public JdkClientHttpRequestFactory() {
+		this.externalHttpClient = false;
+	}
+
+	/**
+	 * Create a new instance based on the given {@link HttpClient}.
+	 * @param httpClient the client to use for executing requests
+	 */
+	public JdkClientHttpRequestFactory(HttpClient httpClient) {
+		Assert.notNull(httpClient, "HttpClient must not be null");
+		this.httpClient = httpClient;
+		this.externalHttpClient = true;
+	}
+
+
+	/**
+	 * Set the connect timeout for the {@code HttpClient} (in milliseconds).
+	 * A timeout value of 0 or less specifies an infinite timeout.
+	 * <p>Only applies to an {@code HttpClient} created by this factory.
+	 * @see HttpClient.Builder#connectTimeout(Duration)
+	 */
+	public void setConnectTimeout(int connectTimeout) {
+		setConnectTimeout(connectTimeout > 0 ? Duration.ofMillis(connectTimeout) : null);
+	}
+
+	/**
+	 * Set the connect timeout for the {@code HttpClient}, or {@code null} for
+	 * an infinite timeout.
+	 * <p>Only applies to an {@code HttpClient} created by this factory.
+	 * @see HttpClient.Builder#connectTimeout(Duration)
+	 */
+	public void setConnectTimeout(@Nullable Duration connectTimeout) {
+		assertHttpClientNotCreated();
+		this.connectTimeout = connectTimeout;
+	}
+
+	/**
+	 * Set the executor for asynchronous tasks of the {@code HttpClient}.
+	 * <p>Default is the {@code HttpClient} default executor.
+	 * <p>Only applies to an {@code HttpClient} created by this factory.
+	 * @see HttpClient.Builder#executor(Executor)
+	 */
+	public void setExecutor(@Nullable Executor executor) {
+		assertHttpClientNotCreated();
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the preferred HTTP protocol version for the {@code HttpClient}.
+	 * <p>Default is {@link HttpClient.Version#HTTP_2}, falling back to
+	 * HTTP/1.1 if the server does not support HTTP/2.
+	 * <p>Only applies to an {@code HttpClient} created by this factory.
+	 * @see HttpClient.Builder#version(HttpClient.Version)
+	 */
+	public void setVersion(HttpClient.Version version) {
+		Assert.notNull(version, "Version must not be null");
+		assertHttpClientNotCreated();
+		this.version = version;
+	}
+
+	/**
+	 * Set the read timeout for requests (in milliseconds), i.e. the maximum
+	 * time to wait for the response headers once a request is sent.
+	 * A timeout value of 0 or less specifies an infinite timeout.
+	 * @see java.net.http.HttpRequest.Builder#timeout(Duration)
+	 */
+	public void setReadTimeout(int readTimeout) {
+		setReadTimeout(readTimeout > 0 ? Duration.ofMillis(readTimeout) : null);
+	}
+
+	/**
+	 * Set the read timeout for requests, i.e. the maximum time to wait for the
+	 * response headers once a request is sent, or {@code null} for an infinite
+	 * timeout.
+	 * @see java.net.http.HttpRequest.Builder#timeout(Duration)
+	 */
+	public void setReadTimeout(@Nullable Duration readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	private void assertHttpClientNotCreated() {
+		Assert.state(!this.externalHttpClient,
+				"HttpClient provided: configure the HttpClient instead of the request factory");
+		Assert.state(this.httpClient == null, "HttpClient already created");
+	}
+
+	/**
+	 * Return the {@code HttpClient} used by this factory, creating it if necessary.
+	 */
+	public HttpClient getHttpClient() {
+		HttpClient httpClient = this.httpClient;
+		if (httpClient == null) {
+			synchronized (this) {
+				httpClient = this.httpClient;
+				if (httpClient == null) {
+					httpClient = createHttpClient();
+					this.httpClient = httpClient;
+				}
+			}
+		}
+		return httpClient;
+	}
+
+	/**
+	 * Create the {@code HttpClient} used by this factory, unless one was provided.
+	 * <p>The default implementation applies the configured connect timeout,
+	 * executor and version. May be overridden in subclasses for further
+	 * customizations of the {@link HttpClient.Builder}.
+	 */
+	protected HttpClient createHttpClient() {
+		HttpClient.Builder builder = HttpClient.newBuilder().version(this.version);
+		if (this.connectTimeout != null) {
+			builder.connectTimeout(this.connectTimeout);
+		}
+		if (this.executor != null) {
+			builder.executor(this.executor);
+		}
+		return builder.build();
+	}
+
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		return new JdkClientHttpRequest(getHttpClient(), uri, httpMethod, this.readTimeout);
+	}
+
+}
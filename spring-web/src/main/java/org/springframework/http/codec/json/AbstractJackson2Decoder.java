@@ -23,6 +23,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
@@ -45,6 +47,7 @@ import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.codec.HttpMessageDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectReaderWriterCache;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
@@ -64,6 +67,8 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 
 	private int maxInMemorySize = 256 * 1024;
 
+	private boolean byteLevelArraySplitting;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -94,6 +99,35 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		return this.maxInMemorySize;
 	}
 
+	/**
+	 * Whether to split a stream of JSON values, or the elements of a top-level
+	 * JSON array, at the byte level when {@link #decode(Publisher, ResolvableType,
+	 * MimeType, Map) decoding to a Flux}, and to deserialize each value directly
+	 * from its bytes, instead of tokenizing the input with Jackson's non-blocking
+	 * parser into a {@link TokenBuffer} per value, and then deserializing from
+	 * that buffer.
+	 * <p>This avoids parsing each value twice, and a value contained in a
+	 * single data buffer is read in place, without being copied. It applies
+	 * to JSON input only, and only if the {@code ObjectMapper} does not allow
+	 * comments or single quotes; the tokenizer is used otherwise. The
+	 * {@link #setMaxInMemorySize max in-memory size} applies to each value.
+	 * <p>By default this is set to {@code false}.
+	 * @param byteLevelArraySplitting whether to split the input at the byte level
+	 * @since 6.1
+	 */
+	public void setByteLevelArraySplitting(boolean byteLevelArraySplitting) {
+		this.byteLevelArraySplitting = byteLevelArraySplitting;
+	}
+
+	/**
+	 * Return whether the input is {@link #setByteLevelArraySplitting split at
+	 * the byte level} when decoding to a Flux.
+	 * @since 6.1
+	 */
+	public boolean isByteLevelArraySplitting() {
+		return this.byteLevelArraySplitting;
+	}
+
 
 	@Override
 	public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
@@ -136,6 +170,27 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		}
 
 		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
+		if (this.byteLevelArraySplitting && supportsByteLevelSplitting(mapper)) {
+			return Flux.deferContextual(contextView -> {
+
+				Map<String, Object> hintsToUse = contextView.isEmpty() ? hints :
+						Hints.merge(hints, ContextView.class.getName(), contextView);
+
+				ObjectReader reader = getObjectReader(mapper, elementType, mimeType, hintsToUse);
+
+				return JsonArraySplitter.split(processed, (bytes, offset, length) -> {
+					try {
+						Object value = reader.readValue(bytes, offset, length);
+						logValue(value, hints);
+						return value;
+					}
+					catch (IOException ex) {
+						throw processException(ex);
+					}
+				}, getMaxInMemorySize());
+			});
+		}
+
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(processed, mapper.getFactory(), mapper,
 				true, forceUseOfBigDecimal, getMaxInMemorySize());
 
@@ -144,7 +199,7 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 			Map<String, Object> hintsToUse = contextView.isEmpty() ? hints :
 					Hints.merge(hints, ContextView.class.getName(), contextView);
 
-			ObjectReader reader = createObjectReader(mapper, elementType, hintsToUse);
+			ObjectReader reader = getObjectReader(mapper, elementType, mimeType, hintsToUse);
 
 			return tokens.handle((tokenBuffer, sink) -> {
 				try {
@@ -161,6 +216,14 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		});
 	}
 
+	private static boolean supportsByteLevelSplitting(ObjectMapper mapper) {
+		JsonFactory factory = mapper.getFactory();
+		return (JsonFactory.FORMAT_NAME_JSON.equals(factory.getFormatName()) &&
+				!factory.isEnabled(JsonParser.Feature.ALLOW_COMMENTS) &&
+				!factory.isEnabled(JsonParser.Feature.ALLOW_YAML_COMMENTS) &&
+				!factory.isEnabled(JsonParser.Feature.ALLOW_SINGLE_QUOTES));
+	}
+
 	/**
 	 * Process the input publisher into a flux. Default implementation returns
 	 * {@link Flux#from(Publisher)}, but subclasses can choose to customize
@@ -187,7 +250,8 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 			Map<String, Object> hintsToUse = contextView.isEmpty() ? hints :
 					Hints.merge(hints, ContextView.class.getName(), contextView);
 
-			return DataBufferUtils.join(input, this.maxInMemorySize).flatMap(dataBuffer ->
+			// Compose rather than join: the content is only read sequentially as a stream
+			return DataBufferUtils.compose(input, this.maxInMemorySize).flatMap(dataBuffer ->
 					Mono.justOrEmpty(decode(dataBuffer, elementType, mimeType, hintsToUse)));
 		});
 	}
@@ -202,7 +266,7 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		}
 
 		try {
-			ObjectReader objectReader = createObjectReader(mapper, targetType, hints);
+			ObjectReader objectReader = getObjectReader(mapper, targetType, mimeType, hints);
 			Object value = objectReader.readValue(dataBuffer.asInputStream());
 			logValue(value, hints);
 			return value;
@@ -215,8 +279,8 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		}
 	}
 
-	private ObjectReader createObjectReader(
-			ObjectMapper mapper, ResolvableType elementType, @Nullable Map<String, Object> hints) {
+	private ObjectReader getObjectReader(ObjectMapper mapper, ResolvableType elementType,
+			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
 		Assert.notNull(elementType, "'elementType' must not be null");
 		Class<?> contextClass = getContextClass(elementType);
@@ -226,6 +290,18 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		JavaType javaType = getJavaType(elementType.getType(), contextClass);
 		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
 
+		// Keyed by the resolved JavaType, which also reflects the context class from the hints
+		Jackson2ObjectReaderWriterCache cache = getObjectReaderWriterCache();
+		if (cache != null) {
+			return cache.getObjectReader(this, mapper, javaType, jsonView, mimeType,
+					() -> createObjectReader(mapper, elementType, javaType, jsonView, hints));
+		}
+		return createObjectReader(mapper, elementType, javaType, jsonView, hints);
+	}
+
+	private ObjectReader createObjectReader(ObjectMapper mapper, ResolvableType elementType,
+			JavaType javaType, @Nullable Class<?> jsonView, @Nullable Map<String, Object> hints) {
+
 		ObjectReader objectReader = (jsonView != null ?
 				mapper.readerWithView(jsonView).forType(javaType) :
 				mapper.readerFor(javaType));
@@ -50,6 +50,7 @@ import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectReaderWriterCache;
 import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -165,7 +166,7 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 					throw new IllegalStateException("No ObjectMapper for " + elementType);
 				}
 
-				ObjectWriter writer = createObjectWriter(mapper, elementType, mimeType, null, hintsToUse);
+				ObjectWriter writer = getObjectWriter(mapper, elementType, mimeType, null, null, hintsToUse);
 				ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
 				JsonEncoding encoding = getJsonEncoding(mimeType);
 				JsonGenerator generator = mapper.getFactory().createGenerator(byteBuilder, encoding);
@@ -237,10 +238,7 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			throw new IllegalStateException("No ObjectMapper for " + valueType);
 		}
 
-		ObjectWriter writer = createObjectWriter(mapper, valueType, mimeType, jsonView, hints);
-		if (filters != null) {
-			writer = writer.with(filters);
-		}
+		ObjectWriter writer = getObjectWriter(mapper, valueType, mimeType, jsonView, filters, hints);
 
 		ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
 		try {
@@ -331,19 +329,33 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		}
 	}
 
-	private ObjectWriter createObjectWriter(
+	private ObjectWriter getObjectWriter(
 			ObjectMapper mapper, ResolvableType valueType, @Nullable MimeType mimeType,
-			@Nullable Class<?> jsonView, @Nullable Map<String, Object> hints) {
+			@Nullable Class<?> jsonView, @Nullable FilterProvider filters, @Nullable Map<String, Object> hints) {
 
-		JavaType javaType = getJavaType(valueType.getType(), null);
 		if (jsonView == null && hints != null) {
 			jsonView = (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT);
 		}
+		Jackson2ObjectReaderWriterCache cache = getObjectReaderWriterCache();
+		if (cache != null) {
+			Class<?> jsonViewToUse = jsonView;
+			return cache.getObjectWriter(this, mapper, valueType, jsonView, mimeType, filters,
+					() -> createObjectWriter(mapper, valueType, mimeType, jsonViewToUse, filters, hints));
+		}
+		return createObjectWriter(mapper, valueType, mimeType, jsonView, filters, hints);
+	}
+
+	private ObjectWriter createObjectWriter(
+			ObjectMapper mapper, ResolvableType valueType, @Nullable MimeType mimeType,
+			@Nullable Class<?> jsonView, @Nullable FilterProvider filters, @Nullable Map<String, Object> hints) {
+
+		JavaType javaType = getJavaType(valueType.getType(), null);
 		ObjectWriter writer = (jsonView != null ? mapper.writerWithView(jsonView) : mapper.writer());
 		if (javaType.isContainerType()) {
 			writer = writer.forType(javaType);
 		}
-		return customizeWriter(writer, mimeType, valueType, hints);
+		writer = customizeWriter(writer, mimeType, valueType, hints);
+		return (filters != null ? writer.with(filters) : writer);
 	}
 
 	/**
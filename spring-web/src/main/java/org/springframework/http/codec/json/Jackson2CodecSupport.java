@@ -39,6 +39,7 @@ import org.springframework.core.codec.Hints;
 import org.springframework.http.HttpLogging;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.json.Jackson2ObjectReaderWriterCache;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
@@ -90,6 +91,9 @@ public abstract class Jackson2CodecSupport {
 
 	private final List<MimeType> mimeTypes;
 
+	@Nullable
+	private Jackson2ObjectReaderWriterCache readerWriterCache;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -164,6 +168,35 @@ public abstract class Jackson2CodecSupport {
 		return (this.objectMapperRegistrations != null ? this.objectMapperRegistrations : Collections.emptyMap());
 	}
 
+	/**
+	 * Set a cache to reuse configured {@link com.fasterxml.jackson.databind.ObjectWriter}
+	 * or {@link com.fasterxml.jackson.databind.ObjectReader} instances from,
+	 * rather than creating and configuring new ones for every value to encode
+	 * or decode. Instances are cached per target type, JSON view, MIME type,
+	 * and, for encoding, {@code FilterProvider} instance.
+	 * <p>The cache may be shared with other codecs and with the Jackson message
+	 * converters in {@code org.springframework.http.converter.json}, which keep
+	 * their own instances in it. Only use a
+	 * cache if {@code customizeWriter} and {@code customizeReader} depend on
+	 * nothing but the target type and MIME type, since they are not invoked
+	 * again for the hints of subsequent values.
+	 * <p>By default, no cache is used.
+	 * @since 6.1
+	 */
+	public void setObjectReaderWriterCache(@Nullable Jackson2ObjectReaderWriterCache readerWriterCache) {
+		this.readerWriterCache = readerWriterCache;
+	}
+
+	/**
+	 * Return the configured cache for {@code ObjectWriter} and
+	 * {@code ObjectReader} instances, if any.
+	 * @since 6.1
+	 */
+	@Nullable
+	public Jackson2ObjectReaderWriterCache getObjectReaderWriterCache() {
+		return this.readerWriterCache;
+	}
+
 	/**
 	 * Subclasses should expose this as "decodable" or "encodable" mime types.
 	 */
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+
+/**
+ * Splits a UTF-8 JSON stream of arbitrary size, byte array chunks into its
+ * top-level values, or into the elements of top-level arrays, by scanning
+ * for structural characters at the byte level, and decodes each value from
+ * its bytes.
+ *
+ * <p>Unlike {@link Jackson2Tokenizer}, this does not parse values into
+ * intermediate token buffers: each value is parsed once, directly from the
+ * underlying byte array of the data buffer in which it is contained, and only
+ * copied into a reusable buffer if it spans several data buffers. Values are
+ * only checked to be well-formed when decoded, and the scanning relies on
+ * standard JSON syntax, i.e. without comments or single-quoted strings.
+ *
+ * @since 6.1
+ * @see AbstractJackson2Decoder#setByteLevelArraySplitting
+ */
+final class JsonArraySplitter {
+
+	private final ValueDecoder valueDecoder;
+
+	private final int maxInMemorySize;
+
+	/** Bytes of a value that spans data buffers, kept across calls. */
+	private byte[] pending = new byte[256];
+
+	private int pendingLength;
+
+	@Nullable
+	private byte[] chunk;
+
+	private boolean inValue;
+
+	private boolean inScalar;
+
+	private boolean inString;
+
+	private boolean escaped;
+
+	private int depth;
+
+	private int arrayDepth;
+
+	private boolean arrayStart;
+
+	private boolean expectSeparator;
+
+
+	JsonArraySplitter(ValueDecoder valueDecoder, int maxInMemorySize) {
+		this.valueDecoder = valueDecoder;
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+
+	/**
+	 * Split the given data buffer, decoding all values completed within it.
+	 * The data buffer is released.
+	 */
+	List<Object> split(DataBuffer dataBuffer) {
+		try {
+			List<Object> result = null;
+			try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+				while (iterator.hasNext()) {
+					result = split(iterator.next(), result);
+				}
+			}
+			return (result != null ? result : Collections.emptyList());
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+	@Nullable
+	private List<Object> split(ByteBuffer byteBuffer, @Nullable List<Object> result) {
+		byte[] bytes;
+		int offset;
+		int length = byteBuffer.remaining();
+		if (byteBuffer.hasArray()) {
+			bytes = byteBuffer.array();
+			offset = byteBuffer.arrayOffset() + byteBuffer.position();
+		}
+		else {
+			if (this.chunk == null || this.chunk.length < length) {
+				this.chunk = new byte[Math.max(length, 1024)];
+			}
+			bytes = this.chunk;
+			offset = 0;
+			byteBuffer.duplicate().get(bytes, 0, length);
+		}
+		int end = offset + length;
+		// Start of the current value in this chunk, or -1 if it started in a previous one
+		int valueStart = (this.inValue ? -1 : offset);
+		for (int i = offset; i < end; i++) {
+			byte b = bytes[i];
+			if (this.inValue) {
+				if (this.inScalar) {
+					if (isScalarEnd(b)) {
+						result = completeValue(bytes, offset, valueStart, i, result);
+						i--;  // process the delimiter outside the value
+					}
+				}
+				else if (this.inString) {
+					if (this.escaped) {
+						this.escaped = false;
+					}
+					else if (b == '\\') {
+						this.escaped = true;
+					}
+					else if (b == '"') {
+						this.inString = false;
+						if (this.depth == 0) {
+							result = completeValue(bytes, offset, valueStart, i + 1, result);
+						}
+					}
+				}
+				else if (b == '"') {
+					this.inString = true;
+				}
+				else if (b == '{' || b == '[') {
+					this.depth++;
+				}
+				else if (b == '}' || b == ']') {
+					if (--this.depth == 0) {
+						result = completeValue(bytes, offset, valueStart, i + 1, result);
+					}
+				}
+			}
+			else if (!isWhitespace(b)) {
+				if (b == ']' && this.arrayDepth > 0 && (this.expectSeparator || this.arrayStart)) {
+					this.arrayDepth--;
+					this.arrayStart = false;
+					this.expectSeparator = false;
+					continue;
+				}
+				if (this.expectSeparator) {
+					if (b != ',') {
+						throw unexpectedCharacter(b);
+					}
+					this.expectSeparator = false;
+					continue;
+				}
+				if (b == '[' && this.arrayDepth == 0) {
+					this.arrayDepth++;
+					this.arrayStart = true;
+					continue;
+				}
+				if (b == ',' || b == ']' || b == '}' || b == ':') {
+					throw unexpectedCharacter(b);
+				}
+				this.arrayStart = false;
+				this.inValue = true;
+				valueStart = i;
+				if (b == '{' || b == '[') {
+					this.depth = 1;
+				}
+				else if (b == '"') {
+					this.inString = true;
+				}
+				else {
+					this.inScalar = true;
+				}
+			}
+		}
+		if (this.inValue) {
+			int start = (valueStart != -1 ? valueStart : offset);
+			appendPending(bytes, start, end - start);
+		}
+		return result;
+	}
+
+	/**
+	 * Signal the end of input, decoding a trailing scalar value, if any.
+	 */
+	List<Object> endOfInput() {
+		if (this.inValue) {
+			if (this.inScalar) {
+				List<Object> result = completeValue(this.pending, 0, -1, 0, null);
+				return (result != null ? result : Collections.emptyList());
+			}
+			throw new DecodingException("JSON decoding error: Unexpected end-of-input within a JSON value");
+		}
+		if (this.arrayDepth > 0) {
+			throw new DecodingException("JSON decoding error: Unexpected end-of-input within a JSON array");
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Decode the value that ends at the given index of the given chunk, and
+	 * that either starts at the given index, or in a previous chunk if
+	 * {@code start} is -1, in which case its bytes are first collected.
+	 */
+	@Nullable
+	private List<Object> completeValue(
+			byte[] bytes, int chunkOffset, int start, int end, @Nullable List<Object> result) {
+
+		Object value;
+		if (start != -1) {
+			checkInMemorySize(end - start);
+			value = this.valueDecoder.decode(bytes, start, end - start);
+		}
+		else {
+			if (bytes != this.pending) {
+				appendPending(bytes, chunkOffset, end - chunkOffset);
+			}
+			int length = this.pendingLength;
+			this.pendingLength = 0;
+			value = this.valueDecoder.decode(this.pending, 0, length);
+		}
+		this.inValue = false;
+		this.inScalar = false;
+		this.depth = 0;
+		this.expectSeparator = (this.arrayDepth > 0);
+		if (value != null) {
+			result = (result != null ? result : new ArrayList<>());
+			result.add(value);
+		}
+		return result;
+	}
+
+	private void appendPending(byte[] bytes, int offset, int length) {
+		checkInMemorySize(this.pendingLength + length);
+		if (this.pendingLength + length > this.pending.length) {
+			int newLength = Math.max(this.pending.length * 2, this.pendingLength + length);
+			byte[] newPending = new byte[newLength];
+			System.arraycopy(this.pending, 0, newPending, 0, this.pendingLength);
+			this.pending = newPending;
+		}
+		System.arraycopy(bytes, offset, this.pending, this.pendingLength, length);
+		this.pendingLength += length;
+	}
+
+	private void checkInMemorySize(int byteCount) {
+		if (this.maxInMemorySize >= 0 && byteCount > this.maxInMemorySize) {
+			throw new DataBufferLimitException(
+					"Exceeded limit on max bytes per JSON object: " + this.maxInMemorySize);
+		}
+	}
+
+	private static boolean isScalarEnd(byte b) {
+		return (isWhitespace(b) || b == ',' || b == ']' || b == '}' || b == '[' || b == '{' || b == '"');
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return (b == ' ' || b == '\n' || b == '\r' || b == '\t');
+	}
+
+	private static DecodingException unexpectedCharacter(byte b) {
+		return new DecodingException("JSON decoding error: Unexpected character '" + (char) b + "'");
+	}
+
+
+	/**
+	 * Split the given {@code Flux<DataBuffer>} into top-level JSON values, or
+	 * the elements of top-level arrays, decoded with the given decoder.
+	 * @param dataBuffers the source data buffers, in UTF-8
+	 * @param valueDecoder the decoder for each value; {@code null} values are skipped
+	 * @param maxInMemorySize the maximum size of a single value, or -1 for unlimited
+	 * @return the decoded values
+	 */
+	static Flux<Object> split(Flux<DataBuffer> dataBuffers, ValueDecoder valueDecoder, int maxInMemorySize) {
+		JsonArraySplitter splitter = new JsonArraySplitter(valueDecoder, maxInMemorySize);
+		return dataBuffers.concatMapIterable(splitter::split)
+				.concatWith(Flux.defer(() -> Flux.fromIterable(splitter.endOfInput())));
+	}
+
+
+	/**
+	 * Decoder for a single JSON value.
+	 */
+	@FunctionalInterface
+	interface ValueDecoder {
+
+		/**
+		 * Decode the JSON value in the given range of the given bytes.
+		 * @return the decoded value, or {@code null} to skip the value
+		 */
+		@Nullable
+		Object decode(byte[] bytes, int offset, int length);
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.http.converter.json;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -26,13 +27,16 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -51,6 +55,7 @@ import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
 import com.fasterxml.jackson.databind.ser.FilterProvider;
 
 import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.ResolvableType;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
@@ -81,6 +86,13 @@ import org.springframework.util.TypeUtils;
  */
 public abstract class AbstractJackson2HttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
 
+	/**
+	 * The default number of bytes written between flushes in
+	 * {@linkplain #setIncrementalWrite incremental write} mode: 8 KB.
+	 * @since 6.1
+	 */
+	public static final int DEFAULT_INCREMENTAL_WRITE_BUFFER_SIZE = 8 * 1024;
+
 	private static final Map<String, JsonEncoding> ENCODINGS;
 
 	static {
@@ -103,6 +115,13 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	@Nullable
 	private final PrettyPrinter ssePrettyPrinter;
 
+	private boolean incrementalWrite = false;
+
+	private int incrementalWriteBufferSize = DEFAULT_INCREMENTAL_WRITE_BUFFER_SIZE;
+
+	@Nullable
+	private Jackson2ObjectReaderWriterCache readerWriterCache;
+
 
 	protected AbstractJackson2HttpMessageConverter(ObjectMapper objectMapper) {
 		this.defaultObjectMapper = objectMapper;
@@ -240,9 +259,93 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	private void configurePrettyPrint() {
 		if (this.prettyPrint != null) {
 			this.defaultObjectMapper.configure(SerializationFeature.INDENT_OUTPUT, this.prettyPrint);
+			if (this.readerWriterCache != null) {
+				this.readerWriterCache.evict(this);
+			}
 		}
 	}
 
+	/**
+	 * Whether to write {@link Stream}, {@link Iterator}, and {@link Collection}
+	 * values incrementally, one element at a time, rather than serializing the
+	 * value as a whole. Other {@code Iterable} types such as {@code JsonNode}
+	 * or {@code Path} are always serialized as a whole. Elements are written
+	 * as a JSON array, or as newline-delimited JSON for the
+	 * {@link MediaType#APPLICATION_NDJSON "application/x-ndjson"} content type,
+	 * which then needs to be among the {@link #setSupportedMediaTypes supported
+	 * media types}. The output is flushed every
+	 * {@link #setIncrementalWriteBufferSize buffer size} bytes, and a
+	 * {@code Stream} is closed once written.
+	 * <p>Incremental writes make large collections visible to the client as
+	 * they are being serialized, but still happen on the calling thread. Use
+	 * {@link #writeIncrementally} from a
+	 * {@code org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody}
+	 * to release the request thread while writing.
+	 * <p>Default is {@code false}.
+	 * @since 6.1
+	 */
+	public void setIncrementalWrite(boolean incrementalWrite) {
+		this.incrementalWrite = incrementalWrite;
+	}
+
+	/**
+	 * Return whether to write {@code Stream}, {@code Iterator}, and
+	 * {@code Collection} values incrementally.
+	 * @since 6.1
+	 */
+	public boolean isIncrementalWrite() {
+		return this.incrementalWrite;
+	}
+
+	/**
+	 * Set the number of bytes to write in incremental write mode before
+	 * flushing the output.
+	 * <p>By default this is set to {@link #DEFAULT_INCREMENTAL_WRITE_BUFFER_SIZE}.
+	 * @since 6.1
+	 */
+	public void setIncrementalWriteBufferSize(int incrementalWriteBufferSize) {
+		Assert.isTrue(incrementalWriteBufferSize > 0, "Incremental write buffer size must be greater than 0");
+		this.incrementalWriteBufferSize = incrementalWriteBufferSize;
+	}
+
+	/**
+	 * Return the number of bytes to write in incremental write mode before
+	 * flushing the output.
+	 * @since 6.1
+	 */
+	public int getIncrementalWriteBufferSize() {
+		return this.incrementalWriteBufferSize;
+	}
+
+	/**
+	 * Set a cache to reuse configured {@link ObjectWriter} and
+	 * {@link ObjectReader} instances from, rather than creating and configuring
+	 * new ones for every value to write or read. Writers are cached per target
+	 * type, serialization view, {@link FilterProvider} instance, and content
+	 * type, and readers per target type, deserialization view, and content type.
+	 * <p>The cache may be shared with other converters and with the Jackson
+	 * codecs in {@code org.springframework.http.codec.json}, which keep their
+	 * own instances in it. The instances of this converter are evicted when
+	 * the {@link #setPrettyPrint pretty print} setting is applied. Only use a
+	 * cache if {@link #customizeWriter} and {@link #customizeReader} depend on
+	 * nothing but their arguments.
+	 * <p>By default, no cache is used.
+	 * @since 6.1
+	 */
+	public void setObjectReaderWriterCache(@Nullable Jackson2ObjectReaderWriterCache readerWriterCache) {
+		this.readerWriterCache = readerWriterCache;
+	}
+
+	/**
+	 * Return the configured cache for {@link ObjectWriter} and
+	 * {@link ObjectReader} instances, if any.
+	 * @since 6.1
+	 */
+	@Nullable
+	public Jackson2ObjectReaderWriterCache getObjectReaderWriterCache() {
+		return this.readerWriterCache;
+	}
+
 
 	@Override
 	public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
@@ -377,8 +480,8 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 			if (inputMessage instanceof MappingJacksonInputMessage mappingJacksonInputMessage) {
 				Class<?> deserializationView = mappingJacksonInputMessage.getDeserializationView();
 				if (deserializationView != null) {
-					ObjectReader objectReader = objectMapper.readerWithView(deserializationView).forType(javaType);
-					objectReader = customizeReader(objectReader, javaType);
+					ObjectReader objectReader =
+							getObjectReader(objectMapper, javaType, deserializationView, contentType);
 					if (isUnicode) {
 						return objectReader.readValue(inputStream);
 					}
@@ -389,8 +492,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 				}
 			}
 
-			ObjectReader objectReader = objectMapper.reader().forType(javaType);
-			objectReader = customizeReader(objectReader, javaType);
+			ObjectReader objectReader = getObjectReader(objectMapper, javaType, null, contentType);
 			if (isUnicode) {
 				return objectReader.readValue(inputStream);
 			}
@@ -407,6 +509,25 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	private ObjectReader getObjectReader(ObjectMapper objectMapper, JavaType javaType,
+			@Nullable Class<?> deserializationView, @Nullable MediaType contentType) {
+
+		if (this.readerWriterCache != null) {
+			return this.readerWriterCache.getObjectReader(this, objectMapper, javaType, deserializationView,
+					contentType, () -> createObjectReader(objectMapper, javaType, deserializationView));
+		}
+		return createObjectReader(objectMapper, javaType, deserializationView);
+	}
+
+	private ObjectReader createObjectReader(
+			ObjectMapper objectMapper, JavaType javaType, @Nullable Class<?> deserializationView) {
+
+		ObjectReader objectReader = (deserializationView != null ?
+				objectMapper.readerWithView(deserializationView).forType(javaType) :
+				objectMapper.reader().forType(javaType));
+		return customizeReader(objectReader, javaType);
+	}
+
 	/**
 	 * Subclasses can use this method to customize {@link ObjectReader} used
 	 * for reading values.
@@ -441,6 +562,40 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 			throws IOException, HttpMessageNotWritableException {
 
 		MediaType contentType = outputMessage.getHeaders().getContentType();
+		writeValue(object, type, contentType, outputMessage.getBody(), this.incrementalWrite);
+	}
+
+	/**
+	 * Write the given value to the given stream, writing {@link Stream},
+	 * {@link Iterator}, and {@link Collection} values incrementally as described
+	 * for {@link #setIncrementalWrite}, independent of that setting.
+	 * <p>This is meant for writing from a separate thread, for example from a
+	 * {@code org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody}:
+	 * <pre class="code">
+	 * &#064;GetMapping(path = "/orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	 * public StreamingResponseBody orders() {
+	 *     Stream&lt;Order&gt; orders = this.repository.streamAll();
+	 *     return outputStream -&gt; this.converter.writeIncrementally(
+	 *             orders, null, MediaType.APPLICATION_NDJSON, outputStream);
+	 * }
+	 * </pre>
+	 * @param object the value to write, possibly wrapped in a {@link MappingJacksonValue}
+	 * @param type the type of the value, used to determine the element type (can be {@code null})
+	 * @param contentType the content type to write (can be {@code null})
+	 * @param outputStream the stream to write to, which is not closed
+	 * @throws IOException in case of I/O errors
+	 * @throws HttpMessageNotWritableException in case of conversion errors
+	 * @since 6.1
+	 */
+	public void writeIncrementally(Object object, @Nullable Type type, @Nullable MediaType contentType,
+			OutputStream outputStream) throws IOException, HttpMessageNotWritableException {
+
+		writeValue(object, type, contentType, outputStream, true);
+	}
+
+	private void writeValue(Object object, @Nullable Type type, @Nullable MediaType contentType,
+			OutputStream body, boolean incremental) throws IOException {
+
 		JsonEncoding encoding = getJsonEncoding(contentType);
 
 		Class<?> clazz = (object instanceof MappingJacksonValue mappingJacksonValue ?
@@ -448,7 +603,12 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		ObjectMapper objectMapper = selectObjectMapper(clazz, contentType);
 		Assert.state(objectMapper != null, () -> "No ObjectMapper for " + clazz.getName());
 
-		OutputStream outputStream = StreamUtils.nonClosing(outputMessage.getBody());
+		OutputStream outputStream = StreamUtils.nonClosing(body);
+		ByteCountingOutputStream countingStream = null;
+		if (incremental && isIncrementallyWritable(object)) {
+			countingStream = new ByteCountingOutputStream(outputStream);
+			outputStream = countingStream;
+		}
 		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, encoding)) {
 			writePrefix(generator, object);
 
@@ -462,25 +622,21 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 				serializationView = mappingJacksonValue.getSerializationView();
 				filters = mappingJacksonValue.getFilters();
 			}
-			if (type != null && TypeUtils.isAssignable(type, value.getClass())) {
-				javaType = getJavaType(type, null);
-			}
 
-			ObjectWriter objectWriter = (serializationView != null ?
-					objectMapper.writerWithView(serializationView) : objectMapper.writer());
-			if (filters != null) {
-				objectWriter = objectWriter.with(filters);
+			if (countingStream != null) {
+				JavaType elementType = getElementType(type, value);
+				ObjectWriter objectWriter =
+						getObjectWriter(objectMapper, elementType, serializationView, filters, contentType);
+				writeElements(generator, objectWriter, value, countingStream, contentType);
 			}
-			if (javaType != null && (javaType.isContainerType() || javaType.isTypeOrSubTypeOf(Optional.class))) {
-				objectWriter = objectWriter.forType(javaType);
-			}
-			SerializationConfig config = objectWriter.getConfig();
-			if (contentType != null && contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM) &&
-					config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
-				objectWriter = objectWriter.with(this.ssePrettyPrinter);
+			else {
+				if (type != null && TypeUtils.isAssignable(type, value.getClass())) {
+					javaType = getJavaType(type, null);
+				}
+				ObjectWriter objectWriter =
+						getObjectWriter(objectMapper, javaType, serializationView, filters, contentType);
+				objectWriter.writeValue(generator, value);
 			}
-			objectWriter = customizeWriter(objectWriter, javaType, contentType);
-			objectWriter.writeValue(generator, value);
 
 			writeSuffix(generator, object);
 			generator.flush();
@@ -493,6 +649,92 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	private ObjectWriter getObjectWriter(ObjectMapper objectMapper, @Nullable JavaType javaType,
+			@Nullable Class<?> serializationView, @Nullable FilterProvider filters, @Nullable MediaType contentType) {
+
+		if (this.readerWriterCache != null) {
+			return this.readerWriterCache.getObjectWriter(this, objectMapper, javaType, serializationView, contentType,
+					filters, () -> createObjectWriter(objectMapper, javaType, serializationView, filters, contentType));
+		}
+		return createObjectWriter(objectMapper, javaType, serializationView, filters, contentType);
+	}
+
+	private ObjectWriter createObjectWriter(ObjectMapper objectMapper, @Nullable JavaType javaType,
+			@Nullable Class<?> serializationView, @Nullable FilterProvider filters, @Nullable MediaType contentType) {
+
+		ObjectWriter objectWriter = (serializationView != null ?
+				objectMapper.writerWithView(serializationView) : objectMapper.writer());
+		if (filters != null) {
+			objectWriter = objectWriter.with(filters);
+		}
+		if (javaType != null && (javaType.isContainerType() || javaType.isTypeOrSubTypeOf(Optional.class))) {
+			objectWriter = objectWriter.forType(javaType);
+		}
+		SerializationConfig config = objectWriter.getConfig();
+		if (contentType != null && contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM) &&
+				config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+			objectWriter = objectWriter.with(this.ssePrettyPrinter);
+		}
+		return customizeWriter(objectWriter, javaType, contentType);
+	}
+
+	private static boolean isIncrementallyWritable(Object object) {
+		Object value = (object instanceof MappingJacksonValue mappingJacksonValue ?
+				mappingJacksonValue.getValue() : object);
+		return (value instanceof Stream<?> || value instanceof Iterator<?> || value instanceof Collection<?>);
+	}
+
+	@Nullable
+	private JavaType getElementType(@Nullable Type type, Object value) {
+		if (type == null || !TypeUtils.isAssignable(type, value.getClass())) {
+			return null;
+		}
+		ResolvableType resolvableType = ResolvableType.forType(type);
+		Class<?> containerType = (value instanceof Stream<?> ? Stream.class :
+				value instanceof Iterator<?> ? Iterator.class : Collection.class);
+		ResolvableType elementType = resolvableType.as(containerType).getGeneric();
+		return (elementType.resolve() != null ? getJavaType(elementType.getType(), null) : null);
+	}
+
+	private void writeElements(JsonGenerator generator, ObjectWriter objectWriter, Object value,
+			ByteCountingOutputStream countingStream, @Nullable MediaType contentType) throws IOException {
+
+		boolean lineDelimited = (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON));
+		objectWriter = objectWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		if (lineDelimited) {
+			objectWriter = objectWriter.without(SerializationFeature.INDENT_OUTPUT);
+			generator.setRootValueSeparator(null);
+		}
+		else {
+			generator.writeStartArray();
+		}
+		Stream<?> stream = (value instanceof Stream<?> s ? s : null);
+		try {
+			Iterator<?> iterator = (stream != null ? stream.iterator() :
+					value instanceof Iterator<?> it ? it : ((Collection<?>) value).iterator());
+			long flushed = 0;
+			while (iterator.hasNext()) {
+				objectWriter.writeValue(generator, iterator.next());
+				if (lineDelimited) {
+					generator.writeRaw('\n');
+				}
+				long written = countingStream.getByteCount() + Math.max(generator.getOutputBuffered(), 0);
+				if (written - flushed >= this.incrementalWriteBufferSize) {
+					generator.flush();
+					flushed = written;
+				}
+			}
+		}
+		finally {
+			if (stream != null) {
+				stream.close();
+			}
+		}
+		if (!lineDelimited) {
+			generator.writeEndArray();
+		}
+	}
+
 	/**
 	 * Subclasses can use this method to customize {@link ObjectWriter} used
 	 * for writing values.
@@ -568,4 +810,33 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		return super.getContentLength(object, contentType);
 	}
 
+
+	/**
+	 * OutputStream that counts the bytes written through it.
+	 */
+	private static class ByteCountingOutputStream extends FilterOutputStream {
+
+		private long byteCount;
+
+		ByteCountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			this.byteCount++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+			this.byteCount += len;
+		}
+
+		long getByteCount() {
+			return this.byteCount;
+		}
+	}
+
 }
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.converter.json;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.MimeType;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Bounded cache of configured Jackson {@link ObjectWriter} and
+ * {@link ObjectReader} instances, which are immutable and can therefore be
+ * reused across requests instead of being created and configured for every
+ * value to write or read.
+ *
+ * <p>Entries are keyed by their owner, i.e. the codec or converter instance
+ * that creates and customizes them, the {@link ObjectMapper} instance, the
+ * target type, the JSON view, the MIME type, and, for writers, the
+ * {@link FilterProvider} instance. The least recently used entries are
+ * evicted once the cache limit is reached.
+ *
+ * <p>A single instance can be shared by the Jackson codecs in
+ * {@code org.springframework.http.codec.json} and the Jackson message
+ * converters in this package. Note that the cache has no knowledge of changes
+ * to the configuration of an {@code ObjectMapper} after writers and readers
+ * have been created from it: call {@link #evict(Object)} for the owners that
+ * use it, or {@link #clear()}, in such a case.
+ *
+ * @since 6.1
+ * @see AbstractJackson2HttpMessageConverter#setObjectReaderWriterCache
+ * @see org.springframework.http.codec.json.Jackson2CodecSupport#setObjectReaderWriterCache
+ */
+public class Jackson2ObjectReaderWriterCache {
+
+	/**
+	 * The default maximum number of cached writers and readers: 256.
+	 */
+	public static final int DEFAULT_CACHE_LIMIT = 256;
+
+
+	private final ConcurrentLruCache<Key, Object> cache;
+
+	// Keys of created entries, for eviction by owner (guarded by itself)
+	private final Set<Key> keys = new HashSet<>();
+
+
+	/**
+	 * Create a cache with the {@link #DEFAULT_CACHE_LIMIT default cache limit}.
+	 */
+	public Jackson2ObjectReaderWriterCache() {
+		this(DEFAULT_CACHE_LIMIT);
+	}
+
+	/**
+	 * Create a cache with the given maximum number of cached writers and readers.
+	 * @param cacheLimit the cache limit
+	 */
+	public Jackson2ObjectReaderWriterCache(int cacheLimit) {
+		Assert.isTrue(cacheLimit > 0, "Cache limit must be greater than 0");
+		this.cache = new ConcurrentLruCache<>(cacheLimit, Key::createValue);
+	}
+
+
+	/**
+	 * Return the cached writer for the given key components, creating it
+	 * through the given factory if necessary.
+	 * @param owner the codec or converter that the writer is cached for
+	 * @param objectMapper the mapper that the writer is created from
+	 * @param targetType the target type, e.g. a
+	 * {@link org.springframework.core.ResolvableType} or a Jackson
+	 * {@link com.fasterxml.jackson.databind.JavaType} (can be {@code null})
+	 * @param jsonView the JSON view (can be {@code null})
+	 * @param mimeType the MIME type to write (can be {@code null})
+	 * @param filters the filters to apply (can be {@code null})
+	 * @param writerFactory the factory for the writer, in case of a cache miss
+	 * @return the writer
+	 */
+	public ObjectWriter getObjectWriter(Object owner, ObjectMapper objectMapper, @Nullable Object targetType,
+			@Nullable Class<?> jsonView, @Nullable MimeType mimeType, @Nullable FilterProvider filters,
+			Supplier<ObjectWriter> writerFactory) {
+
+		return (ObjectWriter) get(
+				new Key(owner, false, objectMapper, targetType, jsonView, mimeType, filters, writerFactory));
+	}
+
+	/**
+	 * Return the cached reader for the given key components, creating it
+	 * through the given factory if necessary.
+	 * @param owner the codec or converter that the reader is cached for
+	 * @param objectMapper the mapper that the reader is created from
+	 * @param targetType the target type, e.g. a
+	 * {@link org.springframework.core.ResolvableType} or a Jackson
+	 * {@link com.fasterxml.jackson.databind.JavaType}
+	 * @param jsonView the JSON view (can be {@code null})
+	 * @param mimeType the MIME type to read (can be {@code null})
+	 * @param readerFactory the factory for the reader, in case of a cache miss
+	 * @return the reader
+	 */
+	public ObjectReader getObjectReader(Object owner, ObjectMapper objectMapper, Object targetType,
+			@Nullable Class<?> jsonView, @Nullable MimeType mimeType, Supplier<ObjectReader> readerFactory) {
+
+		return (ObjectReader) get(
+				new Key(owner, true, objectMapper, targetType, jsonView, mimeType, null, readerFactory));
+	}
+
+	private Object get(Key key) {
+		Object value = this.cache.get(key);
+		if (key.isValueCreated()) {
+			// Track the key of a new entry, pruning keys evicted from the cache in the meantime
+			synchronized (this.keys) {
+				this.keys.add(key);
+				if (this.keys.size() > 2 * this.cache.capacity()) {
+					this.keys.removeIf(existing -> !this.cache.contains(existing));
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Return the number of currently cached writers and readers.
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Remove the writers and readers cached for the given owner, e.g. after
+	 * a change to the configuration of its {@code ObjectMapper}, leaving those
+	 * of other owners in place.
+	 * @param owner the codec or converter to remove cached instances for
+	 */
+	public void evict(Object owner) {
+		synchronized (this.keys) {
+			for (Iterator<Key> iterator = this.keys.iterator(); iterator.hasNext();) {
+				Key key = iterator.next();
+				if (key.owner == owner) {
+					this.cache.remove(key);
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached writers and readers, e.g. after a change to the
+	 * configuration of an {@code ObjectMapper} shared by several owners.
+	 */
+	public void clear() {
+		synchronized (this.keys) {
+			this.cache.clear();
+			this.keys.clear();
+		}
+	}
+
+
+	/**
+	 * Cache key, holding the factory to use on a cache miss, which does not
+	 * take part in equality. The factory is released once the value has been
+	 * created, since it may capture per-request state, e.g. hints that hold
+	 * the Reactor context, which must not be retained by the cached key.
+	 */
+	private static final class Key {
+
+		private final Object owner;
+
+		private final boolean reader;
+
+		private final ObjectMapper objectMapper;
+
+		@Nullable
+		private final Object targetType;
+
+		@Nullable
+		private final Class<?> jsonView;
+
+		@Nullable
+		private final MimeType mimeType;
+
+		@Nullable
+		private final FilterProvider filters;
+
+		@Nullable
+		private Supplier<?> factory;
+
+		private final int hashCode;
+
+		Key(Object owner, boolean reader, ObjectMapper objectMapper, @Nullable Object targetType,
+				@Nullable Class<?> jsonView, @Nullable MimeType mimeType, @Nullable FilterProvider filters,
+				Supplier<?> factory) {
+
+			Assert.notNull(owner, "Owner must not be null");
+			this.owner = owner;
+			this.reader = reader;
+			this.objectMapper = objectMapper;
+			this.targetType = targetType;
+			this.jsonView = jsonView;
+			this.mimeType = mimeType;
+			this.filters = filters;
+			this.factory = factory;
+			int hashCode = System.identityHashCode(owner);
+			hashCode = 31 * hashCode + System.identityHashCode(objectMapper);
+			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(targetType);
+			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(jsonView);
+			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(mimeType);
+			hashCode = 31 * hashCode + System.identityHashCode(filters);
+			this.hashCode = 31 * hashCode + Boolean.hashCode(reader);
+		}
+
+		Object createValue() {
+			Supplier<?> factory = this.factory;
+			Assert.state(factory != null, "Value already created");
+			this.factory = null;
+			return factory.get();
+		}
+
+		boolean isValueCreated() {
+			return (this.factory == null);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof Key that &&
+					this.owner == that.owner &&
+					this.reader == that.reader &&
+					this.objectMapper == that.objectMapper &&
+					ObjectUtils.nullSafeEquals(this.targetType, that.targetType) &&
+					this.jsonView == that.jsonView &&
+					ObjectUtils.nullSafeEquals(this.mimeType, that.mimeType) &&
+					this.filters == that.filters));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+}
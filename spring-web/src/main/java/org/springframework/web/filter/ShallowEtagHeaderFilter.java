@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,21 +16,37 @@
 
 package org.springframework.web.filter;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Checksum;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.ServletRequest;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.DigestUtils;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.util.ContentCachingResponseWrapper;
@@ -46,6 +62,13 @@ import org.springframework.web.util.WebUtils;
  * (e.g. a {@link org.springframework.web.servlet.View}) is still rendered.
  * As such, this filter only saves bandwidth, not server performance.
  *
+ * <p>By default, the complete response content is buffered in memory and hashed
+ * once rendered. In {@linkplain #setStreamingDigest streaming digest} mode, the
+ * hash is instead computed as the content is written, while the content is
+ * buffered in memory only up to a {@linkplain #setInMemoryThreshold threshold}
+ * and spilled to a temporary file beyond that. The MD5 hash may also be
+ * replaced with a {@linkplain #setChecksumFactory faster checksum}.
+ *
  * @author Arjen Poutsma
  * @author Rossen Stoyanchev
  * @author Brian Clozel
@@ -61,6 +84,13 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	private boolean writeWeakETag = false;
 
+	private boolean streamingDigest = false;
+
+	private int inMemoryThreshold = 256 * 1024;
+
+	@Nullable
+	private Supplier<? extends Checksum> checksumFactory;
+
 
 	/**
 	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
@@ -81,6 +111,73 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return this.writeWeakETag;
 	}
 
+	/**
+	 * Set whether to compute the ETag hash incrementally, as the response
+	 * content is written, rather than from the complete content once rendered.
+	 * <p>In this mode, the content is buffered in memory up to the
+	 * {@link #setInMemoryThreshold in-memory threshold} and in a temporary
+	 * file beyond that, so that large responses do not need to be held in
+	 * memory in full. The buffered content is released as soon as the response
+	 * is complete, including when a {@code 304 "Not Modified"} is sent instead.
+	 * <p>Note that {@link #generateETagHeaderValue} is not used in this mode.
+	 * <p>Default is {@code false}.
+	 * @since 6.1
+	 */
+	public void setStreamingDigest(boolean streamingDigest) {
+		this.streamingDigest = streamingDigest;
+	}
+
+	/**
+	 * Return whether to compute the ETag hash as the response content is written.
+	 * @since 6.1
+	 */
+	public boolean isStreamingDigest() {
+		return this.streamingDigest;
+	}
+
+	/**
+	 * Set the maximum number of bytes of response content to buffer in memory
+	 * in {@link #setStreamingDigest streaming digest} mode, beyond which the
+	 * content is written to a temporary file.
+	 * <p>Default is 256 KB.
+	 * @since 6.1
+	 */
+	public void setInMemoryThreshold(int inMemoryThreshold) {
+		Assert.isTrue(inMemoryThreshold >= 0, "In-memory threshold must not be negative");
+		this.inMemoryThreshold = inMemoryThreshold;
+	}
+
+	/**
+	 * Return the maximum number of bytes of response content to buffer in memory
+	 * in streaming digest mode.
+	 * @since 6.1
+	 */
+	public int getInMemoryThreshold() {
+		return this.inMemoryThreshold;
+	}
+
+	/**
+	 * Set a factory for the {@link Checksum} to compute the ETag value with,
+	 * instead of an MD5 hash, e.g. {@code CRC32C::new}, or an adapter for a
+	 * non-cryptographic hash function such as xxHash.
+	 * <p>By default, this is not set and an MD5 hash is used.
+	 * @since 6.1
+	 * @see java.util.zip.CRC32C
+	 */
+	public void setChecksumFactory(@Nullable Supplier<? extends Checksum> checksumFactory) {
+		this.checksumFactory = checksumFactory;
+	}
+
+	/**
+	 * Return the configured factory for the {@link Checksum} to compute the
+	 * ETag value with, if any.
+	 * @since 6.1
+	 */
+	@Nullable
+	public Supplier<? extends Checksum> getChecksumFactory() {
+		return this.checksumFactory;
+	}
+
 
 	/**
 	 * The default value is {@code false} so that the filter may delay the generation
@@ -97,13 +194,25 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 		HttpServletResponse responseToUse = response;
 		if (!isAsyncDispatch(request) && !(response instanceof ConditionalContentCachingResponseWrapper)) {
-			responseToUse = new ConditionalContentCachingResponseWrapper(response, request);
+			responseToUse = new ConditionalContentCachingResponseWrapper(response, request,
+					(this.streamingDigest ? new DigestingContent(this.inMemoryThreshold, this.checksumFactory) : null));
 		}
 
-		filterChain.doFilter(request, responseToUse);
+		try {
+			filterChain.doFilter(request, responseToUse);
 
-		if (!isAsyncStarted(request) && !isContentCachingDisabled(request)) {
-			updateResponse(request, responseToUse);
+			if (!isAsyncStarted(request) && !isContentCachingDisabled(request)) {
+				updateResponse(request, responseToUse);
+			}
+		}
+		finally {
+			if (!isAsyncStarted(request)) {
+				ConditionalContentCachingResponseWrapper wrapper =
+						WebUtils.getNativeResponse(responseToUse, ConditionalContentCachingResponseWrapper.class);
+				if (wrapper != null && wrapper.digestingContent != null) {
+					wrapper.digestingContent.release();
+				}
+			}
 		}
 	}
 
@@ -113,10 +222,16 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		Assert.notNull(wrapper, "ContentCachingResponseWrapper not found");
 		HttpServletResponse rawResponse = (HttpServletResponse) wrapper.getResponse();
 
-		if (isEligibleForEtag(request, wrapper, wrapper.getStatus(), wrapper.getContentInputStream())) {
+		boolean eligible;
+		try (InputStream inputStream = wrapper.getContentInputStream()) {
+			eligible = isEligibleForEtag(request, wrapper, wrapper.getStatus(), inputStream);
+		}
+		if (eligible) {
 			String eTag = wrapper.getHeader(HttpHeaders.ETAG);
 			if (!StringUtils.hasText(eTag)) {
-				eTag = generateETagHeaderValue(wrapper.getContentInputStream(), this.writeWeakETag);
+				eTag = (wrapper.digestingContent != null ?
+						wrapper.digestingContent.getETagHeaderValue(this.writeWeakETag) :
+						generateETagHeaderValue(wrapper.getContentInputStream(), this.writeWeakETag));
 				rawResponse.setHeader(HttpHeaders.ETAG, eTag);
 			}
 			if (new ServletWebRequest(request, rawResponse).checkNotModified(eTag)) {
@@ -158,13 +273,19 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	/**
 	 * Generate the ETag header value from the given response body byte array.
-	 * <p>The default implementation generates an MD5 hash.
+	 * <p>The default implementation generates an MD5 hash, or uses the
+	 * {@link #setChecksumFactory configured checksum}, if any.
 	 * @param inputStream the response body as an InputStream
 	 * @param isWeak whether the generated ETag should be weak
 	 * @return the ETag header value
 	 * @see org.springframework.util.DigestUtils
 	 */
 	protected String generateETagHeaderValue(InputStream inputStream, boolean isWeak) throws IOException {
+		if (this.checksumFactory != null) {
+			Checksum checksum = this.checksumFactory.get();
+			StreamUtils.drain(new CheckedInputStream(inputStream, checksum));
+			return formatETagHeaderValue(Long.toHexString(checksum.getValue()), isWeak);
+		}
 		// length of W/ + " + 0 + 32bits md5 hash + "
 		StringBuilder builder = new StringBuilder(37);
 		if (isWeak) {
@@ -176,6 +297,10 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return builder.toString();
 	}
 
+	private static String formatETagHeaderValue(String hash, boolean isWeak) {
+		return (isWeak ? "W/" : "") + "\"0" + hash + '"';
+	}
+
 
 	/**
 	 * This method can be used to suppress the content caching response wrapper
@@ -198,32 +323,363 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	/**
 	 * Returns the raw OutputStream, instead of the one that does caching,
-	 * if {@link #isContentCachingDisabled}.
+	 * if {@link #isContentCachingDisabled}. In streaming digest mode, writes
+	 * content to the {@link DigestingContent} instead.
 	 */
 	private static class ConditionalContentCachingResponseWrapper extends ContentCachingResponseWrapper {
 
 		private final HttpServletRequest request;
 
-		ConditionalContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request) {
+		@Nullable
+		private final DigestingContent digestingContent;
+
+		@Nullable
+		private ServletOutputStream digestingOutputStream;
+
+		@Nullable
+		private PrintWriter digestingWriter;
+
+		@Nullable
+		private Long contentLength;
+
+		ConditionalContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+				@Nullable DigestingContent digestingContent) {
+
 			super(response);
 			this.request = request;
+			this.digestingContent = digestingContent;
 		}
 
 		@Override
 		public ServletOutputStream getOutputStream() throws IOException {
-			return (isContentCachingDisabled(this.request) || hasETag() ?
-					getResponse().getOutputStream() : super.getOutputStream());
+			if (isContentCachingDisabled(this.request) || hasETag()) {
+				return getResponse().getOutputStream();
+			}
+			if (this.digestingContent != null) {
+				if (this.digestingOutputStream == null) {
+					this.digestingOutputStream =
+							new DigestingServletOutputStream(getResponse().getOutputStream(), this.digestingContent);
+				}
+				return this.digestingOutputStream;
+			}
+			return super.getOutputStream();
 		}
 
 		@Override
 		public PrintWriter getWriter() throws IOException {
-			return (isContentCachingDisabled(this.request) || hasETag()?
-					getResponse().getWriter() : super.getWriter());
+			if (isContentCachingDisabled(this.request) || hasETag()) {
+				return getResponse().getWriter();
+			}
+			if (this.digestingContent != null) {
+				if (this.digestingWriter == null) {
+					String characterEncoding = getCharacterEncoding();
+					this.digestingWriter = new DigestingPrintWriter(this.digestingContent,
+							(characterEncoding != null ? characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING));
+				}
+				return this.digestingWriter;
+			}
+			return super.getWriter();
 		}
 
 		private boolean hasETag() {
 			return StringUtils.hasText(getHeader(HttpHeaders.ETAG));
 		}
+
+		@Override
+		public void setContentLength(int len) {
+			if (this.digestingContent != null) {
+				this.contentLength = (long) len;
+			}
+			else {
+				super.setContentLength(len);
+			}
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (this.digestingContent != null) {
+				this.contentLength = len;
+			}
+			else {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		@Override
+		public void setBufferSize(int size) {
+			if (this.digestingContent == null) {
+				super.setBufferSize(size);
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			if (this.digestingContent != null) {
+				this.digestingContent.reset();
+			}
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			if (this.digestingContent != null) {
+				this.digestingContent.reset();
+			}
+		}
+
+		@Override
+		public byte[] getContentAsByteArray() {
+			if (this.digestingContent != null) {
+				try (InputStream inputStream = getContentInputStream()) {
+					return inputStream.readAllBytes();
+				}
+				catch (IOException ex) {
+					throw new IllegalStateException("Failed to read buffered response content", ex);
+				}
+			}
+			return super.getContentAsByteArray();
+		}
+
+		@Override
+		public int getContentSize() {
+			if (this.digestingContent != null) {
+				return (int) Math.min(this.digestingContent.size(), Integer.MAX_VALUE);
+			}
+			return super.getContentSize();
+		}
+
+		@Override
+		public InputStream getContentInputStream() {
+			if (this.digestingContent != null) {
+				try {
+					return this.digestingContent.getInputStream();
+				}
+				catch (IOException ex) {
+					throw new IllegalStateException("Failed to read buffered response content", ex);
+				}
+			}
+			return super.getContentInputStream();
+		}
+
+		@Override
+		protected void copyBodyToResponse(boolean complete) throws IOException {
+			if (this.digestingContent == null) {
+				super.copyBodyToResponse(complete);
+				return;
+			}
+			if (this.digestingContent.size() > 0) {
+				HttpServletResponse rawResponse = (HttpServletResponse) getResponse();
+				if ((complete || this.contentLength != null) && !rawResponse.isCommitted()) {
+					if (rawResponse.getHeader(HttpHeaders.TRANSFER_ENCODING) == null) {
+						rawResponse.setContentLengthLong(complete ? this.digestingContent.size() : this.contentLength);
+					}
+					this.contentLength = null;
+				}
+				this.digestingContent.writeTo(rawResponse.getOutputStream());
+				this.digestingContent.release();
+				if (complete) {
+					rawResponse.flushBuffer();
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Response content buffer that computes the ETag hash as content is written,
+	 * holding the content in memory up to a threshold and in a temporary file
+	 * beyond that.
+	 */
+	private static final class DigestingContent extends OutputStream {
+
+		private final int inMemoryThreshold;
+
+		@Nullable
+		private final Checksum checksum;
+
+		@Nullable
+		private final MessageDigest messageDigest;
+
+		private final FastByteArrayOutputStream memory = new FastByteArrayOutputStream(1024);
+
+		@Nullable
+		private Path file;
+
+		@Nullable
+		private OutputStream fileOutputStream;
+
+		private long size;
+
+		DigestingContent(int inMemoryThreshold, @Nullable Supplier<? extends Checksum> checksumFactory) {
+			this.inMemoryThreshold = inMemoryThreshold;
+			if (checksumFactory != null) {
+				this.checksum = checksumFactory.get();
+				this.messageDigest = null;
+			}
+			else {
+				this.checksum = null;
+				try {
+					this.messageDigest = MessageDigest.getInstance("MD5");
+				}
+				catch (NoSuchAlgorithmException ex) {
+					throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+				}
+			}
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (this.checksum != null) {
+				this.checksum.update(b, off, len);
+			}
+			else if (this.messageDigest != null) {
+				this.messageDigest.update(b, off, len);
+			}
+			if (this.fileOutputStream == null && this.size + len > this.inMemoryThreshold) {
+				this.file = Files.createTempFile("etag-content", null);
+				this.fileOutputStream = new BufferedOutputStream(Files.newOutputStream(this.file));
+				this.memory.writeTo(this.fileOutputStream);
+				this.memory.reset();
+			}
+			if (this.fileOutputStream != null) {
+				this.fileOutputStream.write(b, off, len);
+			}
+			else {
+				this.memory.write(b, off, len);
+			}
+			this.size += len;
+		}
+
+		long size() {
+			return this.size;
+		}
+
+		String getETagHeaderValue(boolean isWeak) {
+			if (this.checksum != null) {
+				return formatETagHeaderValue(Long.toHexString(this.checksum.getValue()), isWeak);
+			}
+			Assert.state(this.messageDigest != null, "No MessageDigest");
+			return formatETagHeaderValue(HexFormat.of().formatHex(this.messageDigest.digest()), isWeak);
+		}
+
+		InputStream getInputStream() throws IOException {
+			if (this.file != null && this.fileOutputStream != null) {
+				this.fileOutputStream.flush();
+				return Files.newInputStream(this.file);
+			}
+			return this.memory.getInputStream();
+		}
+
+		void writeTo(OutputStream out) throws IOException {
+			if (this.file != null && this.fileOutputStream != null) {
+				this.fileOutputStream.flush();
+				Files.copy(this.file, out);
+			}
+			else {
+				this.memory.writeTo(out);
+			}
+		}
+
+		/**
+		 * Discard the content written so far, and restart the hash computation.
+		 */
+		void reset() {
+			release();
+			if (this.checksum != null) {
+				this.checksum.reset();
+			}
+			else if (this.messageDigest != null) {
+				this.messageDigest.reset();
+			}
+		}
+
+		/**
+		 * Release the buffered content, deleting the temporary file, if any.
+		 */
+		void release() {
+			this.memory.reset();
+			this.size = 0;
+			if (this.file != null) {
+				try {
+					if (this.fileOutputStream != null) {
+						this.fileOutputStream.close();
+					}
+					Files.deleteIfExists(this.file);
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+				this.file = null;
+				this.fileOutputStream = null;
+			}
+		}
+	}
+
+
+	private static class DigestingServletOutputStream extends ServletOutputStream {
+
+		private final ServletOutputStream os;
+
+		private final DigestingContent content;
+
+		DigestingServletOutputStream(ServletOutputStream os, DigestingContent content) {
+			this.os = os;
+			this.content = content;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.content.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.content.write(b, off, len);
+		}
+
+		@Override
+		public boolean isReady() {
+			return this.os.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			this.os.setWriteListener(writeListener);
+		}
+	}
+
+
+	private static class DigestingPrintWriter extends PrintWriter {
+
+		DigestingPrintWriter(DigestingContent content, String characterEncoding)
+				throws UnsupportedEncodingException {
+
+			super(new OutputStreamWriter(content, characterEncoding));
+		}
+
+		@Override
+		public void write(char[] buf, int off, int len) {
+			super.write(buf, off, len);
+			super.flush();
+		}
+
+		@Override
+		public void write(String s, int off, int len) {
+			super.write(s, off, len);
+			super.flush();
+		}
+
+		@Override
+		public void write(int c) {
+			super.write(c);
+			super.flush();
+		}
 	}
 
 }
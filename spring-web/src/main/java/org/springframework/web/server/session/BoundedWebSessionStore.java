@@ -0,0 +1,1065 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.IdGenerator;
+import org.springframework.util.JdkIdGenerator;
+import org.springframework.web.server.WebSession;
+
+/**
+ * In-memory storage for {@link WebSession} instances, bounded in size and
+ * suited to a large number of sessions.
+ *
+ * <p>Unlike {@link InMemoryWebSessionStore}, which periodically scans all
+ * sessions for expiration and fails to store sessions beyond its limit, this
+ * store:
+ * <ul>
+ * <li>Tracks expiration with a hierarchical timing wheel of one second
+ * ticks, so that expired sessions are removed in constant time per session,
+ * without a scan.
+ * <li>Evicts the least recently used session when the
+ * {@linkplain #setMaxSessions maximum number of sessions} is reached.
+ * <li>Optionally {@linkplain #setSerializeAttributes serializes} session
+ * attributes on save into blocks of pooled direct (off-heap) memory, keeping
+ * them out of the garbage-collected heap.
+ * </ul>
+ *
+ * <p>Sessions are partitioned by id into segments, each with its own lock,
+ * least recently used order, and timing wheel, so that concurrent requests
+ * for different sessions rarely contend. The number of segments is derived
+ * from the maximum number of sessions, up to 64 segments from 8192 sessions,
+ * and the limit is divided among them. Eviction then applies per segment,
+ * which makes the least recently used order approximate.
+ *
+ * <p>Each retrieval returns a new {@code WebSession} instance backed by the
+ * stored state of the session. The number of stored sessions, evictions and
+ * expirations is exposed for monitoring, e.g. through gauges and counters of
+ * a metrics registry.
+ *
+ * @since 6.1
+ * @see InMemoryWebSessionStore
+ */
+public class BoundedWebSessionStore implements WebSessionStore {
+
+	private static final IdGenerator idGenerator = new JdkIdGenerator();
+
+	/** Number of bits per wheel level, i.e. 64 slots per level. */
+	private static final int WHEEL_BITS = 6;
+
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	/** Number of wheel levels, spanning 64^4 seconds (about 194 days). */
+	private static final int WHEEL_LEVELS = 4;
+
+	private static final long WHEEL_SPAN = 1L << (WHEEL_BITS * WHEEL_LEVELS);
+
+	/** Number of ticks to catch up beyond which all sessions are checked instead. */
+	private static final long MAX_TICKS_TO_ADVANCE = WHEEL_SIZE * WHEEL_SIZE;
+
+	private static final int MAX_SEGMENTS = 64;
+
+	/** Minimum number of sessions per segment, for eviction to stay close to LRU. */
+	private static final int MIN_SEGMENT_SESSIONS = 128;
+
+
+	private volatile int maxSessions = 10000;
+
+	private boolean serializeAttributes;
+
+	private volatile Clock clock = Clock.system(ZoneId.of("GMT"));
+
+	private final SerializingConverter serializer = new SerializingConverter();
+
+	private final DeserializingConverter deserializer = new DeserializingConverter();
+
+	/** Segments of the store, created on first access to a session. */
+	@Nullable
+	private volatile Segment[] segments;
+
+	private final MemoryPool memoryPool = new MemoryPool();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final AtomicLong expirationCount = new AtomicLong();
+
+
+	/**
+	 * Set the maximum number of sessions that can be stored. Once the limit is
+	 * reached, storing an additional session evicts the least recently used one.
+	 * From 256 sessions, the limit is divided among segments, as described in
+	 * the class-level documentation, and a session is evicted once its segment
+	 * is full. The limit can be changed at any time: stored sessions are then
+	 * redistributed if the number of segments changes, and sessions beyond a
+	 * lower limit are evicted as further sessions are stored.
+	 * <p>By default set to 10000.
+	 * @param maxSessions the maximum number of sessions
+	 */
+	public void setMaxSessions(int maxSessions) {
+		Assert.isTrue(maxSessions > 0, "Max sessions must be greater than 0");
+		synchronized (this) {
+			Segment[] segments = this.segments;
+			if (segments == null) {
+				this.maxSessions = maxSessions;
+				return;
+			}
+			for (Segment segment : segments) {
+				segment.lock.lock();
+			}
+			try {
+				this.maxSessions = maxSessions;
+				int segmentCount = getSegmentCount(maxSessions);
+				if (segmentCount != segments.length) {
+					repartition(segments, segmentCount);
+				}
+			}
+			finally {
+				for (Segment segment : segments) {
+					segment.lock.unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the maximum number of sessions that can be stored.
+	 */
+	public int getMaxSessions() {
+		return this.maxSessions;
+	}
+
+	/**
+	 * Whether to serialize session attributes into direct memory when a session
+	 * is saved, and to deserialize them for each retrieval, rather than keeping
+	 * the attribute map on the heap. Attribute values must then be
+	 * {@link java.io.Serializable}, and changes to the attributes are only
+	 * visible to subsequent retrievals once the session is saved.
+	 * <p>Serialized attributes are stored in fixed-size blocks sliced from
+	 * direct memory slabs of 1 MB. The blocks of a session are returned to
+	 * the pool of the store once the session is removed, evicted, or expired,
+	 * for reuse by other sessions; slabs are kept for the lifetime of the store.
+	 * <p>By default set to {@code false}.
+	 * @param serializeAttributes whether to serialize attributes off-heap
+	 */
+	public void setSerializeAttributes(boolean serializeAttributes) {
+		this.serializeAttributes = serializeAttributes;
+	}
+
+	/**
+	 * Whether session attributes are serialized off-heap.
+	 */
+	public boolean isSerializeAttributes() {
+		return this.serializeAttributes;
+	}
+
+	/**
+	 * Configure the {@link Clock} to use to set lastAccessTime on every created
+	 * session and to calculate if it is expired.
+	 * <p>By default this is {@code Clock.system(ZoneId.of("GMT"))}.
+	 * @param clock the clock to use
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock is required");
+		synchronized (this) {
+			this.clock = clock;
+			Segment[] segments = this.segments;
+			if (segments == null) {
+				return;
+			}
+			Instant now = clock.instant();
+			for (Segment segment : segments) {
+				segment.lock.lock();
+				try {
+					// The clock may have moved back: schedule again from the new time
+					segment.rebuildWheel(toTick(now.toEpochMilli()), now);
+				}
+				finally {
+					segment.lock.unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the configured clock for session lastAccessTime calculations.
+	 */
+	public Clock getClock() {
+		return this.clock;
+	}
+
+	/**
+	 * Return the number of stored sessions.
+	 */
+	public int getSessionCount() {
+		synchronized (this) {
+			Segment[] segments = this.segments;
+			if (segments == null) {
+				return 0;
+			}
+			int count = 0;
+			for (Segment segment : segments) {
+				segment.lock.lock();
+				try {
+					count += segment.entries.size();
+				}
+				finally {
+					segment.lock.unlock();
+				}
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * Return the number of sessions evicted so far to stay within the
+	 * {@linkplain #setMaxSessions maximum number of sessions}.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	/**
+	 * Return the number of sessions removed so far because they expired.
+	 */
+	public long getExpirationCount() {
+		return this.expirationCount.get();
+	}
+
+
+	@Override
+	public Mono<WebSession> createWebSession() {
+		Instant now = this.clock.instant();
+		return Mono.<WebSession>fromSupplier(() -> {
+					SerializedAttributes serialized = (this.serializeAttributes ?
+							new SerializedAttributes(this.memoryPool) : null);
+					Entry entry = new Entry(String.valueOf(idGenerator.generateId()), now, serialized);
+					return new BoundedWebSession(entry, State.NEW);
+				})
+				.subscribeOn(Schedulers.boundedElastic())
+				.publishOn(Schedulers.parallel());
+	}
+
+	@Override
+	public Mono<WebSession> retrieveSession(String id) {
+		Instant now = this.clock.instant();
+		Segment segment = lockSegment(id);
+		Entry entry;
+		try {
+			segment.advance(now);
+			entry = segment.entries.get(id);
+			if (entry == null) {
+				return Mono.empty();
+			}
+			if (entry.isExpired(now)) {
+				segment.expire(entry);
+				return Mono.empty();
+			}
+			entry.lastAccessTime = now;
+			segment.touch(entry);
+		}
+		finally {
+			segment.lock.unlock();
+		}
+		return Mono.just(new BoundedWebSession(entry, State.STARTED));
+	}
+
+	@Override
+	public Mono<Void> removeSession(String id) {
+		Segment segment = lockSegment(id);
+		try {
+			Entry entry = segment.entries.get(id);
+			if (entry != null) {
+				segment.remove(entry);
+			}
+		}
+		finally {
+			segment.lock.unlock();
+		}
+		return Mono.empty();
+	}
+
+	@Override
+	public Mono<WebSession> updateLastAccessTime(WebSession session) {
+		return Mono.fromSupplier(() -> {
+			Assert.isInstanceOf(BoundedWebSession.class, session);
+			Entry entry = ((BoundedWebSession) session).entry;
+			entry.lastAccessTime = this.clock.instant();
+			Segment segment = lockSegment(entry);
+			if (segment != null) {
+				try {
+					segment.touch(entry);
+				}
+				finally {
+					segment.lock.unlock();
+				}
+			}
+			return session;
+		});
+	}
+
+	/**
+	 * Remove expired sessions. Expired sessions are otherwise removed as time
+	 * passes, during calls to {@link #retrieveSession retrieve} sessions or to
+	 * save them. This method can be called to force removal at a specific time.
+	 */
+	public void removeExpiredSessions() {
+		synchronized (this) {
+			Segment[] segments = this.segments;
+			if (segments == null) {
+				return;
+			}
+			Instant now = this.clock.instant();
+			for (Segment segment : segments) {
+				segment.lock.lock();
+				try {
+					segment.advance(now);
+				}
+				finally {
+					segment.lock.unlock();
+				}
+			}
+		}
+	}
+
+
+	private Segment[] getSegments() {
+		Segment[] segments = this.segments;
+		if (segments == null) {
+			synchronized (this) {
+				segments = this.segments;
+				if (segments == null) {
+					segments = createSegments(getSegmentCount(this.maxSessions));
+					this.segments = segments;
+				}
+			}
+		}
+		return segments;
+	}
+
+	private Segment[] createSegments(int segmentCount) {
+		long currentTick = toTick(this.clock.instant().toEpochMilli());
+		Segment[] segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = new Segment(i, segmentCount, currentTick);
+		}
+		return segments;
+	}
+
+	/**
+	 * Move all stored sessions to a new set of segments, in order of last
+	 * access. Must be called with the lock of all current segments held.
+	 */
+	private void repartition(Segment[] oldSegments, int segmentCount) {
+		List<Entry> entries = new ArrayList<>();
+		for (Segment oldSegment : oldSegments) {
+			entries.addAll(oldSegment.entries.values());
+		}
+		entries.sort(Comparator.comparing(entry -> entry.lastAccessTime));
+		Segment[] segments = createSegments(segmentCount);
+		for (Segment segment : segments) {
+			segment.lock.lock();
+		}
+		try {
+			for (Entry entry : entries) {
+				entry.segment.unlink(entry);
+				Segment segment = segments[getSegmentIndex(entry.id, segmentCount)];
+				segment.add(entry);
+				segment.touch(entry);
+			}
+			this.segments = segments;
+		}
+		finally {
+			for (Segment segment : segments) {
+				segment.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Lock the segment for the given session id.
+	 * @return the locked segment
+	 */
+	private Segment lockSegment(String id) {
+		while (true) {
+			Segment[] segments = getSegments();
+			Segment segment = segments[getSegmentIndex(id, segments.length)];
+			segment.lock.lock();
+			if (this.segments == segments) {
+				return segment;
+			}
+			// Repartitioned in the meantime
+			segment.lock.unlock();
+		}
+	}
+
+	/**
+	 * Lock the segment that the given session is stored in.
+	 * @return the locked segment, or {@code null} if the session is not stored
+	 */
+	@Nullable
+	private Segment lockSegment(Entry entry) {
+		while (true) {
+			Segment segment = entry.segment;
+			if (segment == null) {
+				return null;
+			}
+			segment.lock.lock();
+			if (entry.segment == segment) {
+				return segment;
+			}
+			// Removed or moved by a change of id or a repartition in the meantime
+			segment.lock.unlock();
+		}
+	}
+
+	// Operations on stored sessions, synchronized on the entry to serialize
+	// moves between segments; segment locks are always acquired within
+
+	private void store(Entry entry, @Nullable byte[] serializedAttributes) {
+		Instant now = this.clock.instant();
+		synchronized (entry) {
+			Segment segment = lockSegment(entry.id);
+			try {
+				segment.advance(now);
+				segment.store(entry);
+				if (entry.serialized != null) {
+					// Within the lock, so that an eviction cannot release the new content
+					entry.serialized.write(serializedAttributes);
+				}
+			}
+			finally {
+				segment.lock.unlock();
+			}
+		}
+	}
+
+	private void changeId(Entry entry, String newId) {
+		synchronized (entry) {
+			Segment oldSegment = lockSegment(entry);
+			if (oldSegment == null) {
+				entry.id = newId;
+				return;
+			}
+			try {
+				oldSegment.unlink(entry);
+			}
+			finally {
+				oldSegment.lock.unlock();
+			}
+			entry.id = newId;
+			if (entry.invalidated) {
+				if (entry.serialized != null) {
+					entry.serialized.release();
+				}
+				return;
+			}
+			Segment newSegment = lockSegment(newId);
+			try {
+				newSegment.store(entry);
+			}
+			finally {
+				newSegment.lock.unlock();
+			}
+		}
+	}
+
+	private void remove(Entry entry) {
+		synchronized (entry) {
+			Segment segment = lockSegment(entry);
+			if (segment != null) {
+				try {
+					segment.remove(entry);
+				}
+				finally {
+					segment.lock.unlock();
+				}
+			}
+		}
+	}
+
+	private static List<Entry> drain(Node slot) {
+		if (slot.wheelNext == slot) {
+			return List.of();
+		}
+		List<Entry> entries = new ArrayList<>();
+		Node node = slot.wheelNext;
+		while (node != slot) {
+			Node next = node.wheelNext;
+			node.wheelPrev = null;
+			node.wheelNext = null;
+			entries.add((Entry) node);
+			node = next;
+		}
+		slot.wheelPrev = slot;
+		slot.wheelNext = slot;
+		return entries;
+	}
+
+	private static void unlinkLru(Node node) {
+		if (node.lruNext != null) {
+			node.lruPrev.lruNext = node.lruNext;
+			node.lruNext.lruPrev = node.lruPrev;
+			node.lruPrev = null;
+			node.lruNext = null;
+		}
+	}
+
+	private static void unlinkWheel(Node node) {
+		if (node.wheelNext != null) {
+			node.wheelPrev.wheelNext = node.wheelNext;
+			node.wheelNext.wheelPrev = node.wheelPrev;
+			node.wheelPrev = null;
+			node.wheelNext = null;
+		}
+	}
+
+	private static long toTick(long epochMillis) {
+		return Math.floorDiv(epochMillis, 1000);
+	}
+
+	private static int getSegmentCount(int maxSessions) {
+		int count = 1;
+		while (count < MAX_SEGMENTS && count * 2 * MIN_SEGMENT_SESSIONS <= maxSessions) {
+			count <<= 1;
+		}
+		return count;
+	}
+
+	private static int getSegmentIndex(String id, int segmentCount) {
+		int hash = id.hashCode();
+		return (hash ^ (hash >>> 16)) & (segmentCount - 1);
+	}
+
+
+	/**
+	 * Partition of the stored sessions, with its own lock, LRU list, and timing
+	 * wheel. All methods must be called with the lock held.
+	 */
+	private final class Segment {
+
+		final ReentrantLock lock = new ReentrantLock();
+
+		/** Stored sessions by id. */
+		final Map<String, Entry> entries = new HashMap<>();
+
+		/** Sentinel of the list of stored sessions, from least to most recently used. */
+		private final Node lruList = Node.sentinel();
+
+		/** Sentinels of the wheel slots, by level and slot. */
+		private final Node[][] wheel = new Node[WHEEL_LEVELS][WHEEL_SIZE];
+
+		private final int index;
+
+		private final int segmentCount;
+
+		private long currentTick;
+
+		Segment(int index, int segmentCount, long currentTick) {
+			for (Node[] level : this.wheel) {
+				for (int i = 0; i < level.length; i++) {
+					level[i] = Node.sentinel();
+				}
+			}
+			this.index = index;
+			this.segmentCount = segmentCount;
+			this.currentTick = currentTick;
+		}
+
+		/**
+		 * Return the share of this segment in the maximum number of sessions,
+		 * with the remainder of the division spread over the first segments.
+		 */
+		int getMaxEntries() {
+			int maxSessions = BoundedWebSessionStore.this.maxSessions;
+			return maxSessions / this.segmentCount + (this.index < maxSessions % this.segmentCount ? 1 : 0);
+		}
+
+		void store(Entry entry) {
+			if (entry.segment != this) {
+				int maxEntries = getMaxEntries();
+				while (this.entries.size() >= maxEntries) {
+					remove((Entry) this.lruList.lruNext);
+					evictionCount.incrementAndGet();
+				}
+				add(entry);
+			}
+			touch(entry);
+		}
+
+		void add(Entry entry) {
+			this.entries.put(entry.id, entry);
+			entry.segment = this;
+		}
+
+		/**
+		 * Remove the session from this segment, keeping its state, e.g. to
+		 * move it to another segment.
+		 */
+		void unlink(Entry entry) {
+			if (entry.segment == this) {
+				this.entries.remove(entry.id);
+				entry.segment = null;
+				unlinkLru(entry);
+				unlinkWheel(entry);
+			}
+		}
+
+		/**
+		 * Remove the session from this segment, and release its off-heap state.
+		 */
+		void remove(Entry entry) {
+			unlink(entry);
+			if (entry.serialized != null) {
+				entry.serialized.release();
+			}
+		}
+
+		void expire(Entry entry) {
+			remove(entry);
+			entry.invalidated = true;
+			if (entry.attributes != null) {
+				entry.attributes.clear();
+			}
+			expirationCount.incrementAndGet();
+		}
+
+		/**
+		 * Mark the session as most recently used, and schedule its expiration.
+		 */
+		void touch(Entry entry) {
+			unlinkLru(entry);
+			Node last = this.lruList.lruPrev;
+			entry.lruPrev = last;
+			entry.lruNext = this.lruList;
+			last.lruNext = entry;
+			this.lruList.lruPrev = entry;
+			reschedule(entry);
+		}
+
+		/**
+		 * Advance the wheel up to the given time, removing expired sessions.
+		 */
+		void advance(Instant now) {
+			long nowTick = toTick(now.toEpochMilli());
+			if (nowTick - this.currentTick > MAX_TICKS_TO_ADVANCE) {
+				rebuildWheel(nowTick, now);
+				return;
+			}
+			while (this.currentTick < nowTick) {
+				this.currentTick++;
+				// Cascade higher levels first, for their sessions to reach the current slot
+				for (int level = WHEEL_LEVELS - 1; level > 0; level--) {
+					int shift = WHEEL_BITS * level;
+					if ((this.currentTick & ((1L << shift) - 1)) == 0) {
+						for (Entry entry : drain(this.wheel[level][(int) (this.currentTick >>> shift) & WHEEL_MASK])) {
+							schedule(entry);
+						}
+					}
+				}
+				for (Entry entry : drain(this.wheel[0][(int) this.currentTick & WHEEL_MASK])) {
+					expireOrReschedule(entry, now);
+				}
+			}
+		}
+
+		/**
+		 * Move the wheel to the given tick and check all sessions of the segment,
+		 * e.g. after the clock was changed or after a period longer than the
+		 * lower wheel levels.
+		 */
+		void rebuildWheel(long nowTick, Instant now) {
+			this.currentTick = nowTick;
+			for (Entry entry : new ArrayList<>(this.entries.values())) {
+				expireOrReschedule(entry, now);
+			}
+		}
+
+		private void expireOrReschedule(Entry entry, Instant now) {
+			if (entry.isExpired(now)) {
+				expire(entry);
+			}
+			else {
+				// Not expired yet, e.g. after a change of maxIdleTime: keep LRU position
+				reschedule(entry);
+			}
+		}
+
+		private void reschedule(Entry entry) {
+			unlinkWheel(entry);
+			Duration maxIdleTime = entry.maxIdleTime;
+			if (!maxIdleTime.isNegative()) {
+				// Expired once the time is strictly after lastAccessTime + maxIdleTime
+				long deadline = entry.lastAccessTime.toEpochMilli() + maxIdleTime.toMillis();
+				entry.expirationTick = Math.max(toTick(deadline) + 1, this.currentTick + 1);
+				schedule(entry);
+			}
+		}
+
+		/**
+		 * Link the session into the wheel slot for its expiration tick, or into
+		 * the current slot if that tick has passed during a cascade.
+		 */
+		private void schedule(Entry entry) {
+			long expirationTick = Math.max(entry.expirationTick, this.currentTick);
+			long delta = expirationTick - this.currentTick;
+			if (delta >= WHEEL_SPAN) {
+				// Beyond the span of the wheel: checked again when reaching the top level slot
+				expirationTick = this.currentTick + WHEEL_SPAN - 1;
+				delta = WHEEL_SPAN - 1;
+			}
+			int level = 0;
+			while (delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+				level++;
+			}
+			Node slot = this.wheel[level][(int) (expirationTick >>> (WHEEL_BITS * level)) & WHEEL_MASK];
+			Node last = slot.wheelPrev;
+			entry.wheelPrev = last;
+			entry.wheelNext = slot;
+			last.wheelNext = entry;
+			slot.wheelPrev = entry;
+		}
+	}
+
+
+	/**
+	 * Node of the intrusive LRU and wheel lists, also used as list sentinel.
+	 */
+	private static class Node {
+
+		@Nullable
+		Node lruPrev;
+
+		@Nullable
+		Node lruNext;
+
+		@Nullable
+		Node wheelPrev;
+
+		@Nullable
+		Node wheelNext;
+
+		static Node sentinel() {
+			Node node = new Node();
+			node.lruPrev = node;
+			node.lruNext = node;
+			node.wheelPrev = node;
+			node.wheelNext = node;
+			return node;
+		}
+	}
+
+
+	/**
+	 * Stored state of a session, shared by the {@link WebSession} instances
+	 * returned for it.
+	 */
+	private static final class Entry extends Node {
+
+		/** The session id, changed while synchronized on the entry. */
+		volatile String id;
+
+		final Instant creationTime;
+
+		volatile Instant lastAccessTime;
+
+		volatile Duration maxIdleTime = Duration.ofMinutes(30);
+
+		/** The attributes when kept on the heap. */
+		@Nullable
+		final Map<String, Object> attributes;
+
+		/** The attributes when serialized off-heap. */
+		@Nullable
+		final SerializedAttributes serialized;
+
+		/** Whether the session was invalidated or expired. */
+		volatile boolean invalidated;
+
+		/** The segment the session is stored in, if any, changed with its lock held. */
+		@Nullable
+		volatile Segment segment;
+
+		/** The tick at which the session expires, guarded by the segment lock. */
+		long expirationTick;
+
+		Entry(String id, Instant creationTime, @Nullable SerializedAttributes serialized) {
+			this.id = id;
+			this.creationTime = creationTime;
+			this.lastAccessTime = creationTime;
+			this.attributes = (serialized != null ? null : new ConcurrentHashMap<>());
+			this.serialized = serialized;
+		}
+
+		boolean isExpired(Instant now) {
+			return (!this.maxIdleTime.isNegative() && now.minus(this.maxIdleTime).isAfter(this.lastAccessTime));
+		}
+	}
+
+
+	/**
+	 * Pool of fixed-size blocks of direct memory, sliced from slabs allocated
+	 * as needed, and reused once released.
+	 */
+	private static final class MemoryPool {
+
+		static final int BLOCK_SIZE = 256;
+
+		private static final int SLAB_SIZE = 1024 * 1024;
+
+		private final Deque<ByteBuffer> freeBlocks = new ArrayDeque<>();
+
+		synchronized ByteBuffer allocate() {
+			ByteBuffer block = this.freeBlocks.pollLast();
+			if (block == null) {
+				ByteBuffer slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+				for (int offset = BLOCK_SIZE; offset < SLAB_SIZE; offset += BLOCK_SIZE) {
+					this.freeBlocks.add(slab.slice(offset, BLOCK_SIZE));
+				}
+				block = slab.slice(0, BLOCK_SIZE);
+			}
+			return block;
+		}
+
+		synchronized void release(ByteBuffer block) {
+			this.freeBlocks.add(block);
+		}
+	}
+
+
+	/**
+	 * Serialized attributes of a session, in blocks of pooled direct memory
+	 * that are kept for subsequent saves, and returned to the pool on release.
+	 */
+	private static final class SerializedAttributes {
+
+		private final MemoryPool memoryPool;
+
+		private final List<ByteBuffer> blocks = new ArrayList<>();
+
+		private int length;
+
+		SerializedAttributes(MemoryPool memoryPool) {
+			this.memoryPool = memoryPool;
+		}
+
+		synchronized void write(@Nullable byte[] bytes) {
+			this.length = (bytes != null ? bytes.length : 0);
+			int blockCount = (this.length + MemoryPool.BLOCK_SIZE - 1) / MemoryPool.BLOCK_SIZE;
+			while (this.blocks.size() > blockCount) {
+				this.memoryPool.release(this.blocks.remove(this.blocks.size() - 1));
+			}
+			while (this.blocks.size() < blockCount) {
+				this.blocks.add(this.memoryPool.allocate());
+			}
+			for (int i = 0; i < blockCount; i++) {
+				int offset = i * MemoryPool.BLOCK_SIZE;
+				this.blocks.get(i).put(0, bytes, offset, Math.min(MemoryPool.BLOCK_SIZE, this.length - offset));
+			}
+		}
+
+		@Nullable
+		synchronized byte[] read() {
+			if (this.length == 0) {
+				return null;
+			}
+			byte[] bytes = new byte[this.length];
+			for (int i = 0; i < this.blocks.size(); i++) {
+				int offset = i * MemoryPool.BLOCK_SIZE;
+				this.blocks.get(i).get(0, bytes, offset, Math.min(MemoryPool.BLOCK_SIZE, this.length - offset));
+			}
+			return bytes;
+		}
+
+		synchronized void release() {
+			write(null);
+		}
+	}
+
+
+	private class BoundedWebSession implements WebSession {
+
+		private final Entry entry;
+
+		private final Map<String, Object> attributes;
+
+		private final AtomicReference<State> state;
+
+		BoundedWebSession(Entry entry, State state) {
+			this.entry = entry;
+			this.attributes = initAttributes(entry);
+			this.state = new AtomicReference<>(state);
+		}
+
+		@SuppressWarnings("unchecked")
+		private Map<String, Object> initAttributes(Entry entry) {
+			Map<String, Object> attributes = entry.attributes;
+			if (attributes != null) {
+				return attributes;
+			}
+			ConcurrentHashMap<String, Object> result = new ConcurrentHashMap<>();
+			byte[] bytes = (entry.serialized != null ? entry.serialized.read() : null);
+			if (bytes != null) {
+				result.putAll((Map<String, Object>) deserializer.convert(bytes));
+			}
+			return result;
+		}
+
+		@Override
+		public String getId() {
+			return this.entry.id;
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return this.attributes;
+		}
+
+		@Override
+		public Instant getCreationTime() {
+			return this.entry.creationTime;
+		}
+
+		@Override
+		public Instant getLastAccessTime() {
+			return this.entry.lastAccessTime;
+		}
+
+		@Override
+		public void setMaxIdleTime(Duration maxIdleTime) {
+			this.entry.maxIdleTime = maxIdleTime;
+		}
+
+		@Override
+		public Duration getMaxIdleTime() {
+			return this.entry.maxIdleTime;
+		}
+
+		@Override
+		public void start() {
+			this.state.compareAndSet(State.NEW, State.STARTED);
+		}
+
+		@Override
+		public boolean isStarted() {
+			return this.state.get().equals(State.STARTED) || !getAttributes().isEmpty();
+		}
+
+		@Override
+		public Mono<Void> changeSessionId() {
+			return Mono.<Void>fromRunnable(() -> changeId(this.entry, String.valueOf(idGenerator.generateId())))
+					.subscribeOn(Schedulers.boundedElastic())
+					.publishOn(Schedulers.parallel())
+					.then();
+		}
+
+		@Override
+		public Mono<Void> invalidate() {
+			this.state.set(State.EXPIRED);
+			this.entry.invalidated = true;
+			getAttributes().clear();
+			remove(this.entry);
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> save() {
+
+			// Implicitly started session..
+			if (!getAttributes().isEmpty()) {
+				this.state.compareAndSet(State.NEW, State.STARTED);
+			}
+
+			if (isStarted()) {
+				byte[] serializedAttributes = null;
+				if (this.entry.serialized != null) {
+					try {
+						serializedAttributes = serializeAttributes();
+					}
+					catch (SerializationFailedException ex) {
+						return Mono.error(ex);
+					}
+				}
+
+				// Save
+				store(this.entry, serializedAttributes);
+
+				// Unless it was invalidated, possibly through another instance
+				if (this.entry.invalidated) {
+					this.state.set(State.EXPIRED);
+					remove(this.entry);
+					return Mono.error(new IllegalStateException("Session was invalidated"));
+				}
+			}
+
+			return Mono.empty();
+		}
+
+		@Nullable
+		private byte[] serializeAttributes() {
+			if (this.attributes.isEmpty()) {
+				return null;
+			}
+			return serializer.convert(new HashMap<>(this.attributes));
+		}
+
+		@Override
+		public boolean isExpired() {
+			if (this.state.get().equals(State.EXPIRED)) {
+				return true;
+			}
+			if (this.entry.invalidated) {
+				this.state.set(State.EXPIRED);
+				return true;
+			}
+			if (isStarted() && this.entry.isExpired(clock.instant())) {
+				this.state.set(State.EXPIRED);
+				return true;
+			}
+			return false;
+		}
+	}
+
+
+	private enum State { NEW, STARTED, EXPIRED }
+
+}
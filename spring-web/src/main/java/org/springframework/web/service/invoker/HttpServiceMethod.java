@@ -18,9 +18,11 @@ package org.springframework.web.service.invoker;
 
 import java.lang.reflect.Method;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.reactivestreams.Publisher;
@@ -57,12 +59,29 @@ import org.springframework.web.service.annotation.HttpExchange;
  */
 final class HttpServiceMethod {
 
+	/**
+	 * Built-in resolvers that support a parameter or not based on the
+	 * parameter alone, regardless of the argument value.
+	 */
+	private static final Set<Class<?>> PARAMETER_BASED_RESOLVER_TYPES = Set.of(
+			RequestHeaderArgumentResolver.class, RequestBodyArgumentResolver.class,
+			PathVariableArgumentResolver.class, RequestParamArgumentResolver.class,
+			RequestPartArgumentResolver.class, CookieValueArgumentResolver.class,
+			RequestAttributeArgumentResolver.class, UrlArgumentResolver.class,
+			HttpMethodArgumentResolver.class);
+
+
 	private final Method method;
 
+	private final boolean suspendingFunction;
+
 	private final MethodParameter[] parameters;
 
 	private final List<HttpServiceArgumentResolver> argumentResolvers;
 
+	/** Binder per parameter, narrowed down on first use. */
+	private final ArgumentBinder[] argumentBinders;
+
 	private final HttpRequestValuesInitializer requestValuesInitializer;
 
 	private final ResponseFunction responseFunction;
@@ -74,8 +93,12 @@ final class HttpServiceMethod {
 			ReactiveAdapterRegistry reactiveRegistry, Duration blockTimeout) {
 
 		this.method = method;
+		this.suspendingFunction = KotlinDetector.isSuspendingFunction(method);
 		this.parameters = initMethodParameters(method);
 		this.argumentResolvers = argumentResolvers;
+		this.argumentBinders = new ArgumentBinder[this.parameters.length];
+		Arrays.fill(this.argumentBinders, new ArgumentBinder(
+				argumentResolvers.toArray(new HttpServiceArgumentResolver[0]), false));
 		this.requestValuesInitializer = HttpRequestValuesInitializer.create(method, containingClass, embeddedValueResolver);
 		this.responseFunction = ResponseFunction.create(client, method, reactiveRegistry, blockTimeout);
 	}
@@ -103,6 +126,13 @@ final class HttpServiceMethod {
 		return this.method;
 	}
 
+	/**
+	 * Whether the method is a Kotlin suspending function.
+	 */
+	public boolean isSuspendingFunction() {
+		return this.suspendingFunction;
+	}
+
 
 	@Nullable
 	public Object invoke(Object[] arguments) {
@@ -114,17 +144,40 @@ final class HttpServiceMethod {
 	private void applyArguments(HttpRequestValues.Builder requestValues, Object[] arguments) {
 		Assert.isTrue(arguments.length == this.parameters.length, "Method argument mismatch");
 		for (int i = 0; i < arguments.length; i++) {
-			Object value = arguments[i];
-			boolean resolved = false;
-			for (HttpServiceArgumentResolver resolver : this.argumentResolvers) {
-				if (resolver.resolve(value, this.parameters[i], requestValues)) {
-					resolved = true;
-					break;
+			ArgumentBinder binder = this.argumentBinders[i];
+			boolean resolved = (binder.narrowed() ?
+					binder.bind(arguments[i], this.parameters[i], requestValues) :
+					bindAndNarrow(i, arguments[i], requestValues));
+			if (!resolved) {
+				throw new IllegalStateException(formatArgumentError(this.parameters[i], "No suitable resolver"));
+			}
+		}
+	}
+
+	/**
+	 * Resolve the argument with all resolvers, and narrow down the binder for
+	 * the parameter to skip built-in resolvers that declined it.
+	 */
+	private boolean bindAndNarrow(int index, @Nullable Object argument, HttpRequestValues.Builder requestValues) {
+		MethodParameter parameter = this.parameters[index];
+		List<HttpServiceArgumentResolver> candidates = new ArrayList<>(this.argumentResolvers.size());
+		for (int i = 0; i < this.argumentResolvers.size(); i++) {
+			HttpServiceArgumentResolver resolver = this.argumentResolvers.get(i);
+			if (resolver.resolve(argument, parameter, requestValues)) {
+				candidates.add(resolver);
+				if (!PARAMETER_BASED_RESOLVER_TYPES.contains(resolver.getClass())) {
+					// May decline other values: keep the remaining resolvers
+					candidates.addAll(this.argumentResolvers.subList(i + 1, this.argumentResolvers.size()));
 				}
+				this.argumentBinders[index] = new ArgumentBinder(
+						candidates.toArray(new HttpServiceArgumentResolver[0]), true);
+				return true;
+			}
+			if (!PARAMETER_BASED_RESOLVER_TYPES.contains(resolver.getClass())) {
+				candidates.add(resolver);
 			}
-			int index = i;
-			Assert.state(resolved, () -> formatArgumentError(this.parameters[index], "No suitable resolver"));
 		}
+		return false;
 	}
 
 	private static String formatArgumentError(MethodParameter param, String message) {
@@ -133,22 +186,43 @@ final class HttpServiceMethod {
 	}
 
 
+	/**
+	 * Resolvers to try in order for a parameter.
+	 * @param resolvers the candidate resolvers
+	 * @param narrowed whether resolvers known to decline the parameter were removed
+	 */
+	private record ArgumentBinder(HttpServiceArgumentResolver[] resolvers, boolean narrowed) {
+
+		public boolean bind(
+				@Nullable Object argument, MethodParameter parameter, HttpRequestValues.Builder requestValues) {
+
+			for (HttpServiceArgumentResolver resolver : this.resolvers) {
+				if (resolver.resolve(argument, parameter, requestValues)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+
 	/**
 	 * Factory for {@link HttpRequestValues} with values extracted from the type
 	 * and method-level {@link HttpExchange @HttpRequest} annotations.
+	 * <p>Header values are formatted upfront, once per method.
 	 */
 	private record HttpRequestValuesInitializer(
 			@Nullable HttpMethod httpMethod, @Nullable String url,
-			@Nullable MediaType contentType, @Nullable List<MediaType> acceptMediaTypes) {
+			@Nullable String contentType, @Nullable String accept) {
 
 		private HttpRequestValuesInitializer(
 				HttpMethod httpMethod, @Nullable String url,
-				@Nullable MediaType contentType, @Nullable List<MediaType> acceptMediaTypes) {
+				@Nullable String contentType, @Nullable String accept) {
 
 			this.url = url;
 			this.httpMethod = httpMethod;
 			this.contentType = contentType;
-			this.acceptMediaTypes = acceptMediaTypes;
+			this.accept = accept;
 		}
 
 		public HttpRequestValues.Builder initializeRequestValuesBuilder() {
@@ -160,10 +234,10 @@ final class HttpServiceMethod {
 				requestValues.setUriTemplate(this.url);
 			}
 			if (this.contentType != null) {
-				requestValues.setContentType(this.contentType);
+				requestValues.addHeader(HttpHeaders.CONTENT_TYPE, this.contentType);
 			}
-			if (this.acceptMediaTypes != null) {
-				requestValues.setAccept(this.acceptMediaTypes);
+			if (this.accept != null) {
+				requestValues.addHeader(HttpHeaders.ACCEPT, this.accept);
 			}
 			return requestValues;
 		}
@@ -185,7 +259,16 @@ final class HttpServiceMethod {
 			MediaType contentType = initContentType(annot1, annot2);
 			List<MediaType> acceptableMediaTypes = initAccept(annot1, annot2);
 
-			return new HttpRequestValuesInitializer(httpMethod, url, contentType, acceptableMediaTypes);
+			HttpHeaders headers = new HttpHeaders();
+			if (contentType != null) {
+				headers.setContentType(contentType);
+			}
+			if (acceptableMediaTypes != null) {
+				headers.setAccept(acceptableMediaTypes);
+			}
+
+			return new HttpRequestValuesInitializer(httpMethod, url,
+					headers.getFirst(HttpHeaders.CONTENT_TYPE), headers.getFirst(HttpHeaders.ACCEPT));
 		}
 
 		@Nullable
@@ -98,6 +98,10 @@ class LiteralPathElement extends PathElement {
 		return this.len;
 	}
 
+	boolean isCaseSensitive() {
+		return this.caseSensitive;
+	}
+
 	@Override
 	public char[] getChars() {
 		return this.text.toCharArray();
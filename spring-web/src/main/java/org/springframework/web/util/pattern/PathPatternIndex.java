@@ -0,0 +1,227 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.PathContainer.Element;
+import org.springframework.http.server.PathContainer.PathSegment;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Index of values by {@link PathPattern}, for efficient selection of the
+ * values whose patterns may match a given path.
+ *
+ * <p>Patterns are compiled into a trie of path segments: case-sensitive
+ * literal segments become literal children keyed by segment value, other
+ * single-segment elements such as captures, wildcards and regular expressions
+ * share a wildcard child, and "capture the rest" or "wildcard the rest"
+ * elements are attached to the node they follow. Looking up the candidates
+ * for a path then takes time roughly proportional to the depth of the path
+ * rather than to the number of patterns.
+ *
+ * <p>The returned candidates are a superset of the values whose patterns
+ * match the path: callers are expected to perform the actual
+ * {@link PathPattern#matches matching} against the candidates, for example
+ * as part of evaluating further request conditions. Values added without
+ * patterns are always returned as candidates.
+ *
+ * <p>This class is not thread-safe for concurrent modification and lookup;
+ * callers need to guard modifications with appropriate locking.
+ *
+ * @since 6.1
+ * @param <T> the type of value to index
+ */
+public class PathPatternIndex<T> {
+
+	private final Node<T> root = new Node<>();
+
+	private final Set<T> unindexedValues = new LinkedHashSet<>();
+
+	private final Map<T, List<Node<T>>> valueNodes = new HashMap<>();
+
+
+	/**
+	 * Add the given value for the given patterns.
+	 * @param value the value to add
+	 * @param patterns the patterns for the value, or {@code null} if the value
+	 * cannot be indexed and should always be considered a candidate
+	 */
+	public void add(T value, @Nullable Collection<PathPattern> patterns) {
+		Assert.notNull(value, "Value must not be null");
+		remove(value);
+		if (patterns == null) {
+			this.unindexedValues.add(value);
+			return;
+		}
+		List<Node<T>> nodes = new ArrayList<>(patterns.size());
+		for (PathPattern pattern : patterns) {
+			nodes.add(addPattern(pattern, value));
+		}
+		this.valueNodes.put(value, nodes);
+	}
+
+	private Node<T> addPattern(PathPattern pattern, T value) {
+		Node<T> node = this.root;
+		PathElement element = pattern.getHeadSection();
+		while (element != null) {
+			if (element instanceof WildcardTheRestPathElement || element instanceof CaptureTheRestPathElement) {
+				node.addRestValue(value);
+				return node;
+			}
+			if (element instanceof LiteralPathElement literal && literal.isCaseSensitive()) {
+				node = node.getOrCreateLiteralChild(new String(literal.getChars()));
+			}
+			else if (!(element instanceof SeparatorPathElement)) {
+				node = node.getOrCreateWildcardChild();
+			}
+			element = element.next;
+		}
+		node.addValue(value);
+		return node;
+	}
+
+	/**
+	 * Remove the given value along with all of its patterns.
+	 * @param value the value to remove
+	 */
+	public void remove(T value) {
+		if (this.unindexedValues.remove(value)) {
+			return;
+		}
+		List<Node<T>> nodes = this.valueNodes.remove(value);
+		if (nodes != null) {
+			for (Node<T> node : nodes) {
+				node.removeValue(value);
+			}
+		}
+	}
+
+	/**
+	 * Return the values whose patterns may match the given path, including
+	 * all values added without patterns, in no particular order.
+	 * @param path the path to find candidates for
+	 * @return the candidate values (never {@code null})
+	 */
+	public Set<T> getCandidates(PathContainer path) {
+		Set<T> candidates = new LinkedHashSet<>(this.unindexedValues);
+		collectCandidates(this.root, path.elements(), 0, candidates);
+		return candidates;
+	}
+
+	private void collectCandidates(Node<T> node, List<Element> elements, int index, Set<T> candidates) {
+		if (node.restValues != null) {
+			candidates.addAll(node.restValues);
+		}
+		// Separators are implied between segments in the trie
+		while (index < elements.size() && !(elements.get(index) instanceof PathSegment)) {
+			index++;
+		}
+		if (index == elements.size()) {
+			if (node.values != null) {
+				candidates.addAll(node.values);
+			}
+			// A trailing "*" matches a trailing separator, e.g. "/a/*" matches "/a/"
+			if (node.wildcardChild != null && node.wildcardChild.values != null) {
+				candidates.addAll(node.wildcardChild.values);
+			}
+			return;
+		}
+		if (node.literalChildren != null) {
+			String segment = ((PathSegment) elements.get(index)).valueToMatch();
+			Node<T> literalChild = node.literalChildren.get(segment);
+			if (literalChild != null) {
+				collectCandidates(literalChild, elements, index + 1, candidates);
+			}
+		}
+		if (node.wildcardChild != null) {
+			collectCandidates(node.wildcardChild, elements, index + 1, candidates);
+		}
+	}
+
+	/**
+	 * Return the number of values in this index.
+	 */
+	public int size() {
+		return this.unindexedValues.size() + this.valueNodes.size();
+	}
+
+
+	/**
+	 * Node in the trie, representing a path segment position.
+	 */
+	private static final class Node<T> {
+
+		@Nullable
+		private Map<String, Node<T>> literalChildren;
+
+		@Nullable
+		private Node<T> wildcardChild;
+
+		@Nullable
+		private List<T> values;
+
+		@Nullable
+		private List<T> restValues;
+
+		Node<T> getOrCreateLiteralChild(String segment) {
+			if (this.literalChildren == null) {
+				this.literalChildren = new HashMap<>();
+			}
+			return this.literalChildren.computeIfAbsent(segment, key -> new Node<>());
+		}
+
+		Node<T> getOrCreateWildcardChild() {
+			if (this.wildcardChild == null) {
+				this.wildcardChild = new Node<>();
+			}
+			return this.wildcardChild;
+		}
+
+		void addValue(T value) {
+			if (this.values == null) {
+				this.values = new ArrayList<>(1);
+			}
+			this.values.add(value);
+		}
+
+		void addRestValue(T value) {
+			if (this.restValues == null) {
+				this.restValues = new ArrayList<>(1);
+			}
+			this.restValues.add(value);
+		}
+
+		void removeValue(T value) {
+			if (this.values != null) {
+				this.values.remove(value);
+			}
+			if (this.restValues != null) {
+				this.restValues.remove(value);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link JdkClientHttpRequestFactory}.
+ */
+class JdkClientHttpRequestFactoryTests extends AbstractHttpRequestFactoryTests {
+
+	@Override
+	protected ClientHttpRequestFactory createRequestFactory() {
+		return new JdkClientHttpRequestFactory();
+	}
+
+	@Override
+	@Test
+	public void httpMethods() throws Exception {
+		super.httpMethods();
+		assertHttpMethod("patch", HttpMethod.PATCH);
+	}
+
+	@Test
+	void streamingWithoutContentLength() throws Exception {
+		URI uri = URI.create(this.baseUrl + "/methods/post");
+		ClientHttpRequest request = this.factory.createRequest(uri, HttpMethod.POST);
+		byte[] body = "Hello World".repeat(10000).getBytes(StandardCharsets.UTF_8);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> StreamUtils.copy(body, outputStream));
+
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		}
+	}
+
+	@Test
+	void streamingWithThreadPerTaskExecutor() throws Exception {
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+		requestFactory.setExecutor(task -> new Thread(task).start());
+		URI uri = URI.create(this.baseUrl + "/methods/post");
+		ClientHttpRequest request = requestFactory.createRequest(uri, HttpMethod.POST);
+		byte[] body = "Hello World".repeat(10000).getBytes(StandardCharsets.UTF_8);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> StreamUtils.copy(body, outputStream));
+
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		}
+	}
+
+	@Test
+	void streamingFailure() throws Exception {
+		ClientHttpRequest request = this.factory.createRequest(URI.create(this.baseUrl + "/echo"), HttpMethod.POST);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> {
+			outputStream.write(new byte[1024]);
+			throw new IOException("Failure");
+		});
+
+		assertThatIOException().isThrownBy(request::execute).withMessage("Failure");
+	}
+
+	@Test
+	void configurationAfterHttpClientCreated() throws Exception {
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+		requestFactory.setConnectTimeout(1000);
+		requestFactory.setReadTimeout(1000);
+		requestFactory.createRequest(URI.create(this.baseUrl + "/echo"), HttpMethod.GET);
+
+		assertThatIllegalStateException().isThrownBy(() -> requestFactory.setConnectTimeout(2000));
+		requestFactory.setReadTimeout(2000);
+	}
+
+	@Test
+	void configurationWithHttpClient() {
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newHttpClient());
+		assertThatIllegalStateException().isThrownBy(() -> requestFactory.setVersion(HttpClient.Version.HTTP_1_1));
+	}
+
+}
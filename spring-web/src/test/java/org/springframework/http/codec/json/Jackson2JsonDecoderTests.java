@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,10 +41,12 @@ import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.CodecException;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.testfixture.codec.AbstractDecoderTests;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.json.JacksonViewBean.MyJacksonView1;
 import org.springframework.http.codec.json.JacksonViewBean.MyJacksonView3;
+import org.springframework.http.converter.json.Jackson2ObjectReaderWriterCache;
 import org.springframework.util.MimeType;
 import org.springframework.web.testfixture.xml.Pojo;
 
@@ -215,6 +217,30 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTests<Jackson2JsonD
 				.verifyComplete(), null, hints);
 	}
 
+	@Test
+	public void jsonViewWithObjectReaderWriterCache() {
+		Jackson2ObjectReaderWriterCache cache = new Jackson2ObjectReaderWriterCache();
+		this.decoder.setObjectReaderWriterCache(cache);
+		String json = "{\"withView1\" : \"with\", \"withView2\" : \"with\", \"withoutView\" : \"without\"}";
+		ResolvableType elementType = ResolvableType.forClass(JacksonViewBean.class);
+
+		testDecode(Flux.from(stringBuffer(json)), elementType, step -> step
+				.consumeNextWith(value -> {
+					JacksonViewBean bean = (JacksonViewBean) value;
+					assertThat(bean.getWithView1()).isEqualTo("with");
+					assertThat(bean.getWithoutView()).isNull();
+				}), null, Collections.singletonMap(JSON_VIEW_HINT, MyJacksonView1.class));
+
+		testDecode(Flux.from(stringBuffer(json)), elementType, step -> step
+				.consumeNextWith(value -> {
+					JacksonViewBean bean = (JacksonViewBean) value;
+					assertThat(bean.getWithView1()).isNull();
+					assertThat(bean.getWithoutView()).isEqualTo("without");
+				}), null, Collections.singletonMap(JSON_VIEW_HINT, MyJacksonView3.class));
+
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
 	@Test
 	public void invalidData() {
 		Flux<DataBuffer> input = Flux.from(stringBuffer("{\"foofoo\": \"foofoo\", \"barbar\": \"barbar\""));
@@ -309,6 +335,103 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTests<Jackson2JsonD
 				null);
 	}
 
+	@Test
+	public void decodeWithByteLevelArraySplitting() {
+		this.decoder.setByteLevelArraySplitting(true);
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[{\"bar\":\"b1\",\"fo"),
+				stringBuffer("o\":\"f1\"}, {\"bar\":\"b2\",\"foo\":\"f2\"}, null"),
+				stringBuffer("]"));
+
+		testDecodeAll(input, Pojo.class, step -> step
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete());
+	}
+
+	@Test
+	public void decodeStreamWithByteLevelArraySplitting() {
+		this.decoder.setByteLevelArraySplitting(true);
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("{\"bar\":\"b1\",\"foo\":\"f1\"}\n{\"bar\":"),
+				stringBuffer("\"b2\",\"foo\":\"f2\"}\n"));
+
+		testDecode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete(), APPLICATION_NDJSON, null);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void decodeStringsAndScalarsWithByteLevelArraySplitting() {
+		this.decoder.setByteLevelArraySplitting(true);
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[{\"a\":\"x\\\"}]{\"}, {\"a\":\"y\\"),
+				stringBuffer("\\\"}]"));
+		ResolvableType type = ResolvableType.forType(new ParameterizedTypeReference<Map<String, String>>() {});
+
+		testDecode(input, type, step -> step
+				.assertNext(value -> assertThat((Map<String, String>) value).containsEntry("a", "x\"}]{"))
+				.assertNext(value -> assertThat((Map<String, String>) value).containsEntry("a", "y\\"))
+				.verifyComplete(), null, null);
+
+		testDecode(Flux.concat(stringBuffer("[ 1E+"), stringBuffer("2, 3 ]")), BigDecimal.class, step -> step
+				.expectNext(new BigDecimal("1E+2"))
+				.expectNext(new BigDecimal("3"))
+				.verifyComplete());
+	}
+
+	@Test
+	public void invalidDataWithByteLevelArraySplitting() {
+		this.decoder.setByteLevelArraySplitting(true);
+
+		testDecode(Flux.from(stringBuffer("[{\"bar\":\"b1\",\"foo\":\"f1\"}")), Pojo.class, step -> step
+				.expectNext(pojo1)
+				.verifyError(DecodingException.class));
+
+		testDecode(Flux.from(stringBuffer("[{\"bar\":\"b1\",\"foo\":\"f1\"} {}]")), Pojo.class, step -> step
+				.expectNext(pojo1)
+				.verifyError(DecodingException.class));
+
+		testDecode(Flux.from(stringBuffer("[{\"bar\" \"b1\"}]")), Pojo.class, step -> step
+				.verifyError(DecodingException.class));
+	}
+
+	@Test
+	public void maxInMemorySizeWithByteLevelArraySplitting() {
+		this.decoder.setByteLevelArraySplitting(true);
+		this.decoder.setMaxInMemorySize(30);
+
+		testDecode(Flux.concat(stringBuffer("[{\"bar\":\"b1\",\"foo\":\"f1\"},"),
+				stringBuffer("{\"bar\":\"b2\",\"foo\":\"f2\"}]")), Pojo.class, step -> step
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete());
+
+		testDecode(Flux.concat(stringBuffer("[{\"bar\":\"b1\",\"foo\":\"f1\"},"),
+				stringBuffer("{\"bar\":\"b2\",\"foo\":"),
+				stringBuffer("\"f222222222\"}]")), Pojo.class, step -> step
+				.expectNext(pojo1)
+				.verifyError(DataBufferLimitException.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void byteLevelArraySplittingNotAppliedWithComments() {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.enable(JsonParser.Feature.ALLOW_COMMENTS);
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder(mapper);
+		decoder.setByteLevelArraySplitting(true);
+		Flux<DataBuffer> input = Flux.from(stringBuffer("[{\"a\":\"b\"}, /* ] */ {\"a\":\"c\"}]"));
+		ResolvableType type = ResolvableType.forType(new ParameterizedTypeReference<Map<String, String>>() {});
+
+		StepVerifier.create(decoder.decode(input, type, null, Collections.emptyMap()))
+				.assertNext(value -> assertThat((Map<String, String>) value).containsEntry("a", "b"))
+				.assertNext(value -> assertThat((Map<String, String>) value).containsEntry("a", "c"))
+				.verifyComplete();
+	}
+
 
 	private Mono<DataBuffer> stringBuffer(String value) {
 		return stringBuffer(value, StandardCharsets.UTF_8);
@@ -38,6 +38,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.codec.json.JacksonViewBean.MyJacksonView1;
 import org.springframework.http.codec.json.JacksonViewBean.MyJacksonView3;
+import org.springframework.http.converter.json.Jackson2ObjectReaderWriterCache;
 import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
@@ -270,6 +271,29 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTests<Jackson2JsonE
 		);
 	}
 
+	@Test
+	public void jsonViewWithObjectReaderWriterCache() {
+		Jackson2ObjectReaderWriterCache cache = new Jackson2ObjectReaderWriterCache();
+		this.encoder.setObjectReaderWriterCache(cache);
+		JacksonViewBean bean = new JacksonViewBean();
+		bean.setWithView1("with");
+		bean.setWithView2("with");
+		bean.setWithoutView("without");
+		ResolvableType type = ResolvableType.forClass(JacksonViewBean.class);
+
+		for (int i = 0; i < 2; i++) {
+			testEncode(Mono.just(bean), type, null, singletonMap(JSON_VIEW_HINT, MyJacksonView1.class), step -> step
+					.consumeNextWith(expectString("{\"withView1\":\"with\"}"))
+					.verifyComplete()
+			);
+			testEncode(Mono.just(bean), type, null, singletonMap(JSON_VIEW_HINT, MyJacksonView3.class), step -> step
+					.consumeNextWith(expectString("{\"withoutView\":\"without\"}"))
+					.verifyComplete()
+			);
+		}
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
 	@Test  // gh-22771
 	public void encodeWithFlushAfterWriteOff() {
 		ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.converter.json;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link Jackson2ObjectReaderWriterCache}.
+ */
+class Jackson2ObjectReaderWriterCacheTests {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private final Object owner = new Object();
+
+	private final AtomicInteger createCount = new AtomicInteger();
+
+
+	@Test
+	void writersAreCachedByKey() {
+		Jackson2ObjectReaderWriterCache cache = new Jackson2ObjectReaderWriterCache();
+		ResolvableType type = ResolvableType.forClass(String.class);
+		FilterProvider filters = new SimpleFilterProvider();
+
+		ObjectWriter writer = writer(cache, type, null, MediaType.APPLICATION_JSON, null);
+		assertThat(writer(cache, ResolvableType.forClass(String.class), null, MediaType.APPLICATION_JSON, null))
+				.isSameAs(writer);
+		assertThat(this.createCount.get()).isEqualTo(1);
+
+		writer(cache, ResolvableType.forClass(Integer.class), null, MediaType.APPLICATION_JSON, null);
+		writer(cache, type, String.class, MediaType.APPLICATION_JSON, null);
+		writer(cache, type, null, MediaType.APPLICATION_NDJSON, null);
+		writer(cache, type, null, MediaType.APPLICATION_JSON, filters);
+		writer(cache, type, null, MediaType.APPLICATION_JSON, new SimpleFilterProvider());
+		assertThat(this.createCount.get()).isEqualTo(6);
+		assertThat(cache.size()).isEqualTo(6);
+
+		writer(cache, type, null, MediaType.APPLICATION_JSON, filters);
+		assertThat(this.createCount.get()).isEqualTo(6);
+	}
+
+	@Test
+	void readersAndWritersAreCachedSeparately() {
+		Jackson2ObjectReaderWriterCache cache = new Jackson2ObjectReaderWriterCache();
+		ResolvableType type = ResolvableType.forClass(String.class);
+
+		writer(cache, type, null, null, null);
+		ObjectReader reader = reader(cache, type);
+		assertThat(reader(cache, type)).isSameAs(reader);
+		assertThat(this.createCount.get()).isEqualTo(2);
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.clear();
+		assertThat(cache.size()).isEqualTo(0);
+		reader(cache, type);
+		assertThat(this.createCount.get()).isEqualTo(3);
+	}
+
+	@Test
+	void ownersAreCachedSeparately() {
+		Jackson2ObjectReaderWriterCache cache = new Jackson2ObjectReaderWriterCache();
+		ResolvableType type = ResolvableType.forClass(String.class);
+		Object otherOwner = new Object();
+
+		ObjectWriter writer = writer(cache, type, null, MediaType.APPLICATION_JSON, null);
+		ObjectWriter otherWriter = cache.getObjectWriter(otherOwner, this.mapper, type, null,
+				MimeTypeUtils.APPLICATION_JSON, null, () -> this.mapper.writer().withDefaultPrettyPrinter());
+		assertThat(otherWriter).isNotSameAs(writer);
+		assertThat(writer(cache, type, null, MediaType.APPLICATION_JSON, null)).isSameAs(writer);
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.evict(otherOwner);
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(writer(cache, type, null, MediaType.APPLICATION_JSON, null)).isSameAs(writer);
+		assertThat(this.createCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void cacheIsBounded() {
+		Jackson2ObjectReaderWriterCache cache = new Jackson2ObjectReaderWriterCache(2);
+		writer(cache, ResolvableType.forClass(String.class), null, null, null);
+		writer(cache, ResolvableType.forClass(Integer.class), null, null, null);
+		writer(cache, ResolvableType.forClass(Long.class), null, null, null);
+
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+
+	private ObjectWriter writer(Jackson2ObjectReaderWriterCache cache, ResolvableType type,
+			Class<?> jsonView, MediaType mediaType, FilterProvider filters) {
+
+		return cache.getObjectWriter(this.owner, this.mapper, type, jsonView, mediaType, filters, () -> {
+			this.createCount.incrementAndGet();
+			return this.mapper.writer();
+		});
+	}
+
+	private ObjectReader reader(Jackson2ObjectReaderWriterCache cache, ResolvableType type) {
+		return cache.getObjectReader(this.owner, this.mapper, type, null, null, () -> {
+			this.createCount.incrementAndGet();
+			return this.mapper.readerFor(type.toClass());
+		});
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.http.converter.json;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
@@ -25,6 +26,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
@@ -36,6 +40,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.ser.FilterProvider;
 import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
@@ -580,6 +585,165 @@ public class MappingJackson2HttpMessageConverterTests {
 		assertThat(result2).contains("\"property\":\"Value2\"");
 	}
 
+	@Test
+	public void writeStreamIncrementally() throws Exception {
+		this.converter.setIncrementalWrite(true);
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		AtomicBoolean closed = new AtomicBoolean();
+		Stream<PrettyPrintBean> beans = Stream.of("foo", "bar").map(this::prettyPrintBean)
+				.onClose(() -> closed.set(true));
+		ParameterizedTypeReference<Stream<PrettyPrintBean>> typeReference = new ParameterizedTypeReference<>() {};
+
+		this.converter.write(beans, typeReference.getType(), MediaType.APPLICATION_JSON, outputMessage);
+
+		String result = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		assertThat(result).isEqualTo("[{\"name\":\"foo\"},{\"name\":\"bar\"}]");
+		assertThat(closed).isTrue();
+	}
+
+	@Test
+	public void writeSubTypeStreamIncrementally() throws Exception {
+		this.converter.setIncrementalWrite(true);
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		MyBean foo = new MyBean();
+		foo.setString("Foo");
+		foo.setNumber(42);
+		ParameterizedTypeReference<Stream<MyInterface>> typeReference = new ParameterizedTypeReference<>() {};
+
+		this.converter.write(Stream.of(foo), typeReference.getType(), MediaType.APPLICATION_JSON, outputMessage);
+
+		String result = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		assertThat(result).startsWith("[{").endsWith("}]");
+		assertThat(result).contains("\"string\":\"Foo\"");
+		assertThat(result).contains("\"number\":42");
+	}
+
+	@Test
+	public void writeIterableIncrementallyAsNdjson() throws Exception {
+		this.converter.setSupportedMediaTypes(List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON));
+		this.converter.setIncrementalWrite(true);
+		this.converter.setPrettyPrint(true);
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		List<PrettyPrintBean> beans = List.of(prettyPrintBean("foo"), prettyPrintBean("bar"));
+
+		this.converter.write(beans, null, MediaType.APPLICATION_NDJSON, outputMessage);
+
+		String result = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		assertThat(result).isEqualTo("{\"name\":\"foo\"}\n{\"name\":\"bar\"}\n");
+	}
+
+	@Test
+	public void writeJsonNodeWithIncrementalWrite() throws Exception {
+		this.converter.setIncrementalWrite(true);
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		ObjectNode node = new ObjectMapper().createObjectNode().put("name", "foo");
+
+		this.converter.write(node, null, MediaType.APPLICATION_JSON, outputMessage);
+
+		String result = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		assertThat(result).isEqualTo("{\"name\":\"foo\"}");
+	}
+
+	@Test
+	public void writeIncrementallyWithView() throws Exception {
+		JacksonViewBean bean = new JacksonViewBean();
+		bean.setWithView1("with");
+		bean.setWithView2("with");
+		bean.setWithoutView("without");
+		MappingJacksonValue jacksonValue = new MappingJacksonValue(List.of(bean).iterator());
+		jacksonValue.setSerializationView(MyJacksonView1.class);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		this.converter.writeIncrementally(jacksonValue, null, MediaType.APPLICATION_JSON, outputStream);
+
+		String result = outputStream.toString(StandardCharsets.UTF_8);
+		assertThat(result).startsWith("[").endsWith("]");
+		assertThat(result).contains("\"withView1\":\"with\"");
+		assertThat(result).doesNotContain("\"withView2\":\"with\"");
+		assertThat(result).contains("\"withoutView\":\"without\"");
+	}
+
+	@Test
+	public void writeIncrementallyFlushesPeriodically() throws Exception {
+		this.converter.setIncrementalWriteBufferSize(64);
+		AtomicInteger flushCount = new AtomicInteger();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+			@Override
+			public void flush() {
+				flushCount.incrementAndGet();
+			}
+		};
+		Stream<PrettyPrintBean> beans = Stream.iterate(0, i -> i + 1).limit(100).map(i -> prettyPrintBean("bean" + i));
+
+		this.converter.writeIncrementally(beans, null, MediaType.APPLICATION_JSON, outputStream);
+
+		assertThat(outputStream.toString(StandardCharsets.UTF_8)).startsWith("[{\"name\":\"bean0\"},");
+		assertThat(flushCount.get()).isGreaterThan(10);
+	}
+
+	@Test
+	public void writeWithObjectReaderWriterCache() throws Exception {
+		AtomicInteger customizeCount = new AtomicInteger();
+		MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter() {
+			@Override
+			protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable JavaType javaType,
+					@Nullable MediaType contentType) {
+				customizeCount.incrementAndGet();
+				return writer;
+			}
+		};
+		Jackson2ObjectReaderWriterCache cache = new Jackson2ObjectReaderWriterCache();
+		converter.setObjectReaderWriterCache(cache);
+
+		for (int i = 0; i < 3; i++) {
+			MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+			converter.write(prettyPrintBean("foo"), MediaType.APPLICATION_JSON, outputMessage);
+			assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8)).isEqualTo("{\"name\":\"foo\"}");
+		}
+		assertThat(customizeCount.get()).isEqualTo(1);
+		assertThat(cache.size()).isEqualTo(1);
+
+		this.converter.setObjectReaderWriterCache(cache);
+		this.converter.write(prettyPrintBean("foo"), MediaType.APPLICATION_JSON, new MockHttpOutputMessage());
+		assertThat(customizeCount.get()).isEqualTo(1);
+		assertThat(cache.size()).isEqualTo(2);
+
+		converter.setPrettyPrint(true);
+		assertThat(cache.size()).isEqualTo(1);
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		converter.write(prettyPrintBean("foo"), MediaType.APPLICATION_JSON, outputMessage);
+		assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8)).contains(NEWLINE_SYSTEM_PROPERTY);
+		assertThat(customizeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void readWithObjectReaderWriterCache() throws Exception {
+		Jackson2ObjectReaderWriterCache cache = new Jackson2ObjectReaderWriterCache();
+		this.converter.setObjectReaderWriterCache(cache);
+		String body = "{\"withView1\":\"with\",\"withView2\":\"with\",\"withoutView\":\"without\"}";
+
+		for (int i = 0; i < 2; i++) {
+			MockHttpInputMessage inputMessage = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+			inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			JacksonViewBean result = (JacksonViewBean) this.converter.read(JacksonViewBean.class,
+					new MappingJacksonInputMessage(inputMessage.getBody(), inputMessage.getHeaders(), MyJacksonView1.class));
+			assertThat(result.getWithView1()).isEqualTo("with");
+			assertThat(result.getWithView2()).isNull();
+
+			inputMessage = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+			inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			result = (JacksonViewBean) this.converter.read(JacksonViewBean.class, inputMessage);
+			assertThat(result.getWithView2()).isEqualTo("with");
+		}
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	private PrettyPrintBean prettyPrintBean(String name) {
+		PrettyPrintBean bean = new PrettyPrintBean();
+		bean.setName(name);
+		return bean;
+	}
+
 
 	interface MyInterface {
 
@@ -16,8 +16,11 @@
 
 package org.springframework.web.filter;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletResponse;
@@ -266,4 +269,130 @@ public class ShallowEtagHeaderFilterTests {
 		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
 	}
 
+	@Test
+	public void filterNoMatchWithStreamingDigest() throws Exception {
+		this.filter.setStreamingDigest(true);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_OK);
+			FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo("\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		assertThat(response.getContentLength()).as("Invalid Content-Length header").isEqualTo(responseBody.length);
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
+	@Test
+	public void filterNoMatchWithStreamingDigestBeyondInMemoryThreshold() throws Exception {
+		this.filter.setStreamingDigest(true);
+		this.filter.setInMemoryThreshold(16);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = new byte[10000];
+		Arrays.fill(responseBody, (byte) 'a');
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_OK);
+			for (int i = 0; i < responseBody.length; i += 1000) {
+				filterResponse.getOutputStream().write(responseBody, i, 1000);
+			}
+		};
+		filter.doFilter(request, response, filterChain);
+
+		String expectedETag = filter.generateETagHeaderValue(new ByteArrayInputStream(responseBody), false);
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo(expectedETag);
+		assertThat(response.getContentLength()).as("Invalid Content-Length header").isEqualTo(responseBody.length);
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
+	@Test
+	public void filterMatchWithStreamingDigest() throws Exception {
+		this.filter.setStreamingDigest(true);
+		this.filter.setInMemoryThreshold(4);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		String etag = "\"0b10a8db164e0754105b7a99be72e3fe5\"";
+		request.addHeader("If-None-Match", etag);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+			FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+			filterResponse.setContentLength(responseBody.length);
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(304);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo(etag);
+		assertThat(response.containsHeader("Content-Length")).as("Response has Content-Length header").isFalse();
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEmpty();
+	}
+
+	@Test
+	public void filterWriterWithStreamingDigest() throws Exception {
+		this.filter.setStreamingDigest(true);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_OK);
+			filterResponse.getWriter().write("Hello ");
+			filterResponse.getWriter().write("World");
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo("\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		assertThat(response.getContentAsString()).as("Invalid content").isEqualTo("Hello World");
+	}
+
+	@Test
+	public void filterResetBufferWithStreamingDigest() throws Exception {
+		this.filter.setStreamingDigest(true);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.getOutputStream().write("Discarded".getBytes(StandardCharsets.UTF_8));
+			filterResponse.resetBuffer();
+			FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo("\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
+	@Test
+	public void filterNoMatchWithChecksum() throws Exception {
+		this.filter.setChecksumFactory(CRC32C::new);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) ->
+				FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+		filter.doFilter(request, response, filterChain);
+
+		CRC32C checksum = new CRC32C();
+		checksum.update(responseBody);
+		String expectedETag = "\"0" + Long.toHexString(checksum.getValue()) + "\"";
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo(expectedETag);
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+
+		this.filter.setStreamingDigest(true);
+		response = new MockHttpServletResponse();
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo(expectedETag);
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
 }
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.web.server.WebSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link BoundedWebSessionStore}.
+ */
+class BoundedWebSessionStoreTests {
+
+	private final BoundedWebSessionStore store = new BoundedWebSessionStore();
+
+
+	@Test
+	void retrieveSession() {
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.getAttributes().put("foo", "bar");
+		session.save().block();
+
+		WebSession retrieved = this.store.retrieveSession(session.getId()).block();
+		assertThat(retrieved).isNotNull();
+		assertThat(retrieved.getAttributes()).containsEntry("foo", "bar");
+		assertThat(this.store.getSessionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void retrieveExpiredSession() {
+		WebSession session = insertSession();
+
+		// Fast-forward 31 minutes
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+
+		assertThat(this.store.retrieveSession(session.getId()).block()).isNull();
+		assertThat(this.store.getExpirationCount()).isEqualTo(1);
+	}
+
+	@Test
+	void removeExpiredSessionsAsTimePasses() {
+		Instant start = Instant.parse("2023-01-01T00:00:00Z");
+		MutableClock clock = new MutableClock(start);
+		this.store.setClock(clock);
+		IntStream.range(0, 100).forEach(i -> insertSession());
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.setMaxIdleTime(Duration.ofHours(2));
+		session.start();
+		session.save().block();
+
+		// Advance time without setting a new clock, which would check all sessions
+		for (int minutes = 1; minutes <= 31; minutes++) {
+			clock.instant = start.plus(Duration.ofMinutes(minutes));
+			this.store.removeExpiredSessions();
+		}
+		assertThat(this.store.getSessionCount()).isEqualTo(1);
+		assertThat(this.store.getExpirationCount()).isEqualTo(100);
+
+		for (int minutes = 32; minutes <= 121; minutes++) {
+			clock.instant = start.plus(Duration.ofMinutes(minutes));
+			this.store.removeExpiredSessions();
+		}
+		assertThat(this.store.getSessionCount()).isZero();
+		assertThat(this.store.getExpirationCount()).isEqualTo(101);
+	}
+
+	@Test
+	void sessionInvalidatedBeforeSave() {
+		WebSession session1 = insertSession();
+		String id = session1.getId();
+
+		WebSession session2 = this.store.retrieveSession(id).block();
+		assertThat(session2).isNotNull();
+
+		WebSession session3 = this.store.retrieveSession(id).block();
+		assertThat(session3).isNotNull();
+		session3.invalidate().block();
+
+		assertThatIllegalStateException().isThrownBy(() -> session2.save().block());
+		assertThat(this.store.retrieveSession(id).block()).isNull();
+	}
+
+	@Test
+	void evictLeastRecentlyUsedSession() {
+		this.store.setMaxSessions(2);
+		WebSession session1 = insertSession();
+		WebSession session2 = insertSession();
+
+		this.store.retrieveSession(session1.getId()).block();
+		insertSession();
+
+		assertThat(this.store.getSessionCount()).isEqualTo(2);
+		assertThat(this.store.getEvictionCount()).isEqualTo(1);
+		assertThat(this.store.retrieveSession(session1.getId()).block()).isNotNull();
+		assertThat(this.store.retrieveSession(session2.getId()).block()).isNull();
+	}
+
+	@Test
+	void evictWithinMaxSessionsAcrossSegments() {
+		this.store.setMaxSessions(1024);
+		IntStream.range(0, 1100).forEach(i -> insertSession());
+
+		assertThat(this.store.getSessionCount()).isLessThanOrEqualTo(1024);
+		assertThat(this.store.getSessionCount() + this.store.getEvictionCount()).isEqualTo(1100);
+	}
+
+	@Test
+	void evictWithinUnevenMaxSessionsAcrossSegments() {
+		this.store.setMaxSessions(1030);
+		IntStream.range(0, 3000).forEach(i -> insertSession());
+
+		assertThat(this.store.getSessionCount()).isEqualTo(1030);
+	}
+
+	@Test
+	void setMaxSessionsAfterGetters() {
+		assertThat(this.store.getSessionCount()).isEqualTo(0);
+		this.store.setClock(this.store.getClock());
+		this.store.setMaxSessions(3);
+		IntStream.range(0, 4).forEach(i -> insertSession());
+
+		assertThat(this.store.getSessionCount()).isEqualTo(3);
+		assertThat(this.store.getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void setMaxSessionsWithStoredSessions() {
+		IntStream.range(0, 10).forEach(i -> insertSession());
+
+		this.store.setMaxSessions(5);
+		assertThat(this.store.getSessionCount()).isEqualTo(10);
+
+		WebSession session = insertSession();
+		assertThat(this.store.getSessionCount()).isEqualTo(5);
+		assertThat(this.store.getEvictionCount()).isEqualTo(6);
+		assertThat(this.store.retrieveSession(session.getId()).block()).isNotNull();
+	}
+
+	@Test
+	void changeSessionId() {
+		WebSession session = insertSession();
+		String oldId = session.getId();
+
+		session.changeSessionId().block();
+
+		assertThat(session.getId()).isNotEqualTo(oldId);
+		assertThat(this.store.retrieveSession(oldId).block()).isNull();
+		assertThat(this.store.retrieveSession(session.getId()).block()).isNotNull();
+	}
+
+	@Test
+	void serializeAttributes() {
+		this.store.setSerializeAttributes(true);
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.getAttributes().put("foo", "bar");
+		session.save().block();
+
+		WebSession retrieved = this.store.retrieveSession(session.getId()).block();
+		assertThat(retrieved).isNotNull();
+		assertThat(retrieved.getAttributes()).containsEntry("foo", "bar");
+
+		// Not visible until saved
+		retrieved.getAttributes().put("count", 1);
+		assertThat(this.store.retrieveSession(session.getId()).block().getAttributes()).doesNotContainKey("count");
+		retrieved.save().block();
+		assertThat(this.store.retrieveSession(session.getId()).block().getAttributes()).containsEntry("count", 1);
+	}
+
+	@Test
+	void serializeLargeAttributes() {
+		this.store.setSerializeAttributes(true);
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		String value = "a".repeat(2000);
+		session.getAttributes().put("foo", value);
+		session.save().block();
+
+		WebSession retrieved = this.store.retrieveSession(session.getId()).block();
+		assertThat(retrieved).isNotNull();
+		assertThat(retrieved.getAttributes()).containsEntry("foo", value);
+
+		retrieved.getAttributes().put("foo", "bar");
+		retrieved.save().block();
+		assertThat(this.store.retrieveSession(session.getId()).block().getAttributes()).containsEntry("foo", "bar");
+	}
+
+	@Test
+	void serializeAttributesAfterRemoval() {
+		this.store.setSerializeAttributes(true);
+		WebSession session1 = this.store.createWebSession().block();
+		assertThat(session1).isNotNull();
+		session1.getAttributes().put("foo", "a".repeat(1000));
+		session1.save().block();
+		session1.invalidate().block();
+
+		WebSession session2 = this.store.createWebSession().block();
+		assertThat(session2).isNotNull();
+		session2.getAttributes().put("foo", "b".repeat(1000));
+		session2.save().block();
+
+		WebSession retrieved = this.store.retrieveSession(session2.getId()).block();
+		assertThat(retrieved).isNotNull();
+		assertThat(retrieved.getAttributes()).containsEntry("foo", "b".repeat(1000));
+	}
+
+	@Test
+	void serializeAttributesAfterChangeSessionId() {
+		this.store.setSerializeAttributes(true);
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.getAttributes().put("foo", "bar");
+		session.save().block();
+
+		session.changeSessionId().block();
+		session.getAttributes().put("foo", "baz");
+		session.save().block();
+
+		WebSession retrieved = this.store.retrieveSession(session.getId()).block();
+		assertThat(retrieved).isNotNull();
+		assertThat(retrieved.getAttributes()).containsEntry("foo", "baz");
+		assertThat(this.store.getSessionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void serializeAttributesNotSerializable() {
+		this.store.setSerializeAttributes(true);
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.getAttributes().put("foo", new Object());
+
+		assertThatExceptionOfType(SerializationFailedException.class).isThrownBy(() -> session.save().block());
+	}
+
+	private WebSession insertSession() {
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.start();
+		session.save().block();
+		return session;
+	}
+
+
+	private static class MutableClock extends Clock {
+
+		private Instant instant;
+
+		MutableClock(Instant instant) {
+			this.instant = instant;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.of("GMT");
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+	}
+
+}
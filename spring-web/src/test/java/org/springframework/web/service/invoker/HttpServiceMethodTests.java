@@ -33,6 +33,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.service.annotation.GetExchange;
 import org.springframework.web.service.annotation.HttpExchange;
 import org.springframework.web.service.annotation.PostExchange;
@@ -189,6 +190,33 @@ class HttpServiceMethodTests {
 		assertThat(requestValues.getHeaders().getAccept()).containsExactly(MediaType.APPLICATION_JSON);
 	}
 
+	@Test
+	void customArgumentResolverForSomeValues() {
+		HttpServiceProxyFactory proxyFactory = HttpServiceProxyFactory.builder(this.client)
+				.customArgumentResolver((argument, parameter, requestValues) -> {
+					if ("custom".equals(argument)) {
+						requestValues.addHeader("X-Custom", "true");
+						return true;
+					}
+					return false;
+				})
+				.build();
+
+		RequestParamService service = proxyFactory.createClient(RequestParamService.class);
+
+		for (int i = 0; i < 2; i++) {
+			service.performGet("custom");
+			HttpRequestValues requestValues = this.client.getRequestValues();
+			assertThat(requestValues.getHeaders().getFirst("X-Custom")).isEqualTo("true");
+			assertThat(requestValues.getUriVariables()).isEmpty();
+
+			service.performGet("other");
+			requestValues = this.client.getRequestValues();
+			assertThat(requestValues.getHeaders().containsKey("X-Custom")).isFalse();
+			assertThat(requestValues.getUriVariables()).containsValue("other");
+		}
+	}
+
 	private void verifyClientInvocation(String methodName, @Nullable ParameterizedTypeReference<?> expectedBodyType) {
 		assertThat(this.client.getInvokedMethodName()).isEqualTo(methodName);
 		assertThat(this.client.getBodyType()).isEqualTo(expectedBodyType);
@@ -286,6 +314,15 @@ class HttpServiceMethodTests {
 	}
 
 
+	@SuppressWarnings("unused")
+	private interface RequestParamService {
+
+		@GetExchange
+		void performGet(@RequestParam String param);
+
+	}
+
+
 	@SuppressWarnings("unused")
 	@HttpExchange(url = "${baseUrl}", contentType = APPLICATION_CBOR_VALUE, accept = APPLICATION_CBOR_VALUE)
 	private interface TypeAndMethodLevelAnnotatedService extends MethodLevelAnnotatedService {
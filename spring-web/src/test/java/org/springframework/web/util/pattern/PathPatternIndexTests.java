@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PathPatternIndex}.
+ */
+class PathPatternIndexTests {
+
+	private final PathPatternParser parser = new PathPatternParser();
+
+	private final PathPatternIndex<String> index = new PathPatternIndex<>();
+
+
+	@Test
+	void literalPatterns() {
+		add("/foo/bar");
+		add("/foo/baz");
+		add("/other");
+
+		assertThat(candidates("/foo/bar")).containsExactly("/foo/bar");
+		assertThat(candidates("/foo/bar/")).containsExactly("/foo/bar");
+		assertThat(candidates("/foo")).isEmpty();
+		assertThat(candidates("/foo/qux")).isEmpty();
+	}
+
+	@Test
+	void captureAndWildcardPatterns() {
+		add("/users/{id}");
+		add("/users/{id}/orders/*");
+		add("/users/me");
+		add("/files/*.txt");
+
+		assertThat(candidates("/users/42")).containsExactlyInAnyOrder("/users/{id}");
+		assertThat(candidates("/users/me")).containsExactlyInAnyOrder("/users/{id}", "/users/me");
+		assertThat(candidates("/users/42/orders/7")).containsExactly("/users/{id}/orders/*");
+		assertThat(candidates("/users/42/orders/")).containsExactly("/users/{id}/orders/*");
+		assertThat(candidates("/files/a.txt")).containsExactly("/files/*.txt");
+		assertThat(candidates("/orders/42")).isEmpty();
+	}
+
+	@Test
+	void restPatterns() {
+		add("/static/**");
+		add("/api/{*path}");
+		add("/**");
+
+		assertThat(candidates("/static")).containsExactlyInAnyOrder("/static/**", "/**");
+		assertThat(candidates("/static/css/site.css")).containsExactlyInAnyOrder("/static/**", "/**");
+		assertThat(candidates("/api/a/b")).containsExactlyInAnyOrder("/api/{*path}", "/**");
+		assertThat(candidates("/other")).containsExactly("/**");
+	}
+
+	@Test
+	void emptyPatterns() {
+		add("");
+		add("/");
+
+		assertThat(candidates("")).containsExactlyInAnyOrder("", "/");
+		assertThat(candidates("/")).containsExactlyInAnyOrder("", "/");
+		assertThat(candidates("/foo")).isEmpty();
+	}
+
+	@Test
+	void caseInsensitivePatterns() {
+		PathPatternParser parser = new PathPatternParser();
+		parser.setCaseSensitive(false);
+		this.index.add("/Foo", List.of(parser.parse("/Foo")));
+
+		assertThat(candidates("/foo")).containsExactly("/Foo");
+		assertThat(candidates("/FOO")).containsExactly("/Foo");
+	}
+
+	@Test
+	void multiplePatternsAndUnindexedValues() {
+		this.index.add("multiple", Arrays.asList(this.parser.parse("/a"), this.parser.parse("/b/{x}")));
+		this.index.add("unindexed", null);
+
+		assertThat(candidates("/a")).containsExactlyInAnyOrder("multiple", "unindexed");
+		assertThat(candidates("/b/c")).containsExactlyInAnyOrder("multiple", "unindexed");
+		assertThat(candidates("/c")).containsExactly("unindexed");
+		assertThat(this.index.size()).isEqualTo(2);
+	}
+
+	@Test
+	void remove() {
+		add("/foo/{id}");
+		add("/foo/**");
+		add("/bar");
+
+		this.index.remove("/foo/{id}");
+		this.index.remove("/bar");
+
+		assertThat(candidates("/foo/1")).containsExactly("/foo/**");
+		assertThat(candidates("/bar")).isEmpty();
+		assertThat(this.index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void candidatesIncludeAllMatches() {
+		String[] patterns = {"/a", "/a/", "/a/*", "/a/{b}", "/a/b*", "/a/?", "/a/{b}-{c}",
+				"/a/**", "/a/{*rest}", "/*/b", "/{x}/{y}/c", "/a/b/c"};
+		String[] paths = {"", "/", "/a", "/a/", "/a/b", "/a/b/", "/a/b-c", "/a/b/c", "/x/b", "/a//b",
+				"/a/b;p=1", "/a/%62"};
+		for (String pattern : patterns) {
+			add(pattern);
+		}
+		for (String path : paths) {
+			PathContainer container = PathContainer.parsePath(path);
+			for (String pattern : patterns) {
+				if (this.parser.parse(pattern).matches(container)) {
+					assertThat(this.index.getCandidates(container)).as("Candidates for '" + path + "'").contains(pattern);
+				}
+			}
+		}
+	}
+
+
+	private void add(String pattern) {
+		this.index.add(pattern, List.of(this.parser.parse(pattern)));
+	}
+
+	private List<String> candidates(String path) {
+		return List.copyOf(this.index.getCandidates(PathContainer.parsePath(path)));
+	}
+
+}
@@ -0,0 +1,556 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseCookie;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.BodyExtractors;
+
+/**
+ * {@link ExchangeFilterFunction} that coalesces concurrent identical requests
+ * into a single exchange, so that a burst of callers for the same resource,
+ * e.g. during a thundering herd, results in a single request downstream.
+ *
+ * <p>Only requests with one of the {@linkplain #setMethods methods} that are
+ * safe to share, by default {@code GET} and {@code HEAD}, are coalesced.
+ * Requests are identical if they have the same method, URI, headers, cookies
+ * and attributes. Where only some of them affect the response, the key can be
+ * narrowed through {@link #setKeyHeaders} and {@link #setKeyAttributes}.
+ *
+ * <p>The response of the shared exchange is buffered up to a
+ * {@linkplain #setMaxBodySize maximum size}, and replayed to each caller,
+ * each with its own read-only view of the body. A larger response is not
+ * shared: it is handed as is to one of the callers, while the others perform
+ * their own exchange.
+ *
+ * <p>Responses can optionally be cached for a short time after the exchange
+ * completes, as allowed by their {@code Cache-Control} header, see
+ * {@link #setMaxCacheTtl(Duration)}.
+ *
+ * <p>Note that a shared exchange is not cancelled when a caller cancels, since
+ * other callers may be waiting for it.
+ *
+ * @since 6.1
+ * @see ExchangeFilterFunctions
+ */
+public class CoalescingExchangeFilterFunction implements ExchangeFilterFunction {
+
+	/**
+	 * The default maximum size of a shared response body.
+	 * @see #setMaxBodySize(int)
+	 */
+	public static final int DEFAULT_MAX_BODY_SIZE = 256 * 1024;
+
+	/**
+	 * The default maximum number of cached responses.
+	 * @see #setMaxCacheEntries(int)
+	 */
+	public static final int DEFAULT_MAX_CACHE_ENTRIES = 1024;
+
+	private static final byte[] EMPTY_BODY = new byte[0];
+
+
+	private final Map<RequestKey, SharedExchange> exchanges = new ConcurrentHashMap<>();
+
+	private final Map<RequestKey, SharedResponse> cache = new ConcurrentHashMap<>();
+
+	private Set<HttpMethod> methods = Set.of(HttpMethod.GET, HttpMethod.HEAD);
+
+	@Nullable
+	private List<String> keyHeaders;
+
+	@Nullable
+	private List<String> keyAttributes;
+
+	private int maxBodySize = DEFAULT_MAX_BODY_SIZE;
+
+	@Nullable
+	private Duration maxCacheTtl;
+
+	private int maxCacheEntries = DEFAULT_MAX_CACHE_ENTRIES;
+
+	private Clock clock = Clock.systemUTC();
+
+
+	/**
+	 * Set the HTTP methods of requests to coalesce.
+	 * <p>By default, this is {@code GET} and {@code HEAD}. Only idempotent
+	 * requests without a body should be coalesced.
+	 */
+	public void setMethods(Set<HttpMethod> methods) {
+		Assert.notNull(methods, "Methods must not be null");
+		this.methods = Set.copyOf(methods);
+	}
+
+	/**
+	 * Return the configured HTTP methods of requests to coalesce.
+	 */
+	public Set<HttpMethod> getMethods() {
+		return this.methods;
+	}
+
+	/**
+	 * Restrict the request headers that, along with the method, URI and
+	 * cookies, identify requests that can be coalesced to the given names.
+	 * <p>By default, this is not set, and all request headers must match.
+	 * Only set this if no other header, such as an API key or a tenant
+	 * identifier, may affect the response, as requests that differ in any
+	 * other header then share the same response.
+	 */
+	public void setKeyHeaders(@Nullable String... keyHeaders) {
+		this.keyHeaders = (keyHeaders != null ? List.of(keyHeaders) : null);
+	}
+
+	/**
+	 * Return the configured names of the request headers that identify
+	 * requests that can be coalesced, or {@code null} if all headers do.
+	 */
+	@Nullable
+	public List<String> getKeyHeaders() {
+		return this.keyHeaders;
+	}
+
+	/**
+	 * Restrict the request attributes that identify requests that can be
+	 * coalesced to the given names.
+	 * <p>By default, this is not set, and all request attributes must be
+	 * equal. Only set this if no other attribute is used by downstream
+	 * filters in a way that may affect the response.
+	 */
+	public void setKeyAttributes(@Nullable String... keyAttributes) {
+		this.keyAttributes = (keyAttributes != null ? List.of(keyAttributes) : null);
+	}
+
+	/**
+	 * Return the configured names of the request attributes that identify
+	 * requests that can be coalesced, or {@code null} if all attributes do.
+	 */
+	@Nullable
+	public List<String> getKeyAttributes() {
+		return this.keyAttributes;
+	}
+
+	/**
+	 * Set the maximum size of a response body that is buffered to be shared.
+	 * <p>By default, this is set to {@link #DEFAULT_MAX_BODY_SIZE}.
+	 */
+	public void setMaxBodySize(int maxBodySize) {
+		Assert.isTrue(maxBodySize >= 0, "Max body size must not be negative");
+		this.maxBodySize = maxBodySize;
+	}
+
+	/**
+	 * Return the configured maximum size of a shared response body.
+	 */
+	public int getMaxBodySize() {
+		return this.maxBodySize;
+	}
+
+	/**
+	 * Enable caching of successful responses after their exchange completes,
+	 * for the time allowed by the {@code s-maxage} or {@code max-age}
+	 * directive of their {@code Cache-Control} header, but no longer than
+	 * the given duration.
+	 * <p>Responses with a {@code no-store}, {@code no-cache} or
+	 * {@code private} directive, with a {@code Set-Cookie} header, or that
+	 * {@code Vary} by a header other than the key headers, are not cached.
+	 * <p>By default, this is not set, and responses are not cached.
+	 */
+	public void setMaxCacheTtl(@Nullable Duration maxCacheTtl) {
+		this.maxCacheTtl = maxCacheTtl;
+	}
+
+	/**
+	 * Return the configured maximum time to cache responses, if any.
+	 */
+	@Nullable
+	public Duration getMaxCacheTtl() {
+		return this.maxCacheTtl;
+	}
+
+	/**
+	 * Set the maximum number of cached responses. Once reached, responses are
+	 * no longer cached until cached responses expire.
+	 * <p>By default, this is set to {@link #DEFAULT_MAX_CACHE_ENTRIES}.
+	 */
+	public void setMaxCacheEntries(int maxCacheEntries) {
+		this.maxCacheEntries = maxCacheEntries;
+	}
+
+	/**
+	 * Return the configured maximum number of cached responses.
+	 */
+	public int getMaxCacheEntries() {
+		return this.maxCacheEntries;
+	}
+
+	/**
+	 * Configure the {@link Clock} to use to expire cached responses.
+	 * <p>This is primarily for testing purposes. By default, this is
+	 * {@code Clock.systemUTC()}.
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock is required");
+		this.clock = clock;
+	}
+
+	/**
+	 * Return the configured clock for cached responses.
+	 */
+	public Clock getClock() {
+		return this.clock;
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		if (!this.methods.contains(request.method())) {
+			return next.exchange(request);
+		}
+		RequestKey key = createKey(request);
+		return Mono.defer(() -> {
+			SharedResponse cachedResponse = getCachedResponse(key);
+			if (cachedResponse != null) {
+				return Mono.just(cachedResponse.toClientResponse());
+			}
+			SharedExchange exchange = this.exchanges.computeIfAbsent(key, k -> new SharedExchange(k, request, next));
+			return exchange.result
+					.mapNotNull(ExchangeResult::toClientResponse)
+					.switchIfEmpty(Mono.defer(() -> next.exchange(request)));
+		});
+	}
+
+	private RequestKey createKey(ClientRequest request) {
+		HttpHeaders requestHeaders = request.headers();
+		Map<String, List<String>> headers = new HashMap<>();
+		if (this.keyHeaders != null) {
+			for (String headerName : this.keyHeaders) {
+				headers.put(headerName.toLowerCase(Locale.ROOT), requestHeaders.get(headerName));
+			}
+		}
+		else {
+			requestHeaders.forEach((headerName, values) -> headers.put(headerName.toLowerCase(Locale.ROOT), values));
+		}
+		Map<String, Object> attributes;
+		if (this.keyAttributes != null) {
+			attributes = new HashMap<>();
+			for (String attributeName : this.keyAttributes) {
+				attributes.put(attributeName, request.attributes().get(attributeName));
+			}
+		}
+		else {
+			attributes = new HashMap<>(request.attributes());
+		}
+		return new RequestKey(request.method(), request.url(), headers, request.cookies(), attributes);
+	}
+
+	private Mono<ExchangeResult> bufferResponse(ClientRequest request, ClientResponse response) {
+		OptionalLong contentLength = response.headers().contentLength();
+		if (request.method() != HttpMethod.HEAD &&
+				contentLength.isPresent() && contentLength.getAsLong() > this.maxBodySize) {
+			return Mono.just(new UnsharedResponse(response));
+		}
+		BodySizeLimit limit = new BodySizeLimit(this.maxBodySize);
+		return response.body(BodyExtractors.toDataBuffers())
+				.bufferUntil(limit::isExceededBy)
+				.<ExchangeResult>switchOnFirst((signal, buffers) -> {
+					if (signal.hasError()) {
+						return Mono.error(signal.getThrowable());
+					}
+					List<DataBuffer> bufferedBody = signal.get();
+					if (bufferedBody != null && limit.isExceeded()) {
+						// Hand over the response with the body read so far, followed by the rest of it
+						Flux<DataBuffer> body = buffers.concatMapIterable(Function.identity());
+						return Mono.just(new UnsharedResponse(response.mutate().body(original -> body).build()));
+					}
+					byte[] bytes = (bufferedBody != null ? copyAndRelease(bufferedBody) : EMPTY_BODY);
+					return Mono.just(new SharedResponse(response, bytes, getExpirationTime(response)));
+				}, false)
+				.single();
+	}
+
+	private static byte[] copyAndRelease(List<DataBuffer> dataBuffers) {
+		try {
+			int size = 0;
+			for (DataBuffer dataBuffer : dataBuffers) {
+				size += dataBuffer.readableByteCount();
+			}
+			byte[] bytes = new byte[size];
+			int offset = 0;
+			for (DataBuffer dataBuffer : dataBuffers) {
+				int count = dataBuffer.readableByteCount();
+				dataBuffer.read(bytes, offset, count);
+				offset += count;
+			}
+			return bytes;
+		}
+		finally {
+			dataBuffers.forEach(DataBufferUtils::release);
+		}
+	}
+
+
+	// Response cache
+
+	@Nullable
+	private SharedResponse getCachedResponse(RequestKey key) {
+		if (this.maxCacheTtl == null) {
+			return null;
+		}
+		SharedResponse response = this.cache.get(key);
+		if (response != null && response.isExpired(this.clock.millis())) {
+			this.cache.remove(key, response);
+			return null;
+		}
+		return response;
+	}
+
+	private void cacheResponse(RequestKey key, SharedResponse response) {
+		if (response.expirationTime == -1) {
+			return;
+		}
+		if (this.cache.size() >= this.maxCacheEntries) {
+			long now = this.clock.millis();
+			this.cache.values().removeIf(cachedResponse -> cachedResponse.isExpired(now));
+			if (this.cache.size() >= this.maxCacheEntries) {
+				return;
+			}
+		}
+		this.cache.put(key, response);
+	}
+
+	/**
+	 * Return the time until which the given response may be cached,
+	 * or -1 if it must not be cached.
+	 */
+	private long getExpirationTime(ClientResponse response) {
+		if (this.maxCacheTtl == null || !response.statusCode().isSameCodeAs(HttpStatus.OK)) {
+			return -1;
+		}
+		HttpHeaders headers = response.headers().asHttpHeaders();
+		if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+			return -1;
+		}
+		for (String vary : headers.getVary()) {
+			if (vary.equals("*") ||
+					(this.keyHeaders != null && this.keyHeaders.stream().noneMatch(vary::equalsIgnoreCase))) {
+				return -1;
+			}
+		}
+		long maxAge = -1;
+		long sharedMaxAge = -1;
+		for (String directive : StringUtils.tokenizeToStringArray(headers.getCacheControl(), ",")) {
+			directive = directive.toLowerCase(Locale.ROOT);
+			if (directive.equals("no-store") || directive.equals("no-cache") || directive.equals("private")) {
+				return -1;
+			}
+			else if (directive.startsWith("max-age=")) {
+				maxAge = parseSeconds(directive.substring(8));
+			}
+			else if (directive.startsWith("s-maxage=")) {
+				sharedMaxAge = parseSeconds(directive.substring(9));
+			}
+		}
+		long seconds = (sharedMaxAge != -1 ? sharedMaxAge : maxAge);
+		if (seconds <= 0) {
+			return -1;
+		}
+		long ttl = Math.min(seconds * 1000, this.maxCacheTtl.toMillis());
+		return this.clock.millis() + ttl;
+	}
+
+	private static long parseSeconds(String value) {
+		try {
+			return Long.parseLong(value.trim());
+		}
+		catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+
+	/**
+	 * Key for identical requests.
+	 */
+	private record RequestKey(HttpMethod method, URI url, Map<String, List<String>> headers,
+			MultiValueMap<String, String> cookies, Map<String, Object> attributes) {
+	}
+
+
+	/**
+	 * Tracks the size of a response body as it is buffered.
+	 */
+	private static final class BodySizeLimit {
+
+		private final int maxBodySize;
+
+		private long bodySize;
+
+		BodySizeLimit(int maxBodySize) {
+			this.maxBodySize = maxBodySize;
+		}
+
+		boolean isExceededBy(DataBuffer dataBuffer) {
+			this.bodySize += dataBuffer.readableByteCount();
+			return isExceeded();
+		}
+
+		boolean isExceeded() {
+			return (this.bodySize > this.maxBodySize);
+		}
+	}
+
+
+	/**
+	 * An exchange shared by identical requests, registered while in progress.
+	 */
+	private final class SharedExchange {
+
+		private final Mono<ExchangeResult> result;
+
+		SharedExchange(RequestKey key, ClientRequest request, ExchangeFunction next) {
+			this.result = next.exchange(request)
+					.flatMap(clientResponse -> bufferResponse(request, clientResponse))
+					.doOnNext(result -> {
+						if (result instanceof SharedResponse sharedResponse) {
+							cacheResponse(key, sharedResponse);
+						}
+					})
+					.doFinally(signal -> exchanges.remove(key, this))
+					.cache();
+		}
+	}
+
+
+	/**
+	 * The result of a shared exchange, replayed to each caller.
+	 */
+	private interface ExchangeResult {
+
+		/**
+		 * Return the response for a caller, or {@code null} if the caller
+		 * must perform its own exchange.
+		 */
+		@Nullable
+		ClientResponse toClientResponse();
+	}
+
+
+	/**
+	 * A response too large to be shared, handed to the first caller only.
+	 */
+	private static final class UnsharedResponse implements ExchangeResult {
+
+		private final ClientResponse response;
+
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		UnsharedResponse(ClientResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		@Nullable
+		public ClientResponse toClientResponse() {
+			return (this.claimed.compareAndSet(false, true) ? this.response : null);
+		}
+	}
+
+
+	/**
+	 * A buffered response, from which a {@link ClientResponse} is created for
+	 * each caller.
+	 */
+	private static final class SharedResponse implements ExchangeResult {
+
+		private final HttpStatusCode statusCode;
+
+		private final HttpHeaders headers;
+
+		private final MultiValueMap<String, ResponseCookie> cookies;
+
+		private final ExchangeStrategies strategies;
+
+		@Nullable
+		private final HttpRequest request;
+
+		private final byte[] body;
+
+		private final long expirationTime;
+
+		SharedResponse(ClientResponse response, byte[] body, long expirationTime) {
+			this.statusCode = response.statusCode();
+			this.headers = HttpHeaders.readOnlyHttpHeaders(response.headers().asHttpHeaders());
+			this.cookies = new LinkedMultiValueMap<>(response.cookies());
+			this.strategies = response.strategies();
+			this.request = (response instanceof DefaultClientResponse defaultResponse ?
+					defaultResponse.request() : null);
+			this.body = body;
+			this.expirationTime = expirationTime;
+		}
+
+		boolean isExpired(long now) {
+			return (now >= this.expirationTime);
+		}
+
+		@Override
+		public ClientResponse toClientResponse() {
+			ClientResponse.Builder builder = ClientResponse.create(this.statusCode, this.strategies)
+					.headers(headers -> headers.addAll(this.headers))
+					.cookies(cookies -> cookies.addAll(this.cookies))
+					.body(this.body.length > 0 ? Flux.defer(() -> Flux.just(wrapReadOnly(this.body))) : Flux.empty());
+			if (this.request != null) {
+				builder.request(this.request);
+			}
+			return builder.build();
+		}
+
+		private static DataBuffer wrapReadOnly(byte[] body) {
+			return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(body).asReadOnlyBuffer());
+		}
+	}
+
+}
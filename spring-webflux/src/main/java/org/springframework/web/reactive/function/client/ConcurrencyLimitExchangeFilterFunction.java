@@ -0,0 +1,376 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ExchangeFilterFunction} that limits the number of concurrent requests
+ * to each host, with a limit that adapts to the observed latency.
+ *
+ * <p>The limit of each host is adjusted with an AIMD algorithm: it increases
+ * additively while responses are received with a latency close to the lowest
+ * observed latency, and decreases multiplicatively when the latency grows
+ * beyond a {@linkplain #setLatencyTolerance tolerance}, when the request
+ * fails, or when the response status indicates overload ({@code 429},
+ * {@code 503} or {@code 504}). A request is in flight until its response body
+ * has been consumed or released.
+ *
+ * <p>Requests in excess of the limit are queued, up to a
+ * {@linkplain #setMaxQueueSize maximum queue size} per host, and rejected
+ * beyond that with a {@link WebClientRequestException} caused by a
+ * {@link RejectedExecutionException}.
+ *
+ * <p>When used with a {@link WebClient} that has an
+ * {@link io.micrometer.observation.ObservationRegistry}, the
+ * {@link #QUEUED_EVENT_NAME queued} and {@link #REJECTED_EVENT_NAME rejected}
+ * events are signalled on the {@link ClientRequestObservationContext client
+ * request observation}, and the {@link #LIMIT_KEY_NAME current limit} is added
+ * as a high cardinality key value.
+ *
+ * @since 6.1
+ * @see ExchangeFilterFunctions
+ */
+public class ConcurrencyLimitExchangeFilterFunction implements ExchangeFilterFunction {
+
+	/**
+	 * Name of the observation event for a request queued until the limit allows it.
+	 */
+	public static final String QUEUED_EVENT_NAME = "concurrency-limit.queued";
+
+	/**
+	 * Name of the observation event for a request rejected due to a full queue.
+	 */
+	public static final String REJECTED_EVENT_NAME = "concurrency-limit.rejected";
+
+	/**
+	 * Name of the observation key value with the limit for the host of a request.
+	 */
+	public static final String LIMIT_KEY_NAME = "concurrency.limit";
+
+	private static final Observation.Event QUEUED_EVENT = Observation.Event.of(QUEUED_EVENT_NAME);
+
+	private static final Observation.Event REJECTED_EVENT = Observation.Event.of(REJECTED_EVENT_NAME);
+
+
+	private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+	private int initialLimit = 20;
+
+	private int minLimit = 1;
+
+	private int maxLimit = 200;
+
+	private int maxQueueSize = 100;
+
+	private double backoffRatio = 0.9;
+
+	private double latencyTolerance = 2.0;
+
+
+	/**
+	 * Set the initial concurrency limit for each host.
+	 * <p>By default, this is set to 20.
+	 */
+	public void setInitialLimit(int initialLimit) {
+		Assert.isTrue(initialLimit > 0, "Initial limit must be greater than 0");
+		this.initialLimit = initialLimit;
+	}
+
+	/**
+	 * Set the bounds of the concurrency limit for each host.
+	 * <p>By default, the limit is between 1 and 200.
+	 */
+	public void setLimitBounds(int minLimit, int maxLimit) {
+		Assert.isTrue(minLimit > 0, "Min limit must be greater than 0");
+		Assert.isTrue(maxLimit >= minLimit, "Max limit must not be lower than min limit");
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * Set the maximum number of requests to queue for each host when the
+	 * limit is reached, or 0 to reject such requests right away.
+	 * <p>By default, this is set to 100.
+	 */
+	public void setMaxQueueSize(int maxQueueSize) {
+		Assert.isTrue(maxQueueSize >= 0, "Max queue size must not be negative");
+		this.maxQueueSize = maxQueueSize;
+	}
+
+	/**
+	 * Set the ratio by which the limit is multiplied on a sign of overload.
+	 * <p>By default, this is set to 0.9.
+	 */
+	public void setBackoffRatio(double backoffRatio) {
+		Assert.isTrue(backoffRatio > 0 && backoffRatio < 1, "Backoff ratio must be between 0 and 1");
+		this.backoffRatio = backoffRatio;
+	}
+
+	/**
+	 * Set the ratio between the latency of a response and the lowest observed
+	 * latency beyond which the latency is considered a sign of overload.
+	 * <p>By default, this is set to 2.0.
+	 */
+	public void setLatencyTolerance(double latencyTolerance) {
+		Assert.isTrue(latencyTolerance >= 1, "Latency tolerance must be at least 1");
+		this.latencyTolerance = latencyTolerance;
+	}
+
+	/**
+	 * Return the current concurrency limit for the host of the given URL,
+	 * or the initial limit if no request has been made to that host yet.
+	 */
+	public int getLimit(URI url) {
+		Limiter limiter = this.limiters.get(getHostKey(url));
+		return (limiter != null ? limiter.getLimit() : this.initialLimit);
+	}
+
+	/**
+	 * Return the number of requests in flight to the host of the given URL.
+	 */
+	public int getInFlight(URI url) {
+		Limiter limiter = this.limiters.get(getHostKey(url));
+		return (limiter != null ? limiter.getInFlight() : 0);
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFilterFunction.ExchangeFunction next) {
+		Limiter limiter = this.limiters.computeIfAbsent(getHostKey(request.url()), key -> new Limiter());
+		return Mono.deferContextual(contextView -> {
+			Observation observation = contextView.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+			return limiter.acquire(request, observation)
+					.flatMap(permit -> exchange(request, next, permit, observation));
+		});
+	}
+
+	private Mono<ClientResponse> exchange(
+			ClientRequest request, ExchangeFunction next, Permit permit, @Nullable Observation observation) {
+
+		if (observation != null) {
+			observation.highCardinalityKeyValue(LIMIT_KEY_NAME, String.valueOf(permit.limiter.getLimit()));
+		}
+		long startTime = System.nanoTime();
+		return next.exchange(request)
+				.map(response -> {
+					permit.sample(System.nanoTime() - startTime, isOverloaded(response.statusCode()));
+					return response.mutate()
+							.body(body -> body.doFinally(signal -> permit.release()))
+							.build();
+				})
+				.doOnError(ex -> {
+					permit.sample(System.nanoTime() - startTime, true);
+					permit.release();
+				})
+				.doOnCancel(permit::release);
+	}
+
+	private static boolean isOverloaded(HttpStatusCode statusCode) {
+		return (statusCode.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS) ||
+				statusCode.isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE) ||
+				statusCode.isSameCodeAs(HttpStatus.GATEWAY_TIMEOUT));
+	}
+
+	private static String getHostKey(URI url) {
+		return url.getScheme() + "://" + url.getHost() + ":" + url.getPort();
+	}
+
+
+	/**
+	 * Concurrency limit and queue for a single host.
+	 */
+	private final class Limiter {
+
+		private double limit = initialLimit;
+
+		private int inFlight;
+
+		/** Lowest observed latency, drifting up slowly to track changes downstream. */
+		private double minLatency;
+
+		private final Deque<Waiter> queue = new ArrayDeque<>();
+
+		synchronized int getLimit() {
+			return (int) this.limit;
+		}
+
+		synchronized int getInFlight() {
+			return this.inFlight;
+		}
+
+		Mono<Permit> acquire(ClientRequest request, @Nullable Observation observation) {
+			return Mono.create(sink -> {
+				Waiter waiter = new Waiter(sink);
+				sink.onCancel(() -> cancel(waiter));
+				Permit permit = null;
+				boolean queued = false;
+				synchronized (this) {
+					if (this.inFlight < (int) this.limit) {
+						this.inFlight++;
+						permit = new Permit(this);
+						waiter.permit = permit;
+					}
+					else if (this.queue.size() < maxQueueSize) {
+						this.queue.add(waiter);
+						queued = true;
+					}
+				}
+				if (permit != null) {
+					sink.success(permit);
+				}
+				else if (queued) {
+					if (observation != null) {
+						observation.event(QUEUED_EVENT);
+					}
+				}
+				else {
+					if (observation != null) {
+						observation.event(REJECTED_EVENT);
+					}
+					RejectedExecutionException ex = new RejectedExecutionException(
+							"Concurrency limit of " + getLimit() + " reached for " + getHostKey(request.url()));
+					sink.error(new WebClientRequestException(ex, request.method(), request.url(), request.headers()));
+				}
+			});
+		}
+
+		private void cancel(Waiter waiter) {
+			Permit permit;
+			synchronized (this) {
+				permit = waiter.permit;
+				if (permit == null) {
+					this.queue.remove(waiter);
+				}
+			}
+			if (permit != null) {
+				permit.release();
+			}
+		}
+
+		void sample(long latency, boolean overloaded) {
+			List<Waiter> granted;
+			synchronized (this) {
+				if (!overloaded) {
+					if (this.minLatency == 0 || latency < this.minLatency) {
+						this.minLatency = latency;
+					}
+					else {
+						this.minLatency += (latency - this.minLatency) * 0.01;
+					}
+					overloaded = (latency > this.minLatency * latencyTolerance);
+				}
+				if (overloaded) {
+					this.limit = Math.max(minLimit, this.limit * backoffRatio);
+				}
+				else if (this.inFlight * 2 >= this.limit) {
+					// Only grow the limit while it is actually used
+					this.limit = Math.min(maxLimit, this.limit + 1 / this.limit);
+				}
+				granted = grantWaiters();
+			}
+			granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+		}
+
+		void release() {
+			List<Waiter> granted;
+			synchronized (this) {
+				this.inFlight--;
+				granted = grantWaiters();
+			}
+			granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+		}
+
+		private List<Waiter> grantWaiters() {
+			List<Waiter> granted = Collections.emptyList();
+			while (this.inFlight < (int) this.limit && !this.queue.isEmpty()) {
+				Waiter waiter = this.queue.poll();
+				waiter.permit = new Permit(this);
+				this.inFlight++;
+				granted = (granted.isEmpty() ? new ArrayList<>() : granted);
+				granted.add(waiter);
+			}
+			return granted;
+		}
+	}
+
+
+	/**
+	 * A request waiting for the limit to allow it.
+	 */
+	private static final class Waiter {
+
+		private final MonoSink<Permit> sink;
+
+		/** The permit once granted, guarded by the limiter. */
+		@Nullable
+		private Permit permit;
+
+		Waiter(MonoSink<Permit> sink) {
+			this.sink = sink;
+		}
+	}
+
+
+	/**
+	 * Permission for a single request, to be released once.
+	 */
+	private static final class Permit {
+
+		private final Limiter limiter;
+
+		private final AtomicBoolean sampled = new AtomicBoolean();
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		Permit(Limiter limiter) {
+			this.limiter = limiter;
+		}
+
+		void sample(long latency, boolean overloaded) {
+			if (this.sampled.compareAndSet(false, true)) {
+				this.limiter.sample(latency, overloaded);
+			}
+		}
+
+		void release() {
+			if (this.released.compareAndSet(false, true)) {
+				this.limiter.release();
+			}
+		}
+	}
+
+}
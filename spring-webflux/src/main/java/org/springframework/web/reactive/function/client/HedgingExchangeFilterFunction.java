@@ -0,0 +1,275 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ExchangeFilterFunction} that sends a second, "hedged" request when
+ * the response to an idempotent request takes longer than usual, and uses
+ * whichever response arrives first, canceling the other request.
+ *
+ * <p>The delay before hedging is based on a {@linkplain #setPercentile
+ * percentile} of the latencies recently observed for the same host, and only
+ * applies once {@linkplain #setMinSamples enough latencies} are known. Only
+ * {@code GET}, {@code HEAD} and {@code OPTIONS} requests are hedged, and the
+ * number of hedged requests is limited to a {@linkplain #setMaxHedgeRatio
+ * ratio} of all requests, so that hedging does not add significant load to a
+ * slow server.
+ *
+ * <p>Latencies are observed on the original request only, since the first of
+ * two responses is biased towards lower latencies. If the original request is
+ * canceled because the hedged request won, the time until cancellation is
+ * recorded as a lower bound of its latency. A failure of either request is
+ * only reported once the other request, if any, has failed as well.
+ *
+ * <p>When used with a {@link WebClient} that has an
+ * {@link io.micrometer.observation.ObservationRegistry}, the
+ * {@link #SENT_EVENT_NAME sent} and {@link #WON_EVENT_NAME won} events are
+ * signalled on the {@link ClientRequestObservationContext client request
+ * observation} of hedged requests.
+ *
+ * @since 6.1
+ * @see ConcurrencyLimitExchangeFilterFunction
+ */
+public class HedgingExchangeFilterFunction implements ExchangeFilterFunction {
+
+	/**
+	 * Name of the observation event for a hedged request being sent.
+	 */
+	public static final String SENT_EVENT_NAME = "hedging.sent";
+
+	/**
+	 * Name of the observation event for a hedged request that completed first.
+	 */
+	public static final String WON_EVENT_NAME = "hedging.won";
+
+	private static final Observation.Event SENT_EVENT = Observation.Event.of(SENT_EVENT_NAME);
+
+	private static final Observation.Event WON_EVENT = Observation.Event.of(WON_EVENT_NAME);
+
+	private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+	private static final int SAMPLE_SIZE = 256;
+
+	private static final int RECOMPUTE_INTERVAL = 32;
+
+	private static final double MAX_HEDGE_TOKENS = 10;
+
+
+	private final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+
+	private double percentile = 0.95;
+
+	private int minSamples = 20;
+
+	private Duration minDelay = Duration.ofMillis(10);
+
+	private double maxHedgeRatio = 0.1;
+
+
+	/**
+	 * Set the percentile of the observed latencies after which to hedge a request.
+	 * <p>By default, this is set to 0.95.
+	 */
+	public void setPercentile(double percentile) {
+		Assert.isTrue(percentile > 0 && percentile < 1, "Percentile must be between 0 and 1");
+		this.percentile = percentile;
+	}
+
+	/**
+	 * Set the number of latencies to observe for a host before hedging requests.
+	 * <p>By default, this is set to 20.
+	 */
+	public void setMinSamples(int minSamples) {
+		Assert.isTrue(minSamples > 0 && minSamples <= SAMPLE_SIZE,
+				"Min samples must be between 1 and " + SAMPLE_SIZE);
+		this.minSamples = minSamples;
+	}
+
+	/**
+	 * Set the minimum delay before hedging a request, regardless of the
+	 * observed latencies.
+	 * <p>By default, this is set to 10 milliseconds.
+	 */
+	public void setMinDelay(Duration minDelay) {
+		Assert.notNull(minDelay, "Min delay must not be null");
+		Assert.isTrue(!minDelay.isNegative(), "Min delay must not be negative");
+		this.minDelay = minDelay;
+	}
+
+	/**
+	 * Set the maximum ratio of hedged requests to all requests, per host.
+	 * <p>By default, this is set to 0.1.
+	 */
+	public void setMaxHedgeRatio(double maxHedgeRatio) {
+		Assert.isTrue(maxHedgeRatio > 0 && maxHedgeRatio <= 1, "Max hedge ratio must be between 0 and 1");
+		this.maxHedgeRatio = maxHedgeRatio;
+	}
+
+	/**
+	 * Return the current delay before hedging a request to the host of the
+	 * given URL, or {@code null} if not enough latencies are known yet.
+	 */
+	@Nullable
+	public Duration getHedgeDelay(URI url) {
+		LatencyTracker tracker = this.trackers.get(getHostKey(url));
+		return (tracker != null ? tracker.getHedgeDelay() : null);
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		if (!IDEMPOTENT_METHODS.contains(request.method())) {
+			return next.exchange(request);
+		}
+		LatencyTracker tracker = this.trackers.computeIfAbsent(getHostKey(request.url()), key -> new LatencyTracker());
+		return Mono.deferContextual(contextView -> {
+			Observation observation = contextView.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+			tracker.addHedgeTokens(this.maxHedgeRatio);
+			Duration delay = tracker.getHedgeDelay();
+			if (delay == null) {
+				long startTime = System.nanoTime();
+				return next.exchange(request)
+						.doOnNext(response -> tracker.record(System.nanoTime() - startTime));
+			}
+			AtomicBoolean completed = new AtomicBoolean();
+			AtomicInteger inFlight = new AtomicInteger(1);
+			Mono<ClientResponse> primary = attempt(request, next, completed, inFlight, tracker, null);
+			Mono<ClientResponse> hedge = Mono.delay(delay)
+					.filter(tick -> !completed.get() && tracker.tryAcquireHedgeToken())
+					.flatMap(tick -> {
+						if (observation != null) {
+							observation.event(SENT_EVENT);
+						}
+						inFlight.incrementAndGet();
+						return attempt(request, next, completed, inFlight, null, observation);
+					});
+			return Flux.merge(primary, hedge)
+					.next()
+					.doOnDiscard(ClientResponse.class, response -> response.releaseBody().subscribe());
+		});
+	}
+
+	/**
+	 * Send one of the requests, recording its latency with the given tracker,
+	 * if any, and signalling the won event on the given observation, if any.
+	 */
+	private Mono<ClientResponse> attempt(ClientRequest request, ExchangeFunction next,
+			AtomicBoolean completed, AtomicInteger inFlight, @Nullable LatencyTracker tracker,
+			@Nullable Observation hedgeObservation) {
+
+		return Mono.defer(() -> {
+			long startTime = System.nanoTime();
+			AtomicBoolean recorded = new AtomicBoolean();
+			return next.exchange(request)
+					.flatMap(response -> {
+						if (tracker != null && recorded.compareAndSet(false, true)) {
+							tracker.record(System.nanoTime() - startTime);
+						}
+						if (!completed.compareAndSet(false, true)) {
+							// The other request won
+							return response.releaseBody().then(Mono.empty());
+						}
+						if (hedgeObservation != null) {
+							hedgeObservation.event(WON_EVENT);
+						}
+						return Mono.just(response);
+					})
+					.doOnCancel(() -> {
+						// The other request won: the latency is at least the elapsed time
+						if (tracker != null && recorded.compareAndSet(false, true)) {
+							tracker.record(System.nanoTime() - startTime);
+						}
+					})
+					.onErrorResume(ex -> {
+						// The other request may still succeed
+						return (inFlight.decrementAndGet() > 0 ? Mono.never() : Mono.error(ex));
+					});
+		});
+	}
+
+	private static String getHostKey(URI url) {
+		return url.getScheme() + "://" + url.getHost() + ":" + url.getPort();
+	}
+
+
+	/**
+	 * Recent latencies and hedge budget for a single host.
+	 */
+	private final class LatencyTracker {
+
+		private final long[] samples = new long[SAMPLE_SIZE];
+
+		private int sampleCount;
+
+		private int nextSample;
+
+		private double hedgeTokens = MAX_HEDGE_TOKENS;
+
+		@Nullable
+		private volatile Duration hedgeDelay;
+
+		@Nullable
+		Duration getHedgeDelay() {
+			return this.hedgeDelay;
+		}
+
+		synchronized void record(long latency) {
+			this.samples[this.nextSample] = latency;
+			this.nextSample = (this.nextSample + 1) % SAMPLE_SIZE;
+			this.sampleCount = Math.min(this.sampleCount + 1, SAMPLE_SIZE);
+			if (this.sampleCount >= minSamples &&
+					(this.hedgeDelay == null || this.nextSample % RECOMPUTE_INTERVAL == 0)) {
+				long[] sorted = Arrays.copyOf(this.samples, this.sampleCount);
+				Arrays.sort(sorted);
+				int index = (int) Math.ceil(percentile * sorted.length) - 1;
+				Duration delay = Duration.ofNanos(sorted[Math.max(index, 0)]);
+				this.hedgeDelay = (delay.compareTo(minDelay) > 0 ? delay : minDelay);
+			}
+		}
+
+		synchronized void addHedgeTokens(double tokens) {
+			this.hedgeTokens = Math.min(MAX_HEDGE_TOKENS, this.hedgeTokens + tokens);
+		}
+
+		synchronized boolean tryAcquireHedgeToken() {
+			if (this.hedgeTokens < 1) {
+				return false;
+			}
+			this.hedgeTokens--;
+			return true;
+		}
+	}
+
+}
@@ -397,6 +397,9 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 	 * {@code Last-Modified} value, or the header is not present, the content resource
 	 * of the resource will be written to the response with caching headers
 	 * set to expire one year in the future.
+	 * <p>If the resource is an {@link HttpResource} with an {@code ETag} among its
+	 * response headers, that {@code ETag} is checked against the
+	 * {@code If-None-Match} header of the request as well.
 	 */
 	@Override
 	public Mono<Void> handle(ServerWebExchange exchange) {
@@ -420,7 +423,10 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 						}
 
 						// Header phase
-						if (isUseLastModified() && exchange.checkNotModified(Instant.ofEpochMilli(resource.lastModified()))) {
+						String eTag = getETag(resource);
+						Instant lastModified = (isUseLastModified() ?
+								Instant.ofEpochMilli(resource.lastModified()) : Instant.MIN);
+						if ((eTag != null || isUseLastModified()) && exchange.checkNotModified(eTag, lastModified)) {
 							logger.trace(exchange.getLogPrefix() + "Resource not modified");
 							return Mono.empty();
 						}
@@ -606,6 +612,15 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 		return false;
 	}
 
+	/**
+	 * Return the {@code ETag} of the given resource, if it is an
+	 * {@link HttpResource} that provides one in its response headers.
+	 */
+	@Nullable
+	private static String getETag(Resource resource) {
+		return (resource instanceof HttpResource httpResource ? httpResource.getResponseHeaders().getETag() : null);
+	}
+
 	@Nullable
 	private MediaType getMediaType(Resource resource) {
 		MediaType mediaType = null;
@@ -49,6 +49,8 @@ import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.handler.AbstractHandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternIndex;
 
 /**
  * Abstract base class for {@link HandlerMapping} implementations that define
@@ -98,9 +100,38 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 	private final MappingRegistry mappingRegistry = new MappingRegistry();
 
+	private boolean usePathPatternIndex = false;
+
 
 	// TODO: handlerMethodMappingNamingStrategy
 
+	/**
+	 * Whether to select the candidate mappings for a request through a
+	 * {@link PathPatternIndex} of the mapping patterns, rather than checking
+	 * every registered mapping, when no direct path matches.
+	 * <p>Default is "false". Switching this flag on is recommended for a large
+	 * number of pattern-based mappings; it relies on the patterns provided
+	 * through {@link #getPathPatterns}.
+	 * <p>This must be set before the initialization of request mappings through
+	 * {@link InitializingBean#afterPropertiesSet}.
+	 * @since 6.1
+	 * @see PathPatternIndex
+	 */
+	public void setUsePathPatternIndex(boolean usePathPatternIndex) {
+		Assert.state(this.mappingRegistry.getRegistrations().isEmpty(),
+				"The PathPatternIndex must be enabled before the initialization of " +
+						"request mappings through InitializingBean#afterPropertiesSet.");
+		this.usePathPatternIndex = usePathPatternIndex;
+	}
+
+	/**
+	 * Whether candidate mappings are selected through a {@link PathPatternIndex}.
+	 * @since 6.1
+	 */
+	public boolean isUsePathPatternIndex() {
+		return this.usePathPatternIndex;
+	}
+
 	/**
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
 	 */
@@ -325,7 +356,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, exchange);
 		}
 		if (matches.isEmpty()) {
-			addMatchingMappings(this.mappingRegistry.getRegistrations().keySet(), matches, exchange);
+			addMatchingMappings(this.mappingRegistry.getCandidateMappings(exchange), matches, exchange);
 		}
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -441,6 +472,20 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		return Collections.emptySet();
 	}
 
+	/**
+	 * Return the parsed path patterns of the given mapping, for use with a
+	 * {@link #setUsePathPatternIndex PathPatternIndex}.
+	 * <p>The default implementation returns {@code null}, in which case the
+	 * mapping is checked for every request that has no direct path match.
+	 * @param mapping the mapping to return the patterns for
+	 * @return the patterns, or {@code null} if not available
+	 * @since 6.1
+	 */
+	@Nullable
+	protected Set<PathPattern> getPathPatterns(T mapping) {
+		return null;
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -474,6 +519,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
+		@Nullable
+		private PathPatternIndex<T> pathPatternIndex;
+
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
 		/**
@@ -484,6 +532,21 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.registry;
 		}
 
+		/**
+		 * Return the mappings to check for the given exchange when there is no
+		 * direct path match: either the candidates from the
+		 * {@link PathPatternIndex}, if enabled, or all registered mappings.
+		 * Not thread-safe.
+		 * @since 6.1
+		 * @see #acquireReadLock()
+		 */
+		public Collection<T> getCandidateMappings(ServerWebExchange exchange) {
+			if (this.pathPatternIndex != null) {
+				return this.pathPatternIndex.getCandidates(exchange.getRequest().getPath().pathWithinApplication());
+			}
+			return this.registry.keySet();
+		}
+
 		/**
 		 * Return matches for the given URL path. Not thread-safe.
 		 * @since 5.3
@@ -529,6 +592,13 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					this.pathLookup.add(path, mapping);
 				}
 
+				if (isUsePathPatternIndex()) {
+					if (this.pathPatternIndex == null) {
+						this.pathPatternIndex = new PathPatternIndex<>();
+					}
+					this.pathPatternIndex.add(mapping, getPathPatterns(mapping));
+				}
+
 				CorsConfiguration corsConfig = initCorsConfiguration(handler, method, mapping);
 				if (corsConfig != null) {
 					corsConfig.validateAllowCredentials();
@@ -572,6 +642,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					}
 				}
 
+				if (this.pathPatternIndex != null) {
+					this.pathPatternIndex.remove(registration.getMapping());
+				}
+
 				this.corsLookup.remove(registration.getHandlerMethod());
 			}
 			finally {
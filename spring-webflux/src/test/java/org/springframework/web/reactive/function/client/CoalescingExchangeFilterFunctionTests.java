@@ -0,0 +1,292 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyExtractors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link CoalescingExchangeFilterFunction}.
+ */
+class CoalescingExchangeFilterFunctionTests {
+
+	private static final URI URL = URI.create("https://example.com/resource");
+
+
+	private final CoalescingExchangeFilterFunction filter = new CoalescingExchangeFilterFunction();
+
+	private final AtomicInteger exchangeCount = new AtomicInteger();
+
+	private final Sinks.Empty<Void> responseTrigger = Sinks.empty();
+
+	private String cacheControl = "";
+
+	private long contentLength = -1;
+
+
+	@Test
+	void coalesceIdenticalRequests() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		StepVerifier.create(Flux.merge(exchangeForBody(request), exchangeForBody(request)))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.expectNext("foo", "foo")
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void doNotCoalesceDifferentRequests() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		ClientRequest otherUrl = ClientRequest.create(HttpMethod.GET, URI.create("https://example.com/other")).build();
+		ClientRequest otherAccept = ClientRequest.create(HttpMethod.GET, URL)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE).build();
+
+		StepVerifier.create(Flux.merge(exchangeForBody(request), exchangeForBody(otherUrl),
+						exchangeForBody(otherAccept)))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.expectNext("foo", "foo", "foo")
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(3);
+	}
+
+	@Test
+	void doNotCoalesceRequestsWithDifferentCredentialsOrAttributes() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		ClientRequest otherCookie = ClientRequest.create(HttpMethod.GET, URL).cookie("SESSION", "123").build();
+		ClientRequest otherApiKey = ClientRequest.create(HttpMethod.GET, URL).header("X-Api-Key", "123").build();
+		ClientRequest otherAttribute = ClientRequest.create(HttpMethod.GET, URL).attribute("tenant", "123").build();
+
+		StepVerifier.create(Flux.merge(exchangeForBody(request), exchangeForBody(otherCookie),
+						exchangeForBody(otherApiKey), exchangeForBody(otherAttribute)))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.expectNext("foo", "foo", "foo", "foo")
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(4);
+	}
+
+	@Test
+	void coalesceRequestsWithSameKeyHeadersAndAttributes() {
+		this.filter.setKeyHeaders(HttpHeaders.ACCEPT);
+		this.filter.setKeyAttributes("tenant");
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL)
+				.header("X-Request-Id", "1").attribute("tenant", "123").attribute("requestId", "1").build();
+		ClientRequest otherRequest = ClientRequest.create(HttpMethod.GET, URL)
+				.header("X-Request-Id", "2").attribute("tenant", "123").attribute("requestId", "2").build();
+		ClientRequest otherTenant = ClientRequest.create(HttpMethod.GET, URL)
+				.header("X-Request-Id", "3").attribute("tenant", "456").build();
+
+		StepVerifier.create(Flux.merge(exchangeForBody(request), exchangeForBody(otherRequest),
+						exchangeForBody(otherTenant)))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.expectNext("foo", "foo", "foo")
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	void doNotCoalesceUnsafeMethods() {
+		ClientRequest request = ClientRequest.create(HttpMethod.POST, URL).build();
+
+		StepVerifier.create(Flux.merge(exchangeForBody(request), exchangeForBody(request)))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.expectNext("foo", "foo")
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	void doNotCoalesceCompletedExchanges() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		this.responseTrigger.tryEmitEmpty();
+
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	void doNotShareLargeResponses() {
+		this.filter.setMaxBodySize(2);
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		StepVerifier.create(Flux.merge(exchangeForBody(request), exchangeForBody(request)))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.expectNext("foo", "foo")
+				.verifyComplete();
+
+		// The shared exchange, handed to one caller, then one for the other caller
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	void doNotShareResponsesWithLargeContentLength() {
+		this.filter.setMaxBodySize(2);
+		this.contentLength = 3;
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		StepVerifier.create(Flux.merge(exchangeForBody(request), exchangeForBody(request), exchangeForBody(request)))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.expectNext("foo", "foo", "foo")
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(3);
+	}
+
+	@Test
+	void shareReadOnlyResponseBodies() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		Mono<DataBuffer> body = this.filter.filter(request, this::exchange)
+				.flatMap(response -> DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers())));
+
+		StepVerifier.create(Flux.merge(body, body))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.assertNext(buffer -> assertThatExceptionOfType(ReadOnlyBufferException.class)
+						.isThrownBy(() -> buffer.writePosition(0).write((byte) 'b')))
+				.assertNext(buffer -> assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("foo"))
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void shareErrors() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		ExchangeFunction next = r -> {
+			this.exchangeCount.incrementAndGet();
+			return this.responseTrigger.asMono().then(Mono.error(new IllegalStateException("Failure")));
+		};
+
+		StepVerifier.create(Flux.merge(
+						this.filter.filter(request, next).onErrorResume(ex -> Mono.empty()),
+						this.filter.filter(request, next).onErrorResume(ex -> Mono.empty())))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void cacheResponses() {
+		Instant now = Instant.now();
+		this.filter.setClock(Clock.fixed(now, ZoneId.of("UTC")));
+		this.filter.setMaxCacheTtl(Duration.ofSeconds(10));
+		this.cacheControl = "public, max-age=5";
+		this.responseTrigger.tryEmitEmpty();
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+
+		this.filter.setClock(Clock.fixed(now.plusSeconds(5), ZoneId.of("UTC")));
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	void cacheResponsesNoLongerThanMaxTtl() {
+		Instant now = Instant.now();
+		this.filter.setClock(Clock.fixed(now, ZoneId.of("UTC")));
+		this.filter.setMaxCacheTtl(Duration.ofSeconds(1));
+		this.cacheControl = "max-age=60";
+		this.responseTrigger.tryEmitEmpty();
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+		this.filter.setClock(Clock.fixed(now.plusSeconds(1), ZoneId.of("UTC")));
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	void doNotCacheNoStoreResponses() {
+		this.filter.setMaxCacheTtl(Duration.ofSeconds(10));
+		this.cacheControl = "max-age=5, no-store";
+		this.responseTrigger.tryEmitEmpty();
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	void doNotCacheByDefault() {
+		this.cacheControl = "max-age=5";
+		this.responseTrigger.tryEmitEmpty();
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+		StepVerifier.create(exchangeForBody(request)).expectNext("foo").verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+
+	private Mono<String> exchangeForBody(ClientRequest request) {
+		return this.filter.filter(request, this::exchange).flatMap(response -> {
+			assertThat(response.statusCode()).isEqualTo(HttpStatus.OK);
+			return response.bodyToMono(String.class);
+		});
+	}
+
+	private Mono<ClientResponse> exchange(ClientRequest request) {
+		this.exchangeCount.incrementAndGet();
+		return this.responseTrigger.asMono().then(Mono.fromSupplier(() -> {
+			ClientResponse.Builder builder = ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+					.header(HttpHeaders.CACHE_CONTROL, this.cacheControl);
+			if (this.contentLength != -1) {
+				builder.header(HttpHeaders.CONTENT_LENGTH, Long.toString(this.contentLength));
+			}
+			return builder.body("foo").build();
+		}));
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link ConcurrencyLimitExchangeFilterFunction}.
+ */
+class ConcurrencyLimitExchangeFilterFunctionTests {
+
+	private static final URI URL = URI.create("https://example.com/resource");
+
+	private static final ClientRequest REQUEST = ClientRequest.create(HttpMethod.GET, URL).build();
+
+
+	private final ConcurrencyLimitExchangeFilterFunction filter = new ConcurrencyLimitExchangeFilterFunction();
+
+	private final AtomicInteger exchangeCount = new AtomicInteger();
+
+	private final Sinks.Empty<Void> responseTrigger = Sinks.empty();
+
+	private HttpStatus status = HttpStatus.OK;
+
+
+	@Test
+	void queueAndRejectRequestsBeyondLimit() {
+		this.filter.setInitialLimit(1);
+		this.filter.setMaxQueueSize(1);
+
+		StepVerifier.create(exchangeForBody())
+				.then(() -> {
+					StepVerifier.create(exchangeForBody().concatWith(Mono.just("done")))
+							.then(() -> {
+								assertThat(this.exchangeCount.get()).isEqualTo(1);
+								StepVerifier.create(exchangeForBody())
+										.expectErrorSatisfies(ex -> assertThat(ex)
+												.isInstanceOf(WebClientRequestException.class)
+												.hasCauseInstanceOf(RejectedExecutionException.class))
+										.verify();
+								this.responseTrigger.tryEmitEmpty();
+							})
+							.expectNext("foo", "done")
+							.verifyComplete();
+				})
+				.expectNext("foo")
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+		assertThat(this.filter.getInFlight(URL)).isZero();
+	}
+
+	@Test
+	void releaseQueuedRequestOnCancel() {
+		this.filter.setInitialLimit(1);
+
+		StepVerifier.create(exchangeForBody())
+				.then(() -> StepVerifier.create(exchangeForBody()).thenCancel().verify())
+				.then(this.responseTrigger::tryEmitEmpty)
+				.expectNext("foo")
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+		assertThat(this.filter.getInFlight(URL)).isZero();
+	}
+
+	@Test
+	void decreaseLimitOnOverload() {
+		this.filter.setInitialLimit(10);
+		this.status = HttpStatus.SERVICE_UNAVAILABLE;
+		this.responseTrigger.tryEmitEmpty();
+
+		StepVerifier.create(exchangeForBody()).expectNext("foo").verifyComplete();
+
+		assertThat(this.filter.getLimit(URL)).isEqualTo(9);
+	}
+
+	@Test
+	void decreaseLimitOnError() {
+		this.filter.setInitialLimit(10);
+
+		StepVerifier.create(this.filter.filter(REQUEST, request -> Mono.error(new IllegalStateException())))
+				.verifyError(IllegalStateException.class);
+
+		assertThat(this.filter.getLimit(URL)).isEqualTo(9);
+		assertThat(this.filter.getInFlight(URL)).isZero();
+	}
+
+	@Test
+	void doNotDecreaseLimitBelowMin() {
+		this.filter.setInitialLimit(1);
+		this.status = HttpStatus.TOO_MANY_REQUESTS;
+		this.responseTrigger.tryEmitEmpty();
+
+		StepVerifier.create(exchangeForBody()).expectNext("foo").verifyComplete();
+
+		assertThat(this.filter.getLimit(URL)).isEqualTo(1);
+	}
+
+	@Test
+	void signalObservationEvents() {
+		this.filter.setInitialLimit(1);
+		this.filter.setMaxQueueSize(0);
+		Observation observation = mock();
+
+		StepVerifier.create(exchangeForBody().contextWrite(Context.of(ObservationThreadLocalAccessor.KEY, observation)))
+				.then(() -> StepVerifier.create(exchangeForBody()
+								.contextWrite(Context.of(ObservationThreadLocalAccessor.KEY, observation)))
+						.verifyError(WebClientRequestException.class))
+				.then(this.responseTrigger::tryEmitEmpty)
+				.expectNext("foo")
+				.verifyComplete();
+
+		verify(observation).highCardinalityKeyValue(ConcurrencyLimitExchangeFilterFunction.LIMIT_KEY_NAME, "1");
+		verify(observation).event(argThat(event ->
+				event.getName().equals(ConcurrencyLimitExchangeFilterFunction.REJECTED_EVENT_NAME)));
+	}
+
+
+	private Mono<String> exchangeForBody() {
+		return this.filter.filter(REQUEST, this::exchange).flatMap(response -> {
+			assertThat(response.statusCode()).isEqualTo(this.status);
+			return response.bodyToMono(String.class);
+		});
+	}
+
+	private Mono<ClientResponse> exchange(ClientRequest request) {
+		this.exchangeCount.incrementAndGet();
+		return this.responseTrigger.asMono().then(Mono.fromSupplier(() ->
+				ClientResponse.create(this.status).body("foo").build()));
+	}
+
+}
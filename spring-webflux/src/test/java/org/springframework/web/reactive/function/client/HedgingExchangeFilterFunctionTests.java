@@ -0,0 +1,209 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link HedgingExchangeFilterFunction}.
+ */
+class HedgingExchangeFilterFunctionTests {
+
+	private static final URI URL = URI.create("https://example.com/resource");
+
+
+	private final HedgingExchangeFilterFunction filter = new HedgingExchangeFilterFunction();
+
+	private final AtomicInteger exchangeCount = new AtomicInteger();
+
+	private final AtomicBoolean primaryCanceled = new AtomicBoolean();
+
+	private boolean slowPrimary = true;
+
+
+	@BeforeEach
+	void setup() {
+		this.filter.setMinSamples(1);
+		this.filter.setMinDelay(Duration.ofMillis(100));
+
+		// Record a latency for the host
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		StepVerifier.create(this.filter.filter(request, r -> Mono.just(ClientResponse.create(HttpStatus.OK).build())))
+				.expectNextCount(1)
+				.verifyComplete();
+		assertThat(this.filter.getHedgeDelay(URL)).isEqualTo(Duration.ofMillis(100));
+	}
+
+
+	@Test
+	void hedgeSlowRequest() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		StepVerifier.withVirtualTime(() -> this.filter.filter(request, this::exchange))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(99))
+				.thenAwait(Duration.ofMillis(1))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+		assertThat(this.primaryCanceled.get()).isTrue();
+	}
+
+	@Test
+	void hedgeSurvivesPrimaryFailure() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		ExchangeFunction exchange = r -> (this.exchangeCount.getAndIncrement() == 0 ?
+				Mono.delay(Duration.ofMillis(150)).then(Mono.error(new IllegalStateException("primary"))) :
+				Mono.delay(Duration.ofMillis(100)).thenReturn(ClientResponse.create(HttpStatus.OK).build()));
+
+		StepVerifier.withVirtualTime(() -> this.filter.filter(request, exchange))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(199))
+				.thenAwait(Duration.ofMillis(1))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	void failWhenPrimaryAndHedgeFail() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		ExchangeFunction exchange = r -> {
+			String name = (this.exchangeCount.getAndIncrement() == 0 ? "primary" : "hedge");
+			return Mono.delay(Duration.ofMillis(150)).then(Mono.error(new IllegalStateException(name)));
+		};
+
+		StepVerifier.withVirtualTime(() -> this.filter.filter(request, exchange))
+				.expectSubscription()
+				.thenAwait(Duration.ofMillis(250))
+				.expectErrorMessage("hedge")
+				.verify();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	void failWhenPrimaryFailsBeforeHedging() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		ExchangeFunction exchange = r -> {
+			this.exchangeCount.incrementAndGet();
+			return Mono.error(new IllegalStateException("primary"));
+		};
+
+		StepVerifier.withVirtualTime(() -> this.filter.filter(request, exchange))
+				.expectErrorMessage("primary")
+				.verify();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void doNotHedgeFastRequest() {
+		this.slowPrimary = false;
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		StepVerifier.withVirtualTime(() -> this.filter.filter(request, this::exchange))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void doNotHedgeUnsafeMethods() {
+		ClientRequest request = ClientRequest.create(HttpMethod.POST, URL).build();
+
+		StepVerifier.withVirtualTime(() -> this.filter.filter(request, this::exchange))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofSeconds(1))
+				.thenCancel()
+				.verify();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void doNotHedgeBeyondBudget() {
+		this.filter.setMaxHedgeRatio(0.01);
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+		// Use up the initial budget
+		for (int i = 0; i < 10; i++) {
+			this.exchangeCount.set(0);
+			StepVerifier.withVirtualTime(() -> this.filter.filter(request, this::exchange))
+					.thenAwait(Duration.ofMillis(100))
+					.expectNextCount(1)
+					.verifyComplete();
+		}
+		this.exchangeCount.set(0);
+
+		StepVerifier.withVirtualTime(() -> this.filter.filter(request, this::exchange))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofSeconds(1))
+				.thenCancel()
+				.verify();
+
+		assertThat(this.exchangeCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void signalObservationEvents() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+		Observation observation = mock();
+
+		StepVerifier.withVirtualTime(() -> this.filter.filter(request, this::exchange)
+						.contextWrite(Context.of(ObservationThreadLocalAccessor.KEY, observation)))
+				.thenAwait(Duration.ofMillis(100))
+				.expectNextCount(1)
+				.verifyComplete();
+
+		verify(observation).event(argThat(event ->
+				event.getName().equals(HedgingExchangeFilterFunction.SENT_EVENT_NAME)));
+		verify(observation).event(argThat(event ->
+				event.getName().equals(HedgingExchangeFilterFunction.WON_EVENT_NAME)));
+	}
+
+
+	private Mono<ClientResponse> exchange(ClientRequest request) {
+		if (this.exchangeCount.getAndIncrement() == 0 && this.slowPrimary) {
+			return Mono.<ClientResponse>never().doOnCancel(() -> this.primaryCanceled.set(true));
+		}
+		return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.resource.GzipSupport.GzippedFiles;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.testfixture.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest.get;
+
+/**
+ * Unit tests for {@link ContentCachingResourceResolver}.
+ */
+@ExtendWith(GzipSupport.class)
+class ContentCachingResourceResolverTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final ContentCachingResourceResolver resolver = new ContentCachingResourceResolver();
+
+	private final CountingResourceResolver countingResolver = new CountingResourceResolver();
+
+	private final List<Resource> locations = List.of(new ClassPathResource("test/", getClass()));
+
+	private ResourceResolverChain chain;
+
+
+	@BeforeEach
+	void setup() {
+		this.chain = new DefaultResourceResolverChain(List.of(this.resolver, this.countingResolver));
+	}
+
+
+	@Test
+	void resolveResourceFromCache() throws IOException {
+		Resource original = new ClassPathResource("test/main.css", getClass());
+		Resource first = resolve(MockServerWebExchange.from(get("")), "main.css");
+		Resource second = resolve(MockServerWebExchange.from(get("")), "main.css");
+
+		assertThat(this.countingResolver.count).isEqualTo(1);
+		assertThat(second).isSameAs(first);
+		assertThat(first.getContentAsByteArray()).isEqualTo(original.getContentAsByteArray());
+		assertThat(first.getFilename()).isEqualTo("main.css");
+		assertThat(first.lastModified()).isEqualTo(original.lastModified());
+
+		HttpHeaders headers = ((HttpResource) first).getResponseHeaders();
+		assertThat(headers.getETag()).isEqualTo("\"42099e1d58651aa33d81c7a456629c4c\"");
+		assertThat(headers.getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+	}
+
+	@Test
+	void resolveCompressedResource() throws IOException {
+		Resource original = new ClassPathResource("test/main.css", getClass());
+		Resource resource = resolve(gzipRequest(), "main.css");
+
+		assertThat(resource.contentLength()).isLessThan(original.contentLength());
+		try (GZIPInputStream in = new GZIPInputStream(resource.getInputStream())) {
+			assertThat(in.readAllBytes()).isEqualTo(original.getContentAsByteArray());
+		}
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getETag()).isEqualTo("\"42099e1d58651aa33d81c7a456629c4c-gzip\"");
+	}
+
+	@Test
+	void resolveResourceWithAcceptEncodingQualityValues() {
+		Resource resource = resolve(MockServerWebExchange.from(
+				get("").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate")), "main.css");
+		assertThat(((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+
+		resource = resolve(MockServerWebExchange.from(
+				get("").header(HttpHeaders.ACCEPT_ENCODING, "x-gzip")), "main.css");
+		assertThat(((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+
+		resource = resolve(MockServerWebExchange.from(
+				get("").header(HttpHeaders.ACCEPT_ENCODING, "identity;q=0.5, *;q=0.8")), "main.css");
+		assertThat(((HttpResource) resource).getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+				.isEqualTo("gzip");
+	}
+
+	@Test
+	void resolvePrecompressedResource(GzippedFiles gzippedFiles) throws IOException {
+		gzippedFiles.create("foo.css");
+		Resource precompressed = new ClassPathResource("test/foo.css.gz", getClass());
+		Resource resource = resolve(gzipRequest(), "foo.css");
+
+		assertThat(resource.getContentAsByteArray()).isEqualTo(precompressed.getContentAsByteArray());
+		assertThat(((HttpResource) resource).getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+				.isEqualTo("gzip");
+	}
+
+	@Test
+	void resolveResourceWithoutCompressibleContent() {
+		Resource resource = resolve(gzipRequest(), "foo.css");
+
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(headers.containsKey(HttpHeaders.VARY)).isFalse();
+	}
+
+	@Test
+	void resolveResourceNoMatch() {
+		assertThat(resolve(null, "invalid.css")).isNull();
+		assertThat(this.resolver.getCacheSize()).isZero();
+	}
+
+	@Test
+	void evictLeastRecentlyUsed() {
+		this.resolver.setMaxCacheSize(40);
+		resolve(null, "foo.css");
+		resolve(null, "bar.css");
+		resolve(null, "foo.css");
+		assertThat(this.resolver.getCacheSize()).isEqualTo(17 + 19);
+
+		resolve(null, "foo.txt");
+		assertThat(this.resolver.getCacheSize()).isEqualTo(17 + 10);
+
+		this.countingResolver.count = 0;
+		resolve(null, "foo.css");
+		assertThat(this.countingResolver.count).isZero();
+		resolve(null, "bar.css");
+		assertThat(this.countingResolver.count).isEqualTo(1);
+	}
+
+	@Test
+	void maxResourceSize() {
+		this.resolver.setMaxResourceSize(100);
+		Resource resource = resolve(null, "main.css");
+
+		assertThat(resource).isEqualTo(new ClassPathResource("test/main.css", getClass()));
+		assertThat(this.resolver.getCacheSize()).isZero();
+	}
+
+	@Test
+	void loadContentOnBoundedElasticScheduler() {
+		AtomicReference<String> threadName = new AtomicReference<>();
+		Resource resource = new ClassPathResource("test/main.css", getClass()) {
+			@Override
+			public byte[] getContentAsByteArray() throws IOException {
+				threadName.set(Thread.currentThread().getName());
+				return super.getContentAsByteArray();
+			}
+		};
+		ResourceResolverChain chain = mock();
+		given(chain.resolveResource(null, "main.css", this.locations)).willReturn(Mono.just(resource));
+
+		Resource resolved = this.resolver.resolveResource(null, "main.css", this.locations, chain).block(TIMEOUT);
+
+		assertThat(resolved).isNotNull();
+		assertThat(threadName.get()).startsWith("boundedElastic");
+	}
+
+
+	@Nullable
+	private Resource resolve(@Nullable ServerWebExchange exchange, String requestPath) {
+		return this.chain.resolveResource(exchange, requestPath, this.locations).block(TIMEOUT);
+	}
+
+	private static ServerWebExchange gzipRequest() {
+		return MockServerWebExchange.from(get("").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+	}
+
+
+	private static class CountingResourceResolver extends PathResourceResolver {
+
+		private int count;
+
+		@Override
+		protected Mono<Resource> resolveResourceInternal(@Nullable ServerWebExchange exchange,
+				String requestPath, List<? extends Resource> locations, ResourceResolverChain chain) {
+
+			this.count++;
+			return super.resolveResourceInternal(exchange, requestPath, locations, chain);
+		}
+	}
+
+}
@@ -494,6 +494,26 @@ class ResourceWebHandlerTests {
 		assertResponseBody(exchange, "h1 { color:red; }");
 	}
 
+	@Test
+	void notModifiedWithETagOfCachedResource() throws Exception {
+		this.handler.setResourceResolvers(List.of(new ContentCachingResourceResolver(), new PathResourceResolver()));
+		this.handler.setUseLastModified(false);
+		this.handler.afterPropertiesSet();
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(""));
+		setPathWithinHandlerMapping(exchange, "foo.css");
+		setBestMachingPattern(exchange, "/**");
+		this.handler.handle(exchange).block(TIMEOUT);
+		String eTag = exchange.getResponse().getHeaders().getETag();
+		assertThat(eTag).isNotNull();
+
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get("").ifNoneMatch(eTag));
+		setPathWithinHandlerMapping(exchange, "foo.css");
+		setBestMachingPattern(exchange, "/**");
+		this.handler.handle(exchange).block(TIMEOUT);
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+	}
+
 	@Test
 	void directory() {
 		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(""));
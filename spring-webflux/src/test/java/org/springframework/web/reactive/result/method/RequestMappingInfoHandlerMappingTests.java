@@ -124,6 +124,24 @@ public class RequestMappingInfoHandlerMappingTests {
 		assertThat(hm.getMethod()).isEqualTo(expected);
 	}
 
+	@Test
+	public void getHandlerWithPathPatternIndex() {
+		TestRequestMappingInfoHandlerMapping mapping = new TestRequestMappingInfoHandlerMapping();
+		mapping.setUsePathPatternIndex(true);
+		mapping.registerHandler(new TestController());
+
+		Method expected = on(TestController.class).annot(requestMapping("/ba*").method(GET, HEAD)).resolveMethod();
+		HandlerMethod hm = (HandlerMethod) mapping.getHandler(MockServerWebExchange.from(get("/bar"))).block();
+		assertThat(hm.getMethod()).isEqualTo(expected);
+
+		expected = on(TestController.class).annot(requestMapping("")).resolveMethod();
+		hm = (HandlerMethod) mapping.getHandler(MockServerWebExchange.from(get(""))).block();
+		assertThat(hm.getMethod()).isEqualTo(expected);
+
+		hm = (HandlerMethod) mapping.getHandler(MockServerWebExchange.from(get("/baz/qux"))).block();
+		assertThat(hm).isNull();
+	}
+
 	@Test
 	public void getHandlerBestMatch() {
 		Method expected = on(TestController.class).annot(getMapping("/foo").params("p")).resolveMethod();
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+import org.springframework.web.testfixture.servlet.MockHttpServletResponse;
+import org.springframework.web.testfixture.servlet.MockServletContext;
+
+/**
+ * Benchmark for serving large file system resources with
+ * {@link ResourceHttpRequestHandler}, with and without zero-copy transfer.
+ * The response body is written to a file channel, which the zero-copy
+ * transfer can target directly.
+ *
+ * @see ResourceHttpRequestHandler#setUseZeroCopyTransfer
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResourceHttpRequestHandlerBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"1048576", "67108864"})
+		public int fileSize;
+
+		@Param({"standard", "zeroCopy"})
+		public String transfer;
+
+		public Path directory;
+
+		public ResourceHttpRequestHandler handler;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.directory = Files.createTempDirectory("resource-benchmark");
+			byte[] content = new byte[this.fileSize];
+			new Random(42).nextBytes(content);
+			Files.write(this.directory.resolve("asset.bin"), content);
+
+			this.handler = new ResourceHttpRequestHandler();
+			this.handler.setLocations(List.of(new FileSystemResource(this.directory.toString() + "/")));
+			this.handler.setServletContext(new MockServletContext());
+			this.handler.setUseZeroCopyTransfer("zeroCopy".equals(this.transfer));
+			this.handler.afterPropertiesSet();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			FileSystemUtils.deleteRecursively(this.directory);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ResponseState {
+
+		public FileChannel sink;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			Path file = Files.createTempFile("resource-benchmark", ".out");
+			this.sink = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			this.sink.close();
+		}
+	}
+
+
+	@Benchmark
+	public long fullContent(BenchmarkState state, ResponseState responseState) throws Exception {
+		return serve(state, responseState, null);
+	}
+
+	@Benchmark
+	public long byteRange(BenchmarkState state, ResponseState responseState) throws Exception {
+		return serve(state, responseState, "bytes=1024-" + (state.fileSize / 2));
+	}
+
+	private long serve(BenchmarkState state, ResponseState responseState, String range) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/asset.bin");
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "asset.bin");
+		if (range != null) {
+			request.addHeader("Range", range);
+		}
+		responseState.sink.position(0);
+		ChannelServletOutputStream outputStream = new ChannelServletOutputStream(responseState.sink);
+		MockHttpServletResponse response = new MockHttpServletResponse() {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				return outputStream;
+			}
+		};
+		state.handler.handleRequest(request, response);
+		return responseState.sink.position();
+	}
+
+
+	/**
+	 * Servlet output stream that writes to a file channel and also exposes
+	 * it as a {@link WritableByteChannel} for zero-copy transfers.
+	 */
+	private static class ChannelServletOutputStream extends ServletOutputStream implements WritableByteChannel {
+
+		private final FileChannel channel;
+
+		ChannelServletOutputStream(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			return this.channel.write(src);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+			while (buffer.hasRemaining()) {
+				this.channel.write(buffer);
+			}
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+		}
+
+		@Override
+		public boolean isOpen() {
+			return this.channel.isOpen();
+		}
+
+		@Override
+		public void close() {
+			// keep the sink open across invocations
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -57,6 +57,8 @@ public class ResourceHandlerRegistration {
 
 	private boolean optimizeLocations = false;
 
+	private boolean useZeroCopyTransfer = false;
+
 
 	/**
 	 * Create a {@link ResourceHandlerRegistration} instance.
@@ -159,6 +161,21 @@ public class ResourceHandlerRegistration {
 		return this;
 	}
 
+	/**
+	 * Set whether to transfer the content of file system resources without copying
+	 * it through the heap, using the Servlet container's "sendfile" support or a
+	 * file channel transfer where available.
+	 * <p>This configuration is set to {@code false} by default.
+	 * @param useZeroCopyTransfer whether to transfer file content without copying
+	 * @return the same {@link ResourceHandlerRegistration} instance, for chained method invocation
+	 * @since 6.1
+	 * @see ResourceHttpRequestHandler#setUseZeroCopyTransfer
+	 */
+	public ResourceHandlerRegistration setUseZeroCopyTransfer(boolean useZeroCopyTransfer) {
+		this.useZeroCopyTransfer = useZeroCopyTransfer;
+		return this;
+	}
+
 	/**
 	 * Configure a chain of resource resolvers and transformers to use. This
 	 * can be useful, for example, to apply a version strategy to resource URLs.
@@ -225,6 +242,7 @@ public class ResourceHandlerRegistration {
 		}
 		handler.setUseLastModified(this.useLastModified);
 		handler.setOptimizeLocations(this.optimizeLocations);
+		handler.setUseZeroCopyTransfer(this.useZeroCopyTransfer);
 		return handler;
 	}
 
@@ -39,6 +39,7 @@ import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.http.server.PathContainer;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -49,6 +50,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternIndex;
 import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
@@ -95,6 +99,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 	private boolean detectHandlerMethodsInAncestorContexts = false;
 
+	private boolean usePathPatternIndex = false;
+
 	@Nullable
 	private HandlerMethodMappingNamingStrategy<T> namingStrategy;
 
@@ -122,6 +128,34 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		this.detectHandlerMethodsInAncestorContexts = detectHandlerMethodsInAncestorContexts;
 	}
 
+	/**
+	 * Whether to select the candidate mappings for a request through a
+	 * {@link PathPatternIndex} of the mapping patterns, rather than checking
+	 * every registered mapping, when no direct path matches.
+	 * <p>Default is "false". Switching this flag on is recommended for a large
+	 * number of pattern-based mappings; it requires parsed {@link PathPattern}s
+	 * as provided through {@link #getPathPatterns}, and has no effect for
+	 * mappings that use a {@link org.springframework.util.PathMatcher}.
+	 * <p>This must be set before the initialization of request mappings through
+	 * {@link InitializingBean#afterPropertiesSet}.
+	 * @since 6.1
+	 * @see PathPatternIndex
+	 */
+	public void setUsePathPatternIndex(boolean usePathPatternIndex) {
+		Assert.state(this.mappingRegistry.getRegistrations().isEmpty(),
+				"The PathPatternIndex must be enabled before the initialization of " +
+						"request mappings through InitializingBean#afterPropertiesSet.");
+		this.usePathPatternIndex = usePathPatternIndex;
+	}
+
+	/**
+	 * Whether candidate mappings are selected through a {@link PathPatternIndex}.
+	 * @since 6.1
+	 */
+	public boolean isUsePathPatternIndex() {
+		return this.usePathPatternIndex;
+	}
+
 	/**
 	 * Configure the naming strategy to use for assigning a default name to every
 	 * mapped handler method.
@@ -409,7 +443,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			addMatchingMappings(this.mappingRegistry.getRegistrations().keySet(), matches, request);
+			addMatchingMappings(this.mappingRegistry.getCandidateMappings(request), matches, request);
 		}
 		if (!matches.isEmpty()) {
 			Match bestMatch = matches.get(0);
@@ -548,6 +582,20 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		return urls;
 	}
 
+	/**
+	 * Return the parsed path patterns of the given mapping, for use with a
+	 * {@link #setUsePathPatternIndex PathPatternIndex}.
+	 * <p>The default implementation returns {@code null}, in which case the
+	 * mapping is checked for every request that has no direct path match.
+	 * @param mapping the mapping to return the patterns for
+	 * @return the patterns, or {@code null} if not available
+	 * @since 6.1
+	 */
+	@Nullable
+	protected Set<PathPattern> getPathPatterns(T mapping) {
+		return null;
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -582,6 +630,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
+		@Nullable
+		private PathPatternIndex<T> pathPatternIndex;
+
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
 		/**
@@ -592,6 +643,22 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.registry;
 		}
 
+		/**
+		 * Return the mappings to check for the given request when there is no
+		 * direct path match: either the candidates from the
+		 * {@link PathPatternIndex}, if enabled and the request path has been
+		 * parsed, or all registered mappings. Not thread-safe.
+		 * @since 6.1
+		 * @see #acquireReadLock()
+		 */
+		public Collection<T> getCandidateMappings(HttpServletRequest request) {
+			if (this.pathPatternIndex != null && ServletRequestPathUtils.hasParsedRequestPath(request)) {
+				PathContainer path = ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication();
+				return this.pathPatternIndex.getCandidates(path);
+			}
+			return this.registry.keySet();
+		}
+
 		/**
 		 * Return matches for the given URL path. Not thread-safe.
 		 * @see #acquireReadLock()
@@ -642,6 +709,13 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					this.pathLookup.add(path, mapping);
 				}
 
+				if (isUsePathPatternIndex()) {
+					if (this.pathPatternIndex == null) {
+						this.pathPatternIndex = new PathPatternIndex<>();
+					}
+					this.pathPatternIndex.add(mapping, getPathPatterns(mapping));
+				}
+
 				String name = null;
 				if (getNamingStrategy() != null) {
 					name = getNamingStrategy().getName(handlerMethod, mapping);
@@ -709,6 +783,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					}
 				}
 
+				if (this.pathPatternIndex != null) {
+					this.pathPatternIndex.remove(registration.getMapping());
+				}
+
 				removeMappingName(registration);
 
 				this.corsLookup.remove(registration.getHandlerMethod());
@@ -173,6 +173,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 	private boolean synchronizeOnSession = false;
 
+	private boolean cacheInvocationPlans = false;
+
 	private SessionAttributeStore sessionAttributeStore = new DefaultSessionAttributeStore();
 
 	private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
@@ -190,6 +192,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 	private final Map<ControllerAdviceBean, Set<Method>> modelAttributeAdviceCache = new LinkedHashMap<>();
 
+	private final Map<HandlerMethod, InvocationPlan> invocationPlanCache = new ConcurrentHashMap<>(64);
+
 
 	/**
 	 * Provide resolvers for custom argument types. Custom resolvers are ordered
@@ -512,6 +516,37 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		this.synchronizeOnSession = synchronizeOnSession;
 	}
 
+	/**
+	 * Set whether to cache an invocation plan per handler method, i.e. the
+	 * configured {@link ServletInvocableHandlerMethod}, the
+	 * {@link WebDataBinderFactory} with its {@code @InitBinder} methods, the
+	 * {@code @ModelAttribute} methods and the {@link SessionAttributesHandler}.
+	 * <p>Default is "false", building these collaborators for every request.
+	 * Switch this flag on to reuse them across requests; for handler methods
+	 * without {@code @ModelAttribute} methods and session attributes, model
+	 * initialization is then skipped entirely, and no {@link ModelFactory} is
+	 * created unless a view is to be rendered.
+	 * <p>Note that a cached plan retains the {@code @ControllerAdvice} bean
+	 * instances resolved when the plan was built, and is only reused for the
+	 * same handler bean instance; handler methods on prototype-scoped
+	 * controllers therefore still get their collaborators built per request.
+	 * Plans are built through {@link #createInvocableHandlerMethod} and
+	 * {@link #createDataBinderFactory}, which need to return thread-safe
+	 * instances when this flag is switched on.
+	 * @since 6.1
+	 */
+	public void setCacheInvocationPlans(boolean cacheInvocationPlans) {
+		this.cacheInvocationPlans = cacheInvocationPlans;
+	}
+
+	/**
+	 * Return whether an invocation plan is cached per handler method.
+	 * @since 6.1
+	 */
+	public boolean isCacheInvocationPlans() {
+		return this.cacheInvocationPlans;
+	}
+
 	/**
 	 * Set the ParameterNameDiscoverer to use for resolving method parameter names if needed
 	 * (e.g. for default attribute names).
@@ -843,22 +878,18 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			HttpServletResponse response, HandlerMethod handlerMethod) throws Exception {
 
 		ServletWebRequest webRequest = new ServletWebRequest(request, response);
-		WebDataBinderFactory binderFactory = getDataBinderFactory(handlerMethod);
-		ModelFactory modelFactory = getModelFactory(handlerMethod, binderFactory);
+		InvocationPlan plan = getInvocationPlan(handlerMethod);
+		ServletInvocableHandlerMethod invocableMethod = plan.invocableMethod();
 
-		ServletInvocableHandlerMethod invocableMethod = createInvocableHandlerMethod(handlerMethod);
-		if (this.argumentResolvers != null) {
-			invocableMethod.setHandlerMethodArgumentResolvers(this.argumentResolvers);
-		}
-		if (this.returnValueHandlers != null) {
-			invocableMethod.setHandlerMethodReturnValueHandlers(this.returnValueHandlers);
-		}
-		invocableMethod.setDataBinderFactory(binderFactory);
-		invocableMethod.setParameterNameDiscoverer(this.parameterNameDiscoverer);
+		// With a cached plan, a no-op model initialization is skipped
+		ModelFactory modelFactory = (!this.cacheInvocationPlans || plan.requiresModelInitialization() ?
+				plan.createModelFactory() : null);
 
 		ModelAndViewContainer mavContainer = new ModelAndViewContainer();
 		mavContainer.addAllAttributes(RequestContextUtils.getInputFlashMap(request));
-		modelFactory.initModel(webRequest, mavContainer, invocableMethod);
+		if (modelFactory != null) {
+			modelFactory.initModel(webRequest, mavContainer, invocableMethod);
+		}
 		mavContainer.setIgnoreDefaultModelOnRedirect(this.ignoreDefaultModelOnRedirect);
 
 		AsyncWebRequest asyncWebRequest = WebAsyncUtils.createAsyncWebRequest(request, response);
@@ -886,9 +917,55 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			return null;
 		}
 
+		if (modelFactory == null) {
+			if (mavContainer.isRequestHandled()) {
+				return null;
+			}
+			modelFactory = plan.createModelFactory();
+		}
 		return getModelAndView(mavContainer, modelFactory, webRequest);
 	}
 
+	/**
+	 * Return the invocation plan for the given handler method, either cached
+	 * or newly built, depending on the {@link #setCacheInvocationPlans} flag.
+	 */
+	private InvocationPlan getInvocationPlan(HandlerMethod handlerMethod) throws Exception {
+		if (!this.cacheInvocationPlans) {
+			return createInvocationPlan(handlerMethod);
+		}
+		HandlerMethod key = handlerMethod.getResolvedFromHandlerMethod();
+		key = (key != null ? key : handlerMethod);
+		InvocationPlan plan = this.invocationPlanCache.get(key);
+		if (plan != null && plan.invocableMethod().getBean() == handlerMethod.getBean()) {
+			return plan;
+		}
+		InvocationPlan newPlan = createInvocationPlan(handlerMethod);
+		if (plan == null) {
+			// Only the first bean instance gets cached, e.g. not for prototype-scoped handlers
+			this.invocationPlanCache.putIfAbsent(key, newPlan);
+		}
+		return newPlan;
+	}
+
+	private InvocationPlan createInvocationPlan(HandlerMethod handlerMethod) throws Exception {
+		WebDataBinderFactory binderFactory = getDataBinderFactory(handlerMethod);
+		List<InvocableHandlerMethod> attrMethods = getModelAttributeMethods(handlerMethod, binderFactory);
+
+		ServletInvocableHandlerMethod invocableMethod = createInvocableHandlerMethod(handlerMethod);
+		if (this.argumentResolvers != null) {
+			invocableMethod.setHandlerMethodArgumentResolvers(this.argumentResolvers);
+		}
+		if (this.returnValueHandlers != null) {
+			invocableMethod.setHandlerMethodReturnValueHandlers(this.returnValueHandlers);
+		}
+		invocableMethod.setDataBinderFactory(binderFactory);
+		invocableMethod.setParameterNameDiscoverer(this.parameterNameDiscoverer);
+
+		return new InvocationPlan(invocableMethod, binderFactory, attrMethods,
+				getSessionAttributesHandler(handlerMethod));
+	}
+
 	/**
 	 * Create a {@link ServletInvocableHandlerMethod} from the given {@link HandlerMethod} definition.
 	 * @param handlerMethod the {@link HandlerMethod} definition
@@ -899,8 +976,9 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		return new ServletInvocableHandlerMethod(handlerMethod);
 	}
 
-	private ModelFactory getModelFactory(HandlerMethod handlerMethod, WebDataBinderFactory binderFactory) {
-		SessionAttributesHandler sessionAttrHandler = getSessionAttributesHandler(handlerMethod);
+	private List<InvocableHandlerMethod> getModelAttributeMethods(
+			HandlerMethod handlerMethod, WebDataBinderFactory binderFactory) {
+
 		Class<?> handlerType = handlerMethod.getBeanType();
 		Set<Method> methods = this.modelAttributeCache.get(handlerType);
 		if (methods == null) {
@@ -921,7 +999,7 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			Object bean = handlerMethod.getBean();
 			attrMethods.add(createModelAttributeMethod(binderFactory, bean, method));
 		}
-		return new ModelFactory(attrMethods, binderFactory, sessionAttrHandler);
+		return attrMethods;
 	}
 
 	private InvocableHandlerMethod createModelAttributeMethod(WebDataBinderFactory factory, Object bean, Method method) {
@@ -1005,4 +1083,23 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		return mav;
 	}
 
+
+	/**
+	 * The collaborators for invoking a handler method, built once per handler
+	 * method if {@link #setCacheInvocationPlans cached}. A new {@link ModelFactory}
+	 * is required per request since it keeps track of invoked model methods.
+	 */
+	private record InvocationPlan(ServletInvocableHandlerMethod invocableMethod,
+			WebDataBinderFactory binderFactory, List<InvocableHandlerMethod> modelAttributeMethods,
+			SessionAttributesHandler sessionAttributesHandler) {
+
+		boolean requiresModelInitialization() {
+			return (!this.modelAttributeMethods.isEmpty() || this.sessionAttributesHandler.hasSessionAttributes());
+		}
+
+		ModelFactory createModelFactory() {
+			return new ModelFactory(this.modelAttributeMethods, this.binderFactory, this.sessionAttributesHandler);
+		}
+	}
+
 }
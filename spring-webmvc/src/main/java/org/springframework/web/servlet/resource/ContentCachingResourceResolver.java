@@ -0,0 +1,426 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link ResourceResolver} that keeps the content of resolved resources in
+ * memory, so that frequently requested resources are served without being
+ * resolved, read, or compressed again.
+ *
+ * <p>For each resolved resource, the cache holds the raw content, an encoded
+ * variant for each supported {@link #setContentCodings content coding}, the
+ * MD5 hash of the raw content as also calculated by {@link ContentVersionStrategy},
+ * and the {@code ETag} header derived from that hash. An encoded variant is
+ * read from a precompressed file next to the resource, e.g. "main.css.gz" or
+ * "main.css.br", if present; otherwise a "gzip" variant is compressed once when
+ * the resource is first cached, and used only if smaller than the raw content.
+ * The {@link ResourceHttpRequestHandler} checks the {@code ETag} of the selected
+ * variant against the {@code If-None-Match} header of a request.
+ *
+ * <p>The cache is bounded by the total number of bytes held, evicting the
+ * least recently used resources first. Resources larger than the
+ * {@link #setMaxResourceSize maximum resource size} are not cached.
+ *
+ * <p>This resolver takes the place of both {@link CachingResourceResolver} and
+ * {@link EncodedResourceResolver} and must be the first in the chain. Like the
+ * {@code CachingResourceResolver}, it does not check resources for changes,
+ * and is therefore meant for static resources that do not change while the
+ * application is running.
+ *
+ * @since 6.1
+ */
+public class ContentCachingResourceResolver extends AbstractResourceResolver {
+
+	/**
+	 * The default maximum number of bytes held by the cache: 10 MB.
+	 */
+	public static final long DEFAULT_MAX_CACHE_SIZE = 10 * 1024 * 1024;
+
+	/**
+	 * The default maximum size of a resource to cache: 1 MB.
+	 */
+	public static final long DEFAULT_MAX_RESOURCE_SIZE = 1024 * 1024;
+
+
+	private final List<String> contentCodings = new ArrayList<>(EncodedResourceResolver.DEFAULT_CODINGS);
+
+	private final Map<String, String> extensions = new LinkedHashMap<>();
+
+	private long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+
+	private long maxResourceSize = DEFAULT_MAX_RESOURCE_SIZE;
+
+	private final Map<String, CachedContent> cache = new LinkedHashMap<>(64, 0.75f, true);
+
+	// Guarded by the cache
+	private long cacheSize;
+
+
+	public ContentCachingResourceResolver() {
+		this.extensions.put("gzip", ".gz");
+		this.extensions.put("br", ".br");
+	}
+
+
+	/**
+	 * Configure the supported content codings in order of preference. Among the
+	 * codings that have an encoded variant, the one with the highest quality value
+	 * in the {@literal "Accept-Encoding"} header for a given request is used, and
+	 * the order of preference decides between codings of the same quality.
+	 * <p>Precompressed files are looked up for "gzip" and "br", and "gzip"
+	 * variants are compressed on demand otherwise.
+	 * <p>By default this property is set to {@literal ["br", "gzip"]}.
+	 * @param codings one or more supported content codings
+	 */
+	public void setContentCodings(List<String> codings) {
+		Assert.notEmpty(codings, "At least one content coding expected");
+		this.contentCodings.clear();
+		this.contentCodings.addAll(codings);
+	}
+
+	/**
+	 * Return a read-only list with the supported content codings.
+	 */
+	public List<String> getContentCodings() {
+		return Collections.unmodifiableList(this.contentCodings);
+	}
+
+	/**
+	 * Set the maximum number of bytes to hold in the cache, including
+	 * encoded variants.
+	 * <p>By default this is set to {@link #DEFAULT_MAX_CACHE_SIZE}.
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		Assert.isTrue(maxCacheSize >= 0, "Max cache size must not be negative");
+		synchronized (this.cache) {
+			this.maxCacheSize = maxCacheSize;
+			evictContent();
+		}
+	}
+
+	/**
+	 * Return the maximum number of bytes to hold in the cache.
+	 */
+	public long getMaxCacheSize() {
+		return this.maxCacheSize;
+	}
+
+	/**
+	 * Set the maximum size of a resource to cache. Larger resources are
+	 * returned as resolved by the rest of the chain.
+	 * <p>By default this is set to {@link #DEFAULT_MAX_RESOURCE_SIZE}.
+	 */
+	public void setMaxResourceSize(long maxResourceSize) {
+		Assert.isTrue(maxResourceSize >= 0, "Max resource size must not be negative");
+		this.maxResourceSize = maxResourceSize;
+	}
+
+	/**
+	 * Return the maximum size of a resource to cache.
+	 */
+	public long getMaxResourceSize() {
+		return this.maxResourceSize;
+	}
+
+	/**
+	 * Return the number of bytes currently held in the cache.
+	 */
+	public long getCacheSize() {
+		synchronized (this.cache) {
+			return this.cacheSize;
+		}
+	}
+
+
+	@Override
+	protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		CachedContent content;
+		synchronized (this.cache) {
+			content = this.cache.get(requestPath);
+		}
+		if (content == null) {
+			Resource resource = chain.resolveResource(request, requestPath, locations);
+			if (resource == null) {
+				return null;
+			}
+			content = loadContent(resource);
+			if (content == null) {
+				return resource;
+			}
+			putContent(requestPath, content);
+		}
+		return content.getResource(request != null ? request.getHeader(HttpHeaders.ACCEPT_ENCODING) : null);
+	}
+
+	@Nullable
+	private CachedContent loadContent(Resource resource) {
+		try {
+			if (resource.contentLength() > this.maxResourceSize) {
+				return null;
+			}
+			byte[] content = resource.getContentAsByteArray();
+			Map<String, byte[]> encodedContent = new LinkedHashMap<>(this.contentCodings.size());
+			for (String coding : this.contentCodings) {
+				byte[] encoded = loadEncodedContent(resource, coding, content);
+				if (encoded != null) {
+					encodedContent.put(coding, encoded);
+				}
+			}
+			return new CachedContent(resource, content, encodedContent);
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to cache content of " + resource, ex);
+			}
+			return null;
+		}
+	}
+
+	@Nullable
+	private byte[] loadEncodedContent(Resource resource, String coding, byte[] content) throws IOException {
+		String extension = this.extensions.get(coding);
+		if (extension != null) {
+			try {
+				Resource encoded = resource.createRelative(resource.getFilename() + extension);
+				if (encoded.exists()) {
+					return encoded.getContentAsByteArray();
+				}
+			}
+			catch (IOException ex) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("No " + coding + " resource for [" + resource.getFilename() + "]", ex);
+				}
+			}
+		}
+		if ("gzip".equals(coding)) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2 + 32);
+			try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+				gzip.write(content);
+			}
+			return (out.size() < content.length ? out.toByteArray() : null);
+		}
+		return null;
+	}
+
+	private void putContent(String requestPath, CachedContent content) {
+		synchronized (this.cache) {
+			CachedContent previous = this.cache.put(requestPath, content);
+			if (previous != null) {
+				this.cacheSize -= previous.size;
+			}
+			this.cacheSize += content.size;
+			evictContent();
+		}
+	}
+
+	private void evictContent() {
+		Iterator<CachedContent> iterator = this.cache.values().iterator();
+		while (this.cacheSize > this.maxCacheSize && iterator.hasNext()) {
+			this.cacheSize -= iterator.next().size;
+			iterator.remove();
+		}
+	}
+
+	@Override
+	protected String resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+	/**
+	 * Parse the codings of an {@literal "Accept-Encoding"} header along
+	 * with their quality values, which default to 1.
+	 */
+	private static Map<String, Float> parseAcceptEncoding(String acceptEncoding) {
+		Map<String, Float> accepted = new LinkedHashMap<>();
+		for (String element : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+			String[] parts = StringUtils.tokenizeToStringArray(element, ";");
+			if (parts.length == 0) {
+				continue;
+			}
+			float quality = 1;
+			for (int i = 1; i < parts.length; i++) {
+				String parameter = parts[i];
+				if (parameter.length() > 2 && (parameter.startsWith("q=") || parameter.startsWith("Q="))) {
+					try {
+						quality = Float.parseFloat(parameter.substring(2).trim());
+					}
+					catch (NumberFormatException ex) {
+						quality = 0;
+					}
+				}
+			}
+			accepted.put(parts[0].toLowerCase(Locale.ROOT), quality);
+		}
+		return accepted;
+	}
+
+
+	/**
+	 * The cached content of a resource, with a pre-built resource per variant.
+	 */
+	private final class CachedContent {
+
+		private final CachedResource resource;
+
+		private final Map<String, CachedResource> encodedResources;
+
+		private final long size;
+
+		CachedContent(Resource resource, byte[] content, Map<String, byte[]> encodedContent) {
+			String hash = DigestUtils.md5DigestAsHex(content);
+			long lastModified;
+			try {
+				lastModified = resource.lastModified();
+			}
+			catch (IOException ex) {
+				lastModified = -1;
+			}
+			HttpHeaders headers = new HttpHeaders();
+			if (resource instanceof HttpResource httpResource) {
+				headers.addAll(httpResource.getResponseHeaders());
+			}
+			if (!encodedContent.isEmpty()) {
+				headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			}
+			boolean etag = (headers.getETag() == null);
+			if (etag) {
+				headers.setETag("\"" + hash + "\"");
+			}
+			long size = content.length;
+			this.resource = new CachedResource(resource, content, lastModified, headers);
+			this.encodedResources = new LinkedHashMap<>(encodedContent.size());
+			for (Map.Entry<String, byte[]> entry : encodedContent.entrySet()) {
+				HttpHeaders encodedHeaders = new HttpHeaders();
+				encodedHeaders.addAll(headers);
+				encodedHeaders.set(HttpHeaders.CONTENT_ENCODING, entry.getKey());
+				if (etag) {
+					encodedHeaders.setETag("\"" + hash + "-" + entry.getKey() + "\"");
+				}
+				this.encodedResources.put(entry.getKey(),
+						new CachedResource(resource, entry.getValue(), lastModified, encodedHeaders));
+				size += entry.getValue().length;
+			}
+			this.size = size;
+		}
+
+		Resource getResource(@Nullable String acceptEncoding) {
+			if (acceptEncoding == null || this.encodedResources.isEmpty()) {
+				return this.resource;
+			}
+			Map<String, Float> accepted = parseAcceptEncoding(acceptEncoding);
+			float wildcard = accepted.getOrDefault("*", 0f);
+			Resource result = this.resource;
+			float bestQuality = 0;
+			for (String coding : contentCodings) {
+				CachedResource encoded = this.encodedResources.get(coding);
+				if (encoded != null) {
+					float quality = accepted.getOrDefault(coding, wildcard);
+					if (quality > bestQuality) {
+						result = encoded;
+						bestQuality = quality;
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+
+	/**
+	 * An in-memory {@link HttpResource} for a variant of the cached content.
+	 */
+	private static final class CachedResource extends ByteArrayResource implements HttpResource {
+
+		private final Resource original;
+
+		@Nullable
+		private final String filename;
+
+		private final long lastModified;
+
+		private final HttpHeaders headers;
+
+		CachedResource(Resource original, byte[] content, long lastModified, HttpHeaders headers) {
+			super(content, original.getDescription());
+			this.original = original;
+			this.filename = original.getFilename();
+			this.lastModified = lastModified;
+			this.headers = headers;
+		}
+
+		@Override
+		public URL getURL() throws IOException {
+			return this.original.getURL();
+		}
+
+		@Override
+		public URI getURI() throws IOException {
+			return this.original.getURI();
+		}
+
+		@Override
+		public long lastModified() {
+			return this.lastModified;
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.filename;
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers = new HttpHeaders();
+			headers.addAll(this.headers);
+			return headers;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2023 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,12 @@
 
 package org.springframework.web.servlet.resource;
 
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.net.URLDecoder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -27,6 +31,7 @@ import java.util.Locale;
 import java.util.Map;
 
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.commons.logging.Log;
@@ -37,6 +42,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -62,7 +68,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.support.WebContentGenerator;
+import org.springframework.web.util.ContentCachingResponseWrapper;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.WebUtils;
 
 /**
  * {@code HttpRequestHandler} that serves static resources in an optimized way
@@ -88,6 +96,11 @@ import org.springframework.web.util.UrlPathHelper;
  * (if present) so that a {@code 304} status code will be returned as appropriate,
  * avoiding unnecessary overhead for resources that are already cached by the client.
  *
+ * <p>File system resources may optionally be {@linkplain #setUseZeroCopyTransfer
+ * transferred without copying} their content through the heap, either through
+ * the Servlet container's "sendfile" support or through a
+ * {@link FileChannel#transferTo file channel transfer}.
+ *
  * @author Keith Donald
  * @author Jeremy Grelle
  * @author Juergen Hoeller
@@ -103,6 +116,14 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private static final String URL_RESOURCE_CHARSET_PREFIX = "[charset=";
 
+	private static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
 
 	private final List<String> locationValues = new ArrayList<>(4);
 
@@ -143,6 +164,8 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private boolean optimizeLocations = false;
 
+	private boolean useZeroCopyTransfer = false;
+
 	@Nullable
 	private StringValueResolver embeddedValueResolver;
 
@@ -407,6 +430,37 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		return this.optimizeLocations;
 	}
 
+	/**
+	 * Set whether to transfer the content of file system resources, including
+	 * single byte ranges, without copying it through the heap.
+	 * <p>If the Servlet container indicates "sendfile" support through the
+	 * {@code "org.apache.tomcat.sendfile.support"} request attribute, as Tomcat
+	 * does, the file is handed over to the container by means of the
+	 * corresponding request attributes. Otherwise, if the response output
+	 * stream is a {@link WritableByteChannel}, the content is written with
+	 * {@link FileChannel#transferTo}. If neither is possible, or for resources
+	 * that are not files, the content is written through the configured
+	 * {@linkplain #setResourceHttpMessageConverter message converters}.
+	 * <p>The default is {@code false}. Note that with "sendfile", the content
+	 * is not written through the response object at all, bypassing any
+	 * response wrappers that process the body; the transfer is skipped for a
+	 * {@link ContentCachingResponseWrapper} but other such wrappers need to be
+	 * taken into account when switching this flag to {@code true}.
+	 * @since 6.1
+	 */
+	public void setUseZeroCopyTransfer(boolean useZeroCopyTransfer) {
+		this.useZeroCopyTransfer = useZeroCopyTransfer;
+	}
+
+	/**
+	 * Return whether to transfer the content of file system resources without
+	 * copying it through the heap.
+	 * @since 6.1
+	 */
+	public boolean isUseZeroCopyTransfer() {
+		return this.useZeroCopyTransfer;
+	}
+
 	@Override
 	public void setEmbeddedValueResolver(StringValueResolver resolver) {
 		this.embeddedValueResolver = resolver;
@@ -546,6 +600,9 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 	 * {@code Last-Modified} value, or the header is not present, the content resource
 	 * of the resource will be written to the response with caching headers
 	 * set to expire one year in the future.
+	 * <p>If the resource is an {@link HttpResource} with an {@code ETag} among its
+	 * response headers, that {@code ETag} is checked against the
+	 * {@code If-None-Match} header of the request as well.
 	 */
 	@Override
 	public void handleRequest(HttpServletRequest request, HttpServletResponse response)
@@ -568,7 +625,9 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		checkRequest(request);
 
 		// Header phase
-		if (isUseLastModified() && new ServletWebRequest(request, response).checkNotModified(resource.lastModified())) {
+		String eTag = getETag(resource);
+		if ((eTag != null || isUseLastModified()) && new ServletWebRequest(request, response)
+				.checkNotModified(eTag, isUseLastModified() ? resource.lastModified() : -1)) {
 			logger.trace("Resource not modified");
 			return;
 		}
@@ -581,6 +640,11 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		setHeaders(response, resource, mediaType);
 
 		// Content phase
+		if (isUseZeroCopyTransfer() && HttpMethod.GET.matches(request.getMethod()) &&
+				transferFile(request, response, resource)) {
+			return;
+		}
+
 		ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
 		if (request.getHeader(HttpHeaders.RANGE) == null) {
 			Assert.state(this.resourceHttpMessageConverter != null, "Not initialized");
@@ -609,6 +673,76 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		}
 	}
 
+	/**
+	 * Transfer the content of a file system resource, or a single byte range
+	 * of it, without copying it through the heap.
+	 * @return {@code true} if the content was transferred, or {@code false}
+	 * if it needs to be written through the message converters instead
+	 */
+	private boolean transferFile(HttpServletRequest request, HttpServletResponse response, Resource resource)
+			throws IOException {
+
+		if (!resource.isFile() || WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) != null) {
+			return false;
+		}
+
+		long length = resource.contentLength();
+		long position = 0;
+		long count = length;
+		String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+		if (rangeHeader != null) {
+			List<ResourceRegion> regions;
+			try {
+				regions = HttpRange.toResourceRegions(HttpRange.parseRanges(rangeHeader), resource);
+			}
+			catch (IllegalArgumentException ex) {
+				// Let the message converters handle an invalid range
+				return false;
+			}
+			if (regions.size() != 1) {
+				// Multiple ranges require a multipart response
+				return false;
+			}
+			position = regions.get(0).getPosition();
+			count = Math.min(regions.get(0).getCount(), length - position);
+		}
+
+		File file = resource.getFile();
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE))) {
+			setContentHeaders(response, rangeHeader != null, position, count, length);
+			request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+			request.setAttribute(SENDFILE_START_ATTRIBUTE, position);
+			request.setAttribute(SENDFILE_END_ATTRIBUTE, position + count);
+			return true;
+		}
+
+		ServletOutputStream outputStream = response.getOutputStream();
+		if (!(outputStream instanceof WritableByteChannel channel)) {
+			return false;
+		}
+		setContentHeaders(response, rangeHeader != null, position, count, length);
+		try (FileChannel fileChannel = FileChannel.open(file.toPath())) {
+			while (count > 0) {
+				long transferred = fileChannel.transferTo(position, count, channel);
+				if (transferred <= 0) {
+					throw new EOFException("Unexpected end of file " + file);
+				}
+				position += transferred;
+				count -= transferred;
+			}
+		}
+		return true;
+	}
+
+	private void setContentHeaders(HttpServletResponse response, boolean range, long position, long count, long length) {
+		if (range) {
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader(HttpHeaders.CONTENT_RANGE,
+					"bytes " + position + '-' + (position + count - 1) + '/' + length);
+		}
+		response.setContentLengthLong(count);
+	}
+
 	@Nullable
 	protected Resource getResource(HttpServletRequest request) throws IOException {
 		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
@@ -761,6 +895,15 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		return false;
 	}
 
+	/**
+	 * Return the {@code ETag} of the given resource, if it is an
+	 * {@link HttpResource} that provides one in its response headers.
+	 */
+	@Nullable
+	private static String getETag(Resource resource) {
+		return (resource instanceof HttpResource httpResource ? httpResource.getResponseHeaders().getETag() : null);
+	}
+
 	/**
 	 * Determine the media type for the given request and the resource matched
 	 * to it. This implementation tries to determine the MediaType using one of
@@ -85,7 +85,10 @@ class RequestMappingInfoHandlerMappingTests {
 		TestRequestMappingInfoHandlerMapping mapping2 = new TestRequestMappingInfoHandlerMapping();
 		mapping2.setUrlPathHelper(pathHelper);
 
-		return Stream.of(mapping1, mapping2).peek(mapping -> {
+		TestRequestMappingInfoHandlerMapping mapping3 = new TestRequestMappingInfoHandlerMapping();
+		mapping3.setUsePathPatternIndex(true);
+
+		return Stream.of(mapping1, mapping2, mapping3).peek(mapping -> {
 			mapping.setApplicationContext(new StaticWebApplicationContext());
 			mapping.registerHandler(controller);
 			mapping.afterPropertiesSet();
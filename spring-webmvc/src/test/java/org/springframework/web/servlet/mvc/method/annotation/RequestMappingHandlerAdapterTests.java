@@ -271,6 +271,70 @@ public class RequestMappingHandlerAdapterTests {
 		assertThat(this.response.getContentAsString()).isEqualTo("{\"status\":400,\"message\":\"body\"}");
 	}
 
+	@Test
+	public void cacheInvocationPlansWithModelAttributes() throws Exception {
+		this.webAppContext.registerSingleton("maa", ModelAttributeAdvice.class);
+		this.webAppContext.refresh();
+
+		HandlerMethod handlerMethod = handlerMethod(new SimpleController(), "handle");
+		this.handlerAdapter.setCacheInvocationPlans(true);
+		this.handlerAdapter.afterPropertiesSet();
+
+		for (int i = 0; i < 2; i++) {
+			ModelAndView mav = this.handlerAdapter.handle(this.request, new MockHttpServletResponse(), handlerMethod);
+			assertThat(mav.getModel().get("attr1")).isEqualTo("lAttr1");
+			assertThat(mav.getModel().get("attr2")).isEqualTo("gAttr2");
+		}
+	}
+
+	@Test
+	public void cacheInvocationPlansWithoutModelAttributes() throws Exception {
+		List<HttpMessageConverter<?>> converters = new ArrayList<>();
+		converters.add(new MappingJackson2HttpMessageConverter());
+		this.handlerAdapter.setMessageConverters(converters);
+		this.handlerAdapter.setCacheInvocationPlans(true);
+		this.handlerAdapter.afterPropertiesSet();
+
+		HandlerMethod handlerMethod = handlerMethod(new ResponseEntityController(), "handle");
+		for (int i = 0; i < 2; i++) {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			ModelAndView mav = this.handlerAdapter.handle(this.request, response, handlerMethod);
+			assertThat(mav).isNull();
+			assertThat(response.getContentAsString()).isEqualTo("{\"foo\":\"bar\"}");
+		}
+
+		this.request.setAttribute(DispatcherServlet.OUTPUT_FLASH_MAP_ATTRIBUTE, new FlashMap());
+		handlerMethod = handlerMethod(new RedirectAttributeController(), "handle", Model.class);
+		ModelAndView mav = this.handlerAdapter.handle(this.request, this.response, handlerMethod);
+		assertThat(mav.getViewName()).isEqualTo("redirect:/path");
+	}
+
+	@Test
+	public void cacheInvocationPlansWithSessionAttributes() throws Exception {
+		SessionAttributeController handler = new SessionAttributeController();
+		this.handlerAdapter.setCacheSeconds(100);
+		this.handlerAdapter.setCacheInvocationPlans(true);
+		this.handlerAdapter.afterPropertiesSet();
+
+		this.handlerAdapter.handle(this.request, this.response, handlerMethod(handler, "handle"));
+		assertThat(this.response.getHeader("Cache-Control")).isEqualTo("no-store");
+	}
+
+	@Test
+	public void cacheInvocationPlansWithPrototypeControllerAdvice() throws Exception {
+		this.webAppContext.registerPrototype("maa", ModelAttributeAdvice.class);
+		this.webAppContext.refresh();
+
+		HandlerMethod handlerMethod = handlerMethod(new SimpleController(), "handle");
+		this.handlerAdapter.setCacheInvocationPlans(true);
+		this.handlerAdapter.afterPropertiesSet();
+		Map<String, Object> model1 = this.handlerAdapter.handle(this.request, this.response, handlerMethod).getModel();
+		Map<String, Object> model2 = this.handlerAdapter.handle(this.request, this.response, handlerMethod).getModel();
+
+		// Advice instances are retained by the cached plan
+		assertThat(model1.get("instance")).isSameAs(model2.get("instance"));
+	}
+
 	private HandlerMethod handlerMethod(Object handler, String methodName, Class<?>... paramTypes) throws Exception {
 		Method method = handler.getClass().getDeclaredMethod(methodName, paramTypes);
 		return new InvocableHandlerMethod(handler, method);
@@ -307,6 +371,15 @@ public class RequestMappingHandlerAdapterTests {
 	}
 
 
+	@SuppressWarnings("unused")
+	private static class ResponseEntityController {
+
+		public ResponseEntity<Map<String, String>> handle() {
+			return new ResponseEntity<>(Collections.singletonMap("foo", "bar"), HttpStatus.OK);
+		}
+	}
+
+
 	@SessionAttributes("attr1")
 	private static class SessionAttributeController {
 
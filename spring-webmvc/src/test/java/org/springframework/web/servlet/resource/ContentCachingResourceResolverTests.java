@@ -0,0 +1,183 @@
+/*
+ * Copyright 2002-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.GzipSupport.GzippedFiles;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ContentCachingResourceResolver}.
+ */
+@ExtendWith(GzipSupport.class)
+class ContentCachingResourceResolverTests {
+
+	private final ContentCachingResourceResolver resolver = new ContentCachingResourceResolver();
+
+	private final CountingResourceResolver countingResolver = new CountingResourceResolver();
+
+	private final List<Resource> locations = List.of(new ClassPathResource("test/", getClass()));
+
+	private ResourceResolverChain chain;
+
+
+	@BeforeEach
+	void setup() {
+		this.chain = new DefaultResourceResolverChain(List.of(this.resolver, this.countingResolver));
+	}
+
+
+	@Test
+	void resolveResourceFromCache() throws IOException {
+		Resource original = new ClassPathResource("test/main.css", getClass());
+		Resource first = this.chain.resolveResource(new MockHttpServletRequest(), "main.css", this.locations);
+		Resource second = this.chain.resolveResource(new MockHttpServletRequest(), "main.css", this.locations);
+
+		assertThat(this.countingResolver.count).isEqualTo(1);
+		assertThat(second).isSameAs(first);
+		assertThat(first.getContentAsByteArray()).isEqualTo(original.getContentAsByteArray());
+		assertThat(first.getFilename()).isEqualTo("main.css");
+		assertThat(first.lastModified()).isEqualTo(original.lastModified());
+
+		HttpHeaders headers = ((HttpResource) first).getResponseHeaders();
+		assertThat(headers.getETag()).isEqualTo("\"42099e1d58651aa33d81c7a456629c4c\"");
+		assertThat(headers.getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+	}
+
+	@Test
+	void resolveCompressedResource() throws IOException {
+		Resource original = new ClassPathResource("test/main.css", getClass());
+		Resource resource = this.chain.resolveResource(gzipRequest(), "main.css", this.locations);
+
+		assertThat(resource.contentLength()).isLessThan(original.contentLength());
+		try (GZIPInputStream in = new GZIPInputStream(resource.getInputStream())) {
+			assertThat(in.readAllBytes()).isEqualTo(original.getContentAsByteArray());
+		}
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getETag()).isEqualTo("\"42099e1d58651aa33d81c7a456629c4c-gzip\"");
+	}
+
+	@Test
+	void resolveResourceWithAcceptEncodingQualityValues() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate");
+		Resource resource = this.chain.resolveResource(request, "main.css", this.locations);
+		assertThat(((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+
+		request = new MockHttpServletRequest();
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "x-gzip");
+		resource = this.chain.resolveResource(request, "main.css", this.locations);
+		assertThat(((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+
+		request = new MockHttpServletRequest();
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "identity;q=0.5, *;q=0.8");
+		resource = this.chain.resolveResource(request, "main.css", this.locations);
+		assertThat(((HttpResource) resource).getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+				.isEqualTo("gzip");
+	}
+
+	@Test
+	void resolvePrecompressedResource(GzippedFiles gzippedFiles) throws IOException {
+		gzippedFiles.create("foo.css");
+		Resource precompressed = new ClassPathResource("test/foo.css.gz", getClass());
+		Resource resource = this.chain.resolveResource(gzipRequest(), "foo.css", this.locations);
+
+		assertThat(resource.getContentAsByteArray()).isEqualTo(precompressed.getContentAsByteArray());
+		assertThat(((HttpResource) resource).getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+				.isEqualTo("gzip");
+	}
+
+	@Test
+	void resolveResourceWithoutCompressibleContent() {
+		Resource resource = this.chain.resolveResource(gzipRequest(), "foo.css", this.locations);
+
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(headers.containsKey(HttpHeaders.VARY)).isFalse();
+	}
+
+	@Test
+	void resolveResourceNoMatch() {
+		assertThat(this.chain.resolveResource(null, "invalid.css", this.locations)).isNull();
+		assertThat(this.resolver.getCacheSize()).isZero();
+	}
+
+	@Test
+	void evictLeastRecentlyUsed() {
+		this.resolver.setMaxCacheSize(40);
+		this.chain.resolveResource(null, "foo.css", this.locations);
+		this.chain.resolveResource(null, "bar.css", this.locations);
+		this.chain.resolveResource(null, "foo.css", this.locations);
+		assertThat(this.resolver.getCacheSize()).isEqualTo(17 + 19);
+
+		this.chain.resolveResource(null, "foo.txt", this.locations);
+		assertThat(this.resolver.getCacheSize()).isEqualTo(17 + 10);
+
+		this.countingResolver.count = 0;
+		this.chain.resolveResource(null, "foo.css", this.locations);
+		assertThat(this.countingResolver.count).isZero();
+		this.chain.resolveResource(null, "bar.css", this.locations);
+		assertThat(this.countingResolver.count).isEqualTo(1);
+	}
+
+	@Test
+	void maxResourceSize() {
+		this.resolver.setMaxResourceSize(100);
+		Resource resource = this.chain.resolveResource(null, "main.css", this.locations);
+
+		assertThat(resource).isEqualTo(new ClassPathResource("test/main.css", getClass()));
+		assertThat(this.resolver.getCacheSize()).isZero();
+	}
+
+
+	private static MockHttpServletRequest gzipRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+		return request;
+	}
+
+
+	private static class CountingResourceResolver extends PathResourceResolver {
+
+		private int count;
+
+		@Override
+		protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+				List<? extends Resource> locations, ResourceResolverChain chain) {
+
+			this.count++;
+			return super.resolveResourceInternal(request, requestPath, locations, chain);
+		}
+	}
+
+}
@@ -16,9 +16,14 @@
 
 package org.springframework.web.servlet.resource;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -507,6 +512,23 @@ class ResourceHttpRequestHandlerTests {
 		assertThat(this.response.getContentAsString()).isEqualTo("h1 { color:red; }");
 	}
 
+	@Test
+	void notModifiedWithETagOfCachedResource() throws Exception {
+		this.handler.setResourceResolvers(List.of(new ContentCachingResourceResolver(), new PathResourceResolver()));
+		this.handler.setUseLastModified(false);
+		this.handler.afterPropertiesSet();
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.handler.handleRequest(this.request, this.response);
+		String eTag = this.response.getHeader("ETag");
+		assertThat(eTag).isNotNull();
+
+		this.request.addHeader("If-None-Match", eTag);
+		this.response = new MockHttpServletResponse();
+		this.handler.handleRequest(this.request, this.response);
+		assertThat(this.response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+		assertThat(this.response.getContentAsByteArray()).isEmpty();
+	}
+
 	@Test
 	void directory() throws Exception {
 		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "js/");
@@ -718,6 +740,81 @@ class ResourceHttpRequestHandlerTests {
 		assertThat(this.response.getHeaderValues("Accept-Ranges")).containsExactly("bytes");
 	}
 
+	@Test
+	void zeroCopyTransferWithSendfile() throws Exception {
+		this.handler.setUseZeroCopyTransfer(true);
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(200);
+		assertThat(this.response.getContentType()).isEqualTo("text/css");
+		assertThat(this.response.getContentLength()).isEqualTo(17);
+		assertThat(this.response.getContentAsByteArray()).isEmpty();
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.filename"))
+				.isEqualTo(new ClassPathResource("test/foo.css", getClass()).getFile().getAbsolutePath());
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(0L);
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(17L);
+	}
+
+	@Test
+	void zeroCopyTransferWithSendfileByteRange() throws Exception {
+		this.handler.setUseZeroCopyTransfer(true);
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.addHeader("Range", "bytes=4-5");
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.txt");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(206);
+		assertThat(this.response.getContentType()).isEqualTo("text/plain");
+		assertThat(this.response.getContentLength()).isEqualTo(2);
+		assertThat(this.response.getHeader("Content-Range")).isEqualTo("bytes 4-5/10");
+		assertThat(this.response.getContentAsByteArray()).isEmpty();
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(4L);
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(6L);
+	}
+
+	@Test
+	void zeroCopyTransferWithWritableByteChannel() throws Exception {
+		ChannelServletOutputStream outputStream = new ChannelServletOutputStream();
+		MockHttpServletResponse response = new MockHttpServletResponse() {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				return outputStream;
+			}
+		};
+
+		this.handler.setUseZeroCopyTransfer(true);
+		this.request.addHeader("Range", "bytes=-5");
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.txt");
+		this.handler.handleRequest(this.request, response);
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getContentLength()).isEqualTo(5);
+		assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 5-9/10");
+		assertThat(outputStream.content.toString()).isEqualTo("text.");
+		assertThat(outputStream.channelWrites).isPositive();
+	}
+
+	@Test
+	void zeroCopyTransferFallback() throws Exception {
+		this.handler.setUseZeroCopyTransfer(true);
+		this.request.addHeader("Range", "bytes=0-1, 4-5");
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.txt");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(206);
+		assertThat(this.response.getContentType()).startsWith("multipart/byteranges; boundary=");
+
+		this.response = new MockHttpServletResponse();
+		this.request = new MockHttpServletRequest("GET", "");
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.txt");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(200);
+		assertThat(this.response.getContentAsString()).isEqualTo("Some text.");
+	}
+
 	@Test  // SPR-14005
 	void doOverwriteExistingCacheControlHeaders() throws Exception {
 		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
@@ -765,6 +862,43 @@ class ResourceHttpRequestHandlerTests {
 	}
 
 
+	private static class ChannelServletOutputStream extends ServletOutputStream implements WritableByteChannel {
+
+		private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+		private int channelWrites;
+
+		@Override
+		public int write(ByteBuffer src) {
+			this.channelWrites++;
+			int count = src.remaining();
+			byte[] bytes = new byte[count];
+			src.get(bytes);
+			this.content.writeBytes(bytes);
+			return count;
+		}
+
+		@Override
+		public void write(int b) {
+			this.content.write(b);
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+	}
+
+
 	private static class TestServletContext extends MockServletContext {
 
 		@Override